@@ -1,3 +1,4 @@
+import Model.EquationCodec;
 import Model.NumberleModel;
 
 import java.util.ArrayList;
@@ -33,10 +34,10 @@ public class CLIApp {
                         break;
                     game.processInput(input);
                     classList = game.getClassList();
-                    System.out.println("Guessed. Not in the target:" + classList[0].toString());
-                    System.out.println("Guessed. Hit:" + classList[1].toString());
-                    System.out.println("Guessed. In the target but missed:" + classList[2].toString());
-                    System.out.println("Unguessed:" + classList[3].toString());
+                    System.out.println("Guessed. Not in the target:" + EquationCodec.toDisplay(classList[0].toString()));
+                    System.out.println("Guessed. Hit:" + EquationCodec.toDisplay(classList[1].toString()));
+                    System.out.println("Guessed. In the target but missed:" + EquationCodec.toDisplay(classList[2].toString()));
+                    System.out.println("Unguessed:" + EquationCodec.toDisplay(classList[3].toString()));
                 }
                 if (!game.isGameWon())
                     System.out.println("You LOSE.");
@@ -0,0 +1,15 @@
+import Server.ClusterCoordinator;
+
+import java.io.IOException;
+
+public class ClusterApp {
+    public static void main(String[] args) throws IOException {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(2, Runtime.getRuntime().availableProcessors());
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : ClusterCoordinator.DEFAULT_PORT;
+
+        ClusterCoordinator coordinator = ClusterCoordinator.launchLocal(workers);
+        coordinator.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(coordinator::stop));
+        System.out.println("Numberle cluster of " + workers + " workers listening on http://localhost:" + coordinator.getPort() + "/games");
+    }
+}
@@ -1,6 +1,11 @@
 package Controller;
 
+import Model.Difficulty;
+import Model.EquationCodec;
+import Model.GameSnapshot;
+import Model.StreakSession;
 import Model.Interface.INumberleModel;
+import Model.Solver.HintEngine;
 import View.NumberleView;
 
 import java.util.ArrayList;
@@ -15,16 +20,30 @@ import java.util.ArrayList;
 public class NumberleController {
     private final INumberleModel model;
     private NumberleView view;
+    private HintEngine hintEngine;
+    private StreakSession streakSession;
 
     /**
      * Constructor for Controller.NumberleController.
      * @param model The model of the Numberle game.
      * Precondition: model should not be null.
-     * Postcondition: this.model is initialized.
+     * Postcondition: this.model is initialized; hints use the process-wide shared engine.
      */
     public NumberleController(INumberleModel model) {
+        this(model, null);
+    }
+
+    /**
+     * Constructor for Controller.NumberleController with a specific hint engine.
+     * @param model The model of the Numberle game.
+     * @param hintEngine The engine answering hint requests, or null for the shared one.
+     * Precondition: model should not be null.
+     * Postcondition: this.model and this.hintEngine are initialized.
+     */
+    public NumberleController(INumberleModel model, HintEngine hintEngine) {
         assert model != null : "Model cannot be null";
         this.model = model;
+        this.hintEngine = hintEngine;
     }
 
     /**
@@ -84,11 +103,65 @@ public class NumberleController {
     }
 
     /**
-     * Starts a new game.
+     * Starts a new game, on the prepared target when a streak session is set.
      * Postcondition: The game state is reset.
      */
     public void startNewGame() {
-        model.startNewGame();
+        if (streakSession != null)
+            streakSession.nextGame();
+        else
+            model.startNewGame();
+    }
+
+    /**
+     * Undoes the last guess. Only practice games can be undone; streak games never, so that each
+     * game counts once.
+     * @return true if a guess was undone.
+     * Postcondition: The model is in the state before the last guess.
+     */
+    public boolean undo() {
+        return streakSession == null && model.undo();
+    }
+
+    /**
+     * Redoes the guess most recently undone.
+     * @return true if a guess was redone.
+     */
+    public boolean redo() {
+        return streakSession == null && model.redo();
+    }
+
+    /**
+     * Checks if the last guess can be undone.
+     * @return true if undo() would change the game.
+     */
+    public boolean canUndo() {
+        return streakSession == null && model.canUndo();
+    }
+
+    /**
+     * Checks if an undone guess can be redone.
+     * @return true if redo() would change the game.
+     */
+    public boolean canRedo() {
+        return streakSession == null && model.canRedo();
+    }
+
+    /**
+     * Sets the streak session games are played in.
+     * @param streakSession The session over this controller's model, or null to leave streak mode.
+     * Postcondition: New games start on the session's prepared targets.
+     */
+    public void setStreakSession(StreakSession streakSession) {
+        this.streakSession = streakSession;
+    }
+
+    /**
+     * Gets the streak session games are played in.
+     * @return The session, or null outside streak mode.
+     */
+    public StreakSession getStreakSession() {
+        return streakSession;
     }
 
     /**
@@ -145,6 +218,84 @@ public class NumberleController {
         model.setRandomEquality(randomEquality);
     }
 
+    /**
+     * Gets the value of the "Hard Mode" setting.
+     * @return true if guesses must reuse the revealed hints, false otherwise.
+     */
+    public boolean getHardMode() {
+        return model.getHardMode();
+    }
+
+    /**
+     * Sets the value of the "Hard Mode" setting.
+     * @param hardMode true to force guesses to reuse the revealed hints, false otherwise.
+     * Precondition: None.
+     * Postcondition: The model's hardMode state is set.
+     */
+    public void setHardMode(boolean hardMode) {
+        model.setHardMode(hardMode);
+    }
+
+    /**
+     * Gets the value of the "Practice Mode" setting.
+     * @return true if guesses can be undone and redone, false otherwise.
+     */
+    public boolean getPracticeMode() {
+        return model.getPracticeMode();
+    }
+
+    /**
+     * Sets the value of the "Practice Mode" setting.
+     * @param practiceMode true to allow undo, redo and branching, false otherwise.
+     * Precondition: None.
+     * Postcondition: The model's practiceMode state is set.
+     */
+    public void setPracticeMode(boolean practiceMode) {
+        model.setPracticeMode(practiceMode);
+    }
+
+    /**
+     * Gets the value of the "Absurdle Mode" setting.
+     * @return true if targets are chosen adversarially, false otherwise.
+     */
+    public boolean getAbsurdleMode() {
+        return model.getAbsurdleMode();
+    }
+
+    /**
+     * Sets the value of the "Absurdle Mode" setting, applied from the next game.
+     * @param absurdleMode true to choose targets adversarially, false otherwise.
+     * Precondition: None.
+     * Postcondition: The model's absurdleMode state is set.
+     */
+    public void setAbsurdleMode(boolean absurdleMode) {
+        model.setAbsurdleMode(absurdleMode);
+        // A target prepared under the old settings would be ignored, so prepare another now
+        if (streakSession != null)
+            streakSession.refresh();
+    }
+
+    /**
+     * Gets the difficulty band new targets are drawn from.
+     * @return The selected difficulty band.
+     */
+    public Difficulty getDifficulty() {
+        return model.getDifficulty();
+    }
+
+    /**
+     * Sets the difficulty band new targets are drawn from.
+     * @param difficulty The new difficulty band.
+     * Precondition: difficulty should not be null.
+     * Postcondition: The model's difficulty is set.
+     */
+    public void setDifficulty(Difficulty difficulty) {
+        model.setDifficulty(difficulty);
+        // A target prepared under the old settings would be ignored, so prepare another now
+        if (streakSession != null)
+            streakSession.refresh();
+    }
+
     /**
      * Gets the list of user guesses.
      * @return An ArrayList of Strings representing the user's guesses.
@@ -168,4 +319,40 @@ public class NumberleController {
     public ArrayList<Character>[] getClassList() {
         return model.getClassList();
     }
+
+    /**
+     * Gets the immutable state of the game published after the last change.
+     * @return The latest snapshot, safe to read from any thread.
+     */
+    public GameSnapshot getSnapshot() {
+        return model.getSnapshot();
+    }
+
+    /**
+     * Suggests the next guess from the guesses and feedback so far. Requests go through the
+     * hint engine's cache, so a history already seen by any game is answered without computing.
+     * @return The hint, or null if no equation of the corpus fits the feedback or the corpus cannot be read.
+     * Precondition: None.
+     * Postcondition: The model is not modified.
+     */
+    public HintEngine.Hint getHint() {
+        if (hintEngine == null)
+            hintEngine = HintEngine.shared();
+        if (hintEngine == null)
+            return null;
+        // The snapshot is immutable, so hints may be requested from any thread
+        GameSnapshot snapshot = model.getSnapshot();
+        int[] guesses = new int[snapshot.getGuessCount()];
+        int[] codes = new int[snapshot.getGuessCount()];
+        int count = 0;
+        for (int i = 0; i < snapshot.getGuessCount(); i++) {
+            int guess = EquationCodec.encode(snapshot.getGuess(i));
+            // Guesses that are not packable equations carry no usable feedback
+            if (guess == EquationCodec.INVALID)
+                continue;
+            guesses[count] = guess;
+            codes[count++] = snapshot.getFeedbackCode(i);
+        }
+        return hintEngine.hint(guesses, codes, count);
+    }
 }
\ No newline at end of file
@@ -14,6 +14,30 @@ public class EquationGenerator {
     private final Random random = new Random();
     private String bestEquation;
 
+    /**
+     * Creates a generator with an unpredictable seed.
+     */
+    public EquationGenerator() {
+    }
+
+    /**
+     * Creates a generator that repeats the equations of every generator created with the same seed.
+     *
+     * @param seed The seed of the random source.
+     */
+    public EquationGenerator(long seed) {
+        setSeed(seed);
+    }
+
+    /**
+     * Reseeds the random source, so that the following equations depend on the seed only.
+     *
+     * @param seed The seed of the random source.
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
     /**
      * @ensures // The postcondition ensures that a valid equation according to the game's rules is stored in bestEquation.
      *   (\exists String validEquation; isValidEquation(validEquation); bestEquation.equals(validEquation));
@@ -29,7 +53,7 @@ public class EquationGenerator {
             assert random != null : "Random object must not be null.";
 
             // Generate random numbers and an operator to form an equation.
-            if (new Random().nextInt(10) <= 1) {
+            if (random.nextInt(10) <= 1) {
                 a = random.nextInt(100); // 0-99
                 b = random.nextInt(100); // 0-99
             } else {
@@ -65,7 +89,7 @@ public class EquationGenerator {
      */
     private char randomOperator() {
         char[] operators = {'+', '-', '*', '/'};
-        char op = operators[new Random().nextInt(operators.length)];
+        char op = operators[random.nextInt(operators.length)];
         // Assert that the operator is valid.
         assert new String(operators).contains(String.valueOf(op)) : "Operator must be one of the valid operators.";
         return op;
@@ -77,7 +101,7 @@ public class EquationGenerator {
      */
     private char randomOperator2() {
         char[] operators = {'+', '-'};
-        char op = operators[new Random().nextInt(operators.length)];
+        char op = operators[random.nextInt(operators.length)];
         // Assert that the operator is valid.
         assert new String(operators).contains(String.valueOf(op)) : "Operator must be one of the valid operators.";
         return op;
@@ -150,7 +174,7 @@ public class EquationGenerator {
             return isValidModifiedEquation(equation); // Needs to be regenerated
         } else if (length == 5) {
             // Take a random 0 or 1
-            if (new Random().nextInt(2) == 0) {
+            if (random.nextInt(2) == 0) {
                 // The result is decomposed so that the formula forms an equation with a symbol b=c symbol d
                 return isValidDecomposedEquation(equation, -1, '0');
             } else {
@@ -270,7 +294,7 @@ public class EquationGenerator {
         String newEquation;
         int result = Integer.parseInt(rightSide);
         // Calculate the result of the operation.
-        if (new Random().nextInt(2) == 0) {
+        if (random.nextInt(2) == 0) {
             if (a < 0) {
                 a = random.nextInt(10);
                 operator2 = randomOperator2();
@@ -1,14 +1,44 @@
 import Controller.NumberleController;
+import Model.EquationCorpus;
 import Model.Interface.INumberleModel;
 import Model.NumberleModel;
+import Model.StreakSession;
+import Model.Solver.HintEngine;
 import View.NumberleView;
 
+import javax.swing.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
 public class GUIApp {
     public static void main(String[] args) {
+        long start = System.nanoTime();
+
+        // The corpus, the first target and the logo are prepared off the EDT, in parallel,
+        // while the skeleton frame is shown
+        boolean streak = Arrays.asList(args).contains("--streak");
+        CompletableFuture<INumberleModel> model = CompletableFuture.supplyAsync(GUIApp::loadCorpus)
+                .thenApply(GUIApp::createModel);
+        CompletableFuture<BufferedImage> logo = CompletableFuture.supplyAsync(NumberleView::loadLogo)
+                .exceptionally(e -> null); // The view decodes it again and reports the error
+        // The hint engine (and its opening book) is warmed up for the first hint request
+        CompletableFuture.runAsync(HintEngine::shared);
+
+        CompletableFuture<JFrame> skeleton = new CompletableFuture<>();
+        SwingUtilities.invokeLater(() -> {
+            skeleton.complete(NumberleView.createSkeletonFrame());
+            System.out.printf("Skeleton frame shown after %d ms.%n", (System.nanoTime() - start) / 1_000_000);
+        });
 
-        javax.swing.SwingUtilities.invokeLater(
-                () -> createAndShowGUI()
-        );
+        model.thenAcceptBoth(logo, (m, l) -> skeleton.thenAccept(frame -> SwingUtilities.invokeLater(
+                () -> createAndShowGUI(m, frame, l, start, streak))))
+                .exceptionally(e -> {
+                    e.printStackTrace();
+                    return null;
+                });
     }
 
     public static void createAndShowGUI() {
@@ -16,4 +46,31 @@ public class GUIApp {
         NumberleController controller = new NumberleController(model);
         NumberleView view = new NumberleView(model, controller);
     }
-}
\ No newline at end of file
+
+    private static void createAndShowGUI(INumberleModel model, JFrame skeleton, BufferedImage logo, long start, boolean streak) {
+        NumberleController controller = new NumberleController(model);
+        // In streak mode the next target is prepared while each game is played
+        if (streak)
+            controller.setStreakSession(new StreakSession(model));
+        // Interactive means playable, so the time is taken once the settings dialog's Start has run
+        NumberleView view = new NumberleView(model, controller, skeleton, logo,
+                pressed -> System.out.printf("Game frame interactive %d ms after Start (%d ms after launch).%n",
+                        (System.nanoTime() - pressed) / 1_000_000, (System.nanoTime() - start) / 1_000_000));
+    }
+
+    private static EquationCorpus loadCorpus() {
+        try {
+            return EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null; // The model reads the file itself and reports the error
+        }
+    }
+
+    private static INumberleModel createModel(EquationCorpus corpus) {
+        NumberleModel model = corpus == null ? new NumberleModel() : new NumberleModel(corpus);
+        // The first game, which the settings dialog keeps
+        model.startNewGame();
+        return model;
+    }
+}
@@ -0,0 +1,175 @@
+package Model;
+
+import java.util.Arrays;
+
+/**
+ * The BatchScorer class scores one packed guess against many packed targets. It is the inner loop of
+ * candidate partitioning for solvers, hints and analytics, and gives exactly the feedback codes of
+ * EquationScorer.feedbackCode.
+ *
+ * The guess is preprocessed once: its distinct symbols and, for each, a mask of the positions it
+ * occupies. Each target is then scored without a per-position loop (SIMD within a register):
+ * exact matches come from one XOR and a nibble-zero test over all seven 4-bit slots, misplaced
+ * symbols from one masked OR per distinct guess symbol found in the target's symbol set, and the
+ * resulting 2-bit-per-slot row is turned into a base-3 feedback code with two table lookups.
+ *
+ * @invariant (\forall int t; t >= 0; score(t) == EquationScorer.feedbackCode(t, guess))
+ */
+public final class BatchScorer {
+    // Bit 0 of every 4-bit slot
+    private static final int SLOT_LOW_BITS = 0x1111111;
+    // Feedback code contribution of the low four and the high three slots of a 2-bit-per-slot row
+    private static final int[] LOW_CODES = new int[0x3333 + 1];
+    private static final int[] HIGH_CODES = new int[0x333 + 1];
+
+    static {
+        for (int row = 0; row <= 0x3333; row++)
+            LOW_CODES[row] = slotsToCode(row, 4, 1);
+        for (int row = 0; row <= 0x333; row++)
+            HIGH_CODES[row] = slotsToCode(row, 3, 81);
+    }
+
+    private final int guess;
+    private final int[] distinctSymbols;
+    private final int[] symbolSlots;
+
+    /**
+     * Preprocesses a guess for batch scoring.
+     *
+     * @param guess The packed guess.
+     * @requires 0 <= guess && guess < EquationCodec.PACKED_RANGE;
+     */
+    public BatchScorer(int guess) {
+        assert guess >= 0 && guess < EquationCodec.PACKED_RANGE : "The guess must be a packed equation.";
+        this.guess = guess;
+        int[] symbols = new int[EquationScorer.EQUATION_LENGTH];
+        int[] slots = new int[EquationScorer.EQUATION_LENGTH];
+        int count = 0;
+        for (int i = 0; i < EquationScorer.EQUATION_LENGTH; i++) {
+            int symbol = EquationCodec.symbolAt(guess, i);
+            int k = 0;
+            while (k < count && symbols[k] != symbol)
+                k++;
+            if (k == count)
+                symbols[count++] = symbol;
+            // Misplaced symbols are marked in bit 1 of the slot
+            slots[k] |= 2 << (4 * i);
+        }
+        this.distinctSymbols = Arrays.copyOf(symbols, count);
+        this.symbolSlots = Arrays.copyOf(slots, count);
+    }
+
+    /**
+     * Retrieves the preprocessed guess.
+     *
+     * @return The packed guess.
+     */
+    public int getGuess() {
+        return guess;
+    }
+
+    /**
+     * Scores the guess against one target.
+     *
+     * @param target The packed target.
+     * @return The feedback code.
+     */
+    public int score(int target) {
+        return score(target, EquationCodec.symbolSet(target));
+    }
+
+    /**
+     * Scores the guess against one target whose symbol set is known.
+     *
+     * @param target The packed target.
+     * @param targetSymbols The symbol set of the target.
+     * @requires targetSymbols == EquationCodec.symbolSet(target);
+     * @return The feedback code.
+     */
+    public int score(int target, int targetSymbols) {
+        // A slot is an exact match when its 4 bits of guess ^ target are all zero
+        int diff = guess ^ target;
+        diff |= diff >>> 1;
+        diff |= diff >>> 2;
+        int exact = ~diff & SLOT_LOW_BITS;
+
+        int present = 0;
+        for (int k = 0; k < distinctSymbols.length; k++)
+            present |= symbolSlots[k] & -((targetSymbols >>> distinctSymbols[k]) & 1);
+        // An exact match is not also misplaced
+        int row = exact | (present & ~(exact << 1));
+        return LOW_CODES[row & 0xFFFF] + HIGH_CODES[row >>> 16];
+    }
+
+    /**
+     * Scores the guess against a range of targets.
+     *
+     * @param targets The packed targets.
+     * @param from The first index to score.
+     * @param to The index after the last one to score.
+     * @param codes Receives the feedback code of targets[i] in codes[i].
+     * @requires 0 <= from && from <= to && to <= targets.length && to <= codes.length;
+     */
+    public void scoreAll(int[] targets, int from, int to, int[] codes) {
+        for (int i = from; i < to; i++)
+            codes[i] = score(targets[i], EquationCodec.symbolSet(targets[i]));
+    }
+
+    /**
+     * Scores the guess against a range of targets whose symbol sets are known.
+     *
+     * @param targets The packed targets.
+     * @param targetSymbols The symbol set of each target.
+     * @param from The first index to score.
+     * @param to The index after the last one to score.
+     * @param codes Receives the feedback code of targets[i] in codes[i].
+     * @requires 0 <= from && from <= to && to <= targets.length && to <= codes.length;
+     */
+    public void scoreAll(int[] targets, int[] targetSymbols, int from, int to, int[] codes) {
+        for (int i = from; i < to; i++)
+            codes[i] = score(targets[i], targetSymbols[i]);
+    }
+
+    /**
+     * Counts how many of the targets fall into each feedback code.
+     *
+     * @param targets The packed targets.
+     * @param targetSymbols The symbol set of each target.
+     * @param from The first index to count.
+     * @param to The index after the last one to count.
+     * @param counts Array of EquationScorer.FEEDBACK_CODES entries the counts are added to.
+     */
+    public void partition(int[] targets, int[] targetSymbols, int from, int to, int[] counts) {
+        for (int i = from; i < to; i++)
+            counts[score(targets[i], targetSymbols[i])]++;
+    }
+
+    /**
+     * Computes the symbol set of each target, for use with the scoring methods.
+     *
+     * @param targets The packed targets.
+     * @param size The number of targets to process.
+     * @return The symbol sets, one per target.
+     */
+    public static int[] symbolSets(int[] targets, int size) {
+        int[] sets = new int[targets.length];
+        for (int i = 0; i < size; i++)
+            sets[i] = EquationCodec.symbolSet(targets[i]);
+        return sets;
+    }
+
+    /**
+     * Computes the feedback code of a row with 2 bits per 4-bit slot.
+     */
+    private static int slotsToCode(int row, int slots, int weight) {
+        int code = 0;
+        for (int i = 0; i < slots; i++) {
+            int value = (row >>> (4 * i)) & 0xF;
+            if (value > 2)
+                value = 1; // exact and misplaced bits together cannot occur
+            code += value * weight;
+            weight *= 3;
+        }
+        return code;
+    }
+}
@@ -0,0 +1,23 @@
+package Model;
+
+/**
+ * The Difficulty enum lists the difficulty bands a target equation can be drawn from.
+ * ANY draws uniformly from the whole corpus; the other bands draw from the matching
+ * third of the corpus as ranked by the solver-simulated difficulty index.
+ */
+public enum Difficulty {
+    ANY,
+    EASY,
+    MEDIUM,
+    HARD;
+
+    /**
+     * Retrieves the band number used by the difficulty index.
+     *
+     * @ensures \result == ordinal() - 1;
+     * @return The band number, or -1 for ANY.
+     */
+    public int band() {
+        return ordinal() - 1;
+    }
+}
@@ -0,0 +1,207 @@
+package Model;
+
+/**
+ * The EquationCodec class converts equations to and from their canonical packed form.
+ * The 15 symbols "0123456789+-*&#47;=" are numbered 0 to 14 and each fits in 4 bits, so a 7-symbol
+ * equation fits in the low 28 bits of an int: symbol i is stored in bits 4i to 4i + 3.
+ * Packed equations are non-negative, so they can be used directly as array indices and hash keys,
+ * and INVALID (-1) marks text that cannot be encoded.
+ *
+ * The canonical text form uses '*' and '/'. The display glyphs '×' and '÷' are accepted when
+ * encoding, and are produced only by toDisplay, which is meant for the view and the console app.
+ *
+ * @invariant SYMBOLS.length() == 15 && EMPTY == 15
+ */
+public final class EquationCodec {
+    // The symbols, in the order of their 4-bit codes.
+    public static final String SYMBOLS = "0123456789+-*/=";
+    // Number of distinct symbols.
+    public static final int SYMBOL_COUNT = 15;
+    // Code of the symbol '='.
+    public static final int EQUALS = 14;
+    // 4-bit code used by encodePartial for missing or unknown characters.
+    public static final int EMPTY = 15;
+    // Result of encode for text that is not a 7-symbol equation.
+    public static final int INVALID = -1;
+    // Number of distinct packed values (2^28).
+    public static final int PACKED_RANGE = 1 << (4 * EquationScorer.EQUATION_LENGTH);
+
+    private static final String DISPLAY_SYMBOLS = "0123456789+-×÷=";
+    // Symbol code of each character below 256, -1 for unknown characters
+    private static final byte[] CODES = new byte[256];
+
+    static {
+        java.util.Arrays.fill(CODES, (byte) -1);
+        for (int s = 0; s < SYMBOL_COUNT; s++) {
+            CODES[SYMBOLS.charAt(s)] = (byte) s;
+            CODES[DISPLAY_SYMBOLS.charAt(s)] = (byte) s;
+        }
+    }
+
+    private EquationCodec() {
+    }
+
+    /**
+     * Retrieves the code of a symbol, accepting both the canonical and the display operators.
+     *
+     * @param c The character to look up.
+     * @ensures \result == -1 || (0 <= \result && \result < SYMBOL_COUNT);
+     * @return The symbol code, or -1 if the character is not a symbol.
+     */
+    public static int symbolOf(char c) {
+        return c < CODES.length ? CODES[c] : -1;
+    }
+
+    /**
+     * Retrieves the canonical character of a symbol code.
+     *
+     * @param symbol The symbol code.
+     * @requires 0 <= symbol && symbol < SYMBOL_COUNT;
+     * @return The canonical character.
+     */
+    public static char charOf(int symbol) {
+        return SYMBOLS.charAt(symbol);
+    }
+
+    /**
+     * Retrieves the display character of a symbol code.
+     *
+     * @param symbol The symbol code.
+     * @requires 0 <= symbol && symbol < SYMBOL_COUNT;
+     * @return The display character, using '×' and '÷' for the operators.
+     */
+    public static char displayCharOf(int symbol) {
+        return DISPLAY_SYMBOLS.charAt(symbol);
+    }
+
+    /**
+     * Packs a 7-symbol equation.
+     *
+     * @param text The equation, in canonical or display form.
+     * @requires text != null;
+     * @ensures \result == INVALID || decode(\result) equals the canonical form of text;
+     * @return The packed equation, or INVALID if the text is not 7 known symbols.
+     */
+    public static int encode(CharSequence text) {
+        assert text != null : "Text cannot be null.";
+        if (text.length() != EquationScorer.EQUATION_LENGTH)
+            return INVALID;
+        int packed = 0;
+        for (int i = 0; i < EquationScorer.EQUATION_LENGTH; i++) {
+            int symbol = symbolOf(text.charAt(i));
+            if (symbol < 0)
+                return INVALID;
+            packed |= symbol << (4 * i);
+        }
+        return packed;
+    }
+
+    /**
+     * Packs the first 7 characters of any text, using EMPTY for missing or unknown characters.
+     * The result never equals a valid packed equation unless the text is one.
+     *
+     * @param text The text to pack.
+     * @requires text != null;
+     * @return The packed text.
+     */
+    public static int encodePartial(CharSequence text) {
+        assert text != null : "Text cannot be null.";
+        int packed = 0;
+        for (int i = 0; i < EquationScorer.EQUATION_LENGTH; i++) {
+            int symbol = i < text.length() ? symbolOf(text.charAt(i)) : -1;
+            packed |= (symbol < 0 ? EMPTY : symbol) << (4 * i);
+        }
+        return packed;
+    }
+
+    /**
+     * Unpacks an equation into its canonical text form.
+     *
+     * @param packed The packed equation.
+     * @requires 0 <= packed && packed < PACKED_RANGE;
+     * @return The equation, using '*' and '/' for the operators.
+     */
+    public static String decode(int packed) {
+        assert packed >= 0 && packed < PACKED_RANGE : "Packed equation out of range.";
+        char[] chars = new char[EquationScorer.EQUATION_LENGTH];
+        for (int i = 0; i < chars.length; i++)
+            chars[i] = SYMBOLS.charAt(symbolAt(packed, i));
+        return new String(chars);
+    }
+
+    /**
+     * Unpacks an equation into its display form.
+     *
+     * @param packed The packed equation.
+     * @requires 0 <= packed && packed < PACKED_RANGE;
+     * @return The equation, using '×' and '÷' for the operators.
+     */
+    public static String toDisplay(int packed) {
+        assert packed >= 0 && packed < PACKED_RANGE : "Packed equation out of range.";
+        char[] chars = new char[EquationScorer.EQUATION_LENGTH];
+        for (int i = 0; i < chars.length; i++)
+            chars[i] = DISPLAY_SYMBOLS.charAt(symbolAt(packed, i));
+        return new String(chars);
+    }
+
+    /**
+     * Converts text of any length to its display form, leaving unknown characters unchanged.
+     *
+     * @param text The text to convert.
+     * @requires text != null;
+     * @return The text, using '×' and '÷' for the operators.
+     */
+    public static String toDisplay(String text) {
+        assert text != null : "Text cannot be null.";
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            int symbol = symbolOf(chars[i]);
+            if (symbol >= 0)
+                chars[i] = DISPLAY_SYMBOLS.charAt(symbol);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Converts text of any length to its canonical form, leaving unknown characters unchanged.
+     *
+     * @param text The text to convert.
+     * @requires text != null;
+     * @return The text, using '*' and '/' for the operators.
+     */
+    public static String toCanonical(String text) {
+        assert text != null : "Text cannot be null.";
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            int symbol = symbolOf(chars[i]);
+            if (symbol >= 0)
+                chars[i] = SYMBOLS.charAt(symbol);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Retrieves the symbol at a position of a packed equation.
+     *
+     * @param packed The packed equation.
+     * @param position The position, from 0 to 6.
+     * @return The symbol code at the position.
+     */
+    public static int symbolAt(int packed, int position) {
+        return (packed >>> (4 * position)) & 0xF;
+    }
+
+    /**
+     * Computes the set of symbols used by a packed equation, bit s being set when symbol s appears.
+     *
+     * @param packed The packed equation.
+     * @return The 15-bit symbol set.
+     */
+    public static int symbolSet(int packed) {
+        int set = 0;
+        for (int i = 0; i < EquationScorer.EQUATION_LENGTH; i++)
+            set |= 1 << symbolAt(packed, i);
+        // EMPTY slots are not symbols
+        return set & ((1 << SYMBOL_COUNT) - 1);
+    }
+}
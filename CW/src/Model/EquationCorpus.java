@@ -0,0 +1,119 @@
+package Model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The EquationCorpus class holds the equations targets are drawn from, in packed form.
+ * Lines that are not 7-symbol equations are skipped when the corpus is loaded.
+ *
+ * @invariant (\forall int i; 0 <= i && i < size(); get(i) >= 0)
+ */
+public final class EquationCorpus {
+    // Default location of the corpus.
+    public static final String DEFAULT_FILE = "equations.txt";
+
+    private final int[] equations;
+
+    /**
+     * Creates a corpus from packed equations.
+     *
+     * @param equations The packed equations; the array is copied.
+     * @requires (\forall int e; equations.contains(e); e >= 0);
+     */
+    public EquationCorpus(int[] equations) {
+        this.equations = equations.clone();
+        assert Arrays.stream(this.equations).allMatch(e -> e >= 0) : "Corpus entries must be packed equations.";
+    }
+
+    /**
+     * Loads a corpus from a text file with one equation per line.
+     *
+     * @param file The corpus file.
+     * @return The corpus.
+     * @throws IOException If the file cannot be read.
+     */
+    public static EquationCorpus load(Path file) throws IOException {
+        return fromLines(Files.readAllLines(file));
+    }
+
+    /**
+     * Builds a corpus from lines of text, skipping lines that are not 7-symbol equations.
+     *
+     * @param lines The lines of the corpus.
+     * @return The corpus.
+     */
+    public static EquationCorpus fromLines(List<String> lines) {
+        return new EquationCorpus(lines.stream()
+                .mapToInt(EquationCodec::encode)
+                .filter(packed -> packed != EquationCodec.INVALID)
+                .toArray());
+    }
+
+    /**
+     * Retrieves the number of equations.
+     *
+     * @return The size of the corpus.
+     */
+    public int size() {
+        return equations.length;
+    }
+
+    /**
+     * Retrieves an equation.
+     *
+     * @param index The index of the equation.
+     * @requires 0 <= index && index < size();
+     * @return The packed equation.
+     */
+    public int get(int index) {
+        return equations[index];
+    }
+
+    /**
+     * Draws an equation uniformly.
+     *
+     * @param rand The random source.
+     * @requires size() > 0;
+     * @return The packed equation.
+     */
+    public int pick(Random rand) {
+        return equations[rand.nextInt(equations.length)];
+    }
+
+    /**
+     * Retrieves a copy of the packed equations, to be used as a candidate set.
+     *
+     * @return The packed equations, in corpus order.
+     */
+    public int[] toArray() {
+        return equations.clone();
+    }
+
+    /**
+     * Checks if an equation belongs to the corpus.
+     *
+     * @param packed The packed equation.
+     * @return true if the corpus contains the equation.
+     */
+    public boolean contains(int packed) {
+        for (int equation : equations) {
+            if (equation == packed)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Computes a hash of the whole corpus, used to detect files built from another corpus.
+     *
+     * @return The hash of the packed equations, in order.
+     */
+    public int hash() {
+        return Arrays.hashCode(equations);
+    }
+}
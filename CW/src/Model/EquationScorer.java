@@ -0,0 +1,149 @@
+package Model;
+
+/**
+ * The EquationScorer class holds the Numberle scoring rule as a pure function so that the model,
+ * the solvers and the offline tools all score guesses in exactly the same way.
+ * A value of 1 marks an exact match, 2 marks a character that appears elsewhere in the target,
+ * and 0 marks a character that does not appear in the target.
+ *
+ * Packed equations (see EquationCodec) are scored without any string handling.
+ * Feedback rows can also be packed into a single base-3 feedback code, where position i
+ * contributes compare[i] * 3^i. Codes of 7-character equations lie in [0, FEEDBACK_CODES).
+ *
+ * @invariant FEEDBACK_CODES == 3^7 && WIN_CODE == the code of a row of seven 1s
+ */
+public final class EquationScorer {
+    // Length of every equation in the corpus.
+    public static final int EQUATION_LENGTH = 7;
+    // Number of distinct feedback codes for a 7-character row (3^7).
+    public static final int FEEDBACK_CODES = 2187;
+    // Feedback code of a fully correct guess (1 + 3 + 9 + ... + 729).
+    public static final int WIN_CODE = 1093;
+
+    private EquationScorer() {
+    }
+
+    /**
+     * Compares the input with the target using the Numberle scoring rule.
+     *
+     * @param target The target equation.
+     * @param input The guessed equation.
+     * @requires target != null && input != null;
+     * @ensures \result.length == target.length();
+     * @return An array with 1 for exact matches, 2 for misplaced characters and 0 otherwise.
+     */
+    public static int[] compare(String target, String input) {
+        assert target != null : "Target string cannot be null.";
+        assert input != null : "Input string cannot be null.";
+
+        int[] result = new int[target.length()];
+        int minEquationLength = Math.min(target.length(), input.length());
+        for (int i = 0; i < minEquationLength; i++) {
+            char c = input.charAt(i);
+            if (c == target.charAt(i))
+                result[i] = 1;
+            else if (target.indexOf(c) >= 0)
+                result[i] = 2;
+        }
+        return result;
+    }
+
+    /**
+     * Scores the input against the target and packs the result into a base-3 feedback code.
+     *
+     * @param target The target equation.
+     * @param input The guessed equation.
+     * @requires target != null && input != null;
+     * @ensures \result == encodeFeedback(compare(target, input));
+     * @return The feedback code of the guess.
+     */
+    public static int feedbackCode(String target, String input) {
+        assert target != null : "Target string cannot be null.";
+        assert input != null : "Input string cannot be null.";
+
+        int code = 0;
+        int weight = 1;
+        int minEquationLength = Math.min(target.length(), input.length());
+        for (int i = 0; i < minEquationLength; i++) {
+            char c = input.charAt(i);
+            if (c == target.charAt(i))
+                code += weight;
+            else if (target.indexOf(c) >= 0)
+                code += 2 * weight;
+            weight *= 3;
+        }
+        return code;
+    }
+
+    /**
+     * Scores a packed guess against a packed target.
+     *
+     * @param target The packed target equation.
+     * @param guess The packed guessed equation.
+     * @requires target >= 0 && guess >= 0;
+     * @ensures \result == feedbackCode(EquationCodec.decode(target), EquationCodec.decode(guess));
+     * @return The feedback code of the guess.
+     */
+    public static int feedbackCode(int target, int guess) {
+        return feedbackCode(target, EquationCodec.symbolSet(target), guess);
+    }
+
+    /**
+     * Scores a packed guess against a packed target whose symbol set is already known.
+     *
+     * @param target The packed target equation.
+     * @param targetSymbols The symbol set of the target, as returned by EquationCodec.symbolSet.
+     * @param guess The packed guessed equation.
+     * @requires targetSymbols == EquationCodec.symbolSet(target);
+     * @return The feedback code of the guess.
+     */
+    public static int feedbackCode(int target, int targetSymbols, int guess) {
+        int code = 0;
+        int weight = 1;
+        for (int i = 0; i < EQUATION_LENGTH; i++) {
+            int g = (guess >>> (4 * i)) & 0xF;
+            if (g == ((target >>> (4 * i)) & 0xF))
+                code += weight;
+            else if (((targetSymbols >>> g) & 1) != 0)
+                code += 2 * weight;
+            weight *= 3;
+        }
+        return code;
+    }
+
+    /**
+     * Packs a comparison row into a base-3 feedback code.
+     *
+     * @param compared The comparison row, each value being 0, 1 or 2.
+     * @requires compared != null;
+     * @return The feedback code of the row.
+     */
+    public static int encodeFeedback(int[] compared) {
+        assert compared != null : "Comparison row cannot be null.";
+        int code = 0;
+        for (int i = compared.length - 1; i >= 0; i--) {
+            assert compared[i] >= 0 && compared[i] <= 2 : "Comparison values must be 0, 1 or 2.";
+            code = code * 3 + compared[i];
+        }
+        return code;
+    }
+
+    /**
+     * Unpacks a base-3 feedback code into a comparison row.
+     *
+     * @param code The feedback code.
+     * @param length The length of the row to produce.
+     * @requires code >= 0 && length >= 0;
+     * @ensures encodeFeedback(\result) == code;
+     * @return The comparison row.
+     */
+    public static int[] decodeFeedback(int code, int length) {
+        assert code >= 0 : "Feedback code must be non-negative.";
+        int[] compared = new int[length];
+        for (int i = 0; i < length; i++) {
+            compared[i] = code % 3;
+            code /= 3;
+        }
+        return compared;
+    }
+}
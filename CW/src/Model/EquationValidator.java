@@ -0,0 +1,275 @@
+package Model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The EquationValidator class holds the rules a guess or a corpus line must satisfy to be a valid
+ * equation: it must be 7 characters long, follow the form of an ordinary equation, and both sides
+ * must evaluate to the same value. The checks are pure and thread-safe.
+ *
+ * Packed equations (see EquationCodec) are checked by a hand-written parser over the 4-bit symbols,
+ * which accepts exactly the equations matched by the reference pattern used for text.
+ *
+ * The status codes match the codes returned by NumberleModel.processInput.
+ */
+public final class EquationValidator {
+    // The equation is valid.
+    public static final int VALID = 1;
+    // The equation does not have 7 characters.
+    public static final int INVALID_LENGTH = 2;
+    // The equation does not follow the form of an ordinary equation.
+    public static final int INVALID_FORMAT = 3;
+    // The two sides of the equation do not agree.
+    public static final int INVALID_EQUATION = 4;
+
+    // Compiled once; String.matches would compile the pattern on every call
+    private static final Pattern FORMAT = Pattern.compile(
+            "^(?!\\b(\\d{1,3})\\b=\\1$)(\\d{1,3}[+\\-*/]){0,2}-?\\d{1,3}=(\\d{1,3}[+\\-*/]){0,2}-?\\d{1,3}$");
+
+    // Results of evaluateSide that are not values
+    private static final long MALFORMED = Long.MIN_VALUE;
+    private static final long UNDEFINED = Long.MIN_VALUE + 1;
+
+    private EquationValidator() {
+    }
+
+    /**
+     * Runs every check on an equation written with '*' and '/' as operators.
+     *
+     * @param equation The equation to check.
+     * @requires equation != null;
+     * @ensures \result == VALID <==> (equation.length() == 7 && isWellFormed(equation) && holds(equation));
+     * @return VALID, INVALID_LENGTH, INVALID_FORMAT or INVALID_EQUATION.
+     */
+    public static int check(String equation) {
+        assert equation != null : "Equation should not be null";
+        if (equation.length() != EquationScorer.EQUATION_LENGTH)
+            return INVALID_LENGTH;
+        return check(EquationCodec.encode(equation));
+    }
+
+    /**
+     * Runs the format and equality checks on a packed equation.
+     *
+     * @param packed The packed equation, or EquationCodec.INVALID.
+     * @ensures \result == VALID <==> (packed != INVALID && isWellFormed(decode(packed)) && holds(decode(packed)));
+     * @return VALID, INVALID_FORMAT or INVALID_EQUATION.
+     */
+    public static int check(int packed) {
+        if (packed < 0 || packed >= EquationCodec.PACKED_RANGE)
+            return INVALID_FORMAT;
+        int equals = -1;
+        for (int i = 0; i < EquationScorer.EQUATION_LENGTH; i++) {
+            if (EquationCodec.symbolAt(packed, i) == EquationCodec.EQUALS) {
+                if (equals >= 0)
+                    return INVALID_FORMAT;
+                equals = i;
+            }
+        }
+        if (equals < 0)
+            return INVALID_FORMAT;
+
+        long left = evaluateSide(packed, 0, equals);
+        long right = evaluateSide(packed, equals + 1, EquationScorer.EQUATION_LENGTH);
+        if (left == MALFORMED || right == MALFORMED || isRepeatedNumber(packed, equals))
+            return INVALID_FORMAT;
+        if (left == UNDEFINED || right == UNDEFINED)
+            return INVALID_EQUATION;
+        return left == right ? VALID : INVALID_EQUATION;
+    }
+
+    /**
+     * Parses and evaluates one side of a packed equation. A side is up to three numbers of one to
+     * three digits joined by operators, and only the last number may carry a minus sign. As with
+     * text, a signed number is only evaluated when it stands alone.
+     *
+     * @param packed The packed equation.
+     * @param from The first position of the side.
+     * @param to The position after the side.
+     * @return The value of the side, MALFORMED if it is not well formed, or UNDEFINED if it
+     *         cannot be evaluated.
+     */
+    private static long evaluateSide(int packed, int from, int to) {
+        int[] numbers = new int[3];
+        int[] operators = new int[2];
+        int count = 0;
+        boolean signed = false;
+        int pos = from;
+        while (true) {
+            if (pos < to && EquationCodec.symbolAt(packed, pos) == 11) { // '-' sign
+                signed = true;
+                pos++;
+            }
+            int digits = 0;
+            int value = 0;
+            while (pos < to && EquationCodec.symbolAt(packed, pos) <= 9) {
+                value = value * 10 + EquationCodec.symbolAt(packed, pos);
+                digits++;
+                pos++;
+            }
+            if (digits == 0 || digits > 3)
+                return MALFORMED;
+            numbers[count++] = value;
+            if (pos == to)
+                break;
+            int operator = EquationCodec.symbolAt(packed, pos);
+            if (signed || count == 3 || operator < 10 || operator > 13)
+                return MALFORMED;
+            operators[count - 1] = operator;
+            pos++;
+        }
+
+        if (signed)
+            return count == 1 ? -numbers[0] : UNDEFINED;
+
+        // Multiplication and division first, left to right, then addition and subtraction
+        int sum = 0;
+        int sign = 1;
+        int term = numbers[0];
+        for (int k = 0; k < count - 1; k++) {
+            int operator = operators[k];
+            int n = numbers[k + 1];
+            if (operator == 12) {
+                term *= n;
+            } else if (operator == 13) {
+                if (n == 0)
+                    return UNDEFINED;
+                term /= n;
+            } else {
+                sum += sign * term;
+                sign = operator == 10 ? 1 : -1;
+                term = n;
+            }
+        }
+        return sum + sign * term;
+    }
+
+    /**
+     * Checks for the trivial form the pattern excludes: a plain number repeated on both sides.
+     *
+     * @param packed The packed equation.
+     * @param equals The position of '='.
+     * @return true if the left side is a plain number and the right side repeats it.
+     */
+    private static boolean isRepeatedNumber(int packed, int equals) {
+        int length = EquationScorer.EQUATION_LENGTH;
+        if (equals * 2 + 1 != length)
+            return false;
+        for (int i = 0; i < equals; i++) {
+            int symbol = EquationCodec.symbolAt(packed, i);
+            if (symbol > 9 || symbol != EquationCodec.symbolAt(packed, equals + 1 + i))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks that an equation follows the form of an ordinary equation.
+     *
+     * @param equation The equation to check, written with '*' and '/' as operators.
+     * @requires equation != null;
+     * @return true if the equation is well formed.
+     */
+    public static boolean isWellFormed(String equation) {
+        assert equation != null : "Equation should not be null";
+        return FORMAT.matcher(equation).matches();
+    }
+
+    /**
+     * Checks if the given equation holds by comparing the evaluated results of both sides.
+     * Expressions that cannot be evaluated, such as a division by zero, do not hold.
+     *
+     * @param equation The equation to check, written with '*' and '/' as operators.
+     * @requires equation != null && !equation.isEmpty();
+     * @ensures \result == (evaluate(leftSide) == evaluate(rightSide));
+     * @return boolean indicating whether the equation holds.
+     */
+    public static boolean holds(String equation) {
+        assert equation != null : "Input equation should not be null.";
+        assert !equation.isEmpty() : "Input equation should not be empty.";
+
+        // Remove the equal sign and split the equation
+        String[] parts = equation.split("=");
+        if (parts.length != 2 || parts[0].isBlank() || parts[1].isBlank())
+            return false;
+
+        try {
+            return evaluate(parts[0].trim()) == evaluate(parts[1].trim());
+        } catch (ArithmeticException | NumberFormatException | IndexOutOfBoundsException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Evaluates the given mathematical expression and returns the result.
+     * Multiplication and division are applied before addition and subtraction.
+     *
+     * @param expression The mathematical expression to evaluate (e.g., "2+3*4").
+     * @requires expression != null && !expression.isEmpty();
+     * @return The result of evaluating the expression.
+     * @throws ArithmeticException If the expression divides by zero.
+     * @throws NumberFormatException If the expression is not well formed.
+     */
+    public static int evaluate(String expression) {
+        assert expression != null : "The expression cannot be null.";
+        assert !expression.isEmpty() : "The expression cannot be empty.";
+
+        // Remove all spaces
+        expression = expression.replaceAll("\\s+", "");
+        // Split the expression into tokens (numbers and operators)
+        List<String> tokens = new ArrayList<>(Arrays.asList(expression.split("(?=[+*/-])|(?<=[+*/-])")));
+        assert !tokens.isEmpty() : "The tokens list cannot be empty.";
+
+        // Handle multiplication and division
+        for (int i = 1; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token.equals("*") || token.equals("/")) {
+                int result = calculate(Integer.parseInt(tokens.get(i - 1)), Integer.parseInt(tokens.get(i + 1)), token.charAt(0));
+                // Replace the calculated part
+                tokens.set(i - 1, Integer.toString(result));
+                tokens.remove(i); // Remove the operator
+                tokens.remove(i); // Remove the second number
+                i--; // Backtrack one step to handle consecutive multiplications/divisions
+            }
+        }
+
+        // Handle addition and subtraction
+        int result;
+        if (!tokens.get(0).equals("-")) {
+            result = Integer.parseInt(tokens.get(0));
+            for (int i = 1; i < tokens.size(); i += 2) {
+                result = calculate(result, Integer.parseInt(tokens.get(i + 1)), tokens.get(i).charAt(0));
+            }
+        } else {
+            result = -Integer.parseInt(tokens.get(1));
+            for (int i = 2; i < tokens.size(); i += 2) {
+                result = calculate(result, Integer.parseInt(tokens.get(i + 1)), tokens.get(i).charAt(0));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calculates the result of a binary operation between two integers.
+     *
+     * @param a The first operand.
+     * @param b The second operand.
+     * @param operator The operator ('+', '-', '*', '/').
+     * @ensures (operator == '+' ==> \result == a + b) && (operator == '-' ==> \result == a - b) &&
+     *          (operator == '*' ==> \result == a * b) && (operator == '/' ==> \result == a / b);
+     * @return The result of the operation.
+     * @throws ArithmeticException If the operator is '/' and b is zero.
+     */
+    private static int calculate(int a, int b, char operator) {
+        return switch (operator) {
+            case '+' -> a + b;
+            case '-' -> a - b;
+            case '*' -> a * b;
+            case '/' -> a / b;
+            default -> throw new IllegalArgumentException("Invalid operator");
+        };
+    }
+}
@@ -0,0 +1,292 @@
+package Model;
+
+import Model.Interface.INumberleModel;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * The GameArena class keeps very many PackedGame states outside the Java heap, each in a fixed
+ * RECORD_SIZE byte record of a direct buffer slab, so that idle games cost no objects and give the
+ * garbage collector nothing to trace. A game is named by an int handle; guesses are applied to its
+ * record in place by PackedGame's rule routines, and freed records are reused through a free list
+ * threaded through the records themselves.
+ *
+ * Slabs of SLAB_RECORDS records are allocated as the arena grows and are never given back, so a
+ * handle stays valid until it is freed. The arena is not thread-safe; a server gives each thread its
+ * own arena or serialises access.
+ *
+ * Record layout (native byte order):
+ * - [0..3] packed target, or the next free handle while the record is free
+ * - [4..7] revealed hit symbols, [8..11] revealed hit positions (as in PackedGame)
+ * - [12..19] present, used, correct and misplaced symbol sets, packed in a long as in PackedGame
+ * - [20..21] feedback code of the last accepted guess or -1
+ * - [22] remaining attempts, [23] flags
+ *
+ * @invariant 0 <= size && size <= highWater && highWater <= slabs.length * SLAB_RECORDS
+ */
+public final class GameArena {
+    public static final int RECORD_SIZE = 24;
+    public static final int NONE = -1;
+    private static final int SLAB_BITS = 16;
+    private static final int SLAB_RECORDS = 1 << SLAB_BITS;
+    private static final int MAX_SLABS = 1 << (31 - SLAB_BITS);
+
+    private static final int TARGET = 0;
+    private static final int HIT_SYMBOLS = 4;
+    private static final int HIT_POSITIONS = 8;
+    private static final int SYMBOL_SETS = 12;
+    private static final int LAST_CODE = 20;
+    private static final int REMAINING = 22;
+    private static final int FLAGS = 23;
+
+    private static final int LIVE = 1;
+    private static final int VERIFY = 2;
+    private static final int HARD_MODE = 4;
+    private static final int WON = 8;
+
+    private ByteBuffer[] slabs = new ByteBuffer[0];
+    private int highWater; // Records handed out at least once
+    private int freeHead = NONE;
+    private int size;
+
+    /**
+     * Starts a game in a free record.
+     *
+     * @param target The packed target equation.
+     * @param verifyEquation true to reject guesses that are not valid equations.
+     * @param hardMode true to force guesses to reuse the revealed hints.
+     * @requires 0 <= target && target < EquationCodec.PACKED_RANGE;
+     * @return The handle of the new game.
+     * @ensures size == \old(size) + 1;
+     */
+    public int allocate(int target, boolean verifyEquation, boolean hardMode) {
+        assert target >= 0 && target < EquationCodec.PACKED_RANGE : "The target must be a packed equation.";
+        int handle;
+        if (freeHead != NONE) {
+            handle = freeHead;
+            freeHead = slab(handle).getInt(offset(handle) + TARGET);
+        } else {
+            handle = highWater;
+            if ((handle >>> SLAB_BITS) == slabs.length)
+                grow();
+            highWater++;
+        }
+        ByteBuffer slab = slab(handle);
+        int at = offset(handle);
+        slab.putInt(at + TARGET, target)
+                .putInt(at + HIT_SYMBOLS, 0)
+                .putInt(at + HIT_POSITIONS, 0)
+                .putLong(at + SYMBOL_SETS, 0)
+                .putShort(at + LAST_CODE, (short) -1)
+                .put(at + REMAINING, (byte) INumberleModel.MAX_ATTEMPTS)
+                .put(at + FLAGS, (byte) (LIVE | (verifyEquation ? VERIFY : 0) | (hardMode ? HARD_MODE : 0)));
+        size++;
+        return handle;
+    }
+
+    /**
+     * Ends a game; its record is reused by a later allocate.
+     *
+     * @param handle The game.
+     * @requires isLive(handle);
+     * @ensures size == \old(size) - 1;
+     */
+    public void free(int handle) {
+        assert isLive(handle) : "The handle must name a live game.";
+        ByteBuffer slab = slab(handle);
+        int at = offset(handle);
+        slab.put(at + FLAGS, (byte) 0).putInt(at + TARGET, freeHead);
+        freeHead = handle;
+        size--;
+    }
+
+    /**
+     * Plays a guess on a game in place.
+     *
+     * @param handle The game.
+     * @param guess The packed guess, or EquationCodec.INVALID if it could not be packed.
+     * @requires isLive(handle);
+     * @return PackedGame.GAME_OVER, or NumberleModel's status code: 1 accepted, 3 badly formed,
+     *         4 does not hold, 5 hard mode violation.
+     */
+    public int guess(int handle, int guess) {
+        assert isLive(handle) : "The handle must name a live game.";
+        ByteBuffer slab = slab(handle);
+        int at = offset(handle);
+        int flags = slab.get(at + FLAGS);
+        int remaining = slab.get(at + REMAINING);
+        if ((flags & WON) != 0 || remaining == 0)
+            return PackedGame.GAME_OVER;
+        int hitSymbols = slab.getInt(at + HIT_SYMBOLS);
+        int hitPositions = slab.getInt(at + HIT_POSITIONS);
+        long symbolSets = slab.getLong(at + SYMBOL_SETS);
+        int status = PackedGame.check(guess, (flags & VERIFY) != 0, (flags & HARD_MODE) != 0, hitSymbols, hitPositions, symbolSets);
+        if (status != 1)
+            return status;
+
+        int target = slab.getInt(at + TARGET);
+        int lastCode = EquationScorer.feedbackCode(target, EquationCodec.symbolSet(target), guess);
+        int hits = PackedGame.hitPositions(lastCode);
+        slab.putInt(at + HIT_SYMBOLS, hitSymbols | guess & hits)
+                .putInt(at + HIT_POSITIONS, hitPositions | hits)
+                .putLong(at + SYMBOL_SETS, PackedGame.reveal(symbolSets, guess, lastCode))
+                .putShort(at + LAST_CODE, (short) lastCode)
+                .put(at + REMAINING, (byte) (remaining - 1))
+                .put(at + FLAGS, (byte) (guess == target ? flags | WON : flags));
+        return 1;
+    }
+
+    /**
+     * Checks if a handle names a game that has not been freed.
+     *
+     * @param handle A handle.
+     * @return true if the game is live.
+     */
+    public boolean isLive(int handle) {
+        return handle >= 0 && handle < highWater && (slab(handle).get(offset(handle) + FLAGS) & LIVE) != 0;
+    }
+
+    /**
+     * Retrieves the packed target of a game.
+     *
+     * @param handle The game.
+     * @requires isLive(handle);
+     * @return The target.
+     */
+    public int getTarget(int handle) {
+        assert isLive(handle) : "The handle must name a live game.";
+        return slab(handle).getInt(offset(handle) + TARGET);
+    }
+
+    /**
+     * Retrieves the feedback code of a game's last accepted guess.
+     *
+     * @param handle The game.
+     * @requires isLive(handle);
+     * @return The feedback code, or -1 before the first accepted guess.
+     */
+    public int getLastCode(int handle) {
+        assert isLive(handle) : "The handle must name a live game.";
+        return slab(handle).getShort(offset(handle) + LAST_CODE);
+    }
+
+    /**
+     * Retrieves the number of guesses a game has left.
+     *
+     * @param handle The game.
+     * @requires isLive(handle);
+     * @return The remaining attempts.
+     */
+    public int getRemainingAttempts(int handle) {
+        assert isLive(handle) : "The handle must name a live game.";
+        return slab(handle).get(offset(handle) + REMAINING);
+    }
+
+    /**
+     * Checks if a game's target has been found.
+     *
+     * @param handle The game.
+     * @requires isLive(handle);
+     * @return true if the game is won.
+     */
+    public boolean isGameWon(int handle) {
+        assert isLive(handle) : "The handle must name a live game.";
+        return (slab(handle).get(offset(handle) + FLAGS) & WON) != 0;
+    }
+
+    /**
+     * Checks if a game accepts no more guesses.
+     *
+     * @param handle The game.
+     * @requires isLive(handle);
+     * @return true if the game is won or out of attempts.
+     */
+    public boolean isGameOver(int handle) {
+        return isGameWon(handle) || getRemainingAttempts(handle) == 0;
+    }
+
+    /**
+     * Retrieves the symbols found at their place in some guess of a game (classList[1]).
+     *
+     * @param handle The game.
+     * @requires isLive(handle);
+     * @return A 15-bit symbol set.
+     */
+    public int getCorrectSymbols(int handle) {
+        assert isLive(handle) : "The handle must name a live game.";
+        return PackedGame.symbolSet(slab(handle).getLong(offset(handle) + SYMBOL_SETS), PackedGame.CORRECT);
+    }
+
+    /**
+     * Retrieves the symbols found out of place in some guess of a game (classList[2]).
+     *
+     * @param handle The game.
+     * @requires isLive(handle);
+     * @return A 15-bit symbol set.
+     */
+    public int getMisplacedSymbols(int handle) {
+        assert isLive(handle) : "The handle must name a live game.";
+        return PackedGame.symbolSet(slab(handle).getLong(offset(handle) + SYMBOL_SETS), PackedGame.MISPLACED);
+    }
+
+    /**
+     * Retrieves the symbols used in some guess of a game but never found in its target (classList[0]).
+     *
+     * @param handle The game.
+     * @requires isLive(handle);
+     * @return A 15-bit symbol set.
+     */
+    public int getAbsentSymbols(int handle) {
+        assert isLive(handle) : "The handle must name a live game.";
+        long symbolSets = slab(handle).getLong(offset(handle) + SYMBOL_SETS);
+        return PackedGame.symbolSet(symbolSets, PackedGame.USED)
+                & ~(PackedGame.symbolSet(symbolSets, PackedGame.CORRECT) | PackedGame.symbolSet(symbolSets, PackedGame.MISPLACED));
+    }
+
+    /**
+     * Retrieves the symbols not used in any guess of a game yet (classList[3]).
+     *
+     * @param handle The game.
+     * @requires isLive(handle);
+     * @return A 15-bit symbol set.
+     */
+    public int getUnusedSymbols(int handle) {
+        assert isLive(handle) : "The handle must name a live game.";
+        return ~PackedGame.symbolSet(slab(handle).getLong(offset(handle) + SYMBOL_SETS), PackedGame.USED)
+                & ((1 << EquationCodec.SYMBOL_COUNT) - 1);
+    }
+
+    /**
+     * Retrieves the number of live games.
+     *
+     * @return The game count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves the off-heap memory held by the arena, live or free.
+     *
+     * @return The size of the slabs in bytes.
+     */
+    public long getReservedBytes() {
+        return (long) slabs.length * SLAB_RECORDS * RECORD_SIZE;
+    }
+
+    private void grow() {
+        assert slabs.length < MAX_SLABS : "The arena is full.";
+        slabs = Arrays.copyOf(slabs, slabs.length + 1);
+        slabs[slabs.length - 1] = ByteBuffer.allocateDirect(SLAB_RECORDS * RECORD_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    private ByteBuffer slab(int handle) {
+        return slabs[handle >>> SLAB_BITS];
+    }
+
+    private static int offset(int handle) {
+        return (handle & (SLAB_RECORDS - 1)) * RECORD_SIZE;
+    }
+}
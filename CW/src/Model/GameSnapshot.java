@@ -0,0 +1,274 @@
+package Model;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * The GameSnapshot class is an immutable view of a game at one point in time, published by
+ * NumberleModel after every change. It can be read from any thread without locks or copies.
+ *
+ * Guess rows form a persistent list: a snapshot taken after a guess adds one row and shares every
+ * earlier row with the snapshot before it. The keyboard groups of classList are kept as strings in
+ * insertion order. Each snapshot also links to the one before its last guess, so the snapshots of a
+ * game form a tree that undo, redo and "what if" branches walk for constant memory per step.
+ *
+ * The wall-clock time the game started and the time each guess was accepted are kept for archiving.
+ *
+ * @invariant remainingAttempts >= 0 || gameWon
+ */
+public final class GameSnapshot {
+    private final String target;
+    private final int remainingAttempts;
+    private final boolean gameWon;
+    private final Row last; // Newest row, or null before the first guess
+    private final String[] classGroups; // Never modified after construction
+    private final GameSnapshot previous; // State before the last guess, or null at the start
+    private final Game game; // Identity shared by every snapshot of one game
+
+    private GameSnapshot(String target, int remainingAttempts, boolean gameWon, Row last, String[] classGroups,
+                         GameSnapshot previous, Game game) {
+        assert classGroups != null && classGroups.length == 4 : "Four keyboard groups are needed.";
+        this.target = target;
+        this.remainingAttempts = remainingAttempts;
+        this.gameWon = gameWon;
+        this.last = last;
+        this.classGroups = classGroups;
+        this.previous = previous;
+        this.game = game;
+    }
+
+    /**
+     * Creates the snapshot of a game that has just started.
+     *
+     * @param target The target equation.
+     * @param remainingAttempts The number of guesses allowed.
+     * @param classGroups The four keyboard groups of classList, each as a string.
+     * @param startTime The time the game started, in milliseconds since the epoch.
+     * @return The snapshot.
+     */
+    public static GameSnapshot start(String target, int remainingAttempts, String[] classGroups, long startTime) {
+        return new GameSnapshot(target, remainingAttempts, false, null, classGroups.clone(), null, new Game(startTime));
+    }
+
+    /**
+     * Creates the snapshot after one more accepted guess, sharing the earlier rows with this one.
+     *
+     * @param guess The guess, in canonical form.
+     * @param compare The comparison row of the guess; it is copied.
+     * @param remainingAttempts The number of guesses left.
+     * @param gameWon true if the guess found the target.
+     * @param classGroups The four keyboard groups of classList after the guess, each as a string.
+     * @param time The time the guess was accepted, in milliseconds since the epoch.
+     * @return The new snapshot.
+     */
+    public GameSnapshot withGuess(String guess, int[] compare, int remainingAttempts, boolean gameWon, String[] classGroups,
+                                  long time) {
+        return new GameSnapshot(target, remainingAttempts, gameWon, new Row(guess, compare.clone(), last, time),
+                classGroups.clone(), this, game);
+    }
+
+    /**
+     * Creates the snapshot of the same game with another target.
+     *
+     * @param target The new target equation.
+     * @return The new snapshot.
+     */
+    public GameSnapshot withTarget(String target) {
+        return new GameSnapshot(target, remainingAttempts, gameWon, last, classGroups, previous, game);
+    }
+
+    /**
+     * Retrieves the target equation.
+     *
+     * @return The target.
+     */
+    public String getTargetNumber() {
+        return target;
+    }
+
+    /**
+     * Retrieves the number of guesses left.
+     *
+     * @return The remaining attempts.
+     */
+    public int getRemainingAttempts() {
+        return remainingAttempts;
+    }
+
+    /**
+     * Checks if the target has been found.
+     *
+     * @return true if the game is won.
+     */
+    public boolean isGameWon() {
+        return gameWon;
+    }
+
+    /**
+     * Checks if the game is over, as NumberleModel.isGameOver does.
+     *
+     * @return true if the game is won or out of attempts.
+     */
+    public boolean isGameOver() {
+        return remainingAttempts <= 0 || gameWon;
+    }
+
+    /**
+     * Retrieves the number of accepted guesses.
+     *
+     * @return The guess count.
+     */
+    public int getGuessCount() {
+        return last == null ? 0 : last.index + 1;
+    }
+
+    /**
+     * Retrieves an accepted guess.
+     *
+     * @param index The guess number, from 0.
+     * @requires 0 <= index && index < getGuessCount();
+     * @return The guess, in canonical form.
+     */
+    public String getGuess(int index) {
+        return row(index).guess;
+    }
+
+    /**
+     * Retrieves the time a guess was accepted.
+     *
+     * @param index The guess number, from 0.
+     * @requires 0 <= index && index < getGuessCount();
+     * @return The time, in milliseconds since the epoch.
+     */
+    public long getGuessTime(int index) {
+        return row(index).time;
+    }
+
+    /**
+     * Retrieves the time the game started.
+     *
+     * @return The time, in milliseconds since the epoch.
+     */
+    public long getStartTime() {
+        return game.startTime;
+    }
+
+    /**
+     * Retrieves the length of the comparison row of a guess.
+     *
+     * @param index The guess number, from 0.
+     * @return The row length.
+     */
+    public int getCompareLength(int index) {
+        return row(index).compare.length;
+    }
+
+    /**
+     * Retrieves one value of the comparison row of a guess.
+     *
+     * @param index The guess number, from 0.
+     * @param position The position in the row.
+     * @return 1 for an exact match, 2 for a misplaced symbol, 0 otherwise.
+     */
+    public int getCompare(int index, int position) {
+        return row(index).compare[position];
+    }
+
+    /**
+     * Retrieves the feedback code of a guess.
+     *
+     * @param index The guess number, from 0.
+     * @return EquationScorer.encodeFeedback of the comparison row.
+     */
+    public int getFeedbackCode(int index) {
+        return EquationScorer.encodeFeedback(row(index).compare);
+    }
+
+    /**
+     * Retrieves the accepted guesses as a read-only list.
+     *
+     * @return The guesses, oldest first.
+     */
+    public List<String> getGuesses() {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                return getGuess(index);
+            }
+
+            @Override
+            public int size() {
+                return getGuessCount();
+            }
+        };
+    }
+
+    /**
+     * Retrieves one keyboard group of classList.
+     *
+     * @param group 0 absent, 1 correct, 2 misplaced, 3 unused.
+     * @requires 0 <= group && group < 4;
+     * @return The characters of the group, in the order they joined it.
+     */
+    public String getClassGroup(int group) {
+        return classGroups[group];
+    }
+
+    /**
+     * Retrieves the snapshot taken before the last guess.
+     *
+     * @return The earlier snapshot, or null if no guess has been made.
+     * @ensures \result == null || \result.getGuessCount() == getGuessCount() - 1;
+     */
+    public GameSnapshot getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Checks if two snapshots belong to the same game, that is, were derived from the same start.
+     *
+     * @param other The other snapshot.
+     * @return true if both are states of one game.
+     */
+    public boolean isSameGame(GameSnapshot other) {
+        return other != null && other.game == game;
+    }
+
+    private Row row(int index) {
+        assert index >= 0 && index < getGuessCount() : "Guess index out of range.";
+        Row row = last;
+        while (row.index != index)
+            row = row.previous;
+        return row;
+    }
+
+    /**
+     * The identity of one game and the time it started.
+     */
+    private static final class Game {
+        final long startTime;
+
+        Game(long startTime) {
+            this.startTime = startTime;
+        }
+    }
+
+    /**
+     * One accepted guess, linked to the guesses before it.
+     */
+    private static final class Row {
+        final String guess;
+        final int[] compare;
+        final Row previous;
+        final int index;
+        final long time;
+
+        Row(String guess, int[] compare, Row previous, long time) {
+            this.guess = guess;
+            this.compare = compare;
+            this.previous = previous;
+            this.index = previous == null ? 0 : previous.index + 1;
+            this.time = time;
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package Model.Interface;
 
+import Model.Difficulty;
+import Model.GameSnapshot;
+import Model.PreparedTarget;
+
 import java.util.ArrayList;
+import java.util.function.Supplier;
 
 /**
  * The Model.Interface.INumberleModel interface defines the core functionalities of the model component
@@ -74,6 +79,88 @@ public interface INumberleModel {
      */
     void startNewGame();
 
+    /**
+     * Starts a new game on a target prepared in advance, skipping the corpus read.
+     * Precondition: None
+     * Postcondition: The game state is reset around the prepared target, or around a freshly drawn
+     * one if next is null or was prepared under other settings.
+     *
+     * @param next The prepared target, or null.
+     */
+    void startNewGame(PreparedTarget next);
+
+    /**
+     * Draws and prepares the target of a later game under the current settings.
+     * Precondition: None
+     * Postcondition: Returns the prepared target, or null if the corpus cannot be read.
+     *
+     * @return The prepared target.
+     */
+    PreparedTarget prepareNextTarget();
+
+    /**
+     * Captures the current settings and a seed from the model's random source, on the calling
+     * thread, for a task that prepares the target of a later game on any thread.
+     * Precondition: Called on the thread that plays the model.
+     * Postcondition: The task returns what prepareNextTarget would have returned, or null if the
+     * corpus cannot be read.
+     *
+     * @return The task.
+     */
+    Supplier<PreparedTarget> nextTargetTask();
+
+    /**
+     * Returns to the state before the last guess, in practice mode only.
+     * Precondition: None
+     * Postcondition: If a guess could be undone, the game and its keyboard classification are as they
+     * were before it, and the guess can be redone.
+     *
+     * @return true if a guess was undone.
+     */
+    boolean undo();
+
+    /**
+     * Replays the guess most recently undone.
+     * Precondition: None
+     * Postcondition: If there was an undone guess, the game is as it was after it.
+     *
+     * @return true if a guess was redone.
+     */
+    boolean redo();
+
+    /**
+     * Checks if a guess can be undone.
+     *
+     * @return true if undo() would change the game.
+     */
+    boolean canUndo();
+
+    /**
+     * Checks if an undone guess can be redone.
+     *
+     * @return true if redo() would change the game.
+     */
+    boolean canRedo();
+
+    /**
+     * Returns to any state of the current game, such as the end of an earlier branch.
+     * Precondition: state was published by this model during the current game.
+     * Postcondition: The game is in the given state and the redo history is dropped.
+     *
+     * @param state The state to return to.
+     * @return true if the state was restored.
+     */
+    boolean restore(GameSnapshot state);
+
+    /**
+     * Adds a listener notified of every state the model publishes, before its observers.
+     * Precondition: listener is not null.
+     * Postcondition: The listener is called after every change of the game.
+     *
+     * @param listener The listener.
+     */
+    void addSnapshotListener(SnapshotListener listener);
+
     /**
      * Retrieves the list of guesses made by the user.
      * Precondition: None
@@ -119,6 +206,42 @@ public interface INumberleModel {
      */
     boolean getRandomEquality();
 
+    /**
+     * Retrieves the flag indicating whether every guess must reuse the revealed hints.
+     * Precondition: None
+     * Postcondition: Returns the value of the hardMode flag.
+     *
+     * @return boolean indicating if hard mode is enabled.
+     */
+    boolean getHardMode();
+
+    /**
+     * Retrieves the flag indicating whether targets are chosen adversarially (Absurdle mode).
+     * Precondition: None
+     * Postcondition: Returns the value of the absurdleMode flag.
+     *
+     * @return boolean indicating if Absurdle mode is enabled.
+     */
+    boolean getAbsurdleMode();
+
+    /**
+     * Retrieves the flag indicating whether guesses can be undone, redone and branched from.
+     * Precondition: None
+     * Postcondition: Returns the value of the practiceMode flag.
+     *
+     * @return boolean indicating if practice mode is enabled.
+     */
+    boolean getPracticeMode();
+
+    /**
+     * Retrieves the difficulty band new targets are drawn from.
+     * Precondition: None
+     * Postcondition: Returns the selected difficulty band.
+     *
+     * @return The selected difficulty band.
+     */
+    Difficulty getDifficulty();
+
     /**
      * Retrieves the classification lists used for tracking character matches.
      * Precondition: None
@@ -128,6 +251,15 @@ public interface INumberleModel {
      */
     ArrayList[] getClassList();
 
+    /**
+     * Retrieves the immutable state of the game published after the last change.
+     * Precondition: None
+     * Postcondition: The returned snapshot never changes and may be read from any thread.
+     *
+     * @return The latest snapshot.
+     */
+    GameSnapshot getSnapshot();
+
     /**
      * Sets the flag to verify the correctness of the equation.
      * Precondition: None
@@ -155,6 +287,43 @@ public interface INumberleModel {
      */
     void setRandomEquality(boolean randomEquality);
 
+    /**
+     * Sets the flag that forces every guess to keep revealed hits in place and use revealed symbols.
+     * Precondition: None
+     * Postcondition: The hardMode flag is updated.
+     *
+     * @param hardMode The new value for the hardMode flag.
+     */
+    void setHardMode(boolean hardMode);
+
+    /**
+     * Sets the flag that defers the target, giving each guess the feedback that keeps the most
+     * equations possible. It takes effect from the next game.
+     * Precondition: None
+     * Postcondition: The absurdleMode flag is updated.
+     *
+     * @param absurdleMode The new value for the absurdleMode flag.
+     */
+    void setAbsurdleMode(boolean absurdleMode);
+
+    /**
+     * Sets the flag for practice mode, outside of which undo, redo and restore are refused.
+     * Precondition: None
+     * Postcondition: The practiceMode flag is updated.
+     *
+     * @param practiceMode The new value for the practiceMode flag.
+     */
+    void setPracticeMode(boolean practiceMode);
+
+    /**
+     * Sets the difficulty band new targets are drawn from.
+     * Precondition: difficulty is not null.
+     * Postcondition: The difficulty is updated.
+     *
+     * @param difficulty The new difficulty band.
+     */
+    void setDifficulty(Difficulty difficulty);
+
     /**
      * Sets the target number or equation for the game.
      * Precondition: The target should be a String.
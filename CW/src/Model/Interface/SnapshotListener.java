@@ -0,0 +1,19 @@
+package Model.Interface;
+
+import Model.GameSnapshot;
+
+/**
+ * The Model.Interface.SnapshotListener interface is notified of every state a model publishes,
+ * before the model's observers, for components of the model layer that follow its games without
+ * being views.
+ */
+@FunctionalInterface
+public interface SnapshotListener {
+
+    /**
+     * Called on the model's thread after the model changed.
+     *
+     * @param snapshot The state just published.
+     */
+    void snapshotPublished(GameSnapshot snapshot);
+}
@@ -0,0 +1,269 @@
+package Model;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The MultiBoardGame class is a Quordle-style game: every guess is scored against several independent
+ * targets at once, and the game is won when each board has been solved within the attempts allowed
+ * (the number of boards plus five).
+ *
+ * Each board is a packed target, its symbol set and the attempt it was solved at; the feedback of a
+ * guess is one short code per board. A guess is preprocessed once by a BatchScorer and then scored
+ * against the unsolved boards only, which are kept as a compact index list that shrinks as boards
+ * are solved.
+ *
+ * The cost of a guess is linear in the number of boards: one constant-time BatchScorer.score per
+ * unsolved board, plus filling the feedback row. It cannot be sublinear while the feedback holds
+ * one code per board; the shared preprocessing only keeps the per-board constant small.
+ *
+ * Guesses that cannot be packed are rejected as badly formed, as in PackedGame.
+ *
+ * @invariant 0 <= guessCount && guessCount <= maxAttempts && activeCount <= targets.length
+ */
+public final class MultiBoardGame {
+    // Status of a guess refused because the game is over; the others are NumberleModel's codes
+    public static final int GAME_OVER = 0;
+    // Attempts allowed beyond one per board
+    public static final int EXTRA_ATTEMPTS = 5;
+    // Feedback recorded for boards solved before a guess
+    public static final int SOLVED = -1;
+
+    private final int[] targets;
+    private final int[] targetSymbols;
+    private final short[] solvedAt; // Index of the winning guess of each board, or -1
+    private final int[] active; // Unsolved boards, in board order
+    private int activeCount;
+    private final boolean verifyEquation;
+    private final int maxAttempts;
+    private final int[] guesses;
+    private final short[][] codes; // One row of per-board codes per accepted guess
+    private int guessCount;
+
+    /**
+     * Starts a game over the given targets.
+     *
+     * @param targets The packed target of each board.
+     * @param verifyEquation true to reject guesses that are not valid equations.
+     * @requires targets != null && targets.length > 0;
+     */
+    public MultiBoardGame(int[] targets, boolean verifyEquation) {
+        assert targets != null && targets.length > 0 : "There must be at least one board.";
+        assert targets.length + EXTRA_ATTEMPTS <= Short.MAX_VALUE : "Too many boards.";
+        this.targets = targets.clone();
+        this.targetSymbols = BatchScorer.symbolSets(this.targets, this.targets.length);
+        this.solvedAt = new short[targets.length];
+        this.active = new int[targets.length];
+        for (int b = 0; b < targets.length; b++) {
+            solvedAt[b] = -1;
+            active[b] = b;
+        }
+        this.activeCount = targets.length;
+        this.verifyEquation = verifyEquation;
+        this.maxAttempts = targets.length + EXTRA_ATTEMPTS;
+        this.guesses = new int[maxAttempts];
+        this.codes = new short[maxAttempts][];
+    }
+
+    /**
+     * Starts a game with distinct targets drawn from a corpus.
+     *
+     * @param corpus The equations targets are drawn from.
+     * @param boards The number of boards.
+     * @param verifyEquation true to reject guesses that are not valid equations.
+     * @param rand The random source.
+     * @requires corpus != null && 0 < boards && boards <= corpus.size();
+     * @return The new game.
+     */
+    public static MultiBoardGame random(EquationCorpus corpus, int boards, boolean verifyEquation, Random rand) {
+        assert corpus != null && boards > 0 && boards <= corpus.size() : "Not enough equations for the boards.";
+        int[] targets = new int[boards];
+        for (int b = 0; b < boards; b++) {
+            int target;
+            boolean repeated;
+            do {
+                target = corpus.pick(rand);
+                repeated = false;
+                for (int k = 0; k < b && !repeated; k++)
+                    repeated = targets[k] == target;
+            } while (repeated);
+            targets[b] = target;
+        }
+        return new MultiBoardGame(targets, verifyEquation);
+    }
+
+    /**
+     * Plays a guess given as text.
+     *
+     * @param input The guess, in canonical or display form.
+     * @requires input != null;
+     * @return GAME_OVER, or NumberleModel's status code: 1 accepted, 2 wrong length, 3 badly formed,
+     *         4 does not hold.
+     */
+    public int guess(CharSequence input) {
+        assert input != null : "Input must not be null.";
+        if (isGameOver())
+            return GAME_OVER;
+        if (input.length() != EquationScorer.EQUATION_LENGTH)
+            return 2;
+        return guess(EquationCodec.encode(input));
+    }
+
+    /**
+     * Plays a guess against every unsolved board, in time linear in the number of boards.
+     *
+     * @param guess The packed guess, or EquationCodec.INVALID if it could not be packed.
+     * @return GAME_OVER, or NumberleModel's status code: 1 accepted, 3 badly formed, 4 does not hold.
+     * @ensures \result == 1 ==> getGuessCount() == \old(getGuessCount()) + 1;
+     */
+    public int guess(int guess) {
+        if (isGameOver())
+            return GAME_OVER;
+        if (guess == EquationCodec.INVALID)
+            return 3;
+        if (verifyEquation) {
+            int status = EquationValidator.check(guess);
+            if (status == EquationValidator.INVALID_FORMAT)
+                return 3;
+            if (status != EquationValidator.VALID)
+                return 4;
+        }
+
+        // The guess is preprocessed once for all boards
+        BatchScorer scorer = new BatchScorer(guess);
+        short[] row = new short[targets.length];
+        Arrays.fill(row, (short) SOLVED);
+        int kept = 0;
+        for (int k = 0; k < activeCount; k++) {
+            int b = active[k];
+            int code = scorer.score(targets[b], targetSymbols[b]);
+            row[b] = (short) code;
+            if (code == EquationScorer.WIN_CODE)
+                solvedAt[b] = (short) guessCount;
+            else
+                active[kept++] = b;
+        }
+        activeCount = kept;
+        guesses[guessCount] = guess;
+        codes[guessCount++] = row;
+        return 1;
+    }
+
+    /**
+     * Retrieves the number of boards.
+     *
+     * @return The board count.
+     */
+    public int getBoardCount() {
+        return targets.length;
+    }
+
+    /**
+     * Retrieves the packed target of a board.
+     *
+     * @param board The board index.
+     * @return The target.
+     */
+    public int getTarget(int board) {
+        return targets[board];
+    }
+
+    /**
+     * Retrieves the number of guesses allowed in this game.
+     *
+     * @return The number of boards plus EXTRA_ATTEMPTS.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Retrieves the number of guesses left.
+     *
+     * @return The remaining attempts.
+     */
+    public int getRemainingAttempts() {
+        return maxAttempts - guessCount;
+    }
+
+    /**
+     * Retrieves the number of accepted guesses.
+     *
+     * @return The guess count.
+     */
+    public int getGuessCount() {
+        return guessCount;
+    }
+
+    /**
+     * Retrieves an accepted guess.
+     *
+     * @param index The guess index.
+     * @requires 0 <= index && index < getGuessCount();
+     * @return The packed guess.
+     */
+    public int getGuess(int index) {
+        assert index >= 0 && index < guessCount : "Guess index out of range.";
+        return guesses[index];
+    }
+
+    /**
+     * Retrieves the feedback a guess received on a board.
+     *
+     * @param index The guess index.
+     * @param board The board index.
+     * @requires 0 <= index && index < getGuessCount();
+     * @return The feedback code, or SOLVED if the board was solved by an earlier guess.
+     */
+    public int getCode(int index, int board) {
+        assert index >= 0 && index < guessCount : "Guess index out of range.";
+        return codes[index][board];
+    }
+
+    /**
+     * Checks if a board has been solved.
+     *
+     * @param board The board index.
+     * @return true if some guess matched the board's target.
+     */
+    public boolean isSolved(int board) {
+        return solvedAt[board] >= 0;
+    }
+
+    /**
+     * Retrieves the index of the guess that solved a board.
+     *
+     * @param board The board index.
+     * @return The guess index, or -1 if the board is not solved.
+     */
+    public int getSolvedAt(int board) {
+        return solvedAt[board];
+    }
+
+    /**
+     * Retrieves the number of solved boards.
+     *
+     * @return The solved board count.
+     */
+    public int getSolvedCount() {
+        return targets.length - activeCount;
+    }
+
+    /**
+     * Checks if every board has been solved.
+     *
+     * @return true if the game is won.
+     */
+    public boolean isGameWon() {
+        return activeCount == 0;
+    }
+
+    /**
+     * Checks if no more guesses are accepted.
+     *
+     * @return true if the game is won or out of attempts.
+     */
+    public boolean isGameOver() {
+        return activeCount == 0 || guessCount == maxAttempts;
+    }
+}
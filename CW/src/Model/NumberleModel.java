@@ -1,11 +1,17 @@
 package Model;// Model.NumberleModel.java
 import CustomClass.EquationGenerator;
 import Model.Interface.INumberleModel;
+import Model.Interface.SnapshotListener;
+import Model.Solver.AbsurdleAdversary;
+import Model.Solver.DifficultyIndex;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 /**
  * The Model.NumberleModel class represents the model component in the MVC pattern.
@@ -23,6 +29,8 @@ import java.util.*;
  */
 public class NumberleModel extends Observable implements INumberleModel {
     private String targetNumber; // The target number or equation to guess
+    private int packedTarget; // The target in packed form, or EquationCodec.INVALID
+    private int targetSymbols; // The set of symbols used by the target
     private StringBuilder currentGuess; // The current guess input by the user
     private ArrayList<String> guessList; // List of all guesses made
     private ArrayList<int[]> compareList; // List of comparison results for each guess
@@ -31,7 +39,9 @@ public class NumberleModel extends Observable implements INumberleModel {
     private boolean gameWon; // Indicates if the game has been won
     //@ requires newRandom != null;
     //@ ensures rand != null;
-    private final Random rand = new Random(); // Random number generator
+    private final Random rand = new Random(); // Random number generator, reseeded by setSeed
+    private RunJournal journal; // Records the run for replay, or null
+    private LongSupplier clock = System::currentTimeMillis; // Stamps game starts and guesses, in milliseconds
 
     //@ ensures verifyEquation == true;
     private boolean verifyEquation = false; // Flag to verify the correctness of equations
@@ -42,10 +52,136 @@ public class NumberleModel extends Observable implements INumberleModel {
     //@ ensures randomEquality == false;
     private boolean randomEquality = false; // Flag to use random equality in the target number
 
+    //@ ensures difficulty == Difficulty.ANY;
+    private Difficulty difficulty = Difficulty.ANY; // Difficulty band new targets are drawn from
+
+    private volatile DifficultyIndex difficultyIndex; // Solver-simulated difficulty of each corpus line, loaded on demand
+    private volatile int difficultyIndexSize = -1; // Corpus size difficultyIndex was loaded for, even if it is null
+
+    //@ ensures hardMode == false;
+    private boolean hardMode = false; // Flag to force guesses to reuse the revealed hints
+
+    //@ ensures absurdleMode == false;
+    private boolean absurdleMode = false; // Flag to choose the target adversarially, one guess at a time
+    private AbsurdleAdversary adversary; // Equations still possible in Absurdle mode, or null
+
+    //@ ensures practiceMode == false;
+    private boolean practiceMode = false; // Flag to allow undo, redo and restore of guesses
+
+    private volatile GameSnapshot snapshot; // Immutable state published after every change, for readers on any thread
+    private final List<SnapshotListener> listeners = new ArrayList<>(); // Notified of every change before the observers
+    private final ArrayDeque<GameSnapshot> redoStack = new ArrayDeque<>(); // Undone states, the latest on top
+
+    private int hitSymbols; // Revealed hits: the symbol code in the 4-bit slot of each position
+    private int hitPositions; // 0xF in the 4-bit slot of each position with a revealed hit
+    private int presentSymbols; // Bit s is set when symbol s is known to be in the target
+
     //@ requires generator != null;
     //@ ensures (\result instanceof EquationGenerator);
     private final EquationGenerator generator = new EquationGenerator(); // Generates equations
 
+    private final EquationCorpus corpus; // Shared corpus, or null to read equations.txt for every game
+    private static final PrintStream QUIET = new PrintStream(OutputStream.nullOutputStream());
+    private PrintStream console = System.out; // Destination of the game messages
+
+    /**
+     * Creates a model that reads its targets from equations.txt at the start of every game.
+     */
+    public NumberleModel() {
+        this(null);
+    }
+
+    /**
+     * Creates a model that draws its targets from an already loaded corpus, so that many games
+     * (for example the sessions of a server) share one copy of it.
+     *
+     * @param corpus The corpus targets are drawn from, or null to read equations.txt for every game.
+     * @requires corpus == null || corpus.size() > 0;
+     */
+    public NumberleModel(EquationCorpus corpus) {
+        assert corpus == null || corpus.size() > 0 : "The corpus must not be empty.";
+        this.corpus = corpus;
+    }
+
+    /**
+     * Enables or disables the game messages printed to the console.
+     *
+     * @param enabled true to print the messages, false to discard them.
+     * @post console == (enabled ? System.out : a stream that discards its output)
+     */
+    public void setConsoleOutput(boolean enabled) {
+        console = enabled ? System.out : QUIET;
+    }
+
+    /**
+     * Reseeds every random source of the model, so that the targets drawn from now on depend on
+     * the seed, the settings and the corpus only.
+     *
+     * @param seed The seed.
+     * @post The following draws repeat those of any model reseeded with the same seed.
+     */
+    public void setSeed(long seed) {
+        rand.setSeed(seed);
+        generator.setSeed(seed);
+        record(RunJournal.SEED, Long.toString(seed));
+    }
+
+    /**
+     * Sets the clock that stamps the start of each game and the acceptance of each guess in the
+     * snapshots, for example to rebuild a game with the times it was played at.
+     *
+     * @param clock The clock, in milliseconds since the epoch.
+     * @requires clock != null;
+     */
+    public void setClock(LongSupplier clock) {
+        assert clock != null : "Clock must not be null.";
+        this.clock = clock;
+    }
+
+    /**
+     * Sets the difficulty index targets are drawn through, instead of the one read next to the
+     * corpus on the first draw, for example to share one index between many models.
+     *
+     * @param difficultyIndex The index, built from this model's corpus, or null to draw every band
+     *                        uniformly from the corpus given at construction.
+     */
+    public void setDifficultyIndex(DifficultyIndex difficultyIndex) {
+        this.difficultyIndex = difficultyIndex;
+        difficultyIndexSize = difficultyIndex != null ? difficultyIndex.size() : corpus != null ? corpus.size() : -1;
+    }
+
+    /**
+     * Starts or stops recording the run. The journal receives the current settings, then every
+     * reseed, setting change, new target, guess, undo and redo, so that Tool.RunReplay can repeat
+     * the run exactly; call setSeed after this method to make the target draws repeatable too.
+     *
+     * @param journal The journal to append to, or null to stop recording.
+     * @post getJournal() == journal
+     */
+    public void setJournal(RunJournal journal) {
+        this.journal = journal;
+        record(RunJournal.SET, "verify " + verifyEquation);
+        record(RunJournal.SET, "random " + randomEquality);
+        record(RunJournal.SET, "hard " + hardMode);
+        record(RunJournal.SET, "absurdle " + absurdleMode);
+        record(RunJournal.SET, "practice " + practiceMode);
+        record(RunJournal.SET, "difficulty " + difficulty);
+    }
+
+    /**
+     * Retrieves the journal the run is recorded to.
+     *
+     * @return The journal, or null if the run is not recorded.
+     */
+    public RunJournal getJournal() {
+        return journal;
+    }
+
+    private void record(byte kind, String argument) {
+        if (journal != null)
+            journal.add(kind, argument);
+    }
+
     /**
      * Sets the flag to verify the correctness of the equation.
      *
@@ -56,6 +192,7 @@ public class NumberleModel extends Observable implements INumberleModel {
     public void setVerifyEquation(boolean verifyEquation) {
         assert remainingAttempts >= 0 : "Remaining attempts must be non-negative.";
         this.verifyEquation = verifyEquation;
+        record(RunJournal.SET, "verify " + verifyEquation);
     }
 
     /**
@@ -80,6 +217,60 @@ public class NumberleModel extends Observable implements INumberleModel {
     public void setRandomEquality(boolean randomEquality) {
         assert remainingAttempts >= 0 : "Remaining attempts must be non-negative.";
         this.randomEquality = randomEquality;
+        record(RunJournal.SET, "random " + randomEquality);
+    }
+
+    /**
+     * Sets the flag that forces every guess to reuse the revealed hints.
+     *
+     * @param hardMode The new value for the hardMode flag.
+     * @pre The method can be called without a precondition.
+     * @post The hardMode flag is updated to the value of the parameter.
+     */
+    public void setHardMode(boolean hardMode) {
+        assert remainingAttempts >= 0 : "Remaining attempts must be non-negative.";
+        this.hardMode = hardMode;
+        record(RunJournal.SET, "hard " + hardMode);
+    }
+
+    /**
+     * Sets the flag for Absurdle mode, where no target is fixed in advance: each guess gets the
+     * feedback that keeps the most equations possible. It takes effect from the next game.
+     *
+     * @param absurdleMode The new value for the absurdleMode flag.
+     * @pre The method can be called without a precondition.
+     * @post The absurdleMode flag is updated to the value of the parameter.
+     */
+    public void setAbsurdleMode(boolean absurdleMode) {
+        this.absurdleMode = absurdleMode;
+        record(RunJournal.SET, "absurdle " + absurdleMode);
+    }
+
+    /**
+     * Sets the flag for practice mode, the only mode in which guesses can be undone, redone and
+     * branched from, even after the game is over.
+     *
+     * @param practiceMode The new value for the practiceMode flag.
+     * @pre The method can be called without a precondition.
+     * @post The practiceMode flag is updated to the value of the parameter.
+     */
+    @Override
+    public void setPracticeMode(boolean practiceMode) {
+        this.practiceMode = practiceMode;
+        record(RunJournal.SET, "practice " + practiceMode);
+    }
+
+    /**
+     * Sets the difficulty band new targets are drawn from.
+     *
+     * @param difficulty The new difficulty band.
+     * @pre difficulty != null
+     * @post The difficulty is updated to the value of the parameter.
+     */
+    public void setDifficulty(Difficulty difficulty) {
+        assert difficulty != null : "Difficulty must not be null.";
+        this.difficulty = difficulty;
+        record(RunJournal.SET, "difficulty " + difficulty);
     }
 
     /**
@@ -95,11 +286,25 @@ public class NumberleModel extends Observable implements INumberleModel {
      */
     @Override
     public void initialize() {
+        // Read the equation from the file. In Absurdle mode it is only provisional
+        initialize(getEquationFromFile(), absurdleMode ? new AbsurdleAdversary(loadCorpus()) : null);
+    }
+
+    /**
+     * Initializes the game state around a given target.
+     *
+     * @param target The target equation.
+     * @param adversary The candidate set of Absurdle mode, or null.
+     */
+    private void initialize(String target, AbsurdleAdversary adversary) {
         guessList = new ArrayList<>();
         compareList = new ArrayList<>();
         classList = new ArrayList[4];
-        // Read the equation from the file.
-        targetNumber = getEquationFromFile();
+        targetNumber = target;
+        packedTarget = targetNumber == null ? EquationCodec.INVALID : EquationCodec.encode(targetNumber);
+        targetSymbols = EquationCodec.symbolSet(packedTarget);
+        this.adversary = adversary;
+        record(RunJournal.GAME, target);
 //        // This section of code is used to generate random equations and should be used as an alternative to the getEquationFromFile method.
 //        if (randomEquality)
 //            generator.generateEquation();
@@ -112,6 +317,9 @@ public class NumberleModel extends Observable implements INumberleModel {
         currentGuess = new StringBuilder("       ");
         remainingAttempts = MAX_ATTEMPTS;
         gameWon = false;
+        hitSymbols = 0;
+        hitPositions = 0;
+        presentSymbols = 0;
 
         // The assertion list is initialized to empty
         assert guessList.isEmpty() : "guessList Should be empty";
@@ -126,9 +334,8 @@ public class NumberleModel extends Observable implements INumberleModel {
         assert targetNumber != null : "targetNumber should not be empty";
 
         // Apply characters to classList[3]
-        String a = "0123456789+-*/=";
-        for (int i = 0; i < a.length(); i ++) {
-            classList[3].add(a.charAt(i));
+        for (int i = 0; i < EquationCodec.SYMBOL_COUNT; i ++) {
+            classList[3].add(EquationCodec.charOf(i));
         }
 
         // Assert that remainingAttempts are set correctly
@@ -136,12 +343,14 @@ public class NumberleModel extends Observable implements INumberleModel {
         // assert the game unwon
         assert !gameWon : "gameWon should be initialized to false";
 
+        snapshot = GameSnapshot.start(targetNumber, remainingAttempts, classGroups(), clock.getAsLong());
+        redoStack.clear();
+
         // Display the target equation if needed
         if (displayEquation)
-            System.out.println("Target is:" + getTargetNumber());
+            console.println("Target is:" + getTargetNumber());
         // Notifying the observer that the model has changed
-        setChanged();
-        notifyObservers();
+        publishChange();
     }
 
     /**
@@ -152,14 +361,14 @@ public class NumberleModel extends Observable implements INumberleModel {
      *           input != null && !input.isEmpty() && isValidEquationOrNumber(input);
      * @ensures ("The current guess is updated based on the input.")
      *          currentGuess.toString().equals(input);
-     * @ensures ("guessList contains the input, formatted as needed.")
-     *          guessList.contains(input.replaceAll("/", "÷").replaceAll("\\*", "×"));
+     * @ensures ("guessList contains the input in canonical form.")
+     *          guessList.contains(EquationCodec.toCanonical(input));
      * @ensures ("compareList contains the comparison results for the guess.")
      *          compareList.size() == guessList.size();
      * @ensures ("remainingAttempts is decremented.")
      *          remainingAttempts < \old(remainingAttempts);
      * @ensures ("If the input matches the targetNumber, gameWon is set to true.")
-     *          (input.replaceAll("÷", "/").replaceAll("×", "*").equals(targetNumber)) ==> gameWon;
+     *          (EquationCodec.toCanonical(input).equals(targetNumber)) ==> gameWon;
      * @ensures ("If the input is invalid, appropriate messages are displayed and the observer(s) are notified of the state change.")
      *          // This is handled within the method body and is not directly represented in JML.
      * @return An integer code representing the result of processing the input:
@@ -167,187 +376,177 @@ public class NumberleModel extends Observable implements INumberleModel {
      *         - 2: Invalid input length
      *         - 3: Invalid input format (not a valid equation)
      *         - 4: Invalid equation (does not satisfy the equation rules)
+     *         - 5: Hard mode violation (the guess does not reuse the revealed hints)
      */
     @Override
     public int processInput(String input) {
         // Prerequisite assertion: The input should be a valid equation or number
         assert input != null : "Input should not be null";
         assert !input.isEmpty() : "The input should not be empty";
+        record(RunJournal.INPUT, input);
+
+        // Pack the guess once; free-form input (possible when verification is off) stays unpacked
+        int guess = EquationCodec.encode(input);
+        String equation = guess != EquationCodec.INVALID ? EquationCodec.decode(guess) : EquationCodec.toCanonical(input);
 
         if (verifyEquation) {// Check that the input length is correct
             if (input.length() != 7) {
-                System.out.println("Invalid input length. Please try again.");
-                setChanged();
-                notifyObservers();
+                console.println("Invalid input length. Please try again.");
+                publishChange();
                 return 2;
             }
 
-            // Use regular expressions to check that the input conforms to the form of ordinary equations
-            if (!input.replaceAll("÷","/").replaceAll("×","*").matches("^(?!\\b(\\d{1,3})\\b=\\1$)(\\d{1,3}[+\\-*/]){0,2}-?\\d{1,3}=(\\d{1,3}[+\\-*/]){0,2}-?\\d{1,3}$")) {
-                System.out.println("Invalid input. Please enter a valid equation.");
-                setChanged();
-                notifyObservers();
+            // Check that the input conforms to the form of ordinary equations
+            int status = EquationValidator.check(guess);
+            if (status == EquationValidator.INVALID_FORMAT) {
+                console.println("Invalid input. Please enter a valid equation.");
+                publishChange();
                 return 3;
             }
 
             // Check for validity
-            if (checkEquation(input.replaceAll("÷","/").replaceAll("×","*"))) {
-                System.out.println("The input equation is valid.");
+            if (status == EquationValidator.VALID) {
+                console.println("The input equation is valid.");
             } else {
-                System.out.println("The input equation is invalid.");
+                console.println("The input equation is invalid.");
                 return 4;
             }
         }
+
+        // In hard mode the guess must keep every revealed hit and use every revealed symbol
+        int partialGuess = guess != EquationCodec.INVALID ? guess : EquationCodec.encodePartial(equation);
+        if (hardMode && !satisfiesHardMode(partialGuess)) {
+            console.println("Hard mode: the guess must reuse every revealed hint.");
+            publishChange();
+            return 5;
+        }
+        // In Absurdle mode the target becomes a member of the largest feedback partition of the guess
+        if (adversary != null) {
+            if (guess != EquationCodec.INVALID) {
+                adversary.respond(guess);
+                setTarget(EquationCodec.decode(adversary.representative()));
+            } else {
+                // Free-form guesses cannot be partitioned; the provisional target becomes final
+                adversary.fix(packedTarget);
+            }
+        }
         remainingAttempts--;
         // Update current guesses
         currentGuess = new StringBuilder(input);
-        guessList.add(input.replaceAll("/","÷").replaceAll("\\*","×"));
+        guessList.add(equation);
 
         // Match the target with the guessed character
-        int[] compared = compareStrings(getTargetNumber(),input.replaceAll("÷","/").replaceAll("×","*"));
+        int[] compared = compareStrings(getTargetNumber(), equation, guess);
         compareList.add(compared);
+        updateHardModeMasks(partialGuess, compared);
 
         // Postcondition assertion
         assert remainingAttempts < MAX_ATTEMPTS : "The number of remaining attempts should be reduced";
-        assert guessList.contains(input.replaceAll("/","÷").replaceAll("\\*","×")) : "The guessList should contain the input";
+        assert guessList.contains(equation) : "The guessList should contain the input";
         assert compareList.size() == guessList.size() : "The size of compareList should be the same as that of guessList";
         assert currentGuess.toString().equals(input) : "currentGuess should be updated to the value entered";
 
         // Check if your guesses are correct
-        if (input.replaceAll("÷","/").replaceAll("×","*").equals(targetNumber)) {
+        boolean correct = guess != EquationCodec.INVALID ? guess == packedTarget : equation.equals(targetNumber);
+        if (correct) {
             gameWon = true;
             showHistory();
-            System.out.println("Congratulations! You've guessed the right equality.");
+            console.println("Congratulations! You've guessed the right equality.");
         } else {
-            System.out.println("Incorrect guess. Your match is:");
+            console.println("Incorrect guess. Your match is:");
             if (displayEquation)
-                System.out.println("Target is:" + getTargetNumber());
+                console.println("Target is:" + getTargetNumber());
             showHistory();
             if (!isGameOver())
-                System.out.print("Try again.");
-            System.out.println("You have " + getRemainingAttempts() + " more chances.");
+                console.print("Try again.");
+            console.println("You have " + getRemainingAttempts() + " more chances.");
         }
 
         // If the guess is correct, the game-winning flag should be true
-        assert !input.replaceAll("÷", "/").replaceAll("×", "*").equals(targetNumber) || gameWon : "If the input matches targetNumber, gameWon should be true";
+        assert !equation.equals(targetNumber) || gameWon : "If the input matches targetNumber, gameWon should be true";
+
+        snapshot = snapshot.withGuess(equation, compared, remainingAttempts, gameWon, classGroups(), clock.getAsLong());
+        // A new guess starts a new branch; the undone states stay reachable through their snapshots
+        redoStack.clear();
 
         // Notifying the observer that the model has changed
-        setChanged();
-        notifyObservers();
+        publishChange();
 
         return 1;
     }
 
     /**
-     * Displays the history of guesses and their comparison results.
+     * Checks a guess against the hints revealed so far using the precomputed masks: one masked
+     * comparison for the positions of all hits and one for the set of symbols known to be present.
+     * The scoring rule marks presence rather than multiplicity, so a symbol set is sufficient.
      *
-     * @pre The method can be called without a precondition.
-     * @post The history of guesses and comparison results is printed to the console.
+     * @param guess The guess, packed with EquationCodec.encodePartial.
+     * @ensures \result == (every revealed hit is kept in place && every revealed symbol is used);
+     * @return true if the guess satisfies the hard mode constraints.
      */
-    private void showHistory() {
-        assert compareList != null : "The comparison list should not be null.";
-        assert guessList != null : "The guess list should not be null.";
-
-        for (int[] row : compareList) {
-            assert row != null : "The row in the comparison list should not be null.";
-            for (int value : row) {
-                System.out.print(value + " ");
-            }
-            System.out.println();
-        }
-        for (String row : guessList) {
-            assert row != null : "The row in the guess list should not be null.";
-            for (int i = 0; i < row.length(); i++) {
-                System.out.print(row.charAt(i) + " ");
-            }
-            System.out.println();
-        }
+    private boolean satisfiesHardMode(int guess) {
+        int used = EquationCodec.symbolSet(guess);
+        return ((guess ^ hitSymbols) & hitPositions) == 0 && (used & presentSymbols) == presentSymbols;
     }
 
     /**
-     * Checks if the given input string is a valid equation by comparing the evaluated results of both sides.
+     * Folds the feedback of an accepted guess into the hard mode masks.
      *
-     * @param input The input string containing the equation to check.
-     * @requires ("The input must be a non-null and non-empty string representing an equation.")
-     *           input != null && !input.isEmpty();
-     * @ensures ("Returns true if the equation is valid, which means the evaluated results of both sides are equal.")
-     *          \result == (evaluateExpression(leftSide) == evaluateExpression(rightSide));
-     * @return boolean indicating whether the equation is valid.
+     * @param guess The guess, packed with EquationCodec.encodePartial.
+     * @param compared The comparison row of the guess.
+     * @requires compared != null;
+     * @ensures hardMode ==> satisfiesHardMode(guess);
      */
-    private boolean checkEquation(String input) {
-        assert input != null : "Input equation should not be null.";
-        assert !input.isEmpty() : "Input equation should not be empty.";
+    private void updateHardModeMasks(int guess, int[] compared) {
+        foldHints(guess, compared);
+        assert !hardMode || satisfiesHardMode(guess) : "An accepted hard mode guess must satisfy the hints.";
+    }
 
-        // Remove the equal sign and split the equation
-        String[] parts = input.split("=");
-        if (parts.length != 2) {
-            System.out.println("Invalid equation format. Please enter a valid equation.");
-            return false;
+    /**
+     * Adds the hits and present symbols revealed by a comparison row to the hard mode masks.
+     *
+     * @param guess The guess, packed with EquationCodec.encodePartial.
+     * @param compared The comparison row of the guess.
+     * @requires compared != null;
+     */
+    private void foldHints(int guess, int[] compared) {
+        int length = Math.min(compared.length, EquationScorer.EQUATION_LENGTH);
+        for (int i = 0; i < length; i++) {
+            int symbol = EquationCodec.symbolAt(guess, i);
+            if (symbol == EquationCodec.EMPTY || compared[i] == 0)
+                continue;
+            presentSymbols |= 1 << symbol;
+            if (compared[i] == 1) {
+                hitSymbols |= symbol << (4 * i);
+                hitPositions |= 0xF << (4 * i);
+            }
         }
-
-        String leftSide = parts[0].trim();
-        String rightSide = parts[1].trim();
-
-        // Evaluates the value of the expression on the left
-        int leftValue = evaluateExpression(leftSide);
-        // Evaluates the value of the expression on the right
-        int rightValue = evaluateExpression(rightSide);
-
-        return leftValue == rightValue;
     }
 
     /**
-     * Evaluates the given mathematical expression and returns the result.
+     * Displays the history of guesses and their comparison results.
      *
-     * @param expression The mathematical expression to evaluate (e.g., "2 + 3 * 4").
-     * @requires ("The expression must be a non-null and non-empty string representing a valid mathematical expression.")
-     *           expression != null && !expression.isEmpty();
-     * @ensures ("The result of evaluating the expression is returned.")
-     *          \result == (\old(evaluateExpression(expression)));
-     * @return The result of evaluating the expression.
+     * @pre The method can be called without a precondition.
+     * @post The history of guesses and comparison results is printed to the console.
      */
-    private int evaluateExpression(String expression) {
-        // Precondition: The expression should be a non-null and non-empty string.
-        assert expression != null : "The expression cannot be null.";
-        assert !expression.isEmpty() : "The expression cannot be empty.";
-
-        // Remove all spaces
-        expression = expression.replaceAll("\\s+", "");
-        // Split the expression into tokens (numbers and operators)
-        List<String> tokens = new ArrayList<>(Arrays.asList(expression.split("(?=[+*/-])|(?<=[+*/-])")));
-
-        // Precondition: The tokens list should not be empty after splitting.
-        assert !tokens.isEmpty() : "The tokens list cannot be empty.";
+    private void showHistory() {
+        assert compareList != null : "The comparison list should not be null.";
+        assert guessList != null : "The guess list should not be null.";
 
-        // Handle multiplication and division
-        for (int i = 1; i < tokens.size(); i++) {
-            String token = tokens.get(i);
-            if (token.equals("*") || token.equals("/")) {
-                int result = calculateResult(Integer.parseInt(tokens.get(i - 1)), Integer.parseInt(tokens.get(i + 1)), token.charAt(0));
-                // Replace the calculated part
-                tokens.set(i - 1, Integer.toString(result));
-                tokens.remove(i); // Remove the operator
-                tokens.remove(i); // Remove the second number
-                i--; // Backtrack one step to handle consecutive multiplications/divisions
+        for (int[] row : compareList) {
+            assert row != null : "The row in the comparison list should not be null.";
+            for (int value : row) {
+                console.print(value + " ");
             }
+            console.println();
         }
-
-        // Handle addition and subtraction
-        String char1 = tokens.get(0);
-        int result;
-        if (!char1.equals("-")) {
-            result = Integer.parseInt(tokens.get(0));
-            for (int i = 1; i < tokens.size(); i += 2) {
-                result = calculateResult(result, Integer.parseInt(tokens.get(i + 1)), tokens.get(i).charAt(0));
-            }
-        } else {
-            result = -Integer.parseInt(tokens.get(1));
-            for (int i = 2; i < tokens.size(); i += 2) {
-                result = calculateResult(result, Integer.parseInt(tokens.get(i + 1)), tokens.get(i).charAt(0));
+        for (String row : guessList) {
+            assert row != null : "The row in the guess list should not be null.";
+            for (int i = 0; i < row.length(); i++) {
+                console.print(row.charAt(i) + " ");
             }
+            console.println();
         }
-
-        return result;
     }
 
     /**
@@ -357,7 +556,8 @@ public class NumberleModel extends Observable implements INumberleModel {
      * and 0 indicates no match.
      *
      * @param target The target string to compare against.
-     * @param input The input string to be compared.
+     * @param input The input string to be compared, in canonical form.
+     * @param packedInput The packed input, or EquationCodec.INVALID if the input cannot be packed.
      * @requires ("Both target and input must be non-null strings.")
      *           target != null && input != null;
      * @requires ("classList[3] must contain all characters that can be used in the input.")
@@ -374,7 +574,7 @@ public class NumberleModel extends Observable implements INumberleModel {
      *          (\forall char c; !input.contains(c) || !target.contains(c); classList[3].contains(c));
      * @return An array of integers indicating the match status for each character in the input.
      */
-    private int[] compareStrings(String target, String input) {
+    private int[] compareStrings(String target, String input, int packedInput) {
         // Precondition: The target and input strings should not be null.
         assert target != null : "Target string cannot be null.";
         assert input != null : "Input string cannot be null.";
@@ -382,12 +582,12 @@ public class NumberleModel extends Observable implements INumberleModel {
         // Precondition: The classList[3] should contain characters for input.
         assert classList[3] != null : "classList[3] should not be null.";
 
-        // Initialize the result array with zeros
-        int[] result = new int[target.length()];
+        // Score the guess with the shared scoring rule, without string handling when both sides are packed
+        int[] result = packedTarget != EquationCodec.INVALID && packedInput != EquationCodec.INVALID
+                ? EquationScorer.decodeFeedback(EquationScorer.feedbackCode(packedTarget, targetSymbols, packedInput), EquationScorer.EQUATION_LENGTH)
+                : EquationScorer.compare(target, input);
 
         // Mark characters from input that are present in classList[3]
-        // boolean[] matched = new boolean[target.length()];
-
         int minEquationLength = Math.min(target.length(), input.length());
         for (int i = 0; i < minEquationLength; i++){
             if (classList[3].contains(input.charAt(i))){
@@ -396,32 +596,19 @@ public class NumberleModel extends Observable implements INumberleModel {
             }
         }
 
-        // Check for exact matches (value 1)
-        for (int i = 0; i < input.length(); i++) {
-            if (i < target.length() && input.charAt(i) == target.charAt(i)) {
-                result[i] = 1;
-                if (!classList[1].contains(target.charAt(i))) {
-                    classList[1].add(target.charAt(i));
-                    classList[0].remove(Character.valueOf(target.charAt(i)));
-                }
-                //matched[i] = true;
+        // Classify exact matches (value 1)
+        for (int i = 0; i < minEquationLength; i++) {
+            if (result[i] == 1 && !classList[1].contains(target.charAt(i))) {
+                classList[1].add(target.charAt(i));
+                classList[0].remove(Character.valueOf(target.charAt(i)));
             }
         }
 
-        // Check for character matches but different positions (value 2)
+        // Classify character matches but different positions (value 2)
         for (int i = 0; i < minEquationLength; i++) {
-            if (result[i] != 1) { // If the current position is not an exact match
-                for (int j = 0; j < target.length(); j++) {
-                    if (input.charAt(i) == target.charAt(j)) {//!matched[j] &&
-                        result[i] = 2;
-                        if (!classList[2].contains(target.charAt(j))) {
-                            classList[2].add(target.charAt(j));
-                            classList[0].remove(Character.valueOf(target.charAt(j)));
-                        }
-                        //matched[j] = true; // 标记为已匹配，避免重复匹配
-                        break;
-                    }
-                }
+            if (result[i] == 2 && !classList[2].contains(input.charAt(i))) {
+                classList[2].add(input.charAt(i));
+                classList[0].remove(Character.valueOf(input.charAt(i)));
             }
         }
 
@@ -431,40 +618,6 @@ public class NumberleModel extends Observable implements INumberleModel {
         return result;
     }
 
-    /**
-     * Calculates the result of a binary operation between two integers.
-     *
-     * @param a The first operand.
-     * @param b The second operand (must not be zero if operator is '/').
-     * @param operator The operator ('+', '-', '*', '/').
-     * @requires ("The second operand 'b' must not be zero if the operator is division.")
-     *           operator != '/' || b != 0;
-     * @ensures ("Returns the result of the operation, or Integer.MAX_VALUE if division by zero occurs.")
-     *          (\result == a + b && operator == '+') ||
-     *          (\result == a - b && operator == '-') ||
-     *          (\result == a * b && operator == '*') ||
-     *          ((operator == '/' && b != 0) ==> \result == a / b) ||
-     *          ((operator == '/' && b == 0) ==> \result == Integer.MAX_VALUE);
-     * @return The result of the operation.
-     */
-    private int calculateResult(int a, int b, char operator) {
-        // Precondition: 'b' should not be zero if the operator is division.
-        assert operator != '/' || b != 0 : "Second operand must not be zero for division.";
-        // The switch statement handles the calculation based on the operator.
-        int result = switch (operator) {
-            case '+' -> a + b;
-            case '-' -> a - b;
-            case '*' -> a * b;
-            case '/' -> a / b; // Division by zero is checked by the precondition.
-            default -> throw new IllegalArgumentException("Invalid operator");
-        };
-
-        // Postcondition: The result should be within the range of integers.
-        assert Integer.MIN_VALUE <= result && result <= Integer.MAX_VALUE : "Result out of range.";
-
-        return result;
-    }
-
     /**
      * Sets the target number or equation for the game.
      *
@@ -477,7 +630,12 @@ public class NumberleModel extends Observable implements INumberleModel {
     public void setTarget(String target){
         // Precondition: The target should be a valid equation or number.
         assert target != null && !target.isEmpty() : "Target must be a non-null and non-empty string.";
+        record(RunJournal.TARGET, target);
         targetNumber = target;
+        packedTarget = EquationCodec.encode(target);
+        targetSymbols = EquationCodec.symbolSet(packedTarget);
+        if (snapshot != null)
+            snapshot = snapshot.withTarget(target);
         // Postcondition: The targetNumber is updated.
         assert targetNumber.equals(target) : "Target number not updated correctly.";
     }
@@ -553,10 +711,59 @@ public class NumberleModel extends Observable implements INumberleModel {
      */
     @Override
     public void startNewGame() {
-        System.out.println("Game is start now! You have a total of 6 chances.");
+        console.println("Game is start now! You have a total of 6 chances.");
         initialize();
     }
 
+    /**
+     * Starts a new game on a target prepared by prepareNextTarget, without reading equations.txt.
+     * A target prepared under other settings is ignored and a fresh one is drawn.
+     *
+     * @param next The prepared target, or null to draw one now.
+     * @ensures next != null && next.matches(difficulty, absurdleMode) ==> targetNumber.equals(EquationCodec.decode(next.target()));
+     */
+    @Override
+    public void startNewGame(PreparedTarget next) {
+        if (next == null || !next.matches(difficulty, absurdleMode)) {
+            startNewGame();
+            return;
+        }
+        console.println("Game is start now! You have a total of 6 chances.");
+        initialize(EquationCodec.decode(next.target()), next.adversary());
+    }
+
+    /**
+     * Draws the target of a later game and prepares its data under the current settings.
+     *
+     * @return The prepared target, or null if the corpus cannot be read.
+     */
+    @Override
+    public PreparedTarget prepareNextTarget() {
+        return nextTargetTask().get();
+    }
+
+    /**
+     * Captures what the target of a later game depends on: the current settings and one seed from
+     * the model's random source. The returned task draws and prepares the target from them alone,
+     * so it may run on any thread while the current game is played, and a seeded model draws the
+     * same targets whenever the task runs.
+     *
+     * @return The task, which returns the prepared target or null if the corpus cannot be read.
+     */
+    @Override
+    public Supplier<PreparedTarget> nextTargetTask() {
+        Difficulty difficulty = this.difficulty;
+        boolean absurdleMode = this.absurdleMode;
+        long seed = rand.nextLong();
+        return () -> {
+            EquationCorpus corpus = loadCorpus();
+            if (corpus == null)
+                return null;
+            return new PreparedTarget(pickEquation(corpus, difficulty, new Random(seed)), difficulty,
+                    absurdleMode ? new AbsurdleAdversary(corpus) : null);
+        };
+    }
+
     /**
      * Retrieves the list of guesses made by the user.
      *
@@ -621,6 +828,54 @@ public class NumberleModel extends Observable implements INumberleModel {
         return randomEquality;
     }
 
+    /**
+     * Retrieves the flag indicating whether guesses must reuse the revealed hints.
+     *
+     * @return boolean indicating if hard mode is enabled.
+     * @ensures ("Returns the value of the hardMode flag.")
+     *          \result == hardMode;
+     */
+    @Override
+    public boolean getHardMode() {
+        return hardMode;
+    }
+
+    /**
+     * Retrieves the value of the absurdleMode flag.
+     *
+     * @return The value of the absurdleMode flag.
+     * @ensures ("Returns the value of the absurdleMode flag.")
+     *          \result == absurdleMode;
+     */
+    @Override
+    public boolean getAbsurdleMode() {
+        return absurdleMode;
+    }
+
+    /**
+     * Retrieves the value of the practiceMode flag.
+     *
+     * @return The value of the practiceMode flag.
+     * @ensures ("Returns the value of the practiceMode flag.")
+     *          \result == practiceMode;
+     */
+    @Override
+    public boolean getPracticeMode() {
+        return practiceMode;
+    }
+
+    /**
+     * Retrieves the difficulty band new targets are drawn from.
+     *
+     * @return The selected difficulty band.
+     * @ensures ("Returns the value of the difficulty field.")
+     *          \result == difficulty;
+     */
+    @Override
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
     /**
      * Retrieves an equation from a file or the current target number based on the randomEquality flag.
      *
@@ -628,30 +883,237 @@ public class NumberleModel extends Observable implements INumberleModel {
      * @requires ("The file \"equations.txt\" must exist and be readable.")
      *           Files.exists(Paths.get("equations.txt")) && Files.isReadable(Paths.get("equations.txt"));
      * @ensures ("Returns a valid equation from the file or the current target number.")
-     *          (\result != null) && (randomEquality ? allEquations.contains(\result) : \result.equals(targetNumber));
+     *          (\result != null) && (randomEquality ? corpus.contains(EquationCodec.encode(\result)) : \result.equals(targetNumber));
      */
     private String getEquationFromFile() {
-        List<String> allEquations;
-        try {
-            allEquations = Files.readAllLines(Paths.get("equations.txt"));
-        } catch (IOException e) {
-            e.printStackTrace();
-            // Postcondition: If an exception occurs, the method returns null.
-            assert false : "IOException occurred while reading the file.";
+        EquationCorpus corpus = loadCorpus();
+        if (corpus == null)
             return null; // Or handle the error appropriately.
-        }
 
         // Postcondition: The list of all equations should not be empty.
-        assert allEquations != null && !allEquations.isEmpty() : "List of equations cannot be empty.";
+        assert corpus.size() > 0 : "List of equations cannot be empty.";
 
+        // Each draw takes one seed from the model's source, like the draws of nextTargetTask
         if (randomEquality)
-            return allEquations.get(rand.nextInt(allEquations.size()));
+            return EquationCodec.decode(pickEquation(corpus, difficulty, new Random(rand.nextLong())));
         else {
             if (targetNumber != null)
                 return targetNumber;
             else
-                return allEquations.get(rand.nextInt(allEquations.size()));
+                return EquationCodec.decode(pickEquation(corpus, difficulty, new Random(rand.nextLong())));
+        }
+    }
+
+    /**
+     * Retrieves the corpus given at construction, or reads equations.txt.
+     *
+     * @return The corpus, or null if the file cannot be read.
+     */
+    private EquationCorpus loadCorpus() {
+        if (corpus != null)
+            return corpus;
+        try {
+            return EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE));
+        } catch (IOException e) {
+            e.printStackTrace();
+            // Postcondition: If an exception occurs, the method returns null.
+            assert false : "IOException occurred while reading the file.";
+            return null;
+        }
+    }
+
+    /**
+     * Draws a target from the corpus, restricted to the selected difficulty band when a matching
+     * difficulty index is available next to the corpus.
+     *
+     * @param corpus The packed equations of the corpus.
+     * @param difficulty The difficulty band to draw from.
+     * @param random The random source of this draw.
+     * @requires corpus != null && corpus.size() > 0;
+     * @ensures corpus.contains(\result);
+     * @return The drawn packed equation.
+     */
+    private int pickEquation(EquationCorpus corpus, Difficulty difficulty, Random random) {
+        if (difficulty != Difficulty.ANY) {
+            // Read once into a local, as background preparation may load the index concurrently. A
+            // missing or stale index is remembered too, so the file is read once per corpus
+            DifficultyIndex difficultyIndex;
+            if (difficultyIndexSize == corpus.size()) {
+                difficultyIndex = this.difficultyIndex;
+            } else {
+                this.difficultyIndex = difficultyIndex = DifficultyIndex.read(Paths.get(DifficultyIndex.DEFAULT_FILE), corpus);
+                difficultyIndexSize = corpus.size();
+            }
+            if (difficultyIndex != null) {
+                int index = difficultyIndex.pick(difficulty, random);
+                if (index >= 0)
+                    return corpus.get(index);
+            }
+        }
+        // Without an index the target is drawn uniformly
+        return corpus.pick(random);
+    }
+
+    /**
+     * Retrieves the immutable state of the game published after the last change. It may be read
+     * from any thread, without locks, while the model keeps changing.
+     *
+     * @return The latest snapshot, or null before the first game.
+     */
+    @Override
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns to the state before the last guess. The undone state can be redone until another
+     * guess is made. Absurdle games cannot be undone, as their candidate set only shrinks.
+     *
+     * @return true if a guess was undone.
+     * @ensures \result ==> getSnapshot() == \old(getSnapshot()).getPrevious();
+     */
+    @Override
+    public boolean undo() {
+        if (!canUndo())
+            return false;
+        record(RunJournal.UNDO, null);
+        GameSnapshot previous = snapshot.getPrevious();
+        redoStack.push(snapshot);
+        apply(previous);
+        return true;
+    }
+
+    /**
+     * Replays the guess most recently undone.
+     *
+     * @return true if a guess was redone.
+     */
+    @Override
+    public boolean redo() {
+        if (!canRedo())
+            return false;
+        record(RunJournal.REDO, null);
+        apply(redoStack.pop());
+        return true;
+    }
+
+    /**
+     * Checks if a guess can be undone.
+     *
+     * @return true if undo() would change the game.
+     */
+    @Override
+    public boolean canUndo() {
+        return practiceMode && snapshot != null && snapshot.getPrevious() != null && adversary == null;
+    }
+
+    /**
+     * Checks if an undone guess can be redone.
+     *
+     * @return true if redo() would change the game.
+     */
+    @Override
+    public boolean canRedo() {
+        return practiceMode && !redoStack.isEmpty();
+    }
+
+    /**
+     * Travels to any earlier state of the current game, for example the end of a branch explored
+     * before. The redo history is dropped.
+     *
+     * @param state A snapshot published by this model during the current game.
+     * @return true if the state was restored; false outside practice mode or if it belongs to
+     *         another game.
+     * @ensures \result ==> getSnapshot() == state;
+     */
+    @Override
+    public boolean restore(GameSnapshot state) {
+        if (!practiceMode || snapshot == null || !snapshot.isSameGame(state) || adversary != null)
+            return false;
+        // The state may lie on a branch the model no longer holds, so its guesses are recorded
+        record(RunJournal.RESTORE, RunJournal.encodeGuesses(state));
+        redoStack.clear();
+        apply(state);
+        return true;
+    }
+
+    /**
+     * Makes a snapshot of the current game the model's state. The history is shared with the
+     * snapshot; only the at most MAX_ATTEMPTS rows of the mutable lists are rebuilt from it.
+     *
+     * @param state The state to return to.
+     * @requires state != null && snapshot.isSameGame(state);
+     * @ensures snapshot == state && guessList.size() == state.getGuessCount();
+     */
+    private void apply(GameSnapshot state) {
+        assert state != null && snapshot.isSameGame(state) : "Only states of the current game can be applied.";
+        targetNumber = state.getTargetNumber();
+        packedTarget = EquationCodec.encode(targetNumber);
+        targetSymbols = EquationCodec.symbolSet(packedTarget);
+        remainingAttempts = state.getRemainingAttempts();
+        gameWon = state.isGameWon();
+
+        guessList = new ArrayList<>(state.getGuesses());
+        compareList = new ArrayList<>();
+        hitSymbols = 0;
+        hitPositions = 0;
+        presentSymbols = 0;
+        for (int i = 0; i < state.getGuessCount(); i++) {
+            int[] compared = new int[state.getCompareLength(i)];
+            for (int j = 0; j < compared.length; j++)
+                compared[j] = state.getCompare(i, j);
+            compareList.add(compared);
+            foldHints(EquationCodec.encodePartial(guessList.get(i)), compared);
+        }
+        currentGuess = new StringBuilder(guessList.isEmpty() ? "       " : guessList.get(guessList.size() - 1));
+        // The keyboard classification is restored exactly, in the order its symbols joined each group
+        for (int group = 0; group < classList.length; group++) {
+            classList[group] = new ArrayList<>();
+            for (char c : state.getClassGroup(group).toCharArray())
+                classList[group].add(c);
+        }
+        snapshot = state;
+
+        assert compareList.size() == guessList.size() : "The size of compareList should be the same as that of guessList";
+        publishChange();
+    }
+
+    /**
+     * Adds a listener notified of every change of the model, before its observers.
+     *
+     * @param listener The listener.
+     * @requires listener != null;
+     */
+    @Override
+    public void addSnapshotListener(SnapshotListener listener) {
+        assert listener != null : "Listener must not be null.";
+        listeners.add(listener);
+    }
+
+    /**
+     * Notifies the listeners, then the observers, of a change.
+     */
+    private void publishChange() {
+        for (SnapshotListener listener : listeners)
+            listener.snapshotPublished(snapshot);
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * Copies the classification lists into strings for a snapshot.
+     *
+     * @return The four groups of classList, each as a string in list order.
+     */
+    private String[] classGroups() {
+        String[] groups = new String[classList.length];
+        for (int i = 0; i < classList.length; i++) {
+            StringBuilder group = new StringBuilder(classList[i].size());
+            for (char c : classList[i])
+                group.append(c);
+            groups[i] = group.toString();
         }
+        return groups;
     }
 
     /**
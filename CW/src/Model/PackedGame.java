@@ -0,0 +1,238 @@
+package Model;
+
+import Model.Interface.INumberleModel;
+
+/**
+ * The PackedGame class is a compact game state following NumberleModel's rules, for servers that keep
+ * very many games in memory. The target, the hard mode hints and the keyboard state are a handful of
+ * ints, and nothing is allocated per guess: guesses arrive packed and feedback leaves as a code.
+ *
+ * The keyboard state is kept as 15-bit symbol sets (present, used, correct and misplaced) packed in
+ * one long, from which NumberleModel's four classList groups follow: correct, misplaced, absent (used
+ * but neither) and unused. The rules are static routines over these fields, shared with GameArena,
+ * which keeps the same fields in off-heap records.
+ *
+ * Guesses that cannot be packed (characters outside EquationCodec.SYMBOLS) are rejected as badly
+ * formed even when verification is off, since this state has no textual fallback.
+ *
+ * @invariant 0 <= remainingAttempts && remainingAttempts <= INumberleModel.MAX_ATTEMPTS
+ */
+public final class PackedGame {
+    // Status of a guess refused because the game is over; the others are NumberleModel's codes
+    public static final int GAME_OVER = 0;
+    // Bit offsets of the symbol sets in the packed long
+    static final int PRESENT = 0;
+    static final int USED = 16;
+    static final int CORRECT = 32;
+    static final int MISPLACED = 48;
+
+    private final int target;
+    private final int targetSymbols;
+    private final boolean verifyEquation;
+    private final boolean hardMode;
+    private int remainingAttempts = INumberleModel.MAX_ATTEMPTS;
+    private boolean gameWon;
+    private int lastCode = -1;
+    private int hitSymbols; // Revealed hits: the symbol code in the 4-bit slot of each position
+    private int hitPositions; // 0xF in the 4-bit slot of each position with a revealed hit
+    private long symbolSets; // Present, used, correct and misplaced symbols, at their bit offsets
+
+    /**
+     * Starts a game.
+     *
+     * @param target The packed target equation.
+     * @param verifyEquation true to reject guesses that are not valid equations.
+     * @param hardMode true to force guesses to reuse the revealed hints.
+     * @requires 0 <= target && target < EquationCodec.PACKED_RANGE;
+     */
+    public PackedGame(int target, boolean verifyEquation, boolean hardMode) {
+        assert target >= 0 && target < EquationCodec.PACKED_RANGE : "The target must be a packed equation.";
+        this.target = target;
+        this.targetSymbols = EquationCodec.symbolSet(target);
+        this.verifyEquation = verifyEquation;
+        this.hardMode = hardMode;
+    }
+
+    /**
+     * Plays a guess.
+     *
+     * @param guess The packed guess, or EquationCodec.INVALID if it could not be packed.
+     * @return GAME_OVER, or NumberleModel's status code: 1 accepted, 3 badly formed,
+     *         4 does not hold, 5 hard mode violation.
+     * @ensures \result == 1 ==> remainingAttempts == \old(remainingAttempts) - 1;
+     */
+    public int guess(int guess) {
+        if (isGameOver())
+            return GAME_OVER;
+        int status = check(guess, verifyEquation, hardMode, hitSymbols, hitPositions, symbolSets);
+        if (status != 1)
+            return status;
+
+        remainingAttempts--;
+        lastCode = EquationScorer.feedbackCode(target, targetSymbols, guess);
+        int hits = hitPositions(lastCode);
+        hitSymbols |= guess & hits;
+        hitPositions |= hits;
+        symbolSets = reveal(symbolSets, guess, lastCode);
+        gameWon = guess == target;
+        return 1;
+    }
+
+    /**
+     * Checks a guess against the rules before it is played.
+     *
+     * @param guess The packed guess, or EquationCodec.INVALID.
+     * @param verifyEquation true to reject guesses that are not valid equations.
+     * @param hardMode true to force guesses to reuse the revealed hints.
+     * @param hitSymbols The revealed hits: the symbol in the 4-bit slot of each hit position.
+     * @param hitPositions 0xF in the 4-bit slot of each hit position.
+     * @param symbolSets The packed symbol sets.
+     * @return 1 if the guess may be played, otherwise 3 badly formed, 4 does not hold or
+     *         5 hard mode violation.
+     */
+    static int check(int guess, boolean verifyEquation, boolean hardMode, int hitSymbols, int hitPositions, long symbolSets) {
+        if (guess == EquationCodec.INVALID)
+            return 3;
+        if (verifyEquation) {
+            int status = EquationValidator.check(guess);
+            if (status == EquationValidator.INVALID_FORMAT)
+                return 3;
+            if (status != EquationValidator.VALID)
+                return 4;
+        }
+        int present = symbolSet(symbolSets, PRESENT);
+        if (hardMode && !(((guess ^ hitSymbols) & hitPositions) == 0
+                && (EquationCodec.symbolSet(guess) & present) == present))
+            return 5;
+        return 1;
+    }
+
+    /**
+     * Finds the exact hits of a feedback code.
+     *
+     * @param code The feedback code.
+     * @return 0xF in the 4-bit slot of each position scored correct.
+     */
+    static int hitPositions(int code) {
+        int positions = 0;
+        for (int i = 0; i < EquationScorer.EQUATION_LENGTH; i++, code /= 3) {
+            if (code % 3 == 1)
+                positions |= 0xF << (4 * i);
+        }
+        return positions;
+    }
+
+    /**
+     * Adds what a guess and its feedback revealed to the symbol sets.
+     *
+     * @param symbolSets The packed symbol sets.
+     * @param guess The packed guess.
+     * @param code The guess's feedback code.
+     * @return The updated symbol sets.
+     */
+    static long reveal(long symbolSets, int guess, int code) {
+        for (int i = 0; i < EquationScorer.EQUATION_LENGTH; i++, code /= 3) {
+            long bit = 1L << EquationCodec.symbolAt(guess, i);
+            symbolSets |= bit << USED;
+            switch (code % 3) {
+                case 1 -> symbolSets |= bit << CORRECT | bit << PRESENT;
+                case 2 -> symbolSets |= bit << MISPLACED | bit << PRESENT;
+                default -> {
+                }
+            }
+        }
+        return symbolSets;
+    }
+
+    /**
+     * Extracts one symbol set.
+     *
+     * @param symbolSets The packed symbol sets.
+     * @param offset PRESENT, USED, CORRECT or MISPLACED.
+     * @return A 15-bit symbol set.
+     */
+    static int symbolSet(long symbolSets, int offset) {
+        return (int) (symbolSets >>> offset) & 0xFFFF;
+    }
+
+    /**
+     * Retrieves the feedback code of the last accepted guess.
+     *
+     * @return The feedback code, or -1 before the first accepted guess.
+     */
+    public int getLastCode() {
+        return lastCode;
+    }
+
+    /**
+     * Retrieves the packed target.
+     *
+     * @return The target.
+     */
+    public int getTarget() {
+        return target;
+    }
+
+    /**
+     * Retrieves the number of guesses left.
+     *
+     * @return The remaining attempts.
+     */
+    public int getRemainingAttempts() {
+        return remainingAttempts;
+    }
+
+    /**
+     * Checks if the target has been found.
+     *
+     * @return true if the game is won.
+     */
+    public boolean isGameWon() {
+        return gameWon;
+    }
+
+    /**
+     * Checks if no more guesses are accepted.
+     *
+     * @return true if the game is won or out of attempts.
+     */
+    public boolean isGameOver() {
+        return gameWon || remainingAttempts == 0;
+    }
+
+    /**
+     * Retrieves the symbols found at their place in some guess (classList[1]).
+     *
+     * @return A 15-bit symbol set.
+     */
+    public int getCorrectSymbols() {
+        return symbolSet(symbolSets, CORRECT);
+    }
+
+    /**
+     * Retrieves the symbols found out of place in some guess (classList[2]).
+     *
+     * @return A 15-bit symbol set.
+     */
+    public int getMisplacedSymbols() {
+        return symbolSet(symbolSets, MISPLACED);
+    }
+
+    /**
+     * Retrieves the symbols used in some guess but never found in the target (classList[0]).
+     *
+     * @return A 15-bit symbol set.
+     */
+    public int getAbsentSymbols() {
+        return symbolSet(symbolSets, USED) & ~(symbolSet(symbolSets, CORRECT) | symbolSet(symbolSets, MISPLACED));
+    }
+
+    /**
+     * Retrieves the symbols not used in any guess yet (classList[3]).
+     *
+     * @return A 15-bit symbol set.
+     */
+    public int getUnusedSymbols() {
+        return ~symbolSet(symbolSets, USED) & ((1 << EquationCodec.SYMBOL_COUNT) - 1);
+    }
+}
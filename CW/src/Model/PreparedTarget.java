@@ -0,0 +1,28 @@
+package Model;
+
+import Model.Solver.AbsurdleAdversary;
+
+/**
+ * The PreparedTarget record is the target of a game that has not started yet, drawn and prepared
+ * in the background so that the game can start without reading equations.txt. It records the
+ * settings it was drawn under; a game started with other settings draws a fresh target instead.
+ *
+ * A prepared target is used by one game only, since its adversary changes as the game is played.
+ *
+ * @param target The packed target equation.
+ * @param difficulty The difficulty band the target was drawn from.
+ * @param adversary The candidate set of Absurdle mode, or null when the mode was off.
+ */
+public record PreparedTarget(int target, Difficulty difficulty, AbsurdleAdversary adversary) {
+
+    /**
+     * Checks if the target was prepared under the given settings.
+     *
+     * @param difficulty The current difficulty band.
+     * @param absurdleMode The current value of the absurdleMode flag.
+     * @return true if a game with these settings may start from this target.
+     */
+    public boolean matches(Difficulty difficulty, boolean absurdleMode) {
+        return this.difficulty == difficulty && (adversary != null) == absurdleMode;
+    }
+}
@@ -0,0 +1,201 @@
+package Model;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The RunJournal class records everything the run of a NumberleModel depends on, so that the run
+ * can be replayed exactly and offline (see Tool.RunReplay): the seed of the model's random source,
+ * its settings, the target of every game and every call that changes a game, in order. A model
+ * appends to its journal while it runs; the journal is kept in memory and written to a text file
+ * with one event per line:
+ *
+ *   seed {long}         the random source was reseeded
+ *   set {name} {value}  a setting changed: verify, random, hard, absurdle, practice or difficulty
+ *   game {target}       a game started on the target (as drawn, to check the replay against)
+ *   target {target}     the target was replaced
+ *   input {text}        processInput was called
+ *   undo, redo          undo or redo took a guess back or replayed it
+ *   restore {guesses}   the game was restored to the state with these guesses, each written as
+ *                       {length}:{text}
+ *
+ * Calls the model refused (an undo with nothing to undo, a restore outside practice mode) are not
+ * recorded. Texts escape backslashes and line breaks. Lines starting with '#' are comments.
+ *
+ * Instances are not thread-safe.
+ */
+public class RunJournal {
+    public static final byte SEED = 0;
+    public static final byte SET = 1;
+    public static final byte GAME = 2;
+    public static final byte TARGET = 3;
+    public static final byte INPUT = 4;
+    public static final byte UNDO = 5;
+    public static final byte REDO = 6;
+    public static final byte RESTORE = 7;
+    private static final String[] NAMES = {"seed", "set", "game", "target", "input", "undo", "redo", "restore"};
+    private static final String HEADER = "# Numberle run journal 1";
+
+    private byte[] kinds = new byte[64];
+    private String[] arguments = new String[64];
+    private int size;
+
+    /**
+     * Appends an event.
+     *
+     * @param kind The event kind, SEED to RESTORE.
+     * @param argument The argument of the event, or null for UNDO and REDO.
+     * @requires SEED <= kind && kind <= RESTORE;
+     */
+    public void add(byte kind, String argument) {
+        assert kind >= SEED && kind <= RESTORE : "Unknown event kind.";
+        if (size == kinds.length) {
+            kinds = Arrays.copyOf(kinds, 2 * size);
+            arguments = Arrays.copyOf(arguments, 2 * size);
+        }
+        kinds[size] = kind;
+        arguments[size] = argument;
+        size++;
+    }
+
+    /**
+     * Retrieves the number of events.
+     *
+     * @return The event count.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves the kind of an event.
+     *
+     * @param i The event number.
+     * @requires 0 <= i && i < size();
+     * @return The kind, SEED to RESTORE.
+     */
+    public byte getKind(int i) {
+        return kinds[i];
+    }
+
+    /**
+     * Retrieves the argument of an event.
+     *
+     * @param i The event number.
+     * @requires 0 <= i && i < size();
+     * @return The argument, or null for UNDO and REDO.
+     */
+    public String getArgument(int i) {
+        return arguments[i];
+    }
+
+    /**
+     * Writes the journal to a file, replacing it.
+     *
+     * @param file The file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.newLine();
+            for (int i = 0; i < size; i++) {
+                out.write(NAMES[kinds[i]]);
+                if (arguments[i] != null) {
+                    out.write(' ');
+                    out.write(escape(arguments[i]));
+                }
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Reads a journal written by write.
+     *
+     * @param file The file.
+     * @return The journal.
+     * @throws IOException If the file cannot be read or holds an unknown event.
+     */
+    public static RunJournal read(Path file) throws IOException {
+        RunJournal journal = new RunJournal();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty() || line.charAt(0) == '#')
+                    continue;
+                int space = line.indexOf(' ');
+                String name = space < 0 ? line : line.substring(0, space);
+                int kind = Arrays.asList(NAMES).indexOf(name);
+                if (kind < 0)
+                    throw new IOException("Unknown journal event \"" + name + "\".");
+                journal.add((byte) kind, space < 0 ? null : unescape(line.substring(space + 1)));
+            }
+        }
+        return journal;
+    }
+
+    /**
+     * Encodes the guesses of a state as the argument of a RESTORE event.
+     *
+     * @param state The state.
+     * @return The guesses, each as {length}:{text}.
+     */
+    static String encodeGuesses(GameSnapshot state) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < state.getGuessCount(); i++)
+            out.append(state.getGuess(i).length()).append(':').append(state.getGuess(i));
+        return out.toString();
+    }
+
+    /**
+     * Decodes the argument of a RESTORE event.
+     *
+     * @param argument The argument.
+     * @return The guesses of the restored state, in order.
+     * @throws IllegalArgumentException If the argument is malformed.
+     */
+    public static List<String> decodeGuesses(String argument) {
+        List<String> guesses = new ArrayList<>();
+        int at = 0;
+        while (at < argument.length()) {
+            int colon = argument.indexOf(':', at);
+            if (colon < 0)
+                throw new IllegalArgumentException("Malformed restore event.");
+            int end = colon + 1 + Integer.parseInt(argument.substring(at, colon));
+            if (end > argument.length())
+                throw new IllegalArgumentException("Malformed restore event.");
+            guesses.add(argument.substring(colon + 1, end));
+            at = end;
+        }
+        return guesses;
+    }
+
+    private static String escape(String text) {
+        if (text.indexOf('\\') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0)
+            return text;
+        return text.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String text) {
+        if (text.indexOf('\\') < 0)
+            return text;
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                c = text.charAt(++i);
+                c = c == 'n' ? '\n' : c == 'r' ? '\r' : c;
+            }
+            out.append(c);
+        }
+        return out.toString();
+    }
+}
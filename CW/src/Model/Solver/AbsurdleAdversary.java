@@ -0,0 +1,123 @@
+package Model.Solver;
+
+import Model.BatchScorer;
+import Model.EquationCorpus;
+import Model.EquationScorer;
+
+import java.util.stream.IntStream;
+
+/**
+ * The AbsurdleAdversary class plays the target side of the adversarial mode: no target is fixed in
+ * advance, and each guess receives the feedback that keeps the most equations possible. The equations
+ * still consistent with every answer so far are kept as packed arrays and shrink with each guess.
+ *
+ * Large candidate sets are partitioned in parallel chunks, each with its own counts.
+ *
+ * @invariant size > 0
+ */
+public class AbsurdleAdversary {
+    // Candidate sets at least this large are partitioned in parallel.
+    public static final int PARALLEL_THRESHOLD = 1 << 14;
+    private static final int CHUNK = 1 << 12;
+
+    private int[] candidates;
+    private int[] symbols;
+    private int size;
+
+    /**
+     * Starts with every equation of the corpus as a candidate.
+     *
+     * @param corpus The equations the target may be.
+     * @requires corpus != null && corpus.size() > 0;
+     */
+    public AbsurdleAdversary(EquationCorpus corpus) {
+        assert corpus != null && corpus.size() > 0 : "Corpus must not be null or empty.";
+        candidates = corpus.toArray();
+        size = candidates.length;
+        symbols = BatchScorer.symbolSets(candidates, size);
+    }
+
+    /**
+     * Answers a guess with the feedback whose partition of the candidates is largest, and keeps only
+     * that partition. Ties go to a feedback other than a win, then to the smallest code.
+     *
+     * @param guess The packed guess.
+     * @ensures size() > 0 && size() <= \old(size());
+     * @return The chosen feedback code.
+     */
+    public int respond(int guess) {
+        BatchScorer scorer = new BatchScorer(guess);
+        int[] counts = count(scorer);
+        int best = -1;
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] == 0)
+                continue;
+            if (best < 0 || counts[code] > counts[best]
+                    || (counts[code] == counts[best] && best == EquationScorer.WIN_CODE))
+                best = code;
+        }
+        assert best >= 0 : "Some candidate must remain.";
+
+        int kept = 0;
+        for (int c = 0; c < size; c++) {
+            if (scorer.score(candidates[c], symbols[c]) == best) {
+                candidates[kept] = candidates[c];
+                symbols[kept++] = symbols[c];
+            }
+        }
+        assert kept == counts[best] : "The kept partition must have the counted size.";
+        size = kept;
+        return best;
+    }
+
+    /**
+     * Stops adapting and keeps a single candidate, for guesses that cannot be partitioned.
+     *
+     * @param target The candidate to keep.
+     * @ensures size() == 1 && representative() == target;
+     */
+    public void fix(int target) {
+        candidates = new int[]{target};
+        symbols = BatchScorer.symbolSets(candidates, 1);
+        size = 1;
+    }
+
+    /**
+     * Retrieves a candidate consistent with every answer so far, to stand as the current target.
+     *
+     * @return A packed candidate.
+     */
+    public int representative() {
+        return candidates[0];
+    }
+
+    /**
+     * Retrieves the number of equations still consistent with every answer.
+     *
+     * @return The candidate count.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int[] count(BatchScorer scorer) {
+        if (size < PARALLEL_THRESHOLD) {
+            int[] counts = new int[EquationScorer.FEEDBACK_CODES];
+            scorer.partition(candidates, symbols, 0, size, counts);
+            return counts;
+        }
+        int chunks = (size + CHUNK - 1) / CHUNK;
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    int[] counts = new int[EquationScorer.FEEDBACK_CODES];
+                    scorer.partition(candidates, symbols, chunk * CHUNK, Math.min(size, (chunk + 1) * CHUNK), counts);
+                    return counts;
+                })
+                .reduce((a, b) -> {
+                    for (int i = 0; i < a.length; i++)
+                        a[i] += b[i];
+                    return a;
+                })
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,198 @@
+package Model.Solver;
+
+import Model.Difficulty;
+import Model.EquationCorpus;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The DifficultyIndex class stores the solver-simulated difficulty of every equation of the corpus.
+ * Each entry keeps the expected guess count (in hundredths), the worst-case guess count and the
+ * difficulty band, so an entry takes 4 bytes on disk. The equations of each band are grouped in
+ * memory so that a target of a given band can be drawn in constant time.
+ *
+ * File layout: magic, version, entry count, corpus hash, then one entry per corpus equation.
+ *
+ * @invariant expected.length == worst.length && worst.length == band.length
+ */
+public class DifficultyIndex {
+    // Default location of the index, next to equations.txt.
+    public static final String DEFAULT_FILE = "equations.difficulty";
+    private static final int MAGIC = 0x4E444958; // "NDIX"
+    private static final int VERSION = 2;
+    private static final int BANDS = 3;
+
+    private final int corpusHash;
+    private final short[] expected;
+    private final byte[] worst;
+    private final byte[] band;
+    private final int[][] byBand;
+
+    private DifficultyIndex(int corpusHash, short[] expected, byte[] worst, byte[] band) {
+        assert expected.length == worst.length && worst.length == band.length : "Index columns must have the same length.";
+        this.corpusHash = corpusHash;
+        this.expected = expected;
+        this.worst = worst;
+        this.band = band;
+        this.byBand = groupByBand(band);
+    }
+
+    /**
+     * Builds an index from simulated ratings. Equations are ranked by expected and then worst-case
+     * guess count, and each third of the ranking becomes one band.
+     *
+     * @param corpus The corpus the ratings belong to.
+     * @param ratings The rating of each corpus equation, in corpus order.
+     * @requires corpus.size() == ratings.length;
+     * @return The new index.
+     */
+    public static DifficultyIndex build(EquationCorpus corpus, ReferenceSolver.Rating[] ratings) {
+        assert corpus.size() == ratings.length : "Every corpus equation needs a rating.";
+        int n = ratings.length;
+        short[] expected = new short[n];
+        byte[] worst = new byte[n];
+        for (int i = 0; i < n; i++) {
+            expected[i] = (short) Math.min(Short.MAX_VALUE, Math.round(ratings[i].expected() * 100));
+            worst[i] = (byte) Math.min(Byte.MAX_VALUE, ratings[i].worst());
+        }
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++)
+            order[i] = i;
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> expected[i]).thenComparingInt(i -> worst[i]).thenComparingInt(i -> i));
+        byte[] band = new byte[n];
+        for (int rank = 0; rank < n; rank++)
+            band[order[rank]] = (byte) ((long) rank * BANDS / n);
+
+        return new DifficultyIndex(corpus.hash(), expected, worst, band);
+    }
+
+    /**
+     * Reads the index stored next to the corpus.
+     *
+     * @param file The index file.
+     * @param corpus The corpus the index must describe.
+     * @return The index, or null if the file is missing, unreadable or was built from another corpus.
+     */
+    public static DifficultyIndex read(Path file, EquationCorpus corpus) {
+        if (!Files.isReadable(file))
+            return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                return null;
+            int n = in.readInt();
+            int hash = in.readInt();
+            if (n != corpus.size() || hash != corpus.hash())
+                return null; // The index is stale
+            short[] expected = new short[n];
+            byte[] worst = new byte[n];
+            byte[] band = new byte[n];
+            for (int i = 0; i < n; i++) {
+                expected[i] = in.readShort();
+                worst[i] = in.readByte();
+                band[i] = in.readByte();
+                if (band[i] < 0 || band[i] >= BANDS)
+                    return null;
+            }
+            return new DifficultyIndex(hash, expected, worst, band);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Writes the index to a file.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size());
+            out.writeInt(corpusHash);
+            for (int i = 0; i < size(); i++) {
+                out.writeShort(expected[i]);
+                out.writeByte(worst[i]);
+                out.writeByte(band[i]);
+            }
+        }
+    }
+
+    /**
+     * Draws the index of a random corpus equation of the given difficulty in constant time.
+     *
+     * @param difficulty The requested difficulty band.
+     * @param rand The random source.
+     * @requires difficulty != null && rand != null;
+     * @ensures \result == -1 || difficulty == Difficulty.ANY || band(\result) == difficulty.band();
+     * @return A corpus index, or -1 if the band is empty.
+     */
+    public int pick(Difficulty difficulty, Random rand) {
+        assert difficulty != null : "Difficulty must not be null.";
+        if (difficulty == Difficulty.ANY)
+            return size() == 0 ? -1 : rand.nextInt(size());
+        int[] members = byBand[difficulty.band()];
+        return members.length == 0 ? -1 : members[rand.nextInt(members.length)];
+    }
+
+    /**
+     * Retrieves the number of indexed equations.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return band.length;
+    }
+
+    /**
+     * Retrieves the expected guess count of an equation.
+     *
+     * @param index The corpus index.
+     * @return The mean number of guesses the reference solver needed.
+     */
+    public double getExpected(int index) {
+        return expected[index] / 100.0;
+    }
+
+    /**
+     * Retrieves the worst-case guess count of an equation.
+     *
+     * @param index The corpus index.
+     * @return The largest number of guesses the reference solver needed.
+     */
+    public int getWorst(int index) {
+        return worst[index];
+    }
+
+    /**
+     * Retrieves the difficulty band of an equation.
+     *
+     * @param index The corpus index.
+     * @return The difficulty of the equation.
+     */
+    public Difficulty getDifficulty(int index) {
+        return Difficulty.values()[band[index] + 1];
+    }
+
+    private static int[][] groupByBand(byte[] band) {
+        List<List<Integer>> groups = new ArrayList<>();
+        for (int b = 0; b < BANDS; b++)
+            groups.add(new ArrayList<>());
+        for (int i = 0; i < band.length; i++)
+            groups.get(band[i]).add(i);
+        int[][] result = new int[BANDS][];
+        for (int b = 0; b < BANDS; b++)
+            result[b] = groups.get(b).stream().mapToInt(Integer::intValue).toArray();
+        return result;
+    }
+}
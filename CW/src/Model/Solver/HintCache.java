@@ -0,0 +1,192 @@
+package Model.Solver;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * The HintCache class is a bounded, concurrent, size-aware LRU cache of hints keyed by game history.
+ * It is split into independently locked segments, each an access-ordered map with its own share of the
+ * weight budget, so concurrent requests for different histories rarely contend. Hit, miss and eviction
+ * counts are kept in LongAdders.
+ *
+ * Values are computed outside the segment lock: two concurrent misses on the same key may both compute,
+ * and the first result stored wins.
+ *
+ * @invariant (\forall Segment s; s.weight <= maxWeight / segments.length)
+ */
+public class HintCache {
+    // Default weight budget, in approximate bytes.
+    public static final long DEFAULT_MAX_WEIGHT = 8L << 20;
+    private static final int HINT_WEIGHT = 48;
+
+    private final Segment[] segments;
+    private final long segmentMaxWeight;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache with the default weight budget and one segment per two cores, rounded down to
+     * a power of two.
+     */
+    public HintCache() {
+        this(DEFAULT_MAX_WEIGHT, Integer.highestOneBit(Math.max(2, Runtime.getRuntime().availableProcessors()) / 2));
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxWeight The total weight budget, in approximate bytes.
+     * @param segmentCount The number of segments, a power of two.
+     * @requires maxWeight > 0 && Integer.bitCount(segmentCount) == 1;
+     */
+    public HintCache(long maxWeight, int segmentCount) {
+        assert maxWeight > 0 : "The weight budget must be positive.";
+        assert Integer.bitCount(segmentCount) == 1 : "The segment count must be a power of two.";
+        segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++)
+            segments[i] = new Segment();
+        segmentMaxWeight = Math.max(1, maxWeight / segmentCount);
+    }
+
+    /**
+     * Retrieves the hint of a history, computing and caching it on a miss.
+     *
+     * @param key The history.
+     * @param compute Computes the hint of the history; it may return null.
+     * @return The cached or computed hint, or null.
+     */
+    public HintEngine.Hint get(HistoryKey key, Function<HistoryKey, HintEngine.Hint> compute) {
+        Segment segment = segmentFor(key);
+        HintEngine.Hint hint = segment.get(key);
+        if (hint != null) {
+            hits.increment();
+            return hint == HintEngine.Hint.NONE ? null : hint;
+        }
+        misses.increment();
+        hint = compute.apply(key);
+        segment.put(key, hint == null ? HintEngine.Hint.NONE : hint);
+        return hint;
+    }
+
+    /**
+     * Removes every entry. The counters are kept.
+     */
+    public void clear() {
+        for (Segment segment : segments)
+            segment.clear();
+    }
+
+    /**
+     * Retrieves the number of requests answered from the cache.
+     *
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Retrieves the number of requests that had to be computed.
+     *
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Retrieves the number of entries dropped to stay within the weight budget.
+     *
+     * @return The eviction count.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Retrieves the number of cached entries.
+     *
+     * @return The entry count.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments)
+            size += segment.size();
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        long h = getHitCount();
+        long m = getMissCount();
+        return String.format("HintCache[entries=%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d]",
+                size(), h, m, h + m == 0 ? 0.0 : 100.0 * h / (h + m), getEvictionCount());
+    }
+
+    private Segment segmentFor(HistoryKey key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * One independently locked part of the cache.
+     */
+    private final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        // Access order makes the eldest entry the least recently used one
+        private final LinkedHashMap<HistoryKey, HintEngine.Hint> map = new LinkedHashMap<>(16, 0.75f, true);
+        private long weight;
+
+        HintEngine.Hint get(HistoryKey key) {
+            lock.lock();
+            try {
+                return map.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void put(HistoryKey key, HintEngine.Hint hint) {
+            lock.lock();
+            try {
+                if (map.putIfAbsent(key, hint) != null)
+                    return;
+                weight += key.weight() + HINT_WEIGHT;
+                var iterator = map.entrySet().iterator();
+                while (weight > segmentMaxWeight && iterator.hasNext()) {
+                    Map.Entry<HistoryKey, HintEngine.Hint> eldest = iterator.next();
+                    if (eldest.getKey() == key)
+                        break; // Always keep the entry just added
+                    iterator.remove();
+                    weight -= eldest.getKey().weight() + HINT_WEIGHT;
+                    evictions.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                map.clear();
+                weight = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return map.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package Model.Solver;
+
+import Model.BatchScorer;
+import Model.EquationCodec;
+import Model.EquationCorpus;
+import Model.EquationScorer;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * The HintEngine class suggests the next guess of a game from its history. The corpus is filtered by
+ * every (guess, feedback) pair seen so far, and the remaining candidate whose largest feedback partition
+ * is smallest is suggested, ties broken by the expected partition size and then by corpus order, so the
+ * same history always gives the same hint.
+ *
+ * The first two guesses, the most expensive ones, are read from an OpeningBook when one is available.
+ * Other results are kept in a HintCache keyed by the history, so repeated requests from the GUI or from
+ * servers are answered without recomputing.
+ *
+ * @invariant corpus != null && cache != null
+ */
+public class HintEngine {
+    // Largest number of candidates evaluated as guesses in one request.
+    public static final int DEFAULT_GUESS_POOL = ReferenceSolver.DEFAULT_GUESS_POOL;
+
+    private static HintEngine shared;
+
+    private final int[] corpus;
+    private final int[] corpusSymbols;
+    private final HintCache cache;
+    private final OpeningBook book;
+    private final int guessPoolLimit;
+
+    /**
+     * Creates a hint engine over the given corpus with its own cache.
+     *
+     * @param corpus The equations a target can be drawn from.
+     * @requires corpus != null && corpus.size() > 0;
+     */
+    public HintEngine(EquationCorpus corpus) {
+        this(corpus, new HintCache(), null, DEFAULT_GUESS_POOL);
+    }
+
+    /**
+     * Creates a hint engine over the given corpus.
+     *
+     * @param corpus The equations a target can be drawn from.
+     * @param cache The cache of hints by history.
+     * @param book The opening book of the corpus, or null to compute the first guesses.
+     * @param guessPoolLimit The largest number of candidates evaluated as guesses in one request.
+     * @requires corpus != null && corpus.size() > 0 && cache != null && guessPoolLimit > 0;
+     */
+    public HintEngine(EquationCorpus corpus, HintCache cache, OpeningBook book, int guessPoolLimit) {
+        assert corpus != null && corpus.size() > 0 : "Corpus must not be null or empty.";
+        assert cache != null : "Cache must not be null.";
+        assert guessPoolLimit > 0 : "Guess pool limit must be positive.";
+        this.corpus = corpus.toArray();
+        this.corpusSymbols = BatchScorer.symbolSets(this.corpus, this.corpus.length);
+        this.cache = cache;
+        this.book = book;
+        this.guessPoolLimit = guessPoolLimit;
+    }
+
+    /**
+     * Retrieves the engine shared by every game of this process, loading the default corpus and,
+     * if it is present and up to date, its opening book on first use.
+     *
+     * @return The shared engine, or null if the corpus cannot be read.
+     */
+    public static synchronized HintEngine shared() {
+        if (shared == null) {
+            try {
+                EquationCorpus corpus = EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE));
+                OpeningBook book = OpeningBook.read(Paths.get(OpeningBook.DEFAULT_FILE), corpus);
+                shared = new HintEngine(corpus, new HintCache(), book, DEFAULT_GUESS_POOL);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Retrieves the cache in front of the engine, for its metrics.
+     *
+     * @return The hint cache.
+     */
+    public HintCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Suggests the next guess for a history.
+     *
+     * @param guesses The packed guesses played so far.
+     * @param codes The feedback code of each guess.
+     * @param count The number of guesses played.
+     * @requires 0 <= count && count <= guesses.length && count <= codes.length;
+     * @return The hint, or null if no equation of the corpus is consistent with the history.
+     */
+    public Hint hint(int[] guesses, int[] codes, int count) {
+        if (book != null) {
+            Hint opening = book.lookup(guesses, codes, count);
+            if (opening != null)
+                return opening;
+        }
+        return cache.get(HistoryKey.of(guesses, codes, count), key -> compute(guesses, codes, count));
+    }
+
+    private Hint compute(int[] guesses, int[] codes, int count) {
+        int[] remaining = corpus.clone();
+        int[] symbols = corpusSymbols.clone();
+        int size = remaining.length;
+        for (int g = 0; g < count && size > 0; g++) {
+            BatchScorer scorer = new BatchScorer(guesses[g]);
+            int kept = 0;
+            for (int c = 0; c < size; c++) {
+                if (scorer.score(remaining[c], symbols[c]) == codes[g]) {
+                    remaining[kept] = remaining[c];
+                    symbols[kept++] = symbols[c];
+                }
+            }
+            size = kept;
+        }
+        if (size == 0)
+            return null;
+        if (size <= 2)
+            return new Hint(remaining[0], size);
+
+        // Large candidate sets are sampled at an even stride to keep the hint deterministic
+        int poolSize = Math.min(size, guessPoolLimit);
+        int[] pool = new int[poolSize];
+        for (int p = 0; p < poolSize; p++)
+            pool[p] = remaining[(int) ((long) p * size / poolSize)];
+        return new Hint(chooseGuess(pool, poolSize, remaining, symbols, size), size);
+    }
+
+    /**
+     * Picks the guess of the pool whose largest feedback partition of the candidates is smallest.
+     * Ties are broken by the sum of squared partition sizes, then in favour of guesses that are
+     * candidates themselves, then by pool order.
+     *
+     * @param pool The guesses to evaluate, in the first poolSize entries.
+     * @param poolSize The number of guesses to evaluate.
+     * @param remaining The candidates, in the first size entries.
+     * @param symbols The symbol set of each candidate.
+     * @param size The number of candidates.
+     * @requires poolSize > 0 && size > 0;
+     * @return The chosen guess.
+     */
+    static int chooseGuess(int[] pool, int poolSize, int[] remaining, int[] symbols, int size) {
+        int[] codes = new int[size];
+        int[] counts = new int[EquationScorer.FEEDBACK_CODES];
+        int best = pool[0];
+        int bestWorst = Integer.MAX_VALUE;
+        long bestSquares = Long.MAX_VALUE;
+        boolean bestCandidate = false;
+        for (int p = 0; p < poolSize; p++) {
+            int guess = pool[p];
+            new BatchScorer(guess).scoreAll(remaining, symbols, 0, size, codes);
+            int worst = 0;
+            long squares = 0;
+            for (int c = 0; c < size; c++) {
+                int bucket = ++counts[codes[c]];
+                worst = Math.max(worst, bucket);
+                // (n + 1)^2 - n^2 keeps the sum of squared partition sizes up to date
+                squares += 2L * bucket - 1;
+            }
+            boolean candidate = counts[EquationScorer.WIN_CODE] > 0;
+            for (int c = 0; c < size; c++)
+                counts[codes[c]] = 0;
+            if (worst < bestWorst || (worst == bestWorst && (squares < bestSquares
+                    || (squares == bestSquares && candidate && !bestCandidate)))) {
+                best = guess;
+                bestWorst = worst;
+                bestSquares = squares;
+                bestCandidate = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The Hint record holds a suggested guess.
+     *
+     * @param guess The packed suggested equation.
+     * @param remaining The number of equations still consistent with the history.
+     */
+    public record Hint(int guess, int remaining) {
+        // Marks histories no equation is consistent with in the cache
+        static final Hint NONE = new Hint(EquationCodec.INVALID, 0);
+    }
+}
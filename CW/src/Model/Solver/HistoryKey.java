@@ -0,0 +1,71 @@
+package Model.Solver;
+
+import java.util.Arrays;
+
+/**
+ * The HistoryKey class is the canonical cache key of a game history: the sequence of packed guesses
+ * and feedback codes, one long per step. Two games with the same guesses and feedback share a key
+ * regardless of their targets, so their hints are computed once.
+ *
+ * @invariant steps != null
+ */
+public final class HistoryKey {
+    private final long[] steps;
+    private final int hash;
+
+    private HistoryKey(long[] steps) {
+        this.steps = steps;
+        // 64-bit mix of the steps, folded to 32 bits
+        long h = 0x9E3779B97F4A7C15L;
+        for (long step : steps) {
+            h ^= step;
+            h *= 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+        }
+        this.hash = (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Builds the key of a history.
+     *
+     * @param guesses The packed guesses.
+     * @param codes The feedback code of each guess.
+     * @param count The number of steps to use.
+     * @requires 0 <= count && count <= guesses.length && count <= codes.length;
+     * @return The key.
+     */
+    public static HistoryKey of(int[] guesses, int[] codes, int count) {
+        long[] steps = new long[count];
+        for (int i = 0; i < count; i++)
+            steps[i] = ((long) guesses[i] << 12) | codes[i];
+        return new HistoryKey(steps);
+    }
+
+    /**
+     * Retrieves the number of steps in the history.
+     *
+     * @return The number of guesses.
+     */
+    public int length() {
+        return steps.length;
+    }
+
+    /**
+     * Estimates the memory used by the key, for size-aware caching.
+     *
+     * @return The approximate size in bytes.
+     */
+    public int weight() {
+        return 32 + 8 * steps.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof HistoryKey other && hash == other.hash && Arrays.equals(steps, other.steps));
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
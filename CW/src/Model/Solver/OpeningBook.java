@@ -0,0 +1,184 @@
+package Model.Solver;
+
+import Model.BatchScorer;
+import Model.EquationCodec;
+import Model.EquationCorpus;
+import Model.EquationScorer;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * The OpeningBook class stores precomputed hints for the first two guesses of a game: the opener,
+ * and the best second guess for every feedback code the opener can receive. Both are chosen with
+ * the whole corpus as the guess pool, which is too slow to do per request. A lookup is one array read.
+ *
+ * File layout: magic, version, corpus size, corpus hash, opener, entry count, then one entry
+ * (feedback code, second guess, remaining candidates) per reachable feedback code.
+ *
+ * @invariant second.length == EquationScorer.FEEDBACK_CODES && remaining.length == second.length
+ */
+public class OpeningBook {
+    // Default location of the book, next to equations.txt.
+    public static final String DEFAULT_FILE = "equations.book";
+    private static final int MAGIC = 0x4E424F4B; // "NBOK"
+    private static final int VERSION = 1;
+
+    private final int corpusSize;
+    private final int corpusHash;
+    private final int opener;
+    private final int[] second;
+    private final int[] remaining;
+
+    private OpeningBook(int corpusSize, int corpusHash, int opener, int[] second, int[] remaining) {
+        assert second.length == EquationScorer.FEEDBACK_CODES : "One second guess per feedback code is needed.";
+        assert remaining.length == second.length : "Book columns must have the same length.";
+        this.corpusSize = corpusSize;
+        this.corpusHash = corpusHash;
+        this.opener = opener;
+        this.second = second;
+        this.remaining = remaining;
+    }
+
+    /**
+     * Computes the opening book of a corpus. Feedback codes are solved in parallel.
+     *
+     * @param corpus The equations a target can be drawn from.
+     * @requires corpus != null && corpus.size() > 0;
+     * @return The new book.
+     */
+    public static OpeningBook build(EquationCorpus corpus) {
+        assert corpus != null && corpus.size() > 0 : "Corpus must not be null or empty.";
+        int[] all = corpus.toArray();
+        int n = all.length;
+        int[] allSymbols = BatchScorer.symbolSets(all, n);
+        int opener = HintEngine.chooseGuess(all, n, all, allSymbols, n);
+
+        // Group the corpus by the feedback each equation gives to the opener
+        int[] codes = new int[n];
+        new BatchScorer(opener).scoreAll(all, allSymbols, 0, n, codes);
+        int[] remaining = new int[EquationScorer.FEEDBACK_CODES];
+        for (int code : codes)
+            remaining[code]++;
+        int[][] buckets = new int[EquationScorer.FEEDBACK_CODES][];
+        for (int code = 0; code < buckets.length; code++)
+            buckets[code] = new int[remaining[code]];
+        int[] filled = new int[EquationScorer.FEEDBACK_CODES];
+        for (int i = 0; i < n; i++)
+            buckets[codes[i]][filled[codes[i]]++] = all[i];
+
+        int[] second = new int[EquationScorer.FEEDBACK_CODES];
+        IntStream.range(0, second.length).parallel().forEach(code -> {
+            int[] bucket = buckets[code];
+            if (bucket.length == 0)
+                second[code] = EquationCodec.INVALID;
+            else if (bucket.length <= 2)
+                second[code] = bucket[0];
+            else
+                second[code] = HintEngine.chooseGuess(all, n, bucket, BatchScorer.symbolSets(bucket, bucket.length), bucket.length);
+        });
+        return new OpeningBook(n, corpus.hash(), opener, second, remaining);
+    }
+
+    /**
+     * Reads a book from a file.
+     *
+     * @param file The file to read.
+     * @param corpus The corpus the book must belong to.
+     * @return The book, or null if the file is missing, malformed or built from another corpus.
+     */
+    public static OpeningBook read(Path file, EquationCorpus corpus) {
+        if (!Files.isReadable(file))
+            return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                return null;
+            int n = in.readInt();
+            int hash = in.readInt();
+            if (n != corpus.size() || hash != corpus.hash())
+                return null; // The book is stale
+            int opener = in.readInt();
+            int entries = in.readInt();
+            int[] second = new int[EquationScorer.FEEDBACK_CODES];
+            int[] remaining = new int[EquationScorer.FEEDBACK_CODES];
+            Arrays.fill(second, EquationCodec.INVALID);
+            for (int i = 0; i < entries; i++) {
+                int code = in.readUnsignedShort();
+                if (code >= EquationScorer.FEEDBACK_CODES)
+                    return null;
+                second[code] = in.readInt();
+                remaining[code] = in.readInt();
+            }
+            return new OpeningBook(n, hash, opener, second, remaining);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Writes the book to a file.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(corpusSize);
+            out.writeInt(corpusHash);
+            out.writeInt(opener);
+            out.writeInt(getReachableCodes());
+            for (int code = 0; code < second.length; code++) {
+                if (remaining[code] == 0)
+                    continue;
+                out.writeShort(code);
+                out.writeInt(second[code]);
+                out.writeInt(remaining[code]);
+            }
+        }
+    }
+
+    /**
+     * Looks up the hint of a history that is still within the book.
+     *
+     * @param guesses The packed guesses played so far.
+     * @param codes The feedback code of each guess.
+     * @param count The number of guesses played.
+     * @return The hint, or null if the history is not covered by the book.
+     */
+    public HintEngine.Hint lookup(int[] guesses, int[] codes, int count) {
+        if (count == 0)
+            return new HintEngine.Hint(opener, corpusSize);
+        if (count == 1 && guesses[0] == opener && remaining[codes[0]] > 0)
+            return new HintEngine.Hint(second[codes[0]], remaining[codes[0]]);
+        return null;
+    }
+
+    /**
+     * Retrieves the precomputed first guess.
+     *
+     * @return The packed opener.
+     */
+    public int getOpener() {
+        return opener;
+    }
+
+    /**
+     * Counts the feedback codes the opener can receive from a corpus target.
+     *
+     * @return The number of book entries after the opener.
+     */
+    public int getReachableCodes() {
+        int count = 0;
+        for (int r : remaining) {
+            if (r > 0)
+                count++;
+        }
+        return count;
+    }
+}
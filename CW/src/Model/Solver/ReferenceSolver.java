@@ -0,0 +1,185 @@
+package Model.Solver;
+
+import Model.BatchScorer;
+import Model.EquationCorpus;
+import Model.EquationScorer;
+
+import java.util.Random;
+
+/**
+ * The ReferenceSolver class plays Numberle against a known target using a minimax strategy:
+ * each guess is a remaining candidate whose largest feedback partition is smallest, with ties
+ * broken by the expected partition size and then at random. It is used offline to rate how
+ * hard each equation of the corpus is to find.
+ *
+ * Candidate sets are arrays of packed equations (see Model.EquationCodec) kept next to their
+ * symbol sets, and are partitioned with Model.BatchScorer.
+ *
+ * @invariant corpus != null && corpus.size() > 0
+ */
+public class ReferenceSolver {
+    // Largest number of candidates evaluated as guesses in one step.
+    public static final int DEFAULT_GUESS_POOL = 512;
+
+    private final EquationCorpus corpus;
+    private final int guessPoolLimit;
+
+    /**
+     * Creates a solver over the given corpus of equations.
+     *
+     * @param corpus The equations a target can be drawn from.
+     * @requires corpus != null && corpus.size() > 0;
+     */
+    public ReferenceSolver(EquationCorpus corpus) {
+        this(corpus, DEFAULT_GUESS_POOL);
+    }
+
+    /**
+     * Creates a solver over the given corpus with a bound on the guesses evaluated per step.
+     *
+     * @param corpus The equations a target can be drawn from.
+     * @param guessPoolLimit The largest number of candidates evaluated as guesses in one step.
+     * @requires corpus != null && corpus.size() > 0 && guessPoolLimit > 0;
+     */
+    public ReferenceSolver(EquationCorpus corpus, int guessPoolLimit) {
+        assert corpus != null && corpus.size() > 0 : "Corpus must not be null or empty.";
+        assert guessPoolLimit > 0 : "Guess pool limit must be positive.";
+        this.corpus = corpus;
+        this.guessPoolLimit = guessPoolLimit;
+    }
+
+    /**
+     * Plays one game against the target and counts the guesses needed to find it.
+     *
+     * @param target The packed target equation, which must be part of the corpus.
+     * @param random Random source used for tie-breaking.
+     * @requires corpus.contains(target) && random != null;
+     * @ensures \result >= 1;
+     * @return The number of guesses the solver used.
+     */
+    public int play(int target, Random random) {
+        assert corpus.contains(target) : "Target must be part of the corpus.";
+        int[] remaining = corpus.toArray();
+        int size = remaining.length;
+        int[] symbols = BatchScorer.symbolSets(remaining, size);
+        int[] codes = new int[size];
+        int[] counts = new int[EquationScorer.FEEDBACK_CODES];
+        int guesses = 0;
+        while (true) {
+            int guess = chooseGuess(remaining, symbols, size, codes, counts, random);
+            guesses++;
+            if (guess == target)
+                return guesses;
+            size = filter(remaining, symbols, size, guess, EquationScorer.feedbackCode(target, guess));
+            assert size > 0 : "The target must stay consistent with the feedback.";
+        }
+    }
+
+    /**
+     * Rates the target by playing several seeded games against it.
+     *
+     * @param target The packed target equation, which must be part of the corpus.
+     * @param trials The number of games to play.
+     * @param seed The seed of the tie-breaking random source.
+     * @requires trials > 0;
+     * @return The mean and the largest number of guesses over all games.
+     */
+    public Rating rate(int target, int trials, long seed) {
+        assert trials > 0 : "At least one trial is needed.";
+        Random random = new Random(seed);
+        long total = 0;
+        int worst = 0;
+        for (int t = 0; t < trials; t++) {
+            int guesses = play(target, random);
+            total += guesses;
+            worst = Math.max(worst, guesses);
+        }
+        return new Rating((double) total / trials, worst);
+    }
+
+    /**
+     * Picks the next guess from the remaining candidates.
+     *
+     * @param remaining The candidates consistent with the feedback so far, in the first size entries.
+     * @param symbols The symbol set of each remaining candidate.
+     * @param size The number of remaining candidates.
+     * @param codes Scratch array of at least size entries.
+     * @param counts Scratch array of FEEDBACK_CODES entries, all zero on entry and on exit.
+     * @param random Random source used for tie-breaking and for sampling large pools.
+     * @requires size > 0;
+     * @ensures (\exists int i; 0 <= i && i < size; remaining[i] == \result);
+     * @return The chosen guess.
+     */
+    private int chooseGuess(int[] remaining, int[] symbols, int size, int[] codes, int[] counts, Random random) {
+        if (size <= 2)
+            return remaining[random.nextInt(size)];
+
+        int[] pool = remaining;
+        int poolSize = size;
+        if (size > guessPoolLimit) {
+            pool = new int[guessPoolLimit];
+            for (int i = 0; i < guessPoolLimit; i++)
+                pool[i] = remaining[random.nextInt(size)];
+            poolSize = guessPoolLimit;
+        }
+
+        int[] best = new int[poolSize];
+        int bestCount = 0;
+        int bestWorst = Integer.MAX_VALUE;
+        long bestSquares = Long.MAX_VALUE;
+        for (int p = 0; p < poolSize; p++) {
+            int guess = pool[p];
+            new BatchScorer(guess).scoreAll(remaining, symbols, 0, size, codes);
+            int worst = 0;
+            long squares = 0;
+            for (int c = 0; c < size; c++) {
+                int bucket = ++counts[codes[c]];
+                worst = Math.max(worst, bucket);
+                // (n + 1)^2 - n^2 keeps the sum of squared partition sizes up to date
+                squares += 2L * bucket - 1;
+            }
+            for (int c = 0; c < size; c++)
+                counts[codes[c]] = 0;
+
+            if (worst < bestWorst || (worst == bestWorst && squares < bestSquares)) {
+                bestWorst = worst;
+                bestSquares = squares;
+                bestCount = 0;
+            }
+            if (worst == bestWorst && squares == bestSquares)
+                best[bestCount++] = guess;
+        }
+        return best[random.nextInt(bestCount)];
+    }
+
+    /**
+     * Keeps, in place, the candidates that would have produced the given feedback for the guess.
+     *
+     * @param remaining The current candidates, in the first size entries.
+     * @param symbols The symbol set of each current candidate, filtered alongside.
+     * @param size The number of current candidates.
+     * @param guess The packed guess that was played.
+     * @param code The feedback code received for the guess.
+     * @return The number of candidates consistent with the feedback, now at the front of the array.
+     */
+    private static int filter(int[] remaining, int[] symbols, int size, int guess, int code) {
+        BatchScorer scorer = new BatchScorer(guess);
+        int kept = 0;
+        for (int c = 0; c < size; c++) {
+            if (scorer.score(remaining[c], symbols[c]) == code) {
+                remaining[kept] = remaining[c];
+                symbols[kept++] = symbols[c];
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * The Rating record holds the simulated difficulty of one target.
+     *
+     * @param expected The mean number of guesses the solver needed.
+     * @param worst The largest number of guesses the solver needed.
+     */
+    public record Rating(double expected, int worst) {
+    }
+}
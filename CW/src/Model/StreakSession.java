@@ -0,0 +1,160 @@
+package Model;
+
+import Model.Interface.INumberleModel;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The StreakSession class runs a model in endless streak mode: games follow one another, and the
+ * target of the next game is drawn and prepared in the background while the current one is played,
+ * so nextGame() starts at once instead of reading equations.txt.
+ *
+ * The session listens to the model's snapshots and updates its counters once per finished game, as
+ * the game ends: games played and won, the current and best streak, and the number of wins per
+ * guess count. Listeners run before the model's observers, so a view sees the counters of the game
+ * that just ended.
+ *
+ * @invariant 0 <= currentStreak && currentStreak <= bestStreak && gamesWon <= gamesPlayed
+ */
+public class StreakSession {
+    // One daemon thread prepares the next target of every session
+    private static final ExecutorService PREFETCH = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "Numberle target prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final INumberleModel model;
+    private CompletableFuture<PreparedTarget> next;
+    private boolean recorded = true; // Whether the current game has been counted, or there is no game
+    private int gamesPlayed;
+    private int gamesWon;
+    private int currentStreak;
+    private int bestStreak;
+    private final int[] winsByGuesses = new int[INumberleModel.MAX_ATTEMPTS + 1];
+
+    /**
+     * Creates a session over a model and starts preparing the first target.
+     *
+     * @param model The model games are played on; the session listens to it.
+     * @requires model != null;
+     */
+    public StreakSession(INumberleModel model) {
+        assert model != null : "The model must not be null.";
+        this.model = model;
+        model.addSnapshotListener(snapshot -> countFinishedGame());
+        prefetch();
+    }
+
+    /**
+     * Starts the next game on the prepared target and starts preparing the one after. The target
+     * is normally ready; if not (the game ended very quickly), this waits for it. If it could not
+     * be prepared, the model draws one itself.
+     *
+     * @post A new game has begun and the next target is being prepared.
+     */
+    public void nextGame() {
+        PreparedTarget target = next.exceptionally(e -> null).join();
+        // The next target is prepared before the game starts, so that it is drawn under the same settings
+        prefetch();
+        model.startNewGame(target);
+    }
+
+    /**
+     * Checks if the target of the next game is ready.
+     *
+     * @return true if nextGame() will not wait.
+     */
+    public boolean isNextReady() {
+        return next.isDone();
+    }
+
+    /**
+     * Drops the prepared target, for example after the settings changed, and prepares another.
+     */
+    public void refresh() {
+        next.cancel(false);
+        prefetch();
+    }
+
+    /**
+     * Brings the counters up to date: counts the current game if it has ended and has not been
+     * counted yet. The session calls it on every change of the model; calling it again is harmless.
+     *
+     * @post The current game is counted once if it is over.
+     */
+    public void countFinishedGame() {
+        GameSnapshot snapshot = model.getSnapshot();
+        if (snapshot == null)
+            return;
+        if (!snapshot.isGameOver()) {
+            recorded = false;
+            return;
+        }
+        if (recorded)
+            return;
+        recorded = true;
+        gamesPlayed++;
+        if (snapshot.isGameWon()) {
+            gamesWon++;
+            currentStreak++;
+            bestStreak = Math.max(bestStreak, currentStreak);
+            winsByGuesses[snapshot.getGuessCount()]++;
+        } else {
+            currentStreak = 0;
+        }
+        assert currentStreak <= bestStreak && gamesWon <= gamesPlayed : "Streak counters are inconsistent.";
+    }
+
+    /**
+     * Retrieves the number of finished games.
+     *
+     * @return The games played.
+     */
+    public int getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    /**
+     * Retrieves the number of games won.
+     *
+     * @return The games won.
+     */
+    public int getGamesWon() {
+        return gamesWon;
+    }
+
+    /**
+     * Retrieves the number of games won in a row, up to the last finished game.
+     *
+     * @return The current streak.
+     */
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    /**
+     * Retrieves the longest streak of the session.
+     *
+     * @return The best streak.
+     */
+    public int getBestStreak() {
+        return bestStreak;
+    }
+
+    /**
+     * Retrieves the number of games won with each number of guesses.
+     *
+     * @return A copy of the distribution; index i holds the wins in i guesses.
+     */
+    public int[] getWinsByGuesses() {
+        return winsByGuesses.clone();
+    }
+
+    private void prefetch() {
+        // The settings and seed are taken here, on the model's thread; only the drawing runs in the background
+        next = CompletableFuture.supplyAsync(model.nextTargetTask(), PREFETCH);
+    }
+}
@@ -0,0 +1,13 @@
+import Model.EquationCorpus;
+import View.MultiBoardView;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class MultiBoardApp {
+    public static void main(String[] args) throws IOException {
+        EquationCorpus corpus = EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE));
+        SwingUtilities.invokeLater(() -> new MultiBoardView(corpus));
+    }
+}
@@ -0,0 +1,739 @@
+package Server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The ClusterCoordinator class spreads the sessions of the HTTP game API over several worker
+ * processes. Session ids are hashed to one of SHARDS shards, and each shard is owned by one worker;
+ * the coordinator chooses the id of every new game, so it can route every later request of the
+ * session to the owner of its shard.
+ *
+ * Workers add the encoded state of a session to each response that changes it, and the coordinator
+ * keeps the newest state of every unfinished session. When a worker dies, found by the periodic
+ * health probe or by a request that could not reach it, its shards are dealt to the live workers; a
+ * failed request only counts once the worker's process has exited or the worker fails the probe, and
+ * a request that times out is answered 504 and leaves its worker alone. Each of its sessions is
+ * replayed on its new owner from its state by the first request that reaches it, so no accepted
+ * guess is lost and a failover makes no request to the workers. A finished game is forgotten as soon
+ * as its last guess is recorded, and does not survive its worker.
+ *
+ * The routing lock is only held to read or move the owners of the shards, never during a request
+ * to a worker. The requests of one session are serialised by the session's lock, as they are on the
+ * worker, so a session is never replayed while a request on its old owner is in flight.
+ *
+ * A session unused for the time-to-live (setSessionTtl) expires: the coordinator forgets it and
+ * ends it on its worker. Sessions wait for expiry on a TimerWheel, as in SessionRegistry.
+ *
+ * Event streams (GET /games/{id}/events) are relayed as the worker writes them, without a timeout
+ * and without holding any lock. The coordinator gives every game started with {"tournament": name}
+ * an id on the shard of the name, so a tournament's games all live on one worker and
+ * GET /tournaments/{name}/events is routed there. A stream ends when its worker dies; the spectator
+ * reconnects to reach the new owner.
+ *
+ * Workers are either processes launched by launchLocal, or servers already running elsewhere.
+ *
+ * @invariant every shard is owned by a live worker while any worker is alive
+ */
+public class ClusterCoordinator {
+    public static final int DEFAULT_PORT = 8090;
+    public static final int SHARDS = 64;
+    private static final String PREFIX = "/games";
+    private static final long PROBE_MILLIS = 500;
+    private static final Duration TIMEOUT = Duration.ofSeconds(2);
+    public static final long DEFAULT_TTL_MILLIS = 30 * 60 * 1000;
+
+    private final List<Worker> workers;
+    private final int[] owners = new int[SHARDS]; // Worker index of each shard, guarded by routing
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>(); // Unfinished sessions
+    // Owners are read under the read lock; a failover moves shards under the write lock
+    private final ReentrantReadWriteLock routing = new ReentrantReadWriteLock();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1).connectTimeout(TIMEOUT).build();
+    private final AtomicLong sequence = new AtomicLong();
+    private final long salt = new SecureRandom().nextLong();
+    private long ttlNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_TTL_MILLIS);
+    private TimerWheel<String> expiry;
+    private HttpServer server;
+    private ScheduledExecutorService monitor;
+
+    /**
+     * Creates a coordinator over workers that are already running. Shards are dealt round-robin.
+     *
+     * @param workerUris The base URI (for example http://host:port) of each worker.
+     * @requires workerUris != null && !workerUris.isEmpty();
+     */
+    public ClusterCoordinator(List<URI> workerUris) {
+        this(workerUris, null);
+    }
+
+    private ClusterCoordinator(List<URI> workerUris, List<Process> processes) {
+        assert workerUris != null && !workerUris.isEmpty() : "At least one worker is needed.";
+        workers = new ArrayList<>();
+        for (int i = 0; i < workerUris.size(); i++)
+            workers.add(new Worker(workerUris.get(i), processes == null ? null : processes.get(i)));
+        for (int shard = 0; shard < SHARDS; shard++)
+            owners[shard] = shard % workers.size();
+    }
+
+    /**
+     * Launches worker processes on this machine, running ClusterWorker with this JVM's class path
+     * and working directory, and creates a coordinator over them.
+     *
+     * @param count The number of workers.
+     * @requires count > 0;
+     * @return The coordinator, not yet started.
+     * @throws IOException If a worker cannot be launched or does not report its port.
+     */
+    public static ClusterCoordinator launchLocal(int count) throws IOException {
+        assert count > 0 : "At least one worker is needed.";
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        List<URI> uris = new ArrayList<>();
+        try {
+            for (int i = 0; i < count; i++) {
+                List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path")));
+                if (ClusterCoordinator.class.desiredAssertionStatus())
+                    command.add("-ea");
+                command.add(ClusterWorker.class.getName());
+                Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+                processes.add(process);
+                uris.add(URI.create("http://localhost:" + readPort(process)));
+            }
+        } catch (IOException e) {
+            processes.forEach(Process::destroyForcibly);
+            throw e;
+        }
+        return new ClusterCoordinator(uris, processes);
+    }
+
+    /**
+     * Sets how long a session may stay unused before it expires. Call before start.
+     *
+     * @param ttlMillis The time-to-live, in milliseconds.
+     * @requires ttlMillis > 0;
+     */
+    public void setSessionTtl(long ttlMillis) {
+        assert server == null : "The time-to-live is set before the coordinator starts.";
+        assert ttlMillis > 0 : "The time-to-live must be positive.";
+        ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * Starts accepting requests and probing the workers.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public void start(int port) throws IOException {
+        assert server == null : "The coordinator is already started.";
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.createContext(PREFIX, this::handle);
+        server.createContext("/tournaments", this::handleTournament);
+        server.setExecutor(NumberleHttpServer.newExecutor());
+        // Deadlines are kept to a 64th of the time-to-live, over four times the time-to-live per turn
+        expiry = new TimerWheel<>(Math.max(ttlNanos / 64, 1_000_000L), 256, System.nanoTime());
+        server.start();
+        monitor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "Cluster health probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        monitor.scheduleWithFixedDelay(this::probeWorkers, PROBE_MILLIS, PROBE_MILLIS, TimeUnit.MILLISECONDS);
+        long tick = expiry.getTickNanos();
+        monitor.scheduleWithFixedDelay(this::expireIdle, tick, tick, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops the coordinator and the worker processes it launched.
+     */
+    public void stop() {
+        if (server != null) {
+            monitor.shutdownNow();
+            server.stop(0);
+            server = null;
+        }
+        for (Worker worker : workers)
+            if (worker.process != null)
+                worker.process.destroy();
+    }
+
+    /**
+     * Retrieves the port the coordinator listens on.
+     *
+     * @return The bound port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Retrieves the shard of a session.
+     *
+     * @param id The session id.
+     * @return The shard, from 0 to SHARDS - 1.
+     */
+    public static int shardOf(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (SHARDS - 1);
+    }
+
+    /**
+     * Retrieves the worker owning a shard.
+     *
+     * @param shard The shard.
+     * @return The worker index.
+     */
+    public int getOwner(int shard) {
+        routing.readLock().lock();
+        try {
+            return owners[shard];
+        } finally {
+            routing.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the process of a worker launched by launchLocal.
+     *
+     * @param worker The worker index.
+     * @return The process, or null for a worker that was already running.
+     */
+    public Process getProcess(int worker) {
+        return workers.get(worker).process;
+    }
+
+    /**
+     * Retrieves the number of workers still considered alive.
+     *
+     * @return The live worker count.
+     */
+    public int getLiveWorkerCount() {
+        int live = 0;
+        for (Worker worker : workers)
+            if (worker.alive)
+                live++;
+        return live;
+    }
+
+    /**
+     * Retrieves the number of sessions whose state the coordinator keeps: those neither finished,
+     * ended nor expired.
+     *
+     * @return The session count.
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        boolean streaming = false;
+        try {
+            String method = exchange.getRequestMethod();
+            String[] parts = exchange.getRequestURI().getPath().substring(PREFIX.length()).split("/");
+            String target = target(exchange);
+            String body = readBody(exchange);
+            String id;
+            String tournament = null;
+            if (parts.length <= 1) {
+                if (!method.equals("POST")) {
+                    send(exchange, 405, "{\"error\":\"Use POST to start a game.\"}", null);
+                    return;
+                }
+                Map<String, String> options = Json.parseObject(body);
+                tournament = options.get("tournament");
+                // The coordinator names the session, so that its shard is known before it exists; the
+                // games of a tournament are named into the tournament's shard
+                do {
+                    id = Long.toHexString(sequence.incrementAndGet() * 0x9E3779B97F4A7C15L ^ salt);
+                } while (tournament != null && shardOf(id) != shardOf(tournament));
+                options.remove("state");
+                options.put("id", id);
+                StringBuilder out = new StringBuilder("{");
+                for (Map.Entry<String, String> option : options.entrySet()) {
+                    if (out.length() > 1)
+                        out.append(',');
+                    Json.quote(out, option.getKey()).append(':');
+                    Json.quote(out, option.getValue());
+                }
+                body = out.append('}').toString();
+            } else if (method.equals("GET") && parts.length == 3 && parts[2].equals("events")) {
+                streaming = stream(exchange, target, shardOf(parts[1]), parts[1]);
+                return;
+            } else {
+                id = parts[1];
+            }
+            forward(exchange, method, target, body, id, tournament);
+        } catch (IllegalArgumentException e) {
+            StringBuilder out = new StringBuilder("{\"error\":");
+            Json.quote(out, e.getMessage() == null ? "Bad request." : e.getMessage()).append('}');
+            send(exchange, 400, out.toString(), null);
+        } finally {
+            if (!streaming)
+                exchange.close();
+        }
+    }
+
+    private void handleTournament(HttpExchange exchange) throws IOException {
+        boolean streaming = false;
+        try {
+            String[] parts = exchange.getRequestURI().getPath().split("/");
+            // parts[1] is "tournaments", parts[2] the name and parts[3] the action
+            if (exchange.getRequestMethod().equals("GET") && parts.length == 4 && parts[3].equals("events"))
+                streaming = stream(exchange, target(exchange), shardOf(parts[2]), null);
+            else
+                send(exchange, 404, "{\"error\":\"Unknown endpoint.\"}", null);
+        } finally {
+            if (!streaming)
+                exchange.close();
+        }
+    }
+
+    /**
+     * Sends a request to the owner of the session's shard, moving the session there first if it
+     * lives on an earlier owner. If the owner cannot be reached and is found dead, the request is
+     * retried once on the next owner: the one another request already failed over to, or the one
+     * this failover picks. A request the owner was too slow to answer gets 504.
+     */
+    private void forward(HttpExchange exchange, String method, String target, String body, String id, String tournament) throws IOException {
+        int shard = shardOf(id);
+        Session session = sessions.get(id);
+        if (session != null) {
+            session.lastUsed = System.nanoTime();
+            session.lock.lock();
+        }
+        try {
+            for (int attempt = 0; attempt < 2; attempt++) {
+                int owner = getOwner(shard);
+                HttpResponse<String> response;
+                try {
+                    if (session != null)
+                        place(id, session, owner);
+                    HttpRequest.Builder request = HttpRequest.newBuilder(workers.get(owner).uri.resolve(target)).timeout(TIMEOUT);
+                    request.method(method, body.isEmpty() ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofString(body));
+                    response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+                } catch (IOException e) {
+                    int status = recover(shard, owner, e);
+                    if (status == 0)
+                        continue;
+                    send(exchange, status, failure(status), null);
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+                record(id, method, response, owner, tournament);
+                send(exchange, response.statusCode(), response.body(), response.headers().firstValue("Content-Type").orElse(null));
+                return;
+            }
+        } finally {
+            if (session != null)
+                session.lock.unlock();
+        }
+        send(exchange, 503, "{\"error\":\"No worker can serve the game.\"}", null);
+    }
+
+    /**
+     * Relays an event stream from the owner of a shard, moving the session there first when the
+     * stream is a game's. The stream has no timeout and holds no lock while it lasts.
+     *
+     * @param id The session id, or null for a tournament's stream.
+     * @return true if the exchange is left open to the relay.
+     */
+    private boolean stream(HttpExchange exchange, String target, int shard, String id) throws IOException {
+        Session session = id == null ? null : sessions.get(id);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            int owner = getOwner(shard);
+            Relay relay = new Relay(exchange);
+            try {
+                if (session != null) {
+                    session.lock.lock();
+                    try {
+                        place(id, session, owner);
+                    } finally {
+                        session.lock.unlock();
+                    }
+                }
+                HttpRequest request = HttpRequest.newBuilder(workers.get(owner).uri.resolve(target)).GET().build();
+                CompletableFuture<HttpResponse<Void>> done = client.sendAsync(request, relay::open);
+                // Returns once the worker answered; the relay then runs on the client's threads
+                CompletableFuture.anyOf(relay.opened, done).join();
+                return true;
+            } catch (IOException | CompletionException e) {
+                if (relay.reached)
+                    return false; // The worker answered, but the spectator went away
+                int status = recover(shard, owner, e instanceof CompletionException ? e.getCause() : e);
+                if (status == 0)
+                    continue;
+                send(exchange, status, failure(status), null);
+                return false;
+            }
+        }
+        send(exchange, 503, "{\"error\":\"No worker can serve the game.\"}", null);
+        return false;
+    }
+
+    /**
+     * Replays a session on the owner of its shard if it lives elsewhere. A state that no longer
+     * replays ends the session. The caller holds the session's lock.
+     *
+     * @throws IOException If the owner cannot be reached.
+     */
+    private void place(String id, Session session, int owner) throws IOException {
+        if (session.worker == owner)
+            return;
+        StringBuilder body = new StringBuilder("{\"id\":");
+        Json.quote(body, id).append(",\"state\":");
+        Json.quote(body, session.state);
+        if (session.tournament != null)
+            Json.quote(body.append(",\"tournament\":"), session.tournament);
+        body.append('}');
+        HttpRequest request = HttpRequest.newBuilder(workers.get(owner).uri.resolve(PREFIX)).timeout(TIMEOUT)
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString())).build();
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        // 409: the owner already holds the session
+        if (status == 201 || status == 409)
+            session.worker = owner;
+        else
+            sessions.remove(id, session);
+    }
+
+    /**
+     * Keeps the newest state of a session from a worker's response, and forgets the session once
+     * its game is over or it is ended.
+     */
+    private void record(String id, String method, HttpResponse<String> response, int owner, String tournament) {
+        if (method.equals("DELETE") && response.statusCode() == 200) {
+            sessions.remove(id);
+            return;
+        }
+        String state = response.headers().firstValue(NumberleHttpServer.STATE_HEADER).orElse(null);
+        if (state == null)
+            return;
+        boolean over = SessionState.isGameOver(state);
+        if (response.statusCode() == 201) {
+            if (!over) {
+                sessions.put(id, new Session(state, owner, tournament));
+                expiry.schedule(id, System.nanoTime() + ttlNanos);
+            }
+            return;
+        }
+        // Only sessions created through the coordinator are kept, so a late response of a session
+        // already forgotten does not bring it back
+        sessions.computeIfPresent(id, (key, session) -> {
+            if (over)
+                return null;
+            // Responses of one session may arrive out of order; a state never loses guesses
+            if (SessionState.guessCount(state) >= SessionState.guessCount(session.state))
+                session.state = state;
+            return session;
+        });
+    }
+
+    /**
+     * Forgets the sessions whose time-to-live ran out and ends them on their workers. Only the
+     * sessions due on the timer wheel are looked at.
+     */
+    private void expireIdle() {
+        long now = System.nanoTime();
+        for (String id : expiry.advance(now)) {
+            Session session = sessions.get(id);
+            if (session == null)
+                continue; // Finished or ended since it was scheduled
+            if (session.lastUsed + ttlNanos - now > 0) {
+                expiry.schedule(id, session.lastUsed + ttlNanos);
+                continue;
+            }
+            if (!sessions.remove(id, session))
+                continue;
+            Worker owner = workers.get(getOwner(shardOf(id)));
+            HttpRequest request = HttpRequest.newBuilder(owner.uri.resolve(PREFIX + "/" + id)).timeout(TIMEOUT).DELETE().build();
+            // Nobody waits for the reply; a worker that cannot be reached is probed like any other
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        }
+    }
+
+    private void probeWorkers() {
+        for (int i = 0; i < workers.size(); i++) {
+            if (!workers.get(i).alive)
+                continue;
+            try {
+                if (isDead(i))
+                    failover(i);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Tells whether a worker is dead: its process has exited, or it fails the health probe.
+     *
+     * @param index The worker index.
+     * @return true if the worker should be failed over.
+     */
+    private boolean isDead(int index) throws InterruptedException {
+        Worker worker = workers.get(index);
+        if (worker.process != null && !worker.process.isAlive())
+            return true;
+        try {
+            HttpRequest probe = HttpRequest.newBuilder(worker.uri.resolve("/health")).timeout(TIMEOUT).build();
+            return client.send(probe, HttpResponse.BodyHandlers.discarding()).statusCode() != 200;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Decides what to do after a request to the owner of a shard failed. Only a worker found dead is
+     * failed over: a timeout or a lost connection may come from a worker that is merely slow, and
+     * failing it over would kill it.
+     *
+     * @param shard The shard of the request.
+     * @param owner The worker the request was sent to.
+     * @param failure What the request failed with.
+     * @return 0 if the request may be sent again to the shard's owner, or the status to answer with.
+     * @throws IOException If the thread is interrupted while probing the worker.
+     */
+    private int recover(int shard, int owner, Throwable failure) throws IOException {
+        if (failure instanceof HttpTimeoutException && !(failure instanceof HttpConnectTimeoutException))
+            return 504;
+        if (getOwner(shard) != owner)
+            return 0; // Another request already failed the worker over
+        try {
+            if (isDead(owner)) {
+                failover(owner);
+                return 0;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        // A request that never reached the worker can be sent again; one that did may have been applied
+        return failure instanceof ConnectException || failure instanceof HttpConnectTimeoutException ? 0 : 502;
+    }
+
+    private static String failure(int status) {
+        return status == 504 ? "{\"error\":\"The worker did not answer in time.\"}"
+                : "{\"error\":\"The worker's answer was lost.\"}";
+    }
+
+    /**
+     * Marks a worker dead and deals its shards to the live workers. Its sessions are replayed on
+     * their new owners by the requests that reach them (see place).
+     *
+     * @param dead The index of the worker that failed.
+     */
+    private void failover(int dead) {
+        routing.writeLock().lock();
+        try {
+            Worker failed = workers.get(dead);
+            if (!failed.alive)
+                return; // Another request already moved its shards
+            failed.alive = false;
+            if (failed.process != null)
+                failed.process.destroyForcibly();
+            List<Integer> live = new ArrayList<>();
+            for (int i = 0; i < workers.size(); i++)
+                if (workers.get(i).alive)
+                    live.add(i);
+            if (live.isEmpty())
+                return;
+            int next = 0;
+            for (int shard = 0; shard < SHARDS; shard++)
+                if (owners[shard] == dead)
+                    owners[shard] = live.get(next++ % live.size());
+        } finally {
+            routing.writeLock().unlock();
+        }
+    }
+
+    private static int readPort(Process process) throws IOException {
+        BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = out.readLine()) != null) {
+            if (line.startsWith(ClusterWorker.READY + " ")) {
+                // Anything the worker prints later is drained so that it never blocks on a full pipe
+                Thread drain = new Thread(() -> {
+                    try {
+                        out.transferTo(Writer.nullWriter());
+                    } catch (IOException ignored) {
+                        // The worker has exited
+                    }
+                }, "Cluster worker output");
+                drain.setDaemon(true);
+                drain.start();
+                return Integer.parseInt(line.substring(ClusterWorker.READY.length() + 1).trim());
+            }
+        }
+        throw new IOException("The worker exited before listening.");
+    }
+
+    /**
+     * Retrieves the path and query of a request, to send on to a worker.
+     */
+    private static String target(HttpExchange exchange) {
+        URI uri = exchange.getRequestURI();
+        return uri.getRawQuery() == null ? uri.getRawPath() : uri.getRawPath() + "?" + uri.getRawQuery();
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int code, String body, String contentType) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType != null ? contentType : "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * One worker: its base URI, its process when launched locally, and whether it is alive.
+     */
+    private static final class Worker {
+        final URI uri;
+        final Process process;
+        volatile boolean alive = true;
+
+        Worker(URI uri, Process process) {
+            this.uri = uri;
+            this.process = process;
+        }
+    }
+
+    /**
+     * One unfinished session: its newest state, the worker holding it, its tournament, the time it
+     * was last used, and the lock serialising its requests.
+     */
+    private static final class Session {
+        final ReentrantLock lock = new ReentrantLock();
+        final String tournament; // Or null
+        volatile String state;
+        volatile int worker; // Index of the worker the session lives on
+        volatile long lastUsed = System.nanoTime();
+
+        Session(String state, int worker, String tournament) {
+            this.state = state;
+            this.worker = worker;
+            this.tournament = tournament;
+        }
+    }
+
+    /**
+     * Copies a worker's response to the client as it arrives, flushing every chunk, and asks for
+     * the next chunk once the last one has been written, so a slow spectator holds back its own
+     * stream only.
+     */
+    private static final class Relay implements Flow.Subscriber<List<ByteBuffer>> {
+        final CompletableFuture<Void> opened = new CompletableFuture<>();
+        private final HttpExchange exchange;
+        private byte[] buffer = new byte[1024];
+        private Flow.Subscription subscription;
+        volatile boolean reached; // The worker answered
+
+        Relay(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        /**
+         * Sends the worker's status and content type to the client once the worker answers.
+         */
+        HttpResponse.BodySubscriber<Void> open(HttpResponse.ResponseInfo response) {
+            reached = true;
+            exchange.getResponseHeaders().set("Content-Type",
+                    response.headers().firstValue("Content-Type").orElse("application/json; charset=utf-8"));
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            try {
+                exchange.sendResponseHeaders(response.statusCode(), 0);
+            } catch (IOException e) {
+                // Cancels the request to the worker
+                throw new UncheckedIOException(e);
+            }
+            opened.complete(null);
+            return HttpResponse.BodySubscribers.fromSubscriber(this);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> chunk) {
+            try {
+                OutputStream out = exchange.getResponseBody();
+                for (ByteBuffer bytes : chunk) {
+                    int length = bytes.remaining();
+                    if (buffer.length < length)
+                        buffer = new byte[Math.max(length, 2 * buffer.length)];
+                    bytes.get(buffer, 0, length);
+                    out.write(buffer, 0, length);
+                }
+                out.flush();
+            } catch (IOException e) {
+                subscription.cancel();
+                exchange.close();
+                return;
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            exchange.close();
+        }
+
+        @Override
+        public void onComplete() {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package Server;
+
+import Model.EquationCorpus;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * The ClusterWorker class is the entry point of a worker process of the cluster: a NumberleHttpServer
+ * that exports session state to its coordinator. Once listening it prints "READY <port>" on its
+ * standard output, which a coordinator that launched it reads to find the port.
+ */
+public final class ClusterWorker {
+    public static final String READY = "READY";
+
+    private ClusterWorker() {
+    }
+
+    /**
+     * Starts a worker.
+     *
+     * @param args The port to listen on, or 0 (the default) for any free port.
+     * @throws IOException If the corpus cannot be read or the port bound.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        NumberleHttpServer server = new NumberleHttpServer(EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE)));
+        server.setStateExport(true);
+        server.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        System.out.println(READY + " " + server.getPort());
+        System.out.flush();
+    }
+}
@@ -0,0 +1,149 @@
+package Server;
+
+import Model.EquationCodec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * The GameArchiveBlock class is one block of a game archive as read from the file, still
+ * compressed. Blocks decode independently of each other, so a reader can hand them to several
+ * threads while it goes on reading.
+ */
+public final class GameArchiveBlock {
+    private final int records;
+    private final int length;
+    private final int checksum;
+    private final byte[] compressed;
+
+    GameArchiveBlock(int records, int length, int checksum, byte[] compressed) {
+        this.records = records;
+        this.length = length;
+        this.checksum = checksum;
+        this.compressed = compressed;
+    }
+
+    /**
+     * Retrieves the number of games in the block.
+     *
+     * @return The record count.
+     */
+    public int getRecordCount() {
+        return records;
+    }
+
+    /**
+     * Inflates the block, checks it and decodes its games.
+     *
+     * @return The games, in the order they were written.
+     * @throws IOException If the block is damaged.
+     */
+    public List<GameRecord> decode() throws IOException {
+        byte[] block = new byte[length];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            if (inflater.inflate(block) != length || !inflater.finished())
+                throw new IOException("Damaged game archive block.");
+        } catch (DataFormatException e) {
+            throw new IOException("Damaged game archive block.", e);
+        } finally {
+            inflater.end();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(block, 0, length);
+        if ((int) crc.getValue() != checksum)
+            throw new IOException("Game archive block fails its checksum.");
+
+        try {
+            return new Decoder(block).decode(records);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Damaged game archive block.", e);
+        }
+    }
+
+    /**
+     * Parses the records of an inflated block; see GameArchiveWriter for the layout.
+     */
+    private static final class Decoder {
+        private final byte[] block;
+        private int position;
+
+        Decoder(byte[] block) {
+            this.block = block;
+        }
+
+        List<GameRecord> decode(int records) {
+            List<GameRecord> games = new ArrayList<>(records);
+            long lastTime = 0;
+            for (int r = 0; r < records; r++) {
+                int header = block[position++] & 0xFF;
+                int n = header & GameArchiveWriter.GUESS_COUNT_MASK;
+                String session;
+                if ((header & GameArchiveWriter.HEX_SESSION) != 0) {
+                    long id = 0;
+                    for (int i = 0; i < 8; i++)
+                        id = id << 8 | (block[position++] & 0xFF);
+                    session = Long.toHexString(id);
+                } else {
+                    session = getString();
+                }
+
+                long time = lastTime + getZigzag();
+                lastTime = time;
+                long[] times = new long[n];
+                long elapsed = 0;
+                for (int i = 0; i < n; i++) {
+                    elapsed += getZigzag();
+                    times[i] = elapsed;
+                }
+                // The deltas run from the start; the record holds the time of the last guess
+                long start = time - elapsed;
+                for (int i = 0; i < n; i++)
+                    times[i] += start;
+
+                String target;
+                String[] guesses = new String[n];
+                if ((header & GameArchiveWriter.TEXT) != 0) {
+                    target = getString();
+                    for (int i = 0; i < n; i++)
+                        guesses[i] = getString();
+                } else {
+                    target = EquationCodec.decode((int) getVarint());
+                    for (int i = 0; i < n; i++)
+                        guesses[i] = EquationCodec.decode((int) getVarint());
+                }
+                games.add(new GameRecord(session, start, target, guesses, times,
+                        (header & GameArchiveWriter.VERIFY) != 0, (header & GameArchiveWriter.HARD_MODE) != 0));
+            }
+            return games;
+        }
+
+        private String getString() {
+            int length = (int) getVarint();
+            String s = new String(block, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return s;
+        }
+
+        private long getZigzag() {
+            long value = getVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private long getVarint() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = block[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0)
+                    return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package Server;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The GameArchiveReader class streams the games of an archive written by GameArchiveWriter, one
+ * block in memory at a time, so an archive of any size is read in constant memory. Callers that
+ * decode on several threads take whole blocks with readBlock instead of games with read.
+ *
+ * The reader is not thread-safe.
+ */
+public class GameArchiveReader implements Closeable {
+    private final InputStream in;
+    private List<GameRecord> current = List.of();
+    private int next;
+
+    /**
+     * Opens an archive on a stream and checks its header.
+     *
+     * @param in The stream; it is closed with the reader.
+     * @throws IOException If the stream does not start with an archive header.
+     */
+    public GameArchiveReader(InputStream in) throws IOException {
+        this.in = in;
+        if (readInt() != GameArchiveWriter.MAGIC)
+            throw new IOException("Not a game archive.");
+        int version = readInt();
+        if (version != GameArchiveWriter.VERSION)
+            throw new IOException("Unsupported game archive version " + version + ".");
+    }
+
+    /**
+     * Opens an archive file.
+     *
+     * @param file The archive file.
+     * @return The reader.
+     * @throws IOException If the file cannot be opened or is not an archive.
+     */
+    public static GameArchiveReader open(Path file) throws IOException {
+        return new GameArchiveReader(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+    }
+
+    /**
+     * Reads the next game.
+     *
+     * @return The game, or null at the end of the archive.
+     * @throws IOException If the archive is truncated or damaged.
+     */
+    public GameRecord read() throws IOException {
+        while (next == current.size()) {
+            GameArchiveBlock block = readBlock();
+            if (block == null)
+                return null;
+            current = block.decode();
+            next = 0;
+        }
+        return current.get(next++);
+    }
+
+    /**
+     * Reads the next block without decoding it. Games of the block already returned by read are
+     * not returned again; the rest of them are skipped.
+     *
+     * @return The block, or null at the end of the archive.
+     * @throws IOException If the archive is truncated.
+     */
+    public GameArchiveBlock readBlock() throws IOException {
+        current = List.of();
+        next = 0;
+        int first = in.read();
+        if (first < 0)
+            return null;
+        int records = (int) readVarint(first);
+        int length = (int) readVarint(in.read());
+        int size = (int) readVarint(in.read());
+        int checksum = readInt();
+        byte[] compressed = new byte[size];
+        if (in.readNBytes(compressed, 0, size) != size)
+            throw new EOFException("Truncated game archive.");
+        return new GameArchiveBlock(records, length, checksum, compressed);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private long readVarint(int first) throws IOException {
+        long value = 0;
+        int b = first;
+        for (int shift = 0; ; shift += 7) {
+            if (b < 0)
+                throw new EOFException("Truncated game archive.");
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+            b = in.read();
+        }
+    }
+
+    private int readInt() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int b = in.read();
+            if (b < 0)
+                throw new EOFException("Truncated game archive.");
+            value = value << 8 | b;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,245 @@
+package Server;
+
+import Model.EquationCodec;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * The GameArchiveWriter class streams finished games into the compact archive format read by
+ * GameArchiveReader. Records are gathered into blocks of about BLOCK_SIZE bytes, and each block is
+ * deflated on its own, so a reader holds one block at a time and blocks can be decoded independently.
+ *
+ * File layout: MAGIC, VERSION, then blocks. A block is its record count, raw length and compressed
+ * length as varints, the CRC32 of the raw bytes, then the deflated records. A record is:
+ * - a header byte: the guess count, then the VERIFY, HARD_MODE, TEXT and HEX_SESSION flags
+ * - the session: 8 bytes for an id that is a lowercase hex long, otherwise a string
+ * - the time of the last guess (the start time without guesses) as a zigzag varint delta from the
+ *   previous record of the block, then the delay before each guess as zigzag varints, from which the
+ *   start time and every guess time follow
+ * - the target and the guesses, each a varint of the packed equation, or strings when TEXT is set
+ * Strings are a varint byte length and UTF-8 bytes. Feedback is not stored; it follows from the
+ * target and the guess.
+ *
+ * The writer is not thread-safe.
+ */
+public class GameArchiveWriter implements Closeable {
+    static final int MAGIC = 0x4E474152; // "NGAR"
+    static final int VERSION = 1;
+    static final int BLOCK_SIZE = 64 * 1024;
+    static final int GUESS_COUNT_MASK = 0x0F;
+    static final int VERIFY = 0x10;
+    static final int HARD_MODE = 0x20;
+    static final int TEXT = 0x40;
+    static final int HEX_SESSION = 0x80;
+
+    private final OutputStream out;
+    private final Deflater deflater = new Deflater();
+    private final CRC32 crc = new CRC32();
+    private byte[] block = new byte[BLOCK_SIZE + 256];
+    private byte[] compressed = new byte[BLOCK_SIZE];
+    private int length;
+    private int records;
+    private long lastTime;
+
+    /**
+     * Starts a new archive on a stream.
+     *
+     * @param out The stream; it is closed with the writer.
+     * @throws IOException If the header cannot be written.
+     */
+    public GameArchiveWriter(OutputStream out) throws IOException {
+        this(out, true);
+    }
+
+    private GameArchiveWriter(OutputStream out, boolean header) throws IOException {
+        this.out = out;
+        if (header) {
+            writeInt(MAGIC);
+            writeInt(VERSION);
+        }
+    }
+
+    /**
+     * Opens an archive file for appending, starting it if it does not exist or is empty.
+     *
+     * @param file The archive file.
+     * @return The writer.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static GameArchiveWriter append(Path file) throws IOException {
+        boolean fresh = !Files.exists(file) || Files.size(file) == 0;
+        return new GameArchiveWriter(new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)), fresh);
+    }
+
+    /**
+     * Adds a game to the current block, writing the block out once it is full.
+     *
+     * @param record The game.
+     * @requires record.getGuessCount() <= GUESS_COUNT_MASK;
+     * @throws IOException If a full block cannot be written.
+     */
+    public void write(GameRecord record) throws IOException {
+        int n = record.getGuessCount();
+        assert n <= GUESS_COUNT_MASK : "Too many guesses for one record.";
+        boolean text = packed(record.getTarget()) == EquationCodec.INVALID;
+        for (int i = 0; i < n && !text; i++)
+            text = packed(record.getGuess(i)) == EquationCodec.INVALID;
+        String session = record.getSession();
+        boolean hexSession = isHexLong(session);
+
+        ensureCapacity(9);
+        block[length++] = (byte) (n | (record.getVerifyEquation() ? VERIFY : 0) | (record.getHardMode() ? HARD_MODE : 0)
+                | (text ? TEXT : 0) | (hexSession ? HEX_SESSION : 0));
+        if (hexSession) {
+            long id = Long.parseUnsignedLong(session, 16);
+            for (int shift = 56; shift >= 0; shift -= 8)
+                block[length++] = (byte) (id >>> shift);
+        } else {
+            putString(session);
+        }
+
+        ensureCapacity(10 * (n + 1));
+        long time = n > 0 ? record.getGuessTime(n - 1) : record.getStartTime();
+        putZigzag(time - lastTime);
+        lastTime = time;
+        long previous = record.getStartTime();
+        for (int i = 0; i < n; i++) {
+            putZigzag(record.getGuessTime(i) - previous);
+            previous = record.getGuessTime(i);
+        }
+
+        if (text) {
+            putString(record.getTarget());
+            for (int i = 0; i < n; i++)
+                putString(record.getGuess(i));
+        } else {
+            ensureCapacity(5 * (n + 1));
+            putVarint(packed(record.getTarget()));
+            for (int i = 0; i < n; i++)
+                putVarint(packed(record.getGuess(i)));
+        }
+        records++;
+        if (length >= BLOCK_SIZE)
+            writeBlock();
+    }
+
+    /**
+     * Ends the current block and flushes the stream, so that every game written so far can be read.
+     *
+     * @throws IOException If the block cannot be written.
+     */
+    public void flush() throws IOException {
+        writeBlock();
+        out.flush();
+    }
+
+    /**
+     * Writes the last block and closes the stream.
+     *
+     * @throws IOException If the block cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            deflater.end();
+            out.close();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (records == 0)
+            return;
+        deflater.reset();
+        deflater.setInput(block, 0, length);
+        deflater.finish();
+        int size = 0;
+        while (!deflater.finished()) {
+            if (size == compressed.length)
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            size += deflater.deflate(compressed, size, compressed.length - size);
+        }
+        crc.reset();
+        crc.update(block, 0, length);
+
+        writeVarint(records);
+        writeVarint(length);
+        writeVarint(size);
+        writeInt((int) crc.getValue());
+        out.write(compressed, 0, size);
+        length = 0;
+        records = 0;
+        lastTime = 0;
+    }
+
+    /**
+     * Packs an equation if it survives the round trip unchanged.
+     */
+    private static int packed(String equation) {
+        int packed = EquationCodec.encode(equation);
+        return packed != EquationCodec.INVALID && EquationCodec.decode(packed).equals(equation) ? packed : EquationCodec.INVALID;
+    }
+
+    private static boolean isHexLong(String s) {
+        if (s.isEmpty() || s.length() > 16)
+            return false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f'))
+                return false;
+        }
+        return Long.toHexString(Long.parseUnsignedLong(s, 16)).equals(s);
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > block.length)
+            block = Arrays.copyOf(block, Math.max(block.length * 2, length + extra));
+    }
+
+    private void putString(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(bytes.length + 5);
+        putVarint(bytes.length);
+        System.arraycopy(bytes, 0, block, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void putZigzag(long value) {
+        putVarint((value << 1) ^ (value >> 63));
+    }
+
+    private void putVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            block[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        block[length++] = (byte) value;
+    }
+
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+}
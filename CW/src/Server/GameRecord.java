@@ -0,0 +1,176 @@
+package Server;
+
+import Model.EquationScorer;
+import Model.GameSnapshot;
+
+import java.util.Arrays;
+
+/**
+ * The GameRecord class is one finished game as it is archived: the session it was played in, its
+ * target, its settings, and the accepted guesses with the time each was accepted. The feedback of a
+ * guess is not stored; it follows from the target and the guess.
+ *
+ * @invariant guesses.length == guessTimes.length
+ */
+public final class GameRecord {
+    private final String session;
+    private final long startTime;
+    private final String target;
+    private final String[] guesses;
+    private final long[] guessTimes;
+    private final boolean verifyEquation;
+    private final boolean hardMode;
+
+    /**
+     * Creates a record.
+     *
+     * @param session The session id, or "" if unknown.
+     * @param startTime The time the game started, in milliseconds since the epoch.
+     * @param target The target equation.
+     * @param guesses The accepted guesses, oldest first; the array is copied.
+     * @param guessTimes The time each guess was accepted; the array is copied.
+     * @param verifyEquation The game's verifyEquation flag.
+     * @param hardMode The game's hardMode flag.
+     * @requires session != null && target != null && guesses.length == guessTimes.length;
+     */
+    public GameRecord(String session, long startTime, String target, String[] guesses, long[] guessTimes,
+                      boolean verifyEquation, boolean hardMode) {
+        assert session != null && target != null : "Session and target must not be null.";
+        assert guesses.length == guessTimes.length : "Every guess needs a time.";
+        this.session = session;
+        this.startTime = startTime;
+        this.target = target;
+        this.guesses = guesses.clone();
+        this.guessTimes = guessTimes.clone();
+        this.verifyEquation = verifyEquation;
+        this.hardMode = hardMode;
+    }
+
+    /**
+     * Creates the record of a game from its snapshot.
+     *
+     * @param session The session id.
+     * @param snapshot The game's latest snapshot.
+     * @param verifyEquation The game's verifyEquation flag.
+     * @param hardMode The game's hardMode flag.
+     * @return The record.
+     */
+    public static GameRecord of(String session, GameSnapshot snapshot, boolean verifyEquation, boolean hardMode) {
+        int n = snapshot.getGuessCount();
+        String[] guesses = new String[n];
+        long[] times = new long[n];
+        for (int i = 0; i < n; i++) {
+            guesses[i] = snapshot.getGuess(i);
+            times[i] = snapshot.getGuessTime(i);
+        }
+        return new GameRecord(session, snapshot.getStartTime(), snapshot.getTargetNumber(), guesses, times,
+                verifyEquation, hardMode);
+    }
+
+    /**
+     * Retrieves the session the game was played in.
+     *
+     * @return The session id, or "" if unknown.
+     */
+    public String getSession() {
+        return session;
+    }
+
+    /**
+     * Retrieves the time the game started.
+     *
+     * @return The time, in milliseconds since the epoch.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Retrieves the target equation.
+     *
+     * @return The target.
+     */
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * Retrieves the number of accepted guesses.
+     *
+     * @return The guess count.
+     */
+    public int getGuessCount() {
+        return guesses.length;
+    }
+
+    /**
+     * Retrieves an accepted guess.
+     *
+     * @param index The guess number, from 0.
+     * @return The guess.
+     */
+    public String getGuess(int index) {
+        return guesses[index];
+    }
+
+    /**
+     * Retrieves the time a guess was accepted.
+     *
+     * @param index The guess number, from 0.
+     * @return The time, in milliseconds since the epoch.
+     */
+    public long getGuessTime(int index) {
+        return guessTimes[index];
+    }
+
+    /**
+     * Retrieves the verifyEquation flag the game was played with.
+     *
+     * @return The flag.
+     */
+    public boolean getVerifyEquation() {
+        return verifyEquation;
+    }
+
+    /**
+     * Retrieves the hardMode flag the game was played with.
+     *
+     * @return The flag.
+     */
+    public boolean getHardMode() {
+        return hardMode;
+    }
+
+    /**
+     * Computes the feedback a guess received.
+     *
+     * @param index The guess number, from 0.
+     * @return The feedback code, as EquationScorer.feedbackCode.
+     */
+    public int getFeedbackCode(int index) {
+        return EquationScorer.feedbackCode(target, guesses[index]);
+    }
+
+    /**
+     * Checks if the last guess found the target.
+     *
+     * @return true if the game was won.
+     */
+    public boolean isWon() {
+        return guesses.length > 0 && guesses[guesses.length - 1].equals(target);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof GameRecord other))
+            return false;
+        return startTime == other.startTime && verifyEquation == other.verifyEquation && hardMode == other.hardMode
+                && session.equals(other.session) && target.equals(other.target)
+                && Arrays.equals(guesses, other.guesses) && Arrays.equals(guessTimes, other.guessTimes);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * session.hashCode() + target.hashCode()) + Long.hashCode(startTime);
+    }
+}
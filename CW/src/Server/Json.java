@@ -0,0 +1,210 @@
+package Server;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Json class holds the small amount of JSON handling the game API needs: writing strings,
+ * numbers, booleans and arrays, and reading flat request objects whose values are strings,
+ * numbers, booleans or null. Nested request values are rejected.
+ */
+public final class Json {
+    private Json() {
+    }
+
+    /**
+     * Appends a JSON string literal.
+     *
+     * @param out The destination.
+     * @param value The string to quote.
+     * @return The destination.
+     */
+    public static StringBuilder quote(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20)
+                        out.append(String.format("\\u%04x", (int) c));
+                    else
+                        out.append(c);
+                }
+            }
+        }
+        return out.append('"');
+    }
+
+    /**
+     * Appends a JSON array of integers.
+     *
+     * @param out The destination.
+     * @param values The integers.
+     * @return The destination.
+     */
+    public static StringBuilder array(StringBuilder out, int[] values) {
+        out.append('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0)
+                out.append(',');
+            out.append(values[i]);
+        }
+        return out.append(']');
+    }
+
+    /**
+     * Appends a JSON array of one-character strings.
+     *
+     * @param out The destination.
+     * @param values The characters.
+     * @return The destination.
+     */
+    public static StringBuilder chars(StringBuilder out, CharSequence values) {
+        out.append('[');
+        for (int i = 0; i < values.length(); i++) {
+            if (i > 0)
+                out.append(',');
+            quote(out, String.valueOf(values.charAt(i)));
+        }
+        return out.append(']');
+    }
+
+    /**
+     * Appends a JSON array of strings.
+     *
+     * @param out The destination.
+     * @param values The strings.
+     * @return The destination.
+     */
+    public static StringBuilder strings(StringBuilder out, List<String> values) {
+        out.append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0)
+                out.append(',');
+            quote(out, values.get(i));
+        }
+        return out.append(']');
+    }
+
+    /**
+     * Parses a flat JSON object. Strings are unescaped; numbers, booleans and null are kept as their text.
+     *
+     * @param text The JSON text; blank text is an empty object.
+     * @return The members of the object.
+     * @throws IllegalArgumentException If the text is not a flat JSON object.
+     */
+    public static Map<String, String> parseObject(String text) {
+        Map<String, String> members = new HashMap<>();
+        Parser parser = new Parser(text);
+        parser.skipSpace();
+        if (parser.atEnd())
+            return members;
+        parser.expect('{');
+        parser.skipSpace();
+        if (parser.peek() == '}') {
+            parser.pos++;
+        } else {
+            while (true) {
+                parser.skipSpace();
+                String name = parser.string();
+                parser.skipSpace();
+                parser.expect(':');
+                parser.skipSpace();
+                members.put(name, parser.value());
+                parser.skipSpace();
+                if (parser.peek() == ',') {
+                    parser.pos++;
+                    continue;
+                }
+                parser.expect('}');
+                break;
+            }
+        }
+        parser.skipSpace();
+        if (!parser.atEnd())
+            throw new IllegalArgumentException("Unexpected text after the JSON object.");
+        return members;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text == null ? "" : text;
+        }
+
+        boolean atEnd() {
+            return pos >= text.length();
+        }
+
+        char peek() {
+            if (atEnd())
+                throw new IllegalArgumentException("Unexpected end of JSON.");
+            return text.charAt(pos);
+        }
+
+        void skipSpace() {
+            while (!atEnd() && Character.isWhitespace(text.charAt(pos)))
+                pos++;
+        }
+
+        void expect(char c) {
+            if (peek() != c)
+                throw new IllegalArgumentException("Expected '" + c + "' at offset " + pos + ".");
+            pos++;
+        }
+
+        String value() {
+            char c = peek();
+            if (c == '"')
+                return string();
+            if (c == '{' || c == '[')
+                throw new IllegalArgumentException("Nested JSON values are not supported.");
+            int start = pos;
+            while (!atEnd() && ",} \t\r\n".indexOf(text.charAt(pos)) < 0)
+                pos++;
+            String literal = text.substring(start, pos);
+            if (literal.isEmpty())
+                throw new IllegalArgumentException("Missing JSON value at offset " + start + ".");
+            return literal.equals("null") ? null : literal;
+        }
+
+        String string() {
+            expect('"');
+            StringBuilder out = new StringBuilder();
+            while (true) {
+                char c = peek();
+                pos++;
+                if (c == '"')
+                    return out.toString();
+                if (c != '\\') {
+                    out.append(c);
+                    continue;
+                }
+                char escaped = peek();
+                pos++;
+                switch (escaped) {
+                    case 'n' -> out.append('\n');
+                    case 'r' -> out.append('\r');
+                    case 't' -> out.append('\t');
+                    case 'b' -> out.append('\b');
+                    case 'f' -> out.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > text.length())
+                            throw new IllegalArgumentException("Truncated unicode escape.");
+                        out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    default -> out.append(escaped);
+                }
+            }
+        }
+    }
+}
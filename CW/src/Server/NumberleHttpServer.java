@@ -0,0 +1,639 @@
+package Server;
+
+import Controller.NumberleController;
+import Model.Difficulty;
+import Model.EquationCodec;
+import Model.EquationCorpus;
+import Model.GameSnapshot;
+import Model.NumberleModel;
+import Model.RunJournal;
+import Model.Solver.DifficultyIndex;
+import Model.Solver.HintCache;
+import Model.Solver.HintEngine;
+import Model.Solver.OpeningBook;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The NumberleHttpServer class exposes games of NumberleModel over HTTP with JSON bodies, using the
+ * JDK's built-in server. Each session owns one model, kept in a SessionRegistry: guesses on the same
+ * session are serialised by its lock stripe, while lookups, status and hint requests read the
+ * model's immutable snapshot without locking.
+ * All sessions share one corpus, its difficulty index and one hint engine.
+ *
+ * Endpoints:
+ * - POST   /games                 start a game; optional body {"verifyEquation", "hardMode", "difficulty"},
+ *                                 or {"id", "state"} to take over a session exported by SessionState
+ * - GET    /games/{id}            game status
+ * - POST   /games/{id}/guesses    submit {"guess": "..."}; returns the compareList row and the keyboard state
+ * - GET    /games/{id}/hint       suggested next guess, through NumberleController and a hint cache shared by all sessions
+ * - DELETE /games/{id}            end the session
+ * - GET    /games/{id}/events     the game's updates as server-sent events, one after every accepted guess
+ * - GET    /tournaments/{name}/events  the updates of every game started with {"tournament": name}
+ * - GET    /health                liveness probe with the session count
+ *
+ * Event streams take "overflow=latest" (skip to the newest update when behind; by default the
+ * oldest updates are dropped) and "lag=n" (the most updates a spectator may fall behind) query
+ * parameters. Each update is encoded once and shared by every spectator (see SpectatorChannel).
+ *
+ * As a cluster worker (setStateExport(true)) the server adds the session's encoded state to every
+ * response that changes it, in the STATE_HEADER header, so that the coordinator can move the session
+ * to another worker if this one dies.
+ *
+ * With setHibernation, sessions left idle for the time-to-live are moved to a SessionStore on disk
+ * and read back on their next request; they survive a restart of the server on the same store.
+ *
+ * With setArchive, every game that ends on the server is appended to a game archive file.
+ *
+ * With setRecording, every new game is seeded and records a RunJournal, written to {id}.run in the
+ * recording directory when the game ends or is deleted, for Tool.RunReplay.
+ *
+ * Requests are handled on virtual threads when the runtime has them, and on a bounded platform
+ * thread pool otherwise.
+ *
+ * @invariant corpus != null && sessions != null
+ */
+public class NumberleHttpServer {
+    public static final int DEFAULT_PORT = 8080;
+    private static final String PREFIX = "/games";
+    private static final String[] CLASS_NAMES = {"absent", "correct", "misplaced", "unused"};
+    // Response header carrying the encoded session state to a cluster coordinator
+    public static final String STATE_HEADER = "X-Numberle-State";
+
+    static {
+        // Responses are written as a header write followed by a body write; without TCP_NODELAY the
+        // second write waits for the client's delayed acknowledgement (about 40 ms per request)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final EquationCorpus corpus;
+    private final HintEngine hintEngine;
+    private final DifficultyIndex difficultyIndex; // Or null: every band is then drawn uniformly
+    private final SessionRegistry sessions = new SessionRegistry();
+    private HttpServer server;
+    private ExecutorService executor;
+    private ScheduledExecutorService hibernator;
+    private SessionStore store;
+    private GameArchiveWriter archive;
+    private Path recording; // Directory of the run journals, or null
+    private final SpectatorHub spectators = new SpectatorHub();
+    private volatile boolean stateExport;
+
+    /**
+     * Creates a server over the given corpus. The server is not started.
+     *
+     * @param corpus The equations targets are drawn from.
+     * @requires corpus != null && corpus.size() > 0;
+     */
+    public NumberleHttpServer(EquationCorpus corpus) {
+        assert corpus != null && corpus.size() > 0 : "Corpus must not be null or empty.";
+        this.corpus = corpus;
+        // Read once here rather than by the first draw of every session
+        this.difficultyIndex = DifficultyIndex.read(Paths.get(DifficultyIndex.DEFAULT_FILE), corpus);
+        // One hint engine, and so one hint cache, for every session
+        this.hintEngine = new HintEngine(corpus, new HintCache(),
+                OpeningBook.read(Paths.get(OpeningBook.DEFAULT_FILE), corpus), HintEngine.DEFAULT_GUESS_POOL);
+    }
+
+    /**
+     * Starts listening.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     * @post getPort() > 0
+     */
+    public void start(int port) throws IOException {
+        assert server == null : "The server is already started.";
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.createContext(PREFIX, this::handle);
+        server.createContext("/tournaments", this::handleTournament);
+        server.createContext("/health", exchange -> {
+            try {
+                send(exchange, 200, new StringBuilder("{\"sessions\":").append(sessions.size()).append('}'));
+            } finally {
+                exchange.close();
+            }
+        });
+        executor = newExecutor();
+        server.setExecutor(executor);
+        server.start();
+        long tick = sessions.getHibernationTickNanos();
+        if (tick > 0) {
+            hibernator = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "Numberle session hibernation");
+                thread.setDaemon(true);
+                return thread;
+            });
+            hibernator.scheduleWithFixedDelay(sessions::hibernateIdle, tick, tick, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Stops the server and drops every session in memory. Hibernated sessions stay in the store,
+     * which is closed; call setHibernation again before restarting.
+     */
+    public void stop() {
+        if (server == null)
+            return;
+        spectators.shutdown();
+        server.stop(0);
+        executor.shutdown();
+        if (hibernator != null)
+            hibernator.shutdownNow();
+        hibernator = null;
+        if (store != null) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            store = null;
+        }
+        if (archive != null) {
+            synchronized (archive) {
+                try {
+                    archive.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            archive = null;
+        }
+        server = null;
+        sessions.clear();
+    }
+
+    /**
+     * Enables hibernation of idle sessions. Call before start.
+     *
+     * @param directory The directory of the session store.
+     * @param ttlMillis How long a session stays in memory unused, in milliseconds.
+     * @requires ttlMillis > 0 && getSessionCount() == 0;
+     * @throws IOException If the store cannot be opened.
+     */
+    public void setHibernation(Path directory, long ttlMillis) throws IOException {
+        assert server == null : "Hibernation is set before the server starts.";
+        store = new SessionStore(directory);
+        sessions.setHibernation(store, corpus, difficultyIndex, TimeUnit.MILLISECONDS.toNanos(ttlMillis));
+    }
+
+    /**
+     * Appends every game that ends from now on to a game archive. Games are written in blocks, so the
+     * last ones reach the file when a block fills up or the server stops.
+     *
+     * @param file The archive file; a new one is started if it does not exist.
+     * @throws IOException If the file cannot be opened.
+     */
+    public void setArchive(Path file) throws IOException {
+        assert server == null : "The archive is set before the server starts.";
+        archive = GameArchiveWriter.append(file);
+    }
+
+    /**
+     * Records the run of every game started from now on, so that it can be replayed offline.
+     * Sessions taken over from another worker are not recorded, and a hibernated session loses
+     * its journal.
+     *
+     * @param directory The directory the journals are written to.
+     * @throws IOException If the directory cannot be created.
+     */
+    public void setRecording(Path directory) throws IOException {
+        assert server == null : "Recording is set before the server starts.";
+        recording = Files.createDirectories(directory);
+    }
+
+    /**
+     * Enables the encoded session state in the responses that change a session.
+     *
+     * @param stateExport true to add the STATE_HEADER header.
+     */
+    public void setStateExport(boolean stateExport) {
+        this.stateExport = stateExport;
+    }
+
+    /**
+     * Retrieves the port the server listens on.
+     *
+     * @return The bound port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Retrieves the number of open sessions.
+     *
+     * @return The session count.
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Creates the request executor: one virtual thread per request on runtimes that have them
+     * (looked up reflectively so the code also builds on Java 17), a fixed pool otherwise.
+     *
+     * @return The executor.
+     */
+    static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Math.max(4, 4 * Runtime.getRuntime().availableProcessors()));
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        boolean streaming = false;
+        try {
+            String method = exchange.getRequestMethod();
+            String[] parts = exchange.getRequestURI().getPath().substring(PREFIX.length()).split("/");
+            // parts[0] is empty; parts[1] is the session id and parts[2] the action, when present
+            if (parts.length <= 1) {
+                if (method.equals("POST"))
+                    startGame(exchange);
+                else
+                    sendError(exchange, 405, "Use POST to start a game.");
+                return;
+            }
+            NumberleModel model = sessions.get(parts[1]);
+            if (model == null) {
+                sendError(exchange, 404, "Unknown game.");
+                return;
+            }
+            String action = parts.length > 2 ? parts[2] : "";
+            switch (method + " " + action) {
+                // Reads use the model's immutable snapshot and take no lock
+                case "GET " -> send(exchange, 200, state(new StringBuilder("{"), parts[1], model).append('}'));
+                case "DELETE " -> {
+                    sessions.remove(parts[1]);
+                    spectators.endGame(parts[1]);
+                    writeJournal(parts[1], model);
+                    // A 204 reply makes the JDK server drop the kept-alive connection, so reply with a body
+                    send(exchange, 200, Json.quote(new StringBuilder("{\"deleted\":"), parts[1]).append('}'));
+                }
+                case "POST guesses" -> submitGuess(exchange, parts[1], model);
+                case "GET hint" -> hint(exchange, model);
+                case "GET events" -> {
+                    GameSnapshot snapshot = model.getSnapshot();
+                    ByteBuffer current = frame(parts[1], snapshot, model.getHardMode());
+                    // A finished game has nothing more to publish: the client gets its final state only
+                    streaming = watch(exchange, snapshot.isGameOver() ? null
+                            : (stream, overflow, lag) -> spectators.watchGame(parts[1], stream, overflow, lag), current);
+                }
+                default -> sendError(exchange, 404, "Unknown endpoint.");
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } finally {
+            if (!streaming)
+                exchange.close();
+        }
+    }
+
+    private void handleTournament(HttpExchange exchange) throws IOException {
+        boolean streaming = false;
+        try {
+            String[] parts = exchange.getRequestURI().getPath().split("/");
+            // parts[1] is "tournaments", parts[2] the name and parts[3] the action
+            if (exchange.getRequestMethod().equals("GET") && parts.length == 4 && parts[3].equals("events"))
+                streaming = watch(exchange, (stream, overflow, lag) -> spectators.watchTournament(parts[2], stream, overflow, lag), null);
+            else
+                sendError(exchange, 404, "Unknown endpoint.");
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } finally {
+            if (!streaming)
+                exchange.close();
+        }
+    }
+
+    /**
+     * Starts streaming a channel to the client as server-sent events. The exchange then stays open
+     * after the handler returns, and is closed by the stream when the channel ends or the client
+     * goes away.
+     *
+     * @param channel Subscribes the stream to its channel through the hub, or null to send the
+     *                current frame only.
+     * @param current A frame to send first, or null.
+     * @return true if the exchange is left open.
+     */
+    private boolean watch(HttpExchange exchange, Watch channel, ByteBuffer current) throws IOException {
+        Map<String, String> query = query(exchange);
+        SpectatorChannel.Overflow overflow = "latest".equals(query.get("overflow"))
+                ? SpectatorChannel.Overflow.LATEST : SpectatorChannel.Overflow.DROP_OLDEST;
+        int lag = query.get("lag") != null ? Integer.parseInt(query.get("lag"))
+                : overflow == SpectatorChannel.Overflow.LATEST ? 1 : SpectatorChannel.CAPACITY;
+        lag = Math.max(1, Math.min(SpectatorChannel.CAPACITY, lag));
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        EventStream stream = new EventStream(exchange);
+        // Subscribed before the current frame is written, so no update in between is missed
+        if (channel != null)
+            channel.subscribe(stream, overflow, lag);
+        if (current != null && !stream.write(current))
+            return true;
+        if (channel == null)
+            return false;
+        stream.start();
+        return true;
+    }
+
+    /**
+     * Subscribes an event stream to one channel of the spectator hub.
+     */
+    private interface Watch {
+        void subscribe(EventStream stream, SpectatorChannel.Overflow overflow, int lag);
+    }
+
+    /**
+     * Writes the frames of a channel to one client, asking for the next frame once the last one
+     * has been written, so that a slow client falls behind in the channel instead of in memory.
+     */
+    private static final class EventStream implements Flow.Subscriber<ByteBuffer> {
+        private final HttpExchange exchange;
+        private final OutputStream out;
+        private byte[] buffer = new byte[1024];
+        private Flow.Subscription subscription;
+
+        EventStream(HttpExchange exchange) {
+            this.exchange = exchange;
+            this.out = exchange.getResponseBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        void start() {
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(ByteBuffer frame) {
+            if (write(frame))
+                subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            exchange.close();
+        }
+
+        @Override
+        public void onComplete() {
+            exchange.close();
+        }
+
+        /**
+         * Writes one frame.
+         *
+         * @return false if the client went away; the stream is then cancelled and closed.
+         */
+        boolean write(ByteBuffer frame) {
+            int length = frame.remaining();
+            if (buffer.length < length)
+                buffer = new byte[Math.max(length, 2 * buffer.length)];
+            frame.get(buffer, 0, length);
+            try {
+                out.write(buffer, 0, length);
+                out.flush();
+                return true;
+            } catch (IOException e) {
+                if (subscription != null)
+                    subscription.cancel();
+                exchange.close();
+                return false;
+            }
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getQuery();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0)
+                    query.put(pair.substring(0, eq), pair.substring(eq + 1));
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Encodes a game update once as a server-sent event, shared by every spectator: the state of
+     * the game and the comparison row of its last guess.
+     */
+    private static ByteBuffer frame(String id, GameSnapshot snapshot, boolean hardMode) {
+        StringBuilder out = state(new StringBuilder("data: {"), id, snapshot, hardMode);
+        int last = snapshot.getGuessCount() - 1;
+        if (last >= 0) {
+            int[] row = new int[snapshot.getCompareLength(last)];
+            for (int j = 0; j < row.length; j++)
+                row[j] = snapshot.getCompare(last, j);
+            Json.array(out.append(",\"row\":"), row);
+        }
+        return ByteBuffer.wrap(out.append("}\n\n").toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void startGame(HttpExchange exchange) throws IOException {
+        Map<String, String> options = Json.parseObject(readBody(exchange));
+        NumberleModel model;
+        if (options.get("state") != null) {
+            // A session taken over from another worker
+            model = SessionState.decode(options.get("state"), corpus, difficultyIndex);
+        } else {
+            model = new NumberleModel(corpus);
+            model.setConsoleOutput(false);
+            model.setDifficultyIndex(difficultyIndex);
+            if (recording != null) {
+                model.setJournal(new RunJournal());
+                model.setSeed(ThreadLocalRandom.current().nextLong());
+            }
+            model.setRandomEquality(true);
+            model.setVerifyEquation(Boolean.parseBoolean(options.getOrDefault("verifyEquation", "true")));
+            model.setHardMode(Boolean.parseBoolean(options.get("hardMode")));
+            if (options.get("difficulty") != null)
+                model.setDifficulty(Difficulty.valueOf(options.get("difficulty").toUpperCase()));
+            model.startNewGame();
+        }
+
+        String id = options.get("id");
+        if (id == null) {
+            id = sessions.create(model);
+        } else if (id.isEmpty() || id.indexOf('/') >= 0 || !sessions.register(id, model)) {
+            sendError(exchange, 409, "The game id is taken or invalid.");
+            return;
+        }
+        if (options.get("tournament") != null)
+            spectators.join(id, options.get("tournament"));
+        exportState(exchange, model.getSnapshot(), model);
+        send(exchange, 201, state(new StringBuilder("{"), id, model).append('}'));
+    }
+
+    private void submitGuess(HttpExchange exchange, String id, NumberleModel model) throws IOException {
+        String guess = Json.parseObject(readBody(exchange)).get("guess");
+        if (guess == null || guess.isEmpty()) {
+            sendError(exchange, 400, "The guess is missing.");
+            return;
+        }
+        int[] status = new int[1];
+        GameSnapshot snapshot = sessions.apply(id, game -> {
+            if (game.isGameOver())
+                return null;
+            status[0] = game.processInput(guess);
+            return game.getSnapshot();
+        });
+        if (snapshot == null) {
+            if (sessions.get(id) == null)
+                sendError(exchange, 404, "Unknown game.");
+            else
+                sendError(exchange, 409, "The game is over.");
+            return;
+        }
+        // The response is built from the snapshot taken with the guess, outside the lock
+        StringBuilder out = new StringBuilder("{\"status\":").append(status[0]).append(",\"row\":");
+        if (status[0] == 1) {
+            int last = snapshot.getGuessCount() - 1;
+            int[] row = new int[snapshot.getCompareLength(last)];
+            for (int j = 0; j < row.length; j++)
+                row[j] = snapshot.getCompare(last, j);
+            Json.array(out, row);
+        } else {
+            out.append("null");
+        }
+        out.append(',');
+        if (status[0] == 1) {
+            exportState(exchange, snapshot, model);
+            if (spectators.isWatched(id))
+                spectators.publish(id, frame(id, snapshot, model.getHardMode()));
+            if (snapshot.isGameOver()) {
+                archive(GameRecord.of(id, snapshot, model.getVerifyEquation(), model.getHardMode()));
+                spectators.endGame(id);
+                writeJournal(id, model);
+            }
+        }
+        send(exchange, 200, state(out, id, snapshot, model.getHardMode()).append('}'));
+    }
+
+    private void writeJournal(String id, NumberleModel model) {
+        RunJournal journal = model.getJournal();
+        if (recording == null || journal == null)
+            return;
+        try {
+            journal.write(recording.resolve(id + ".run"));
+        } catch (IOException e) {
+            // As with the archive, a lost journal must not fail the request
+            e.printStackTrace();
+        }
+    }
+
+    private void archive(GameRecord record) {
+        GameArchiveWriter writer = archive;
+        if (writer == null)
+            return;
+        synchronized (writer) {
+            try {
+                writer.write(record);
+            } catch (IOException e) {
+                // The game has been played; losing its record must not fail the request
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void hint(HttpExchange exchange, NumberleModel model) throws IOException {
+        HintEngine.Hint hint = new NumberleController(model, hintEngine).getHint();
+        if (hint == null) {
+            sendError(exchange, 404, "No equation fits the feedback so far.");
+            return;
+        }
+        StringBuilder out = new StringBuilder("{\"guess\":");
+        Json.quote(out, EquationCodec.decode(hint.guess())).append(",\"remaining\":").append(hint.remaining()).append('}');
+        send(exchange, 200, out);
+    }
+
+    /**
+     * Appends the members describing the latest state of a game, without the enclosing braces.
+     */
+    private static StringBuilder state(StringBuilder out, String id, NumberleModel model) {
+        return state(out, id, model.getSnapshot(), model.getHardMode());
+    }
+
+    /**
+     * Appends the members describing a game snapshot, without the enclosing braces.
+     */
+    private static StringBuilder state(StringBuilder out, String id, GameSnapshot snapshot, boolean hardMode) {
+        out.append("\"id\":");
+        Json.quote(out, id);
+        out.append(",\"remainingAttempts\":").append(snapshot.getRemainingAttempts())
+                .append(",\"gameOver\":").append(snapshot.isGameOver())
+                .append(",\"gameWon\":").append(snapshot.isGameWon())
+                .append(",\"hardMode\":").append(hardMode)
+                .append(",\"guesses\":");
+        Json.strings(out, snapshot.getGuesses());
+        out.append(",\"classList\":{");
+        for (int i = 0; i < CLASS_NAMES.length; i++) {
+            if (i > 0)
+                out.append(',');
+            Json.quote(out, CLASS_NAMES[i]).append(':');
+            Json.chars(out, snapshot.getClassGroup(i));
+        }
+        out.append('}');
+        // The target is only revealed once it can no longer be guessed
+        if (snapshot.isGameOver()) {
+            out.append(",\"target\":");
+            Json.quote(out, snapshot.getTargetNumber());
+        }
+        return out;
+    }
+
+    private void exportState(HttpExchange exchange, GameSnapshot snapshot, NumberleModel model) {
+        if (stateExport)
+            exchange.getResponseHeaders().set(STATE_HEADER,
+                    SessionState.encode(snapshot, model.getVerifyEquation(), model.getHardMode(), model.getDifficulty()));
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int code, String message) throws IOException {
+        StringBuilder out = new StringBuilder("{\"error\":");
+        Json.quote(out, message == null ? "Bad request." : message).append('}');
+        send(exchange, code, out);
+    }
+
+    private static void send(HttpExchange exchange, int code, CharSequence body) throws IOException {
+        byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
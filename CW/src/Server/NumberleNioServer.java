@@ -0,0 +1,373 @@
+package Server;
+
+import Model.EquationCodec;
+import Model.EquationCorpus;
+import Model.EquationScorer;
+import Model.GameArena;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The NumberleNioServer class serves games over long-lived TCP connections with a fixed binary protocol,
+ * multiplexing every connection on a few Selector event loops (one per core by default) instead of a
+ * thread per connection. Each connection holds at most one game, kept off the heap in its event
+ * loop's GameArena, so an idle connection costs its socket plus a few dozen bytes.
+ *
+ * Requests are REQUEST_SIZE bytes:
+ * - 'N' flags ...   start a game; flag bit 0 verifies equations, bit 1 enables hard mode
+ * - 'G' c1 ... c7   play the seven ASCII characters of a guess
+ * - 'S' ...         report the state of the game
+ * Unused request bytes are ignored. Every request gets one RESPONSE_SIZE byte response (big-endian):
+ * - [0] the request opcode, [1] status (PackedGame status, 1 for 'N' and 'S', NO_GAME without a game)
+ * - [2..3] feedback code of the last guess or -1, [4] remaining attempts, [5] 0 playing, 1 won, 2 lost
+ * - [8..15] keyboard: correct symbols, misplaced symbols shifted by 15, absent symbols shifted by 30
+ * - [16..19] packed target once the game is over, -1 before
+ * An unknown opcode closes the connection.
+ *
+ * Requests are parsed in place from one direct buffer per event loop, and responses are written from
+ * another; only a response the socket does not fully accept is copied to the connection, which then
+ * stops being read until it is flushed.
+ *
+ * @invariant loops.length > 0
+ */
+public class NumberleNioServer {
+    public static final int DEFAULT_PORT = 8081;
+    public static final int REQUEST_SIZE = 8;
+    public static final int RESPONSE_SIZE = 20;
+    public static final int NO_GAME = 0xFF;
+    private static final int FLAG_VERIFY = 1;
+    private static final int FLAG_HARD_MODE = 2;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final EquationCorpus corpus;
+    private final EventLoop[] loops;
+    private final AtomicInteger connections = new AtomicInteger();
+    private ServerSocketChannel acceptor;
+    private volatile boolean running;
+    private int nextLoop;
+
+    /**
+     * Creates a server with one event loop per core. The server is not started.
+     *
+     * @param corpus The equations targets are drawn from.
+     * @requires corpus != null && corpus.size() > 0;
+     */
+    public NumberleNioServer(EquationCorpus corpus) {
+        this(corpus, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a server. The server is not started.
+     *
+     * @param corpus The equations targets are drawn from.
+     * @param loopCount The number of event loop threads.
+     * @requires corpus != null && corpus.size() > 0 && loopCount > 0;
+     */
+    public NumberleNioServer(EquationCorpus corpus, int loopCount) {
+        assert corpus != null && corpus.size() > 0 : "Corpus must not be null or empty.";
+        assert loopCount > 0 : "At least one event loop is needed.";
+        this.corpus = corpus;
+        this.loops = new EventLoop[loopCount];
+    }
+
+    /**
+     * Starts listening.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public void start(int port) throws IOException {
+        assert !running : "The server is already started.";
+        acceptor = ServerSocketChannel.open();
+        acceptor.bind(new InetSocketAddress(port), 4096);
+        acceptor.configureBlocking(false);
+        for (int i = 0; i < loops.length; i++)
+            loops[i] = new EventLoop(i);
+        // The first loop also accepts connections and deals them out to every loop
+        acceptor.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        for (EventLoop loop : loops)
+            loop.thread.start();
+    }
+
+    /**
+     * Stops the server and closes every connection.
+     *
+     * @throws InterruptedException If interrupted while waiting for the event loops.
+     */
+    public void stop() throws InterruptedException {
+        if (!running)
+            return;
+        running = false;
+        for (EventLoop loop : loops)
+            loop.selector.wakeup();
+        for (EventLoop loop : loops)
+            loop.thread.join();
+        try {
+            acceptor.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Retrieves the port the server listens on.
+     *
+     * @return The bound port.
+     * @throws IOException If the address cannot be read.
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) acceptor.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Retrieves the number of open connections.
+     *
+     * @return The connection count.
+     */
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * The per-connection state attached to its selection key.
+     */
+    private static final class Connection {
+        int game = GameArena.NONE; // Handle in the event loop's arena
+        // Bytes of a request split across reads, first byte lowest
+        long partial;
+        int partialLength;
+        // Response bytes the socket did not accept yet
+        ByteBuffer unsent;
+    }
+
+    /**
+     * One selector thread and the buffers it parses and answers requests in.
+     */
+    private final class EventLoop implements Runnable {
+        final Selector selector;
+        final Thread thread;
+        final Queue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+        final ByteBuffer in = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        final ByteBuffer out = ByteBuffer.allocateDirect((READ_BUFFER_SIZE / REQUEST_SIZE + 1) * RESPONSE_SIZE);
+        final ByteBuffer frame = ByteBuffer.allocateDirect(REQUEST_SIZE);
+        final GameArena games = new GameArena();
+        final Random random;
+
+        EventLoop(int index) throws IOException {
+            selector = Selector.open();
+            thread = new Thread(this, "numberle-nio-" + index);
+            random = new Random();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    SocketChannel channel;
+                    while ((channel = accepted.poll()) != null)
+                        channel.register(selector, SelectionKey.OP_READ, new Connection());
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (key.isValid() && key.isAcceptable()) {
+                            try {
+                                accept();
+                            } catch (IOException e) {
+                                // For example out of file descriptors; keep listening
+                                e.printStackTrace();
+                            }
+                            continue;
+                        }
+                        try {
+                            if (!key.isValid())
+                                continue;
+                            if (key.isWritable())
+                                flush(key);
+                            else if (key.isReadable())
+                                read(key);
+                        } catch (IOException e) {
+                            close(key);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    if (key.channel() instanceof SocketChannel)
+                        close(key);
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        private void accept() throws IOException {
+            SocketChannel channel;
+            while ((channel = acceptor.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                connections.incrementAndGet();
+                EventLoop loop = loops[nextLoop];
+                nextLoop = (nextLoop + 1) % loops.length;
+                if (loop == this) {
+                    channel.register(selector, SelectionKey.OP_READ, new Connection());
+                } else {
+                    loop.accepted.add(channel);
+                    loop.selector.wakeup();
+                }
+            }
+        }
+
+        private void read(SelectionKey key) throws IOException {
+            SocketChannel channel = (SocketChannel) key.channel();
+            Connection connection = (Connection) key.attachment();
+            in.clear();
+            int read = channel.read(in);
+            if (read < 0) {
+                close(key);
+                return;
+            }
+            in.flip();
+            out.clear();
+            int position = 0;
+            int limit = in.limit();
+
+            // Complete a request split across reads first
+            if (connection.partialLength > 0) {
+                while (connection.partialLength < REQUEST_SIZE && position < limit)
+                    connection.partial |= (long) (in.get(position++) & 0xFF) << (8 * connection.partialLength++);
+                if (connection.partialLength < REQUEST_SIZE)
+                    return;
+                frame.clear();
+                for (int i = 0; i < REQUEST_SIZE; i++)
+                    frame.put(i, (byte) (connection.partial >>> (8 * i)));
+                connection.partial = 0;
+                connection.partialLength = 0;
+                if (!handle(connection, frame, 0)) {
+                    close(key);
+                    return;
+                }
+            }
+            for (; position + REQUEST_SIZE <= limit; position += REQUEST_SIZE) {
+                if (!handle(connection, in, position)) {
+                    close(key);
+                    return;
+                }
+            }
+            for (; position < limit; position++)
+                connection.partial |= (long) (in.get(position) & 0xFF) << (8 * connection.partialLength++);
+
+            out.flip();
+            channel.write(out);
+            if (out.hasRemaining()) {
+                // The socket is full: keep the rest and stop reading until it is flushed
+                connection.unsent = ByteBuffer.allocate(out.remaining()).put(out).flip();
+                key.interestOps(SelectionKey.OP_WRITE);
+            }
+        }
+
+        private void flush(SelectionKey key) throws IOException {
+            Connection connection = (Connection) key.attachment();
+            ((SocketChannel) key.channel()).write(connection.unsent);
+            if (!connection.unsent.hasRemaining()) {
+                connection.unsent = null;
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        /**
+         * Answers one request read in place from a buffer.
+         *
+         * @return false if the opcode is unknown.
+         */
+        private boolean handle(Connection connection, ByteBuffer request, int offset) {
+            byte op = request.get(offset);
+            int status = 1;
+            switch (op) {
+                case 'N' -> {
+                    int flags = request.get(offset + 1);
+                    if (connection.game != GameArena.NONE)
+                        games.free(connection.game);
+                    connection.game = games.allocate(corpus.pick(random),
+                            (flags & FLAG_VERIFY) != 0, (flags & FLAG_HARD_MODE) != 0);
+                }
+                case 'G' -> {
+                    if (connection.game == GameArena.NONE) {
+                        status = NO_GAME;
+                    } else {
+                        int guess = 0;
+                        for (int i = 0; i < EquationScorer.EQUATION_LENGTH; i++) {
+                            int symbol = EquationCodec.symbolOf((char) (request.get(offset + 1 + i) & 0xFF));
+                            if (symbol < 0) {
+                                guess = EquationCodec.INVALID;
+                                break;
+                            }
+                            guess |= symbol << (4 * i);
+                        }
+                        status = games.guess(connection.game, guess);
+                    }
+                }
+                case 'S' -> {
+                    if (connection.game == GameArena.NONE)
+                        status = NO_GAME;
+                }
+                default -> {
+                    return false;
+                }
+            }
+            writeResponse(op, status, connection.game);
+            return true;
+        }
+
+        private void writeResponse(byte op, int status, int game) {
+            out.put(op).put((byte) status);
+            if (game == GameArena.NONE) {
+                out.putShort((short) -1).put((byte) 0).put((byte) 0).putShort((short) 0).putLong(0).putInt(-1);
+                return;
+            }
+            int outcome = games.isGameWon(game) ? 1 : games.isGameOver(game) ? 2 : 0;
+            long keyboard = games.getCorrectSymbols(game)
+                    | (long) games.getMisplacedSymbols(game) << 15
+                    | (long) games.getAbsentSymbols(game) << 30;
+            out.putShort((short) games.getLastCode(game))
+                    .put((byte) games.getRemainingAttempts(game))
+                    .put((byte) outcome)
+                    .putShort((short) 0)
+                    .putLong(keyboard)
+                    .putInt(outcome != 0 ? games.getTarget(game) : -1);
+        }
+
+        private void close(SelectionKey key) {
+            if (!key.channel().isOpen())
+                return;
+            key.cancel();
+            Connection connection = (Connection) key.attachment();
+            if (connection != null && connection.game != GameArena.NONE) {
+                games.free(connection.game);
+                connection.game = GameArena.NONE;
+            }
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            connections.decrementAndGet();
+        }
+    }
+}
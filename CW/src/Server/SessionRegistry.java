@@ -0,0 +1,336 @@
+package Server;
+
+import Model.EquationCorpus;
+import Model.NumberleModel;
+import Model.Solver.DifficultyIndex;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The SessionRegistry class holds the games of a server. Lookups go through a ConcurrentHashMap and
+ * take no lock. Changes to a game are serialised by a lock stripe chosen from the session id, so
+ * games on different stripes never contend, and there is no global lock.
+ *
+ * Every access refreshes the session's last-use time, which expireIdle uses to drop abandoned games.
+ *
+ * With hibernation enabled, a session unused for the time-to-live is written to a SessionStore and
+ * leaves memory, and the next access reads it back, so memory holds the active players only. Each
+ * session in memory has one entry in a TimerWheel; when it comes due, a session used meanwhile is
+ * scheduled again for its new deadline, so idle sessions are found without scanning the others.
+ *
+ * @invariant Integer.bitCount(stripes.length) == 1
+ */
+public class SessionRegistry {
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+    private final AtomicLong sequence = new AtomicLong();
+    private final long salt = new SecureRandom().nextLong();
+    // Hibernation; store is null while it is disabled
+    private SessionStore store;
+    private EquationCorpus corpus;
+    private DifficultyIndex difficultyIndex;
+    private TimerWheel<String> wheel;
+    private long ttlNanos;
+
+    /**
+     * Creates a registry with 16 lock stripes per core.
+     */
+    public SessionRegistry() {
+        this(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 16));
+    }
+
+    /**
+     * Creates a registry.
+     *
+     * @param stripeCount The number of locks, a power of two.
+     * @requires Integer.bitCount(stripeCount) == 1;
+     */
+    public SessionRegistry(int stripeCount) {
+        assert Integer.bitCount(stripeCount) == 1 : "The stripe count must be a power of two.";
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++)
+            stripes[i] = new ReentrantLock();
+    }
+
+    /**
+     * Enables hibernation. Call before the first session is registered.
+     *
+     * @param store Where idle sessions are written.
+     * @param corpus The corpus of the models rebuilt from the store.
+     * @param difficultyIndex The index of the corpus, or null to draw every band uniformly.
+     * @param ttlNanos How long a session stays in memory unused, in nanoseconds.
+     * @requires store != null && corpus != null && ttlNanos > 0 && size() == 0;
+     */
+    public void setHibernation(SessionStore store, EquationCorpus corpus, DifficultyIndex difficultyIndex, long ttlNanos) {
+        assert store != null && corpus != null : "Store and corpus must not be null.";
+        assert ttlNanos > 0 && sessions.isEmpty() : "Hibernation is set before any session, with a positive time-to-live.";
+        this.corpus = corpus;
+        this.difficultyIndex = difficultyIndex;
+        this.ttlNanos = ttlNanos;
+        // Deadlines are kept to a 64th of the time-to-live, over four times the time-to-live per turn
+        this.wheel = new TimerWheel<>(Math.max(ttlNanos / 64, 1_000_000L), 256, System.nanoTime());
+        this.store = store;
+    }
+
+    /**
+     * Retrieves how often hibernateIdle should run.
+     *
+     * @return The tick of the hibernation timer wheel in nanoseconds, or 0 if hibernation is disabled.
+     */
+    public long getHibernationTickNanos() {
+        return store == null ? 0 : wheel.getTickNanos();
+    }
+
+    /**
+     * Registers a new game.
+     *
+     * @param model The game, already started.
+     * @requires model != null;
+     * @return The id of the new session.
+     */
+    public String create(NumberleModel model) {
+        assert model != null : "Model must not be null.";
+        String id = Long.toHexString(sequence.incrementAndGet() * 0x9E3779B97F4A7C15L ^ salt);
+        sessions.put(id, new Session(model));
+        schedule(id, System.nanoTime());
+        return id;
+    }
+
+    /**
+     * Registers a game under an id chosen by the caller, for example a cluster coordinator routing
+     * sessions by id, or a session moved from another process.
+     *
+     * @param id The session id.
+     * @param model The game, already started.
+     * @requires id != null && model != null;
+     * @return true if the id was free and the game is registered.
+     */
+    public boolean register(String id, NumberleModel model) {
+        assert id != null && model != null : "Id and model must not be null.";
+        if (store == null)
+            return sessions.putIfAbsent(id, new Session(model)) == null;
+        ReentrantLock lock = stripeOf(id);
+        lock.lock();
+        try {
+            // A hibernated session keeps its id
+            if (lookup(id) != null)
+                return false;
+            sessions.put(id, new Session(model));
+        } finally {
+            lock.unlock();
+        }
+        schedule(id, System.nanoTime());
+        return true;
+    }
+
+    /**
+     * Looks up a game without locking, unless it has to be read back from hibernation. The model may
+     * only be read through its snapshot; use apply to change it.
+     *
+     * @param id The session id.
+     * @return The game, or null if there is no such session.
+     * @throws UncheckedIOException If the hibernated session cannot be read.
+     */
+    public NumberleModel get(String id) {
+        Session session = sessions.get(id);
+        if (session == null && store != null) {
+            ReentrantLock lock = stripeOf(id);
+            lock.lock();
+            try {
+                session = lookup(id);
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (session == null)
+            return null;
+        session.touch();
+        return session.model;
+    }
+
+    /**
+     * Runs an action on a game while holding its stripe lock, so actions on one game never overlap.
+     *
+     * @param id The session id.
+     * @param action The action, for example a call to processInput.
+     * @return The result of the action, or null if there is no such session.
+     * @throws UncheckedIOException If the hibernated session cannot be read.
+     */
+    public <T> T apply(String id, Function<NumberleModel, T> action) {
+        if (store == null && !sessions.containsKey(id))
+            return null;
+        ReentrantLock lock = stripeOf(id);
+        lock.lock();
+        try {
+            // Looked up under the lock, so the session cannot be hibernated while the action runs
+            Session session = lookup(id);
+            if (session == null)
+                return null;
+            session.touch();
+            return action.apply(session.model);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends a session, in memory or hibernated.
+     *
+     * @param id The session id.
+     * @return true if the session existed.
+     * @throws UncheckedIOException If the hibernated session cannot be deleted.
+     */
+    public boolean remove(String id) {
+        if (store == null)
+            return sessions.remove(id) != null;
+        ReentrantLock lock = stripeOf(id);
+        lock.lock();
+        try {
+            return sessions.remove(id) != null | store.delete(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the sessions whose time-to-live ran out to the store and drops them from memory. Only
+     * the sessions due on the timer wheel are looked at. A session that cannot be written stays in
+     * memory for another time-to-live.
+     *
+     * @return The number of sessions hibernated.
+     */
+    public int hibernateIdle() {
+        if (store == null)
+            return 0;
+        long now = System.nanoTime();
+        int hibernated = 0;
+        for (String id : wheel.advance(now)) {
+            Session session = sessions.get(id);
+            if (session == null)
+                continue; // Removed or expired since it was scheduled
+            ReentrantLock lock = stripeOf(id);
+            lock.lock();
+            try {
+                if (sessions.get(id) != session)
+                    continue;
+                if (session.lastUsed + ttlNanos - now > 0) {
+                    wheel.schedule(id, session.lastUsed + ttlNanos);
+                    continue;
+                }
+                try {
+                    store.write(id, session.model);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    wheel.schedule(id, now + ttlNanos);
+                    continue;
+                }
+                sessions.remove(id);
+                hibernated++;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return hibernated;
+    }
+
+    /**
+     * Drops every session unused for longer than the given time. A session is never dropped while
+     * an action runs on it.
+     *
+     * @param maxIdleNanos The longest allowed idle time, in nanoseconds.
+     * @return The number of sessions dropped.
+     */
+    public int expireIdle(long maxIdleNanos) {
+        long now = System.nanoTime();
+        int expired = 0;
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            if (now - entry.getValue().lastUsed <= maxIdleNanos)
+                continue;
+            ReentrantLock lock = stripeOf(entry.getKey());
+            lock.lock();
+            try {
+                // Checked again under the lock: the session may have been used meanwhile
+                if (now - entry.getValue().lastUsed > maxIdleNanos && sessions.remove(entry.getKey(), entry.getValue()))
+                    expired++;
+            } finally {
+                lock.unlock();
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Retrieves the number of sessions in memory; hibernated sessions are not counted.
+     *
+     * @return The session count.
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Drops every session in memory. Hibernated sessions stay in the store.
+     */
+    public void clear() {
+        sessions.clear();
+    }
+
+    /**
+     * Finds a session, reading it back from the store if it is hibernated. The caller holds the
+     * session's stripe lock.
+     */
+    private Session lookup(String id) {
+        Session session = sessions.get(id);
+        if (session != null || store == null)
+            return session;
+        try {
+            NumberleModel model = store.read(id, corpus, difficultyIndex);
+            if (model == null)
+                return null;
+            session = new Session(model);
+            // Deleted first: if that fails the session stays hibernated instead of existing twice
+            store.delete(id);
+            sessions.put(id, session);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        schedule(id, session.lastUsed);
+        return session;
+    }
+
+    private void schedule(String id, long usedNanos) {
+        if (store != null)
+            wheel.schedule(id, usedNanos + ttlNanos);
+    }
+
+    private ReentrantLock stripeOf(String id) {
+        int h = id.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * One registered game and the time it was last used.
+     */
+    private static final class Session {
+        final NumberleModel model;
+        volatile long lastUsed = System.nanoTime();
+
+        Session(NumberleModel model) {
+            this.model = model;
+        }
+
+        void touch() {
+            lastUsed = System.nanoTime();
+        }
+    }
+}
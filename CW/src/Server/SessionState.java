@@ -0,0 +1,216 @@
+package Server;
+
+import Model.Difficulty;
+import Model.EquationCorpus;
+import Model.GameSnapshot;
+import Model.NumberleModel;
+import Model.Interface.INumberleModel;
+import Model.Solver.DifficultyIndex;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The SessionState class turns a game into a single ASCII line and back, so that a session can be
+ * moved between processes: the target, the settings, the accepted guesses, which replayed on a
+ * fresh model reproduce every other part of the state, keyboard included, and the times the game
+ * started and each guess was accepted, which the replay stamps on the rebuilt snapshots.
+ *
+ * The line is a URL-encoded form ("target=...&verify=...&hard=...&difficulty=...&guesses=...&times=..."),
+ * safe to carry in an HTTP header. The times are the start time then one time per guess, in
+ * milliseconds since the epoch; a line without them rebuilds the game at the current time.
+ */
+public final class SessionState {
+    private SessionState() {
+    }
+
+    /**
+     * Encodes the state of a game.
+     *
+     * @param snapshot The game's snapshot.
+     * @param verifyEquation The game's verifyEquation flag.
+     * @param hardMode The game's hardMode flag.
+     * @param difficulty The game's difficulty band.
+     * @requires snapshot != null && difficulty != null;
+     * @return The encoded state.
+     */
+    public static String encode(GameSnapshot snapshot, boolean verifyEquation, boolean hardMode, Difficulty difficulty) {
+        assert snapshot != null && difficulty != null : "Snapshot and difficulty must not be null.";
+        StringBuilder out = new StringBuilder("target=").append(escape(snapshot.getTargetNumber()))
+                .append("&verify=").append(verifyEquation)
+                .append("&hard=").append(hardMode)
+                .append("&difficulty=").append(difficulty.name())
+                .append("&guesses=");
+        for (int i = 0; i < snapshot.getGuessCount(); i++) {
+            if (i > 0)
+                out.append(',');
+            // Commas inside a guess are escaped, so they never split the list
+            out.append(escape(escape(snapshot.getGuess(i))));
+        }
+        out.append("&times=").append(snapshot.getStartTime());
+        for (int i = 0; i < snapshot.getGuessCount(); i++)
+            out.append(',').append(snapshot.getGuessTime(i));
+        return out.toString();
+    }
+
+    /**
+     * Encodes the latest state of a model.
+     *
+     * @param model The game.
+     * @return The encoded state.
+     */
+    public static String encode(NumberleModel model) {
+        return encode(model.getSnapshot(), model.getVerifyEquation(), model.getHardMode(), model.getDifficulty());
+    }
+
+    /**
+     * Rebuilds a game by replaying its guesses on a new quiet model, with the times they were
+     * played at.
+     *
+     * @param state An encoded state.
+     * @param corpus The corpus later games of the model draw from.
+     * @param difficultyIndex The index of the corpus, or null to draw every band uniformly.
+     * @requires state != null && corpus != null;
+     * @return The rebuilt game.
+     * @throws IllegalArgumentException If the state is malformed or a guess is no longer accepted.
+     */
+    public static NumberleModel decode(String state, EquationCorpus corpus, DifficultyIndex difficultyIndex) {
+        Map<String, String> fields = fields(state);
+        String target = fields.get("target");
+        if (target == null || fields.get("guesses") == null)
+            throw new IllegalArgumentException("Malformed session state.");
+        String guesses = unescape(fields.get("guesses"));
+        String[] list = guesses.isEmpty() ? new String[0] : guesses.split(",");
+        for (int i = 0; i < list.length; i++)
+            list[i] = unescape(list[i]);
+        return rebuild(corpus, difficultyIndex, Boolean.parseBoolean(fields.get("verify")), Boolean.parseBoolean(fields.get("hard")),
+                Difficulty.valueOf(fields.getOrDefault("difficulty", Difficulty.ANY.name())), unescape(target), list,
+                times(fields.get("times"), list.length));
+    }
+
+    /**
+     * Rebuilds a game by replaying its guesses on a new quiet model, from the fields of a state
+     * in any encoding (see also SessionStore).
+     *
+     * @param corpus The corpus later games of the model draw from.
+     * @param difficultyIndex The index of the corpus, or null to draw every band uniformly.
+     * @param verifyEquation The game's verifyEquation flag.
+     * @param hardMode The game's hardMode flag.
+     * @param difficulty The game's difficulty band.
+     * @param target The target.
+     * @param guesses The accepted guesses, oldest first.
+     * @param times The start time then one time per guess, or null to replay at the current time.
+     * @requires times == null || times.length == guesses.length + 1;
+     * @return The rebuilt game.
+     * @throws IllegalArgumentException If a guess is no longer accepted.
+     */
+    static NumberleModel rebuild(EquationCorpus corpus, DifficultyIndex difficultyIndex, boolean verifyEquation,
+                                 boolean hardMode, Difficulty difficulty, String target, String[] guesses, long[] times) {
+        assert times == null || times.length == guesses.length + 1 : "One time is needed for the start and each guess.";
+        NumberleModel model = new NumberleModel(corpus);
+        model.setConsoleOutput(false);
+        // The shared index, so that starting the replay does not read the index file
+        model.setDifficultyIndex(difficultyIndex);
+        if (times != null) {
+            // The replay takes one time to start the game and one per guess, in order
+            int[] next = {0};
+            model.setClock(() -> times[next[0]++]);
+        }
+        model.setRandomEquality(true);
+        model.setVerifyEquation(verifyEquation);
+        model.setHardMode(hardMode);
+        model.setDifficulty(difficulty);
+        model.startNewGame();
+        model.setTarget(target);
+        for (String guess : guesses) {
+            if (model.processInput(guess) != 1)
+                throw new IllegalArgumentException("The session state does not replay.");
+        }
+        model.setClock(System::currentTimeMillis);
+        return model;
+    }
+
+    /**
+     * Parses the times of a state: the start time, then one time per guess.
+     *
+     * @return The times, or null if the state has none.
+     */
+    private static long[] times(String field, int guessCount) {
+        if (field == null)
+            return null;
+        String[] parts = field.split(",");
+        if (parts.length != guessCount + 1)
+            throw new IllegalArgumentException("Malformed session state.");
+        long[] times = new long[parts.length];
+        for (int i = 0; i < parts.length; i++)
+            times[i] = Long.parseLong(parts[i]);
+        return times;
+    }
+
+    /**
+     * Counts the guesses of an encoded state without decoding it, to tell which of two states of
+     * one session is newer.
+     *
+     * @param state An encoded state.
+     * @return The number of accepted guesses.
+     */
+    public static int guessCount(String state) {
+        int start = state.indexOf("&guesses=");
+        if (start < 0)
+            return 0;
+        // The list ends at the next field; '&' inside a guess is escaped
+        int end = state.indexOf('&', start + 9);
+        if (end < 0)
+            end = state.length();
+        if (end == start + 9)
+            return 0;
+        int count = 1;
+        for (int i = start + 9; i < end; i++)
+            if (state.charAt(i) == ',')
+                count++;
+        return count;
+    }
+
+    /**
+     * Tells from an encoded state whether its game is over, won or out of attempts, without
+     * replaying it.
+     *
+     * @param state An encoded state.
+     * @return true if no more guesses are accepted.
+     * @throws IllegalArgumentException If the state is malformed.
+     */
+    public static boolean isGameOver(String state) {
+        Map<String, String> fields = fields(state);
+        String target = fields.get("target");
+        String guesses = fields.get("guesses");
+        if (target == null || guesses == null)
+            throw new IllegalArgumentException("Malformed session state.");
+        guesses = unescape(guesses);
+        if (guesses.isEmpty())
+            return false;
+        String[] list = guesses.split(",");
+        return list.length >= INumberleModel.MAX_ATTEMPTS || unescape(list[list.length - 1]).equals(unescape(target));
+    }
+
+    private static Map<String, String> fields(String state) {
+        Map<String, String> fields = new HashMap<>();
+        for (String pair : state.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq < 0)
+                throw new IllegalArgumentException("Malformed session state.");
+            fields.put(pair.substring(0, eq), pair.substring(eq + 1));
+        }
+        return fields;
+    }
+
+    private static String escape(String text) {
+        return URLEncoder.encode(text, StandardCharsets.UTF_8);
+    }
+
+    private static String unescape(String text) {
+        return URLDecoder.decode(text, StandardCharsets.UTF_8);
+    }
+}
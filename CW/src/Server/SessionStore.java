@@ -0,0 +1,270 @@
+package Server;
+
+import Model.Difficulty;
+import Model.EquationCodec;
+import Model.EquationCorpus;
+import Model.GameSnapshot;
+import Model.NumberleModel;
+import Model.Interface.INumberleModel;
+import Model.Solver.DifficultyIndex;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The SessionStore class keeps hibernated sessions on local disk, in one file of fixed-size slots
+ * with an index from session id to slot kept in memory. A slot holds one session in binary, with
+ * the target and the guesses packed by EquationCodec as in GameArena:
+ *
+ * - [0] flags: live, verifyEquation, hardMode
+ * - [1] difficulty band, as its ordinal
+ * - [2] guess count
+ * - [3] length of the id in UTF-8 bytes
+ * - [4..7] packed target
+ * - [8..15] start time, in milliseconds since the epoch
+ * - [16..39] packed guesses
+ * - [40..63] time each guess was accepted, in milliseconds after the start
+ * - [64..91] id, in UTF-8
+ * - [92..95] CRC-32 of bytes 0 to 91
+ *
+ * Freed slots are reused before the file grows. Opening a store scans the file to rebuild the
+ * index, so sessions stored by an earlier run stay readable. A slot whose checksum fails, such as
+ * one torn by a crash, is taken as free; a session is written to a new slot before its old slot is
+ * freed, and if a crash leaves both, the one with more guesses is kept.
+ *
+ * A session that does not fit a slot (an id longer than ID_BYTES, a target that does not pack) is
+ * refused with an IOException, and stays in its registry's memory.
+ *
+ * Methods are synchronized; the store is only used when a session hibernates or wakes up.
+ *
+ * @invariant index.size() + free.size() <= slotCount
+ */
+public class SessionStore implements Closeable {
+    public static final int RECORD_SIZE = 96;
+    public static final int ID_BYTES = 28;
+    private static final String FILE = "sessions.slots";
+
+    private static final int FLAGS = 0;
+    private static final int DIFFICULTY = 1;
+    private static final int GUESS_COUNT = 2;
+    private static final int ID_LENGTH = 3;
+    private static final int TARGET = 4;
+    private static final int START_TIME = 8;
+    private static final int GUESSES = 16;
+    private static final int GUESS_TIMES = 40;
+    private static final int ID = 64;
+    private static final int CHECKSUM = 92;
+
+    private static final int LIVE = 1;
+    private static final int VERIFY = 2;
+    private static final int HARD_MODE = 4;
+
+    private final FileChannel channel;
+    private final Map<String, Integer> index = new HashMap<>();
+    private final ArrayDeque<Integer> free = new ArrayDeque<>();
+    private final ByteBuffer slot = ByteBuffer.allocate(RECORD_SIZE); // Reused under the store's lock
+    private int slotCount;
+
+    /**
+     * Opens a store, creating its directory and file if needed. Sessions stored by an earlier run
+     * stay readable.
+     *
+     * @param directory The directory of the store.
+     * @throws IOException If the directory or the file cannot be created or read.
+     */
+    public SessionStore(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        channel = FileChannel.open(directory.resolve(FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            scan();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Stores a session, replacing any earlier record of it.
+     *
+     * @param id The session id.
+     * @param model The session's game.
+     * @throws IOException If the session does not fit a slot or cannot be written.
+     */
+    public synchronized void write(String id, NumberleModel model) throws IOException {
+        GameSnapshot snapshot = model.getSnapshot();
+        byte[] name = id.getBytes(StandardCharsets.UTF_8);
+        if (name.length == 0 || name.length > ID_BYTES)
+            throw new IOException("The session id does not fit a slot.");
+        int target = EquationCodec.encode(snapshot.getTargetNumber());
+        if (target == EquationCodec.INVALID)
+            throw new IOException("The session's target cannot be packed.");
+        int count = snapshot.getGuessCount();
+        assert count <= INumberleModel.MAX_ATTEMPTS : "A game has at most MAX_ATTEMPTS guesses.";
+
+        slot.clear();
+        slot.put(FLAGS, (byte) (LIVE | (model.getVerifyEquation() ? VERIFY : 0) | (model.getHardMode() ? HARD_MODE : 0)));
+        slot.put(DIFFICULTY, (byte) model.getDifficulty().ordinal());
+        slot.put(GUESS_COUNT, (byte) count);
+        slot.put(ID_LENGTH, (byte) name.length);
+        slot.putInt(TARGET, target);
+        slot.putLong(START_TIME, snapshot.getStartTime());
+        for (int i = 0; i < count; i++) {
+            int guess = EquationCodec.encode(snapshot.getGuess(i));
+            long after = snapshot.getGuessTime(i) - snapshot.getStartTime();
+            if (guess == EquationCodec.INVALID || after < 0 || after > Integer.MAX_VALUE)
+                throw new IOException("The session's guesses cannot be packed.");
+            slot.putInt(GUESSES + 4 * i, guess);
+            slot.putInt(GUESS_TIMES + 4 * i, (int) after);
+        }
+        slot.put(ID, name);
+        slot.putInt(CHECKSUM, checksum(slot));
+
+        int number = free.isEmpty() ? slotCount : free.pop();
+        try {
+            writeSlot(number);
+        } catch (IOException e) {
+            if (number < slotCount)
+                free.push(number);
+            throw e;
+        }
+        if (number == slotCount)
+            slotCount++;
+        // Freed only once the new record is written
+        Integer old = index.put(id, number);
+        if (old != null)
+            clear(old);
+    }
+
+    /**
+     * Reads a stored session and rebuilds its game.
+     *
+     * @param id The session id.
+     * @param corpus The corpus later games of the rebuilt model draw from.
+     * @param difficultyIndex The index of the corpus, or null to draw every band uniformly.
+     * @return The game, or null if the session is not stored.
+     * @throws IOException If the record exists but cannot be read.
+     * @throws IllegalArgumentException If the stored guesses no longer replay.
+     */
+    public synchronized NumberleModel read(String id, EquationCorpus corpus, DifficultyIndex difficultyIndex) throws IOException {
+        Integer number = index.get(id);
+        if (number == null)
+            return null;
+        readSlot(number);
+        if (slot.getInt(CHECKSUM) != checksum(slot))
+            throw new IOException("The stored session is corrupt.");
+        int flags = slot.get(FLAGS);
+        int count = slot.get(GUESS_COUNT);
+        long start = slot.getLong(START_TIME);
+        String[] guesses = new String[count];
+        long[] times = new long[count + 1];
+        times[0] = start;
+        for (int i = 0; i < count; i++) {
+            guesses[i] = EquationCodec.decode(slot.getInt(GUESSES + 4 * i));
+            times[i + 1] = start + slot.getInt(GUESS_TIMES + 4 * i);
+        }
+        return SessionState.rebuild(corpus, difficultyIndex, (flags & VERIFY) != 0, (flags & HARD_MODE) != 0,
+                Difficulty.values()[slot.get(DIFFICULTY)], EquationCodec.decode(slot.getInt(TARGET)), guesses, times);
+    }
+
+    /**
+     * Removes a stored session.
+     *
+     * @param id The session id.
+     * @return true if it was stored.
+     * @throws IOException If the record cannot be freed.
+     */
+    public synchronized boolean delete(String id) throws IOException {
+        Integer number = index.remove(id);
+        if (number == null)
+            return false;
+        clear(number);
+        return true;
+    }
+
+    /**
+     * Retrieves the number of stored sessions.
+     *
+     * @return The session count.
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Closes the file. Stored sessions stay readable by a store opened later on the directory.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Rebuilds the index and the free list from the file.
+     */
+    private void scan() throws IOException {
+        slotCount = (int) (channel.size() / RECORD_SIZE);
+        int[] counts = new int[slotCount];
+        for (int number = 0; number < slotCount; number++) {
+            readSlot(number);
+            if ((slot.get(FLAGS) & LIVE) == 0 || slot.getInt(CHECKSUM) != checksum(slot)) {
+                free.push(number);
+                continue;
+            }
+            String id = new String(slot.array(), ID, slot.get(ID_LENGTH), StandardCharsets.UTF_8);
+            counts[number] = slot.get(GUESS_COUNT);
+            Integer other = index.get(id);
+            if (other == null) {
+                index.put(id, number);
+            } else {
+                // A crash between writing a session's new record and freeing its old one
+                int older = counts[other] >= counts[number] ? number : other;
+                index.put(id, older == number ? other : number);
+                clear(older);
+            }
+        }
+    }
+
+    private void readSlot(int number) throws IOException {
+        slot.clear();
+        long position = (long) number * RECORD_SIZE;
+        while (slot.hasRemaining()) {
+            if (channel.read(slot, position + slot.position()) < 0)
+                throw new IOException("The session file ends inside a slot.");
+        }
+    }
+
+    private void writeSlot(int number) throws IOException {
+        slot.clear();
+        long position = (long) number * RECORD_SIZE;
+        while (slot.hasRemaining())
+            channel.write(slot, position + slot.position());
+    }
+
+    /**
+     * Marks a slot free on disk and in memory.
+     */
+    private void clear(int number) throws IOException {
+        ByteBuffer flags = ByteBuffer.allocate(1);
+        channel.write(flags, (long) number * RECORD_SIZE + FLAGS);
+        free.push(number);
+    }
+
+    private static int checksum(ByteBuffer slot) {
+        CRC32 crc = new CRC32();
+        crc.update(slot.array(), 0, CHECKSUM);
+        return (int) crc.getValue();
+    }
+}
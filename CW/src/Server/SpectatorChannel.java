@@ -0,0 +1,256 @@
+package Server;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * The SpectatorChannel class publishes the event frames of one game or tournament to any number of
+ * spectators through java.util.concurrent.Flow. A frame is encoded once by the caller and kept in a
+ * ring of the last CAPACITY frames; publishing writes one slot and hands one task to the executor,
+ * whatever the number of spectators. Each subscription keeps its own position in the ring and is
+ * delivered on the executor, as fast as its demand allows, a read-only view of the shared frame.
+ *
+ * A spectator that falls more than its allowed lag behind loses frames by its Overflow policy:
+ * DROP_OLDEST skips to the oldest frame within the lag, LATEST skips to the newest frame (frames
+ * carry the whole board, so the newest one coalesces the ones before it). The number of skipped
+ * frames is kept per subscription. Slow spectators never hold up the publisher or each other.
+ *
+ * The owner of a channel may ask to hear when its last subscriber leaves, to drop the channel.
+ *
+ * @invariant Integer.bitCount(CAPACITY) == 1
+ */
+public class SpectatorChannel implements Flow.Publisher<ByteBuffer> {
+    public static final int CAPACITY = 256;
+
+    /**
+     * What a subscription does when it falls too far behind.
+     */
+    public enum Overflow {
+        DROP_OLDEST, LATEST
+    }
+
+    private final Executor executor;
+    private final Consumer<SpectatorChannel> onEmpty; // Or null
+    private final AtomicReferenceArray<Frame> ring = new AtomicReferenceArray<>(CAPACITY);
+    private final CopyOnWriteArrayList<Delivery> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicInteger signalling = new AtomicInteger();
+    private volatile long head; // Sequence number of the next frame
+    private volatile boolean completed;
+
+    /**
+     * Creates a channel.
+     *
+     * @param executor The executor frames are delivered on.
+     */
+    public SpectatorChannel(Executor executor) {
+        this(executor, null);
+    }
+
+    /**
+     * Creates a channel that reports when its last subscriber leaves.
+     *
+     * @param executor The executor frames are delivered on.
+     * @param onEmpty Called with the channel whenever a cancelled or completed subscription leaves
+     *                it without subscribers, or null.
+     */
+    public SpectatorChannel(Executor executor, Consumer<SpectatorChannel> onEmpty) {
+        this.executor = executor;
+        this.onEmpty = onEmpty;
+    }
+
+    /**
+     * Publishes a frame. Subscribers receive read-only views sharing its content, which must not
+     * change afterwards.
+     *
+     * @param frame The encoded event.
+     * @requires !isCompleted();
+     */
+    public synchronized void publish(ByteBuffer frame) {
+        if (completed)
+            return;
+        long sequence = head;
+        ring.set((int) (sequence & (CAPACITY - 1)), new Frame(sequence, frame.asReadOnlyBuffer()));
+        head = sequence + 1;
+        signalAll();
+    }
+
+    /**
+     * Ends the channel. Subscribers receive the frames they can still reach, then onComplete.
+     */
+    public synchronized void complete() {
+        completed = true;
+        signalAll();
+    }
+
+    /**
+     * Checks if the channel has ended.
+     *
+     * @return true after complete.
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Retrieves the number of subscriptions not cancelled or completed.
+     *
+     * @return The subscriber count.
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Subscribes with the DROP_OLDEST policy and the full ring as allowed lag.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        subscribe(subscriber, Overflow.DROP_OLDEST, CAPACITY);
+    }
+
+    /**
+     * Subscribes. The subscriber receives the frames published from now on.
+     *
+     * @param subscriber The subscriber.
+     * @param overflow What to do when the subscriber falls behind.
+     * @param maxLag The most frames the subscriber may fall behind.
+     * @requires subscriber != null && 0 < maxLag && maxLag <= CAPACITY;
+     * @return The subscription, for its statistics.
+     */
+    public Delivery subscribe(Flow.Subscriber<? super ByteBuffer> subscriber, Overflow overflow, int maxLag) {
+        assert subscriber != null : "Subscriber must not be null.";
+        assert maxLag > 0 && maxLag <= CAPACITY : "The lag must be between 1 and the ring capacity.";
+        Delivery delivery = new Delivery(subscriber, overflow, maxLag, head);
+        subscriber.onSubscribe(delivery);
+        if (!delivery.cancelled) {
+            subscriptions.add(delivery);
+            delivery.signal();
+        }
+        return delivery;
+    }
+
+    private void unsubscribe(Delivery delivery) {
+        // A subscriber that cancels within onSubscribe was never added, and empties nothing
+        if (subscriptions.remove(delivery) && subscriptions.isEmpty() && onEmpty != null)
+            onEmpty.accept(this);
+    }
+
+    /**
+     * Wakes every subscription from the executor, so the publisher's cost does not grow with them.
+     */
+    private void signalAll() {
+        if (signalling.getAndIncrement() != 0)
+            return;
+        executor.execute(() -> {
+            int missed = 1;
+            do {
+                for (Delivery delivery : subscriptions)
+                    delivery.signal();
+                missed = signalling.addAndGet(-missed);
+            } while (missed != 0);
+        });
+    }
+
+    /**
+     * One frame and its sequence number, so that a reader can tell when its slot has been reused.
+     */
+    private record Frame(long sequence, ByteBuffer content) {
+    }
+
+    /**
+     * One subscriber's position in the ring and its demand. Deliveries to one subscriber never
+     * overlap; they run in a drain loop that one thread at a time owns.
+     */
+    public final class Delivery implements Flow.Subscription {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final Overflow overflow;
+        private final int maxLag;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger draining = new AtomicInteger();
+        private final AtomicLong skipped = new AtomicLong();
+        private long next;
+        private volatile boolean cancelled;
+        private boolean done;
+
+        Delivery(Flow.Subscriber<? super ByteBuffer> subscriber, Overflow overflow, int maxLag, long next) {
+            this.subscriber = subscriber;
+            this.overflow = overflow;
+            this.maxLag = maxLag;
+            this.next = next;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Demand must be positive (Flow rule 3.9)."));
+                return;
+            }
+            requested.getAndAccumulate(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            unsubscribe(this);
+        }
+
+        /**
+         * Retrieves the number of frames this subscriber lost by its overflow policy.
+         *
+         * @return The skipped frame count.
+         */
+        public long getSkipped() {
+            return skipped.get();
+        }
+
+        void signal() {
+            if (draining.getAndIncrement() == 0)
+                executor.execute(this::drain);
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                long demand = requested.get();
+                long emitted = 0;
+                while (!cancelled && !done) {
+                    long end = head;
+                    if (end - next > maxLag) {
+                        long target = overflow == Overflow.LATEST ? end - 1 : end - maxLag;
+                        skipped.addAndGet(target - next);
+                        next = target;
+                    }
+                    if (next == end) {
+                        if (completed && next == head) {
+                            done = true;
+                            unsubscribe(this);
+                            subscriber.onComplete();
+                        }
+                        break;
+                    }
+                    if (emitted == demand)
+                        break;
+                    Frame frame = ring.get((int) (next & (CAPACITY - 1)));
+                    if (frame == null || frame.sequence() != next) {
+                        // Overwritten while this subscriber was behind; the lag check above catches up
+                        continue;
+                    }
+                    subscriber.onNext(frame.content().duplicate());
+                    next++;
+                    emitted++;
+                }
+                if (emitted > 0 && demand != Long.MAX_VALUE)
+                    requested.addAndGet(-emitted);
+                missed = draining.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package Server;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+
+/**
+ * The SpectatorHub class holds the SpectatorChannel of every watched game and tournament of a
+ * server. A channel is created when its first spectator subscribes and dropped when its last one
+ * leaves, so publishing the events of an unwatched game costs one map lookup, and a tournament
+ * anyone may name holds memory only while it is watched. A game that joined a tournament also
+ * publishes its frames to the tournament's channel.
+ *
+ * Spectators subscribe through the hub, which creates the channel and subscribes in one atomic
+ * step, so a channel is never dropped between being found and being subscribed to.
+ *
+ * Channel ids are "game/{id}" and "tournament/{name}".
+ */
+public class SpectatorHub {
+    private final ExecutorService executor = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "Numberle spectator delivery");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, SpectatorChannel> channels = new ConcurrentHashMap<>();
+    private final Map<String, String> tournaments = new ConcurrentHashMap<>(); // Game id to tournament name
+
+    /**
+     * Subscribes to the channel of a game, creating it if needed.
+     *
+     * @param gameId The session id of the game.
+     * @param subscriber The subscriber.
+     * @param overflow What to do when the subscriber falls behind.
+     * @param maxLag The most frames the subscriber may fall behind.
+     * @requires subscriber != null && 0 < maxLag && maxLag <= SpectatorChannel.CAPACITY;
+     * @return The subscription, for its statistics.
+     */
+    public SpectatorChannel.Delivery watchGame(String gameId, Flow.Subscriber<? super ByteBuffer> subscriber,
+                                               SpectatorChannel.Overflow overflow, int maxLag) {
+        return watch("game/" + gameId, subscriber, overflow, maxLag);
+    }
+
+    /**
+     * Subscribes to the channel of a tournament, creating it if needed.
+     *
+     * @param name The tournament name.
+     * @param subscriber The subscriber.
+     * @param overflow What to do when the subscriber falls behind.
+     * @param maxLag The most frames the subscriber may fall behind.
+     * @requires subscriber != null && 0 < maxLag && maxLag <= SpectatorChannel.CAPACITY;
+     * @return The subscription, for its statistics.
+     */
+    public SpectatorChannel.Delivery watchTournament(String name, Flow.Subscriber<? super ByteBuffer> subscriber,
+                                                     SpectatorChannel.Overflow overflow, int maxLag) {
+        return watch("tournament/" + name, subscriber, overflow, maxLag);
+    }
+
+    /**
+     * Retrieves the number of channels, each with at least one spectator.
+     *
+     * @return The channel count.
+     */
+    public int getChannelCount() {
+        return channels.size();
+    }
+
+    private SpectatorChannel.Delivery watch(String key, Flow.Subscriber<? super ByteBuffer> subscriber,
+                                            SpectatorChannel.Overflow overflow, int maxLag) {
+        SpectatorChannel.Delivery[] delivery = new SpectatorChannel.Delivery[1];
+        channels.compute(key, (id, channel) -> {
+            if (channel == null)
+                channel = new SpectatorChannel(executor, empty -> release(id, empty));
+            delivery[0] = channel.subscribe(subscriber, overflow, maxLag);
+            return channel;
+        });
+        return delivery[0];
+    }
+
+    /**
+     * Drops a channel its last spectator left, unless a spectator subscribed again meanwhile.
+     */
+    private void release(String key, SpectatorChannel channel) {
+        channels.computeIfPresent(key, (id, current) -> current == channel && channel.getSubscriberCount() == 0 ? null : current);
+    }
+
+    /**
+     * Makes a game publish its frames to a tournament's channel too.
+     *
+     * @param gameId The session id of the game.
+     * @param name The tournament name.
+     */
+    public void join(String gameId, String name) {
+        tournaments.put(gameId, name);
+    }
+
+    /**
+     * Checks if anyone could receive the frames of a game, so that the caller can skip encoding them.
+     *
+     * @param gameId The session id of the game.
+     * @return true if the game or its tournament has a channel.
+     */
+    public boolean isWatched(String gameId) {
+        String tournament = tournaments.get(gameId);
+        return channels.containsKey("game/" + gameId) || tournament != null && channels.containsKey("tournament/" + tournament);
+    }
+
+    /**
+     * Publishes a frame of a game to its channel and its tournament's channel, if they exist.
+     *
+     * @param gameId The session id of the game.
+     * @param frame The encoded event; it must not change afterwards.
+     */
+    public void publish(String gameId, ByteBuffer frame) {
+        SpectatorChannel channel = channels.get("game/" + gameId);
+        if (channel != null)
+            channel.publish(frame);
+        String tournament = tournaments.get(gameId);
+        if (tournament != null) {
+            channel = channels.get("tournament/" + tournament);
+            if (channel != null)
+                channel.publish(frame);
+        }
+    }
+
+    /**
+     * Ends a game's channel and forgets the game; its tournament's channel stays open.
+     *
+     * @param gameId The session id of the game.
+     */
+    public void endGame(String gameId) {
+        tournaments.remove(gameId);
+        SpectatorChannel channel = channels.remove("game/" + gameId);
+        if (channel != null)
+            channel.complete();
+    }
+
+    /**
+     * Ends every channel. Idle delivery threads end by themselves.
+     */
+    public void shutdown() {
+        for (SpectatorChannel channel : channels.values())
+            channel.complete();
+        channels.clear();
+        tournaments.clear();
+    }
+}
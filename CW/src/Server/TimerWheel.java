@@ -0,0 +1,103 @@
+package Server;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The TimerWheel class is a hashed timing wheel: keys are filed in the slot of the tick their
+ * deadline falls in, and advancing the clock visits only the slots of the ticks that passed, so the
+ * cost of a tick follows the keys due around it, not the number of keys scheduled. Deadlines more
+ * than a turn of the wheel away stay in their slot until the turn they fall in.
+ *
+ * Deadlines are rounded up to the next tick. A key is not cancelled; whoever receives it when it is
+ * due decides whether it is still wanted, and may schedule it again.
+ *
+ * @invariant Integer.bitCount(slots.length) == 1 && tickNanos > 0
+ */
+public class TimerWheel<K> {
+    private final long tickNanos;
+    private final ArrayDeque<Entry<K>>[] slots;
+    private long currentTick; // The last tick advance has visited
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param tickNanos The length of a tick, in nanoseconds.
+     * @param slotCount The number of slots, a power of two.
+     * @param nowNanos The current System.nanoTime().
+     * @requires tickNanos > 0 && Integer.bitCount(slotCount) == 1;
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickNanos, int slotCount, long nowNanos) {
+        assert tickNanos > 0 : "The tick must be positive.";
+        assert Integer.bitCount(slotCount) == 1 : "The slot count must be a power of two.";
+        this.tickNanos = tickNanos;
+        this.slots = (ArrayDeque<Entry<K>>[]) new ArrayDeque<?>[slotCount];
+        for (int i = 0; i < slotCount; i++)
+            slots[i] = new ArrayDeque<>();
+        this.currentTick = Math.floorDiv(nowNanos, tickNanos);
+    }
+
+    /**
+     * Schedules a key. A deadline already passed is due at the next tick.
+     *
+     * @param key The key.
+     * @param deadlineNanos The System.nanoTime() at which the key is due.
+     */
+    public synchronized void schedule(K key, long deadlineNanos) {
+        long tick = Math.max(Math.floorDiv(deadlineNanos + tickNanos - 1, tickNanos), currentTick + 1);
+        slots[(int) (tick & (slots.length - 1))].add(new Entry<>(key, deadlineNanos));
+    }
+
+    /**
+     * Moves the clock to the given time and collects the keys that became due.
+     *
+     * @param nowNanos The current System.nanoTime().
+     * @return The due keys, which are no longer scheduled.
+     */
+    public List<K> advance(long nowNanos) {
+        List<K> due = new ArrayList<>();
+        synchronized (this) {
+            long nowTick = Math.floorDiv(nowNanos, tickNanos);
+            // After a pause longer than a turn, each slot is visited once
+            long first = Math.max(currentTick + 1, nowTick - slots.length + 1);
+            for (long tick = first; tick <= nowTick; tick++) {
+                ArrayDeque<Entry<K>> slot = slots[(int) (tick & (slots.length - 1))];
+                for (int n = slot.size(); n > 0; n--) {
+                    Entry<K> entry = slot.poll();
+                    if (entry.deadlineNanos - nowNanos <= 0)
+                        due.add(entry.key);
+                    else
+                        slot.add(entry); // Due in a later turn
+                }
+            }
+            currentTick = Math.max(currentTick, nowTick);
+        }
+        return due;
+    }
+
+    /**
+     * Retrieves the length of a tick.
+     *
+     * @return The tick, in nanoseconds.
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * Retrieves the number of scheduled keys.
+     *
+     * @return The key count.
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (ArrayDeque<Entry<K>> slot : slots)
+            size += slot.size();
+        return size;
+    }
+
+    private record Entry<K>(K key, long deadlineNanos) {
+    }
+}
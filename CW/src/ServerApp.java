@@ -0,0 +1,38 @@
+import Model.EquationCorpus;
+import Server.NumberleHttpServer;
+import Server.NumberleNioServer;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+public class ServerApp {
+    public static void main(String[] args) throws IOException {
+        int httpPort = args.length > 0 ? Integer.parseInt(args[0]) : NumberleHttpServer.DEFAULT_PORT;
+        int nioPort = args.length > 1 ? Integer.parseInt(args[1]) : NumberleNioServer.DEFAULT_PORT;
+        EquationCorpus corpus = EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE));
+
+        NumberleHttpServer server = new NumberleHttpServer(corpus);
+        // Optional: a directory idle sessions are moved to, and their time in memory (10 minutes by default)
+        if (args.length > 2) {
+            long ttlSeconds = args.length > 3 ? Long.parseLong(args[3]) : 600;
+            server.setHibernation(Paths.get(args[2]), TimeUnit.SECONDS.toMillis(ttlSeconds));
+        }
+        // Optional: a directory every game's run journal is written to, for Tool.RunReplay
+        if (System.getProperty("numberle.recording") != null)
+            server.setRecording(Paths.get(System.getProperty("numberle.recording")));
+        server.start(httpPort);
+        NumberleNioServer nioServer = new NumberleNioServer(corpus);
+        nioServer.start(nioPort);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            try {
+                nioServer.stop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        System.out.println("Numberle API listening on http://localhost:" + server.getPort() + "/games");
+        System.out.println("Numberle protocol server listening on port " + nioServer.getPort());
+    }
+}
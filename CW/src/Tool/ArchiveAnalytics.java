@@ -0,0 +1,108 @@
+package Tool;
+
+import Server.GameArchiveBlock;
+import Server.GameArchiveReader;
+import Server.GameRecord;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Computes GameStats over a game archive in parallel. The calling thread reads compressed blocks
+ * off the file and deals them through a bounded queue to worker threads, each of which inflates and
+ * decodes its blocks into its own GameStats; the workers' statistics are merged once the archive is
+ * read. Memory stays bounded by the queue, one decoded block per worker and the statistics.
+ *
+ * Usage: ArchiveAnalytics archive [threads]
+ */
+public class ArchiveAnalytics {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.out.println("Usage: ArchiveAnalytics archive [threads]");
+            return;
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        GameStats stats = analyze(Paths.get(args[0]), threads);
+        System.out.print(stats);
+        System.out.printf("Analysed %d games on %d threads in %d ms.%n", stats.getGames(), threads,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Computes the statistics of every game of an archive.
+     *
+     * @param archive The archive file.
+     * @param threads The number of decoding threads.
+     * @requires threads > 0;
+     * @return The statistics.
+     * @throws IOException If the archive cannot be read or is damaged.
+     * @throws InterruptedException If interrupted while waiting for the workers.
+     */
+    public static GameStats analyze(Path archive, int threads) throws IOException, InterruptedException {
+        assert threads > 0 : "At least one thread is needed.";
+        // An empty Optional tells a worker that the archive is read
+        BlockingQueue<Optional<GameArchiveBlock>> queue = new ArrayBlockingQueue<>(2 * threads);
+        Worker[] workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(queue);
+            workers[i].thread.start();
+        }
+        try (GameArchiveReader reader = GameArchiveReader.open(archive)) {
+            GameArchiveBlock block;
+            while ((block = reader.readBlock()) != null)
+                queue.put(Optional.of(block));
+        } finally {
+            for (int i = 0; i < threads; i++)
+                queue.put(Optional.empty());
+            for (Worker worker : workers)
+                worker.thread.join();
+        }
+
+        GameStats total = new GameStats();
+        for (Worker worker : workers) {
+            if (worker.failure != null)
+                throw worker.failure;
+            total.merge(worker.stats);
+        }
+        return total;
+    }
+
+    /**
+     * One decoding thread and the statistics it accumulates.
+     */
+    private static final class Worker implements Runnable {
+        final GameStats stats = new GameStats();
+        final Thread thread = new Thread(this, "Archive analytics worker");
+        final BlockingQueue<Optional<GameArchiveBlock>> queue;
+        IOException failure;
+
+        Worker(BlockingQueue<Optional<GameArchiveBlock>> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Optional<GameArchiveBlock> block;
+                while ((block = queue.take()).isPresent()) {
+                    // After a damaged block the worker keeps taking blocks, so the reader is never stuck
+                    if (failure != null)
+                        continue;
+                    try {
+                        for (GameRecord game : block.get().decode())
+                            stats.add(game);
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
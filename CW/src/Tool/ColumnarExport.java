@@ -0,0 +1,37 @@
+package Tool;
+
+import Server.GameArchiveReader;
+import Server.GameRecord;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Exports the guesses of a game archive to a columnar file (see ColumnarGuessWriter), one row per
+ * guess, and prints the size of each.
+ *
+ * Usage: ColumnarExport archive output
+ */
+public class ColumnarExport {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: ColumnarExport archive output");
+            return;
+        }
+        Path archive = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        long start = System.nanoTime();
+        long rows;
+        try (GameArchiveReader reader = GameArchiveReader.open(archive);
+             ColumnarGuessWriter writer = new ColumnarGuessWriter(output)) {
+            GameRecord game;
+            while ((game = reader.read()) != null)
+                writer.add(game);
+            rows = writer.getRowCount();
+        }
+        System.out.printf("Exported %d guesses (%d bytes of archive) to %d bytes in %d ms.%n", rows,
+                Files.size(archive), Files.size(output), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,222 @@
+package Tool;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The ColumnarGuessFile class reads a file written by ColumnarGuessWriter. Only the footer is read
+ * when the file is opened; a column chunk is mapped into memory the first time it is used and read in
+ * place, so a scan of one column touches none of the others, and count skips the row groups whose
+ * min/max rule them out without mapping them.
+ *
+ * Instances are not thread-safe.
+ */
+public class ColumnarGuessFile implements Closeable {
+    private final FileChannel channel;
+    private final String[] columns;
+    private final int[] rows;
+    private final long[][] offset;
+    private final int[][] width;
+    private final long[][] min;
+    private final long[][] max;
+    private final ByteBuffer[][] mapped;
+
+    /**
+     * Opens a file and reads its footer.
+     *
+     * @param file The file.
+     * @throws IOException If the file cannot be read or is not a columnar guess file.
+     */
+    public ColumnarGuessFile(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < 20)
+                throw new IOException("Not a columnar guess file.");
+            ByteBuffer trailer = ByteBuffer.allocate(12);
+            read(trailer, size - 12);
+            long footerOffset = trailer.getLong(0);
+            ByteBuffer header = ByteBuffer.allocate(8);
+            read(header, 0);
+            if (trailer.getInt(8) != ColumnarGuessWriter.MAGIC || header.getInt(0) != ColumnarGuessWriter.MAGIC)
+                throw new IOException("Not a columnar guess file.");
+            if (header.getInt(4) != ColumnarGuessWriter.VERSION)
+                throw new IOException("Unsupported columnar guess file version " + header.getInt(4) + ".");
+            ByteBuffer footer = ByteBuffer.allocate((int) (size - 12 - footerOffset));
+            read(footer, footerOffset);
+
+            columns = new String[footer.getInt()];
+            for (int c = 0; c < columns.length; c++) {
+                byte[] name = new byte[footer.getShort() & 0xFFFF];
+                footer.get(name);
+                columns[c] = new String(name, StandardCharsets.UTF_8);
+            }
+            int groups = footer.getInt();
+            rows = new int[groups];
+            offset = new long[groups][columns.length];
+            width = new int[groups][columns.length];
+            min = new long[groups][columns.length];
+            max = new long[groups][columns.length];
+            mapped = new ByteBuffer[groups][columns.length];
+            for (int g = 0; g < groups; g++) {
+                rows[g] = footer.getInt();
+                for (int c = 0; c < columns.length; c++) {
+                    offset[g][c] = footer.getLong();
+                    width[g][c] = footer.get();
+                    min[g][c] = footer.getLong();
+                    max[g][c] = footer.getLong();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Finds a column by name.
+     *
+     * @param name The column name, as in ColumnarGuessWriter.COLUMNS.
+     * @return The column number, or -1 if there is no such column.
+     */
+    public int getColumn(String name) {
+        return Arrays.asList(columns).indexOf(name);
+    }
+
+    /**
+     * Retrieves the number of row groups.
+     *
+     * @return The group count.
+     */
+    public int getRowGroupCount() {
+        return rows.length;
+    }
+
+    /**
+     * Retrieves the number of rows of a group.
+     *
+     * @param group The group number.
+     * @return The row count.
+     */
+    public int getRows(int group) {
+        return rows[group];
+    }
+
+    /**
+     * Retrieves the number of rows of the file.
+     *
+     * @return The row count.
+     */
+    public long getRowCount() {
+        long count = 0;
+        for (int r : rows)
+            count += r;
+        return count;
+    }
+
+    /**
+     * Retrieves the smallest value of a column in a group.
+     *
+     * @param group The group number.
+     * @param column The column number.
+     * @return The minimum.
+     */
+    public long getMin(int group, int column) {
+        return min[group][column];
+    }
+
+    /**
+     * Retrieves the largest value of a column in a group.
+     *
+     * @param group The group number.
+     * @param column The column number.
+     * @return The maximum.
+     */
+    public long getMax(int group, int column) {
+        return max[group][column];
+    }
+
+    /**
+     * Reads one value.
+     *
+     * @param group The group number.
+     * @param column The column number.
+     * @param row The row in the group.
+     * @requires 0 <= row && row < getRows(group);
+     * @return The value.
+     * @throws IOException If the chunk cannot be mapped.
+     */
+    public long get(int group, int column, int row) throws IOException {
+        int w = width[group][column];
+        if (w == 0)
+            return min[group][column];
+        ByteBuffer chunk = chunk(group, column);
+        long delta = switch (w) {
+            case 1 -> chunk.get(row) & 0xFFL;
+            case 2 -> chunk.getShort(row * 2) & 0xFFFFL;
+            case 4 -> chunk.getInt(row * 4) & 0xFFFFFFFFL;
+            default -> chunk.getLong(row * 8);
+        };
+        return min[group][column] + delta;
+    }
+
+    /**
+     * Counts the rows whose value of a column lies in a range. Groups whose min/max fall outside the
+     * range are skipped without being read, and groups inside it are counted without being read.
+     *
+     * @param column The column number.
+     * @param low The smallest value counted.
+     * @param high The largest value counted.
+     * @return The number of rows.
+     * @throws IOException If a chunk cannot be mapped.
+     */
+    public long count(int column, long low, long high) throws IOException {
+        long count = 0;
+        for (int g = 0; g < rows.length; g++) {
+            if (max[g][column] < low || min[g][column] > high)
+                continue;
+            if (min[g][column] >= low && max[g][column] <= high) {
+                count += rows[g];
+                continue;
+            }
+            for (int r = 0; r < rows[g]; r++) {
+                long value = get(g, column, r);
+                if (value >= low && value <= high)
+                    count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer chunk(int group, int column) throws IOException {
+        ByteBuffer chunk = mapped[group][column];
+        if (chunk == null) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, offset[group][column],
+                    (long) rows[group] * width[group][column]);
+            chunk = map.order(ByteOrder.LITTLE_ENDIAN);
+            mapped[group][column] = chunk;
+        }
+        return chunk;
+    }
+
+    private void read(ByteBuffer buffer, long at) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, at + buffer.position()) < 0)
+                throw new IOException("Truncated columnar guess file.");
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,213 @@
+package Tool;
+
+import Model.EquationCodec;
+import Server.GameRecord;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ColumnarGuessWriter class exports guesses, one row per guess, to a columnar file that
+ * ColumnarGuessFile maps into memory. Rows are gathered into row groups of ROW_GROUP_SIZE rows;
+ * each column of a group is written as its own chunk, so a scan of one column reads that column's
+ * chunks only, and skips whole groups whose min/max cannot match.
+ *
+ * A chunk is frame-of-reference encoded: every value is stored as its difference from the chunk's
+ * minimum, little-endian, in the fewest bytes (0, 1, 2, 4 or 8) that hold the chunk's range. A column
+ * that is constant in a group takes no space, and values stay at fixed offsets so they can be read
+ * in place. Chunks start at multiples of 8 bytes.
+ *
+ * File layout: MAGIC, VERSION, the chunks, then the footer (the column names, and per group its row
+ * count and per column the chunk's offset, width, min and max), then the footer's offset and MAGIC.
+ *
+ * Columns: session (the id as a hex long, or a 64-bit hash of other ids), game (number of the game
+ * in the file), target and guess (packed equations, -1 for text), attempt (from 0), feedback (the
+ * compareList row as EquationScorer.feedbackCode, -1 for text), latency (milliseconds since the
+ * previous guess or the start of the game) and time (milliseconds since the epoch).
+ */
+public class ColumnarGuessWriter implements Closeable {
+    static final int MAGIC = 0x4E434F4C; // "NCOL"
+    static final int VERSION = 1;
+    public static final int ROW_GROUP_SIZE = 1 << 16;
+    public static final String[] COLUMNS = {"session", "game", "target", "guess", "attempt", "feedback", "latency", "time"};
+    public static final int SESSION = 0;
+    public static final int GAME = 1;
+    public static final int TARGET = 2;
+    public static final int GUESS = 3;
+    public static final int ATTEMPT = 4;
+    public static final int FEEDBACK = 5;
+    public static final int LATENCY = 6;
+    public static final int TIME = 7;
+
+    private final FileChannel channel;
+    private final long[][] values = new long[COLUMNS.length][ROW_GROUP_SIZE];
+    private final ByteBuffer chunk = ByteBuffer.allocateDirect(ROW_GROUP_SIZE * 8 + 8).order(ByteOrder.LITTLE_ENDIAN);
+    private final List<long[]> groups = new ArrayList<>(); // Per group: rows, then offset, width, min, max per column
+    private int rows;
+    private long games;
+    private long position;
+
+    /**
+     * Creates or replaces a columnar file.
+     *
+     * @param file The file.
+     * @throws IOException If the file cannot be written.
+     */
+    public ColumnarGuessWriter(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(8).putInt(MAGIC).putInt(VERSION).flip();
+        position += channel.write(header);
+    }
+
+    /**
+     * Adds one row per guess of a game.
+     *
+     * @param game The game.
+     * @throws IOException If a full row group cannot be written.
+     */
+    public void add(GameRecord game) throws IOException {
+        long session = sessionKey(game.getSession());
+        int target = EquationCodec.encode(game.getTarget());
+        long previous = game.getStartTime();
+        for (int i = 0; i < game.getGuessCount(); i++) {
+            int guess = EquationCodec.encode(game.getGuess(i));
+            values[SESSION][rows] = session;
+            values[GAME][rows] = games;
+            values[TARGET][rows] = target;
+            values[GUESS][rows] = guess;
+            values[ATTEMPT][rows] = i;
+            values[FEEDBACK][rows] = target == EquationCodec.INVALID || guess == EquationCodec.INVALID ? -1 : game.getFeedbackCode(i);
+            values[LATENCY][rows] = game.getGuessTime(i) - previous;
+            values[TIME][rows] = game.getGuessTime(i);
+            previous = game.getGuessTime(i);
+            if (++rows == ROW_GROUP_SIZE)
+                writeGroup();
+        }
+        games++;
+    }
+
+    /**
+     * Writes the last row group and the footer, and closes the file.
+     *
+     * @throws IOException If the file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rows > 0)
+                writeGroup();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream footer = new DataOutputStream(bytes);
+            footer.writeInt(COLUMNS.length);
+            for (String column : COLUMNS)
+                footer.writeUTF(column);
+            footer.writeInt(groups.size());
+            for (long[] group : groups) {
+                footer.writeInt((int) group[0]);
+                for (int c = 0; c < COLUMNS.length; c++) {
+                    footer.writeLong(group[1 + 4 * c]);
+                    footer.writeByte((int) group[2 + 4 * c]);
+                    footer.writeLong(group[3 + 4 * c]);
+                    footer.writeLong(group[4 + 4 * c]);
+                }
+            }
+            footer.writeLong(position);
+            footer.writeInt(MAGIC);
+            ByteBuffer out = ByteBuffer.wrap(bytes.toByteArray());
+            while (out.hasRemaining())
+                channel.write(out);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Retrieves the number of rows written so far.
+     *
+     * @return The row count.
+     */
+    public long getRowCount() {
+        long count = rows;
+        for (long[] group : groups)
+            count += group[0];
+        return count;
+    }
+
+    private void writeGroup() throws IOException {
+        long[] group = new long[1 + 4 * COLUMNS.length];
+        group[0] = rows;
+        for (int c = 0; c < COLUMNS.length; c++) {
+            long[] column = values[c];
+            long min = column[0];
+            long max = column[0];
+            for (int r = 1; r < rows; r++) {
+                min = Math.min(min, column[r]);
+                max = Math.max(max, column[r]);
+            }
+            int width = widthOf(max - min);
+            chunk.clear();
+            for (int r = 0; r < rows; r++) {
+                long delta = column[r] - min;
+                switch (width) {
+                    case 1 -> chunk.put((byte) delta);
+                    case 2 -> chunk.putShort((short) delta);
+                    case 4 -> chunk.putInt((int) delta);
+                    case 8 -> chunk.putLong(delta);
+                    default -> {
+                    }
+                }
+            }
+            while (chunk.position() % 8 != 0)
+                chunk.put((byte) 0);
+            chunk.flip();
+            group[1 + 4 * c] = position;
+            group[2 + 4 * c] = width;
+            group[3 + 4 * c] = min;
+            group[4 + 4 * c] = max;
+            while (chunk.hasRemaining())
+                position += channel.write(chunk);
+        }
+        groups.add(group);
+        rows = 0;
+    }
+
+    /**
+     * Finds the fewest bytes that hold every difference from the minimum.
+     */
+    private static int widthOf(long range) {
+        // A range over Long.MAX_VALUE wraps negative and needs the full width
+        if (range == 0)
+            return 0;
+        if (range < 0 || range > 0xFFFFFFFFL)
+            return 8;
+        return range > 0xFFFF ? 4 : range > 0xFF ? 2 : 1;
+    }
+
+    /**
+     * Maps a session id to a number: hex longs as themselves, other ids to a 64-bit FNV-1a hash.
+     */
+    static long sessionKey(String session) {
+        if (!session.isEmpty() && session.length() <= 16) {
+            try {
+                long id = Long.parseUnsignedLong(session, 16);
+                if (Long.toHexString(id).equals(session))
+                    return id;
+            } catch (NumberFormatException e) {
+                // Not a hex id
+            }
+        }
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < session.length(); i++)
+            hash = (hash ^ session.charAt(i)) * 0x100000001B3L;
+        return hash;
+    }
+}
@@ -0,0 +1,269 @@
+package Tool;
+
+import Model.EquationCodec;
+import Model.EquationValidator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Offline tool that checks every line of an equation corpus with the same rules the game applies to
+ * guesses, reports invalid lines, duplicates and distribution statistics, and optionally writes a
+ * clean, deduplicated copy of the corpus.
+ *
+ * The file is streamed through a FileChannel into a direct buffer and cut into batches of lines that
+ * are validated in parallel. At most two batches per thread are in flight and results are consumed in
+ * file order, so memory stays bounded whatever the size of the file. Lines are packed once with
+ * EquationCodec, and duplicates are detected with one bit per packed value (2^28 bits, 32 MB).
+ *
+ * Usage: CorpusValidator [corpus] [cleanOutput] [threads]
+ */
+public class CorpusValidator {
+    private static final int LENGTH = 7;
+    private static final int BATCH_LINES = 8192;
+    private static final int READ_BUFFER = 1 << 20;
+    // Longer lines are cut, they are invalid anyway
+    private static final int MAX_LINE_BYTES = 256;
+    private static final int MAX_REPORTED = 20;
+    private static final String[] REASONS = {"", "valid", "length is not 7", "not an ordinary equation", "sides do not agree"};
+
+    private final long[] seen = new long[EquationCodec.PACKED_RANGE / 64];
+    private final long[] statusCounts = new long[REASONS.length];
+    private final long[][] symbolByPosition = new long[LENGTH][EquationCodec.SYMBOL_COUNT];
+    private final long[] operatorCounts = new long[LENGTH];
+    private final long[] equalsPositions = new long[LENGTH];
+    private long lines;
+    private long duplicates;
+    private int reportedInvalid;
+    private int reportedDuplicates;
+    private BufferedWriter cleanOutput;
+    private String lineSeparator = "\n";
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        Path corpus = Paths.get(args.length > 0 ? args[0] : "equations.txt");
+        Path output = args.length > 1 ? Paths.get(args[1]) : null;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        CorpusValidator validator = new CorpusValidator();
+        long start = System.nanoTime();
+        validator.run(corpus, output, threads);
+        validator.printReport((System.nanoTime() - start) / 1_000_000);
+        if (validator.statusCounts[EquationValidator.VALID] != validator.lines || validator.duplicates > 0)
+            System.exit(1);
+    }
+
+    /**
+     * Streams the corpus through the validation pipeline.
+     *
+     * @param corpus The corpus file.
+     * @param output The file the clean corpus is written to, or null.
+     * @param threads The number of validation threads.
+     * @requires threads > 0;
+     * @throws IOException If the corpus cannot be read or the output cannot be written.
+     */
+    public void run(Path corpus, Path output, int threads) throws IOException, InterruptedException, ExecutionException {
+        assert threads > 0 : "At least one thread is needed.";
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<Future<Batch>> inFlight = new ArrayDeque<>();
+        try (FileChannel channel = FileChannel.open(corpus, StandardOpenOption.READ)) {
+            if (output != null)
+                cleanOutput = Files.newBufferedWriter(output, StandardCharsets.UTF_8);
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER);
+            byte[] line = new byte[MAX_LINE_BYTES];
+            int lineLength = 0;
+            Batch batch = new Batch(1);
+            boolean firstLine = true;
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if (b != '\n') {
+                        if (lineLength < MAX_LINE_BYTES)
+                            line[lineLength] = b;
+                        lineLength++;
+                        continue;
+                    }
+                    if (firstLine && lineLength > 0 && lineLength <= MAX_LINE_BYTES && line[lineLength - 1] == '\r')
+                        lineSeparator = "\r\n";
+                    firstLine = false;
+                    batch.add(decode(line, lineLength));
+                    lineLength = 0;
+                    if (batch.size == BATCH_LINES) {
+                        submit(pool, inFlight, batch, threads * 2);
+                        batch = new Batch(batch.firstLine + BATCH_LINES);
+                    }
+                }
+                buffer.clear();
+            }
+            // The last line may have no terminator
+            if (lineLength > 0)
+                batch.add(decode(line, lineLength));
+            if (batch.size > 0)
+                submit(pool, inFlight, batch, threads * 2);
+            while (!inFlight.isEmpty())
+                consume(inFlight.removeFirst().get());
+        } finally {
+            pool.shutdown();
+            if (cleanOutput != null)
+                cleanOutput.close();
+        }
+    }
+
+    /**
+     * Retrieves the number of lines read.
+     *
+     * @return The line count.
+     */
+    public long getLineCount() {
+        return lines;
+    }
+
+    /**
+     * Retrieves the number of valid lines that repeat an earlier one.
+     *
+     * @return The duplicate count.
+     */
+    public long getDuplicateCount() {
+        return duplicates;
+    }
+
+    /**
+     * Retrieves the number of lines EquationValidator gave a status, duplicates included.
+     *
+     * @param status An EquationValidator status, from VALID to INVALID_EQUATION.
+     * @return The number of lines with that status.
+     */
+    public long getStatusCount(int status) {
+        return statusCounts[status];
+    }
+
+    private void submit(ExecutorService pool, Deque<Future<Batch>> inFlight, Batch batch, int maxInFlight)
+            throws IOException, InterruptedException, ExecutionException {
+        // Back-pressure: the reader waits for the oldest batch before reading further
+        while (inFlight.size() >= maxInFlight)
+            consume(inFlight.removeFirst().get());
+        inFlight.addLast(pool.submit(() -> batch.validate()));
+    }
+
+    /**
+     * Folds a validated batch into the statistics, in file order.
+     *
+     * @param batch The validated batch.
+     * @throws IOException If the clean output cannot be written.
+     */
+    private void consume(Batch batch) throws IOException {
+        for (int i = 0; i < batch.size; i++) {
+            long lineNumber = batch.firstLine + i;
+            String equation = batch.lines[i];
+            int status = batch.status[i];
+            lines++;
+            statusCounts[status]++;
+            if (status != EquationValidator.VALID) {
+                if (reportedInvalid++ < MAX_REPORTED)
+                    System.out.println("Line " + lineNumber + ": " + REASONS[status] + ": \"" + equation + "\"");
+                continue;
+            }
+            int packed = batch.packed[i];
+            long mask = 1L << (packed & 63);
+            int word = packed >>> 6;
+            if ((seen[word] & mask) != 0) {
+                duplicates++;
+                if (reportedDuplicates++ < MAX_REPORTED)
+                    System.out.println("Line " + lineNumber + ": duplicate: \"" + equation + "\"");
+                continue;
+            }
+            seen[word] |= mask;
+            collectStatistics(packed);
+            if (cleanOutput != null) {
+                cleanOutput.write(EquationCodec.decode(packed));
+                cleanOutput.write(lineSeparator);
+            }
+        }
+    }
+
+    private void collectStatistics(int packed) {
+        int operators = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            int symbol = EquationCodec.symbolAt(packed, i);
+            symbolByPosition[i][symbol]++;
+            if (symbol == EquationCodec.EQUALS)
+                equalsPositions[i]++;
+            else if (symbol > 9)
+                operators++;
+        }
+        operatorCounts[operators]++;
+    }
+
+    private void printReport(long elapsedMillis) {
+        long valid = statusCounts[EquationValidator.VALID];
+        System.out.println();
+        System.out.println("Lines: " + lines + " in " + elapsedMillis + " ms");
+        System.out.println("Valid: " + valid + " (" + (valid - duplicates) + " unique, " + duplicates + " duplicates)");
+        for (int status = EquationValidator.INVALID_LENGTH; status < REASONS.length; status++)
+            System.out.println("Invalid, " + REASONS[status] + ": " + statusCounts[status]);
+
+        System.out.println();
+        System.out.println("Symbol frequency by position (unique valid equations):");
+        System.out.print("     ");
+        for (int i = 0; i < LENGTH; i++)
+            System.out.printf("%8d", i + 1);
+        System.out.println();
+        for (int s = 0; s < EquationCodec.SYMBOL_COUNT; s++) {
+            System.out.printf("  %c  ", EquationCodec.charOf(s));
+            for (int i = 0; i < LENGTH; i++)
+                System.out.printf("%8d", symbolByPosition[i][s]);
+            System.out.println();
+        }
+        System.out.println("Operators per equation: " + Arrays.toString(Arrays.copyOf(operatorCounts, 5)));
+        System.out.println("Position of '=' (1-7):  " + Arrays.toString(equalsPositions));
+    }
+
+    private static String decode(byte[] line, int length) {
+        length = Math.min(length, MAX_LINE_BYTES);
+        if (length > 0 && line[length - 1] == '\r')
+            length--;
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A run of consecutive corpus lines, validated as one task.
+     */
+    private static final class Batch {
+        final long firstLine;
+        final String[] lines = new String[BATCH_LINES];
+        final byte[] status = new byte[BATCH_LINES];
+        final int[] packed = new int[BATCH_LINES];
+        int size;
+
+        Batch(long firstLine) {
+            this.firstLine = firstLine;
+        }
+
+        void add(String line) {
+            lines[size++] = line;
+        }
+
+        Batch validate() {
+            for (int i = 0; i < size; i++) {
+                packed[i] = EquationCodec.encode(lines[i]);
+                status[i] = (byte) (lines[i].length() != LENGTH ? EquationValidator.INVALID_LENGTH : EquationValidator.check(packed[i]));
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package Tool;
+
+import Model.Difficulty;
+import Model.EquationCorpus;
+import Model.Solver.DifficultyIndex;
+import Model.Solver.ReferenceSolver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.IntStream;
+
+/**
+ * Offline job that rates every equation of the corpus with the reference solver and writes
+ * the difficulty index next to the corpus. Equations are rated in parallel; each one uses its
+ * own seed, so the output does not depend on the number of threads.
+ *
+ * Usage: DifficultyIndexBuilder [corpus] [index] [trials]
+ */
+public class DifficultyIndexBuilder {
+    // Seed of the first equation's trials; JobRunner's difficulty job uses the same seeds
+    static final long SEED = 20180203L;
+
+    public static void main(String[] args) throws IOException {
+        Path corpusFile = Paths.get(args.length > 0 ? args[0] : "equations.txt");
+        Path indexFile = Paths.get(args.length > 1 ? args[1] : DifficultyIndex.DEFAULT_FILE);
+        int trials = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+
+        EquationCorpus corpus = EquationCorpus.load(corpusFile);
+        ReferenceSolver solver = new ReferenceSolver(corpus);
+        ReferenceSolver.Rating[] ratings = new ReferenceSolver.Rating[corpus.size()];
+
+        long start = System.nanoTime();
+        IntStream.range(0, corpus.size()).parallel()
+                .forEach(i -> ratings[i] = solver.rate(corpus.get(i), trials, SEED + i));
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+        DifficultyIndex index = DifficultyIndex.build(corpus, ratings);
+        index.write(indexFile);
+
+        System.out.println("Rated " + corpus.size() + " equations with " + trials + " trials each in " + elapsed + " ms.");
+        for (Difficulty difficulty : new Difficulty[]{Difficulty.EASY, Difficulty.MEDIUM, Difficulty.HARD}) {
+            int count = 0;
+            double expected = 0;
+            int worst = 0;
+            for (int i = 0; i < index.size(); i++) {
+                if (index.getDifficulty(i) == difficulty) {
+                    count++;
+                    expected += index.getExpected(i);
+                    worst = Math.max(worst, index.getWorst(i));
+                }
+            }
+            System.out.printf("%-6s %5d equations, mean %.2f guesses, worst %d%n",
+                    difficulty, count, count == 0 ? 0 : expected / count, worst);
+        }
+        System.out.println("Index written to " + indexFile);
+    }
+}
@@ -0,0 +1,78 @@
+package Tool;
+
+import Model.EquationCorpus;
+import Model.Solver.DifficultyIndex;
+import Model.Solver.ReferenceSolver;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Rates every corpus equation with the reference solver and writes the difficulty index, as
+ * DifficultyIndexBuilder does in one process. Each chunk rates EQUATIONS equations, each with the
+ * seed DifficultyIndexBuilder gives it, so both produce the same index.
+ *
+ * Arguments: [corpus] [index] [trials], by default equations.txt, equations.difficulty and 16.
+ */
+public final class DifficultyJob implements PrecomputeJob {
+    public static final String NAME = "difficulty";
+    public static final int EQUATIONS = 8;
+
+    private final Path corpusFile;
+    private final Path output;
+    private final int trials;
+    private final EquationCorpus corpus;
+    private final ReferenceSolver solver;
+
+    /**
+     * Creates the job and loads its corpus.
+     *
+     * @param args The optional corpus, index file and trial count.
+     * @throws IOException If the corpus cannot be read.
+     */
+    public DifficultyJob(String[] args) throws IOException {
+        this.corpusFile = Paths.get(args.length > 0 ? args[0] : EquationCorpus.DEFAULT_FILE);
+        this.output = Paths.get(args.length > 1 ? args[1] : DifficultyIndex.DEFAULT_FILE);
+        this.trials = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        this.corpus = EquationCorpus.load(corpusFile);
+        this.solver = new ReferenceSolver(corpus);
+    }
+
+    @Override
+    public String describe() {
+        return NAME + " corpus=" + corpusFile + " size=" + corpus.size() + " hash=" + corpus.hash() + " trials=" + trials;
+    }
+
+    @Override
+    public int chunkCount() {
+        return Math.max(1, (corpus.size() + EQUATIONS - 1) / EQUATIONS);
+    }
+
+    @Override
+    public byte[] runChunk(int chunk) {
+        int from = chunk * EQUATIONS;
+        int to = Math.min(corpus.size(), from + EQUATIONS);
+        ByteBuffer out = ByteBuffer.allocate((to - from) * 12);
+        for (int i = from; i < to; i++) {
+            ReferenceSolver.Rating rating = solver.rate(corpus.get(i), trials, DifficultyIndexBuilder.SEED + i);
+            out.putDouble(rating.expected()).putInt(rating.worst());
+        }
+        return out.array();
+    }
+
+    @Override
+    public void merge(byte[][] chunks) throws IOException {
+        ReferenceSolver.Rating[] ratings = new ReferenceSolver.Rating[corpus.size()];
+        int i = 0;
+        for (byte[] chunk : chunks) {
+            ByteBuffer in = ByteBuffer.wrap(chunk);
+            while (in.hasRemaining())
+                ratings[i++] = new ReferenceSolver.Rating(in.getDouble(), in.getInt());
+        }
+        assert i == ratings.length : "Every equation must be rated once.";
+        DifficultyIndex.build(corpus, ratings).write(output);
+        System.out.println("Difficulty index of " + ratings.length + " equations written to " + output);
+    }
+}
@@ -0,0 +1,86 @@
+package Tool;
+
+import Model.BatchScorer;
+import Model.EquationCorpus;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Computes the feedback matrix of a corpus: the feedback code of every corpus equation played as a
+ * guess against every corpus equation as the target. Each chunk is a band of ROWS guesses scored
+ * with one BatchScorer each.
+ *
+ * File layout: magic, version, equation count, corpus hash, then one short per (guess, target)
+ * pair, guess-major.
+ *
+ * Arguments: [corpus] [output], by default equations.txt and equations.feedback.
+ */
+public final class FeedbackMatrixJob implements PrecomputeJob {
+    public static final String NAME = "feedback";
+    public static final int MAGIC = 0x4E46424D; // "NFBM"
+    public static final int VERSION = 1;
+    public static final int ROWS = 16;
+
+    private final Path corpusFile;
+    private final Path output;
+    private final EquationCorpus corpus;
+    private final int[] targets;
+    private final int[] symbols;
+
+    /**
+     * Creates the job and loads its corpus.
+     *
+     * @param args The optional corpus and output files.
+     * @throws IOException If the corpus cannot be read.
+     */
+    public FeedbackMatrixJob(String[] args) throws IOException {
+        this.corpusFile = Paths.get(args.length > 0 ? args[0] : EquationCorpus.DEFAULT_FILE);
+        this.output = Paths.get(args.length > 1 ? args[1] : "equations.feedback");
+        this.corpus = EquationCorpus.load(corpusFile);
+        this.targets = corpus.toArray();
+        this.symbols = BatchScorer.symbolSets(targets, targets.length);
+    }
+
+    @Override
+    public String describe() {
+        return NAME + " corpus=" + corpusFile + " size=" + corpus.size() + " hash=" + corpus.hash();
+    }
+
+    @Override
+    public int chunkCount() {
+        return Math.max(1, (targets.length + ROWS - 1) / ROWS);
+    }
+
+    @Override
+    public byte[] runChunk(int chunk) {
+        int from = chunk * ROWS;
+        int to = Math.min(targets.length, from + ROWS);
+        ByteBuffer out = ByteBuffer.allocate((to - from) * targets.length * 2);
+        int[] codes = new int[targets.length];
+        for (int guess = from; guess < to; guess++) {
+            new BatchScorer(targets[guess]).scoreAll(targets, symbols, 0, targets.length, codes);
+            for (int code : codes)
+                out.putShort((short) code);
+        }
+        return out.array();
+    }
+
+    @Override
+    public void merge(byte[][] chunks) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(output)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(targets.length);
+            out.writeInt(corpus.hash());
+            for (byte[] chunk : chunks)
+                out.write(chunk);
+        }
+        System.out.println("Feedback matrix of " + targets.length + " equations written to " + output);
+    }
+}
@@ -0,0 +1,248 @@
+package Tool;
+
+import Model.EquationCodec;
+import Model.EquationScorer;
+import Server.GameRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The GameStats class accumulates statistics over archived games: how often each symbol is guessed
+ * at each position, how often each guessed symbol is correct, misplaced or absent (the categories
+ * of classList), the games, wins and guesses per target, and the most common first guesses.
+ *
+ * An instance is filled by one thread; instances filled in parallel are combined with merge. Memory
+ * is bounded whatever the number of games: fixed tables, one entry per distinct target, and at most
+ * FIRST_GUESS_CAPACITY first guess counters, kept as a Misra-Gries summary. A first guess count is
+ * exact while there are no more distinct first guesses than that, and a lower bound otherwise.
+ */
+public class GameStats {
+    public static final int FIRST_GUESS_CAPACITY = 1024;
+    // Feedback categories, numbered as the compareList values and the first three classList groups
+    public static final int ABSENT = 0;
+    public static final int CORRECT = 1;
+    public static final int MISPLACED = 2;
+
+    private long games;
+    private long wins;
+    private long guesses;
+    private final long[][] symbolAtPosition = new long[EquationScorer.EQUATION_LENGTH][EquationCodec.SYMBOL_COUNT];
+    private final long[][] feedbackBySymbol = new long[EquationCodec.SYMBOL_COUNT][3];
+    private final Map<String, long[]> byTarget = new HashMap<>(); // games, guesses, wins
+    private final Map<String, long[]> firstGuesses = new HashMap<>();
+
+    /**
+     * Adds a game.
+     *
+     * @param game The game.
+     */
+    public void add(GameRecord game) {
+        int n = game.getGuessCount();
+        games++;
+        guesses += n;
+        boolean won = game.isWon();
+        if (won)
+            wins++;
+        long[] target = byTarget.computeIfAbsent(game.getTarget(), t -> new long[3]);
+        target[0]++;
+        target[1] += n;
+        if (won)
+            target[2]++;
+        if (n > 0)
+            countFirstGuess(game.getGuess(0));
+
+        int packedTarget = EquationCodec.encode(game.getTarget());
+        for (int g = 0; g < n; g++) {
+            String guess = game.getGuess(g);
+            int packed = EquationCodec.encode(guess);
+            if (packedTarget != EquationCodec.INVALID && packed != EquationCodec.INVALID) {
+                int code = EquationScorer.feedbackCode(packedTarget, packed);
+                for (int i = 0; i < EquationScorer.EQUATION_LENGTH; i++, code /= 3)
+                    count(i, EquationCodec.symbolAt(packed, i), code % 3);
+            } else {
+                // A text record: scored as NumberleModel scores it, counting the known symbols only
+                int[] compare = EquationScorer.compare(game.getTarget(), guess);
+                int length = Math.min(Math.min(compare.length, guess.length()), EquationScorer.EQUATION_LENGTH);
+                for (int i = 0; i < length; i++) {
+                    int symbol = EquationCodec.symbolOf(guess.charAt(i));
+                    if (symbol >= 0)
+                        count(i, symbol, compare[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the statistics of another instance to this one.
+     *
+     * @param other The other statistics; they are not changed.
+     */
+    public void merge(GameStats other) {
+        games += other.games;
+        wins += other.wins;
+        guesses += other.guesses;
+        for (int i = 0; i < symbolAtPosition.length; i++)
+            for (int s = 0; s < EquationCodec.SYMBOL_COUNT; s++)
+                symbolAtPosition[i][s] += other.symbolAtPosition[i][s];
+        for (int s = 0; s < EquationCodec.SYMBOL_COUNT; s++)
+            for (int c = 0; c < 3; c++)
+                feedbackBySymbol[s][c] += other.feedbackBySymbol[s][c];
+        other.byTarget.forEach((target, counts) -> {
+            long[] mine = byTarget.computeIfAbsent(target, t -> new long[3]);
+            for (int i = 0; i < mine.length; i++)
+                mine[i] += counts[i];
+        });
+        other.firstGuesses.forEach((guess, count) -> firstGuesses.computeIfAbsent(guess, g -> new long[1])[0] += count[0]);
+        if (firstGuesses.size() > FIRST_GUESS_CAPACITY) {
+            // Merged summaries keep their guarantee once the (capacity + 1)-th largest count is taken off every counter
+            long[] counts = firstGuesses.values().stream().mapToLong(c -> c[0]).sorted().toArray();
+            long cut = counts[counts.length - FIRST_GUESS_CAPACITY - 1];
+            firstGuesses.values().forEach(c -> c[0] -= cut);
+            firstGuesses.values().removeIf(c -> c[0] <= 0);
+        }
+    }
+
+    /**
+     * Retrieves the number of games.
+     *
+     * @return The game count.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Retrieves the number of games won.
+     *
+     * @return The win count.
+     */
+    public long getWins() {
+        return wins;
+    }
+
+    /**
+     * Retrieves the number of guesses over all games.
+     *
+     * @return The guess count.
+     */
+    public long getGuesses() {
+        return guesses;
+    }
+
+    /**
+     * Retrieves how often a symbol was guessed at a position.
+     *
+     * @param position The position, from 0.
+     * @param symbol The symbol, as EquationCodec numbers them.
+     * @return The count.
+     */
+    public long getSymbolCount(int position, int symbol) {
+        return symbolAtPosition[position][symbol];
+    }
+
+    /**
+     * Retrieves how often a guessed symbol received a feedback category.
+     *
+     * @param symbol The symbol, as EquationCodec numbers them.
+     * @param category ABSENT, CORRECT or MISPLACED.
+     * @return The count.
+     */
+    public long getFeedbackCount(int symbol, int category) {
+        return feedbackBySymbol[symbol][category];
+    }
+
+    /**
+     * Retrieves the average number of guesses of the games on a target.
+     *
+     * @param target The target equation.
+     * @return The average, or NaN if no game had this target.
+     */
+    public double getAverageGuesses(String target) {
+        long[] counts = byTarget.get(target);
+        return counts == null ? Double.NaN : (double) counts[1] / counts[0];
+    }
+
+    /**
+     * Retrieves the targets played, ordered by decreasing average guess count.
+     *
+     * @param minGames The fewest games a target needs to be listed.
+     * @return The targets.
+     */
+    public List<String> getTargetsByDifficulty(int minGames) {
+        List<String> targets = new ArrayList<>();
+        byTarget.forEach((target, counts) -> {
+            if (counts[0] >= minGames)
+                targets.add(target);
+        });
+        targets.sort((a, b) -> Double.compare(getAverageGuesses(b), getAverageGuesses(a)));
+        return targets;
+    }
+
+    /**
+     * Retrieves the most common first guesses.
+     *
+     * @param limit The most entries to return.
+     * @return Pairs of first guess and count, most common first.
+     */
+    public List<Map.Entry<String, Long>> getTopFirstGuesses(int limit) {
+        List<Map.Entry<String, Long>> top = new ArrayList<>();
+        firstGuesses.forEach((guess, count) -> top.add(Map.entry(guess, count[0])));
+        top.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        return top.subList(0, Math.min(limit, top.size()));
+    }
+
+    private void count(int position, int symbol, int category) {
+        symbolAtPosition[position][symbol]++;
+        feedbackBySymbol[symbol][category]++;
+    }
+
+    private void countFirstGuess(String guess) {
+        long[] count = firstGuesses.get(guess);
+        if (count != null) {
+            count[0]++;
+        } else if (firstGuesses.size() < FIRST_GUESS_CAPACITY) {
+            firstGuesses.put(guess, new long[]{1});
+        } else {
+            // Misra-Gries: a new guess with the summary full takes one off every counter instead
+            firstGuesses.values().forEach(c -> c[0]--);
+            firstGuesses.values().removeIf(c -> c[0] == 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("Games: %d, won: %d (%.1f%%), guesses per game: %.3f%n",
+                games, wins, games == 0 ? 0 : 100.0 * wins / games, games == 0 ? 0 : (double) guesses / games));
+        out.append("Most common first guesses:\n");
+        for (Map.Entry<String, Long> entry : getTopFirstGuesses(10))
+            out.append(String.format("  %s %d%n", entry.getKey(), entry.getValue()));
+        out.append("Feedback per guessed symbol (correct / misplaced / absent):\n");
+        for (int s = 0; s < EquationCodec.SYMBOL_COUNT; s++) {
+            long total = Arrays.stream(feedbackBySymbol[s]).sum();
+            if (total == 0)
+                continue;
+            out.append(String.format("  %c %5.1f%% %5.1f%% %5.1f%%%n", EquationCodec.charOf(s),
+                    100.0 * feedbackBySymbol[s][CORRECT] / total, 100.0 * feedbackBySymbol[s][MISPLACED] / total,
+                    100.0 * feedbackBySymbol[s][ABSENT] / total));
+        }
+        out.append("Most guessed symbol per position:");
+        for (long[] counts : symbolAtPosition) {
+            int best = 0;
+            for (int s = 1; s < counts.length; s++)
+                if (counts[s] > counts[best])
+                    best = s;
+            out.append(' ').append(counts[best] == 0 ? '-' : EquationCodec.charOf(best));
+        }
+        out.append('\n');
+        List<String> hardest = getTargetsByDifficulty(1);
+        out.append("Hardest targets:\n");
+        for (String target : hardest.subList(0, Math.min(5, hardest.size())))
+            out.append(String.format("  %s %.2f guesses%n", target, getAverageGuesses(target)));
+        return out.toString();
+    }
+}
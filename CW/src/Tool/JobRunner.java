@@ -0,0 +1,211 @@
+package Tool;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Runs a PrecomputeJob on worker processes of this machine, each running JobWorker with this JVM's
+ * class path. Chunks are dealt from a shared queue, one at a time per worker, so faster workers take
+ * more. A worker writes each finished chunk to the checkpoint directory; a chunk whose file exists
+ * is not computed again, so an interrupted run resumes where it stopped. A worker that dies is
+ * replaced and its chunk is dealt again. Once every chunk exists they are merged in chunk order.
+ *
+ * The checkpoint directory holds a manifest with the job's description; chunks made for another
+ * description are discarded.
+ *
+ * Usage: JobRunner workers checkpointDir job [job arguments...]
+ *   for example: JobRunner 4 precompute universe equations.universe.txt
+ */
+public class JobRunner {
+    private static final String MANIFEST = "job.txt";
+    private static final int MAX_RESTARTS = 3;
+
+    private final String[] jobArgs;
+    private final PrecomputeJob job;
+    private final Path checkpointDir;
+    private final int workers;
+
+    /**
+     * Creates a runner.
+     *
+     * @param jobArgs The job name and its arguments, as PrecomputeJob.create takes them.
+     * @param checkpointDir The directory for the manifest and the chunk files.
+     * @param workers The number of worker processes.
+     * @requires workers > 0;
+     * @throws IOException If an input of the job cannot be read.
+     */
+    public JobRunner(String[] jobArgs, Path checkpointDir, int workers) throws IOException {
+        assert workers > 0 : "At least one worker is needed.";
+        this.jobArgs = jobArgs.clone();
+        this.job = PrecomputeJob.create(jobArgs);
+        this.checkpointDir = checkpointDir;
+        this.workers = workers;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: JobRunner workers checkpointDir job [job arguments...]");
+            return;
+        }
+        JobRunner runner = new JobRunner(Arrays.copyOfRange(args, 2, args.length), Paths.get(args[1]), Integer.parseInt(args[0]));
+        long start = System.nanoTime();
+        int computed = runner.run();
+        System.out.printf("Computed %d of %d chunks in %d ms.%n", computed, runner.job.chunkCount(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Computes the missing chunks and merges all of them into the job's output.
+     *
+     * @return The number of chunks computed by this run.
+     * @throws IOException If the checkpoint cannot be used, a chunk keeps failing, or the output
+     *         cannot be written.
+     */
+    public int run() throws IOException {
+        prepareCheckpoint();
+        Queue<Integer> pending = new ConcurrentLinkedQueue<>();
+        for (int chunk = 0; chunk < job.chunkCount(); chunk++)
+            if (!Files.exists(chunkFile(checkpointDir, chunk)))
+                pending.add(chunk);
+
+        AtomicInteger computed = new AtomicInteger();
+        // A chunk given back by a failing worker after the others finished is dealt in another round
+        while (!pending.isEmpty()) {
+            List<Thread> threads = new ArrayList<>();
+            List<IOException> failures = new ArrayList<>();
+            for (int i = 0; i < Math.min(workers, pending.size()); i++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        drive(pending, computed);
+                    } catch (IOException e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                }, "Job worker driver " + i);
+                thread.start();
+                threads.add(thread);
+            }
+            for (Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted; finished chunks are kept.", e);
+                }
+            }
+            if (!failures.isEmpty())
+                throw failures.get(0);
+        }
+
+        byte[][] chunks = new byte[job.chunkCount()][];
+        for (int chunk = 0; chunk < chunks.length; chunk++)
+            chunks[chunk] = Files.readAllBytes(chunkFile(checkpointDir, chunk));
+        job.merge(chunks);
+        return computed.get();
+    }
+
+    /**
+     * Keeps one worker process busy until the queue is empty, replacing it if it dies.
+     */
+    private void drive(Queue<Integer> pending, AtomicInteger computed) throws IOException {
+        int restarts = 0;
+        Process process = launch();
+        try {
+            BufferedWriter in = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            Integer chunk;
+            while ((chunk = pending.poll()) != null) {
+                String reply;
+                try {
+                    in.write(chunk + "\n");
+                    in.flush();
+                    reply = out.readLine();
+                } catch (IOException e) {
+                    reply = null;
+                }
+                if (reply != null && reply.equals(JobWorker.DONE + " " + chunk)) {
+                    computed.incrementAndGet();
+                    continue;
+                }
+                // The worker died or failed: the chunk goes back to the queue and the worker is replaced
+                pending.add(chunk);
+                process.destroyForcibly();
+                if (++restarts > MAX_RESTARTS)
+                    throw new IOException("Chunk " + chunk + " failed: " + (reply == null ? "the worker died" : reply));
+                process = launch();
+                in = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+                out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            }
+            in.close(); // End of input: the worker exits
+        } finally {
+            try {
+                process.waitFor();
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Process launch() throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path")));
+        if (JobRunner.class.desiredAssertionStatus())
+            command.add("-ea");
+        command.add(JobWorker.class.getName());
+        command.add(checkpointDir.toString());
+        command.addAll(Arrays.asList(jobArgs));
+        return new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    }
+
+    /**
+     * Creates the checkpoint directory, or empties it if it was made for another job.
+     */
+    private void prepareCheckpoint() throws IOException {
+        Files.createDirectories(checkpointDir);
+        Path manifest = checkpointDir.resolve(MANIFEST);
+        String description = job.describe();
+        if (Files.exists(manifest) && Files.readString(manifest, StandardCharsets.UTF_8).equals(description))
+            return;
+        try (Stream<Path> files = Files.list(checkpointDir)) {
+            files.filter(file -> file.getFileName().toString().startsWith("chunk-")).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        Path temp = checkpointDir.resolve(MANIFEST + ".tmp");
+        Files.writeString(temp, description, StandardCharsets.UTF_8);
+        Files.move(temp, manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Retrieves the checkpoint file of a chunk.
+     *
+     * @param checkpointDir The checkpoint directory.
+     * @param chunk The chunk number.
+     * @return The file the chunk's result is kept in.
+     */
+    static Path chunkFile(Path checkpointDir, int chunk) {
+        return checkpointDir.resolve(String.format("chunk-%06d.bin", chunk));
+    }
+}
@@ -0,0 +1,47 @@
+package Tool;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Worker process of JobRunner. It reads chunk numbers from its standard input, one per line, and
+ * for each computes the chunk, writes it to the checkpoint directory and answers "DONE <chunk>".
+ * A chunk file is written under a temporary name and then renamed, so a worker killed mid-write
+ * never leaves a partial checkpoint. It exits at the end of its input.
+ *
+ * Usage: JobWorker checkpointDir job [job arguments...]
+ */
+public final class JobWorker {
+    public static final String DONE = "DONE";
+
+    private JobWorker() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path checkpointDir = Paths.get(args[0]);
+        PrecomputeJob job = PrecomputeJob.create(Arrays.copyOfRange(args, 1, args.length));
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = in.readLine()) != null) {
+            int chunk = Integer.parseInt(line.trim());
+            try {
+                byte[] result = job.runChunk(chunk);
+                Path file = JobRunner.chunkFile(checkpointDir, chunk);
+                Path temp = file.resolveSibling(file.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+                Files.write(temp, result);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                System.out.println(DONE + " " + chunk);
+            } catch (RuntimeException | IOException e) {
+                System.out.println("FAILED " + chunk + " " + e);
+            }
+            System.out.flush();
+        }
+    }
+}
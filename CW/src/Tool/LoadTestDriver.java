@@ -0,0 +1,132 @@
+package Tool;
+
+import Model.EquationCodec;
+import Model.EquationCorpus;
+import Server.NumberleHttpServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local load test of the HTTP API. Each client thread plays complete games (start, then corpus
+ * equations as guesses until the game is over) for the given duration, timing every request.
+ * Without a URL the server is started in this process on a free port.
+ *
+ * Reports requests per second and the p50, p99 and maximum latency.
+ *
+ * Usage: LoadTestDriver [clients] [seconds] [url]
+ */
+public class LoadTestDriver {
+    private static final Pattern ID = Pattern.compile("\"id\":\"([0-9a-f]+)\"");
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        EquationCorpus corpus = EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE));
+
+        NumberleHttpServer embedded = null;
+        String base;
+        if (args.length > 2) {
+            base = args[2];
+        } else {
+            embedded = new NumberleHttpServer(corpus);
+            embedded.start(0);
+            base = "http://localhost:" + embedded.getPort() + "/games";
+        }
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        LongAdder errors = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        Thread[] threads = new Thread[clients];
+        for (int c = 0; c < clients; c++) {
+            final int id = c;
+            threads[c] = new Thread(() -> {
+                Random random = new Random(id);
+                long[] samples = new long[1 << 12];
+                int n = 0;
+                while (System.nanoTime() < deadline) {
+                    try {
+                        long start = System.nanoTime();
+                        String game = post(client, base, "{}");
+                        samples = record(samples, n++, System.nanoTime() - start);
+                        Matcher matcher = ID.matcher(game);
+                        if (!matcher.find()) {
+                            errors.increment();
+                            continue;
+                        }
+                        String url = base + "/" + matcher.group(1);
+                        for (int g = 0; g < 6; g++) {
+                            String body = "{\"guess\":\"" + EquationCodec.decode(corpus.pick(random)) + "\"}";
+                            start = System.nanoTime();
+                            String result = post(client, url + "/guesses", body);
+                            samples = record(samples, n++, System.nanoTime() - start);
+                            if (result.contains("\"gameOver\":true"))
+                                break;
+                        }
+                        client.send(HttpRequest.newBuilder(URI.create(url)).DELETE().build(), HttpResponse.BodyHandlers.discarding());
+                    } catch (IOException e) {
+                        errors.increment();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                latencies[id] = samples;
+                counts[id] = n;
+            });
+            threads[c].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        if (embedded != null)
+            embedded.stop();
+
+        int total = 0;
+        for (int count : counts)
+            total += count;
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+        System.out.printf("%d clients, %d s: %d requests, %.0f requests/s, %d errors%n",
+                clients, seconds, total, (double) total / seconds, errors.sum());
+        if (total > 0)
+            System.out.printf("latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                    percentile(all, 0.50), percentile(all, 0.99), all[total - 1] / 1e6);
+    }
+
+    private static String post(HttpClient client, String url, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private static long[] record(long[] samples, int index, long nanos) {
+        if (index == samples.length)
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        samples[index] = nanos;
+        return samples;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
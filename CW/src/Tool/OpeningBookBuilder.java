@@ -0,0 +1,33 @@
+package Tool;
+
+import Model.EquationCodec;
+import Model.EquationCorpus;
+import Model.Solver.OpeningBook;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Offline job that computes the opening book of the corpus (the opener and the best second guess
+ * for every feedback code) and writes it next to the corpus, where the hint engine loads it.
+ *
+ * Usage: OpeningBookBuilder [corpus] [book]
+ */
+public class OpeningBookBuilder {
+    public static void main(String[] args) throws IOException {
+        Path corpusFile = Paths.get(args.length > 0 ? args[0] : "equations.txt");
+        Path bookFile = Paths.get(args.length > 1 ? args[1] : OpeningBook.DEFAULT_FILE);
+
+        EquationCorpus corpus = EquationCorpus.load(corpusFile);
+        long start = System.nanoTime();
+        OpeningBook book = OpeningBook.build(corpus);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        book.write(bookFile);
+
+        System.out.println("Built the opening book of " + corpus.size() + " equations in " + elapsed + " ms.");
+        System.out.println("Opener " + EquationCodec.decode(book.getOpener()) + ", "
+                + book.getReachableCodes() + " second guesses.");
+        System.out.println("Book written to " + bookFile);
+    }
+}
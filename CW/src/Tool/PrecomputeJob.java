@@ -0,0 +1,70 @@
+package Tool;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A PrecomputeJob is an offline computation split into independent chunks, so that JobRunner can
+ * hand the chunks to worker processes, keep each finished chunk as a checkpoint, and merge them.
+ *
+ * A chunk's result must depend only on the job's arguments and the chunk number, and merge must
+ * read the chunks in order, so the output is the same whatever the number of workers and however
+ * often the run was interrupted.
+ *
+ * Jobs are created from their command-line arguments, which is how worker processes rebuild them.
+ */
+public interface PrecomputeJob {
+
+    /**
+     * Retrieves a description of the job and its inputs. A checkpoint made under another
+     * description is stale and is discarded.
+     *
+     * @return The job's name, arguments and input fingerprints.
+     */
+    String describe();
+
+    /**
+     * Retrieves the number of chunks.
+     *
+     * @return The chunk count, at least 1.
+     */
+    int chunkCount();
+
+    /**
+     * Computes one chunk.
+     *
+     * @param chunk The chunk number.
+     * @requires 0 <= chunk && chunk < chunkCount();
+     * @return The chunk's result, in the job's own encoding.
+     */
+    byte[] runChunk(int chunk);
+
+    /**
+     * Combines the chunk results into the job's output file.
+     *
+     * @param chunks The result of every chunk, in chunk order.
+     * @requires chunks.length == chunkCount();
+     * @throws IOException If the output cannot be written.
+     */
+    void merge(byte[][] chunks) throws IOException;
+
+    /**
+     * Creates a job from its command-line arguments.
+     *
+     * @param args The job name ("universe", "feedback" or "difficulty") followed by its arguments.
+     * @return The job.
+     * @throws IOException If an input of the job cannot be read.
+     * @throws IllegalArgumentException If the job name is unknown.
+     */
+    static PrecomputeJob create(String[] args) throws IOException {
+        if (args.length == 0)
+            throw new IllegalArgumentException("A job name is needed.");
+        String[] rest = Arrays.copyOfRange(args, 1, args.length);
+        return switch (args[0]) {
+            case UniverseJob.NAME -> new UniverseJob(rest);
+            case FeedbackMatrixJob.NAME -> new FeedbackMatrixJob(rest);
+            case DifficultyJob.NAME -> new DifficultyJob(rest);
+            default -> throw new IllegalArgumentException("Unknown job: " + args[0]);
+        };
+    }
+}
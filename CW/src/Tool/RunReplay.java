@@ -0,0 +1,144 @@
+package Tool;
+
+import Model.Difficulty;
+import Model.EquationCorpus;
+import Model.GameSnapshot;
+import Model.NumberleModel;
+import Model.RunJournal;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Replays a run recorded in a RunJournal through a NumberleModel, as fast as the model allows, so
+ * that a slow or wrong session can be reproduced offline under a profiler. Every game is started
+ * the way the model starts it, drawing its target from the reseeded random source; a drawn target
+ * that differs from the recorded one (another corpus or difficulty index) is replaced by the
+ * recorded one and counted as a divergence.
+ *
+ * A restore is replayed by restoring the longest prefix of the recorded guesses that the current
+ * branch holds, then playing the rest, which rebuilds a branch that was undone and overwritten.
+ *
+ * Replays of the same journal produce the same checksum of the input statuses and feedback rows.
+ *
+ * Usage: RunReplay journal [repeat]
+ */
+public class RunReplay {
+
+    /**
+     * The outcome of one replay.
+     *
+     * @param games The number of games started.
+     * @param inputs The number of inputs processed.
+     * @param divergences The number of games whose drawn target differed from the recorded one.
+     * @param checksum A hash of every input status and feedback row.
+     */
+    public record Result(int games, int inputs, int divergences, long checksum) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: RunReplay journal [repeat]");
+            System.exit(2);
+        }
+        RunJournal journal = RunJournal.read(Paths.get(args[0]));
+        int repeat = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        EquationCorpus corpus = EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE));
+
+        Result result = null;
+        long start = System.nanoTime();
+        for (int r = 0; r < repeat; r++)
+            result = replay(journal, new NumberleModel(corpus));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d events, %d games, %d inputs, %d divergent targets, checksum %016x%n",
+                journal.size(), result.games(), result.inputs(), result.divergences(), result.checksum());
+        System.out.printf("%d replays in %.3f s (%.0f inputs/s)%n", repeat, seconds, result.inputs() * (double) repeat / seconds);
+    }
+
+    /**
+     * Replays a journal.
+     *
+     * @param journal The recorded run.
+     * @param model A model that has not started a game; its console output is turned off.
+     * @return The outcome.
+     * @throws IllegalArgumentException If the journal holds an unknown setting.
+     */
+    public static Result replay(RunJournal journal, NumberleModel model) {
+        model.setConsoleOutput(false);
+        int games = 0;
+        int inputs = 0;
+        int divergences = 0;
+        long checksum = 0;
+        for (int i = 0; i < journal.size(); i++) {
+            String argument = journal.getArgument(i);
+            switch (journal.getKind(i)) {
+                case RunJournal.SEED -> model.setSeed(Long.parseLong(argument));
+                case RunJournal.SET -> set(model, argument);
+                case RunJournal.GAME -> {
+                    model.startNewGame();
+                    games++;
+                    if (!argument.equals(model.getTargetNumber())) {
+                        model.setTarget(argument);
+                        divergences++;
+                    }
+                }
+                case RunJournal.TARGET -> model.setTarget(argument);
+                case RunJournal.INPUT -> {
+                    int status = model.processInput(argument);
+                    inputs++;
+                    checksum = checksum * 31 + status;
+                    if (status == 1) {
+                        GameSnapshot snapshot = model.getSnapshot();
+                        int last = snapshot.getGuessCount() - 1;
+                        for (int j = 0; j < snapshot.getCompareLength(last); j++)
+                            checksum = checksum * 31 + snapshot.getCompare(last, j);
+                    }
+                }
+                case RunJournal.UNDO -> model.undo();
+                case RunJournal.REDO -> model.redo();
+                case RunJournal.RESTORE -> restore(model, RunJournal.decodeGuesses(argument));
+                default -> throw new IllegalArgumentException("Unknown journal event.");
+            }
+        }
+        return new Result(games, inputs, divergences, checksum);
+    }
+
+    /**
+     * Brings the game to the state with the given guesses.
+     */
+    private static void restore(NumberleModel model, List<String> guesses) {
+        GameSnapshot state = model.getSnapshot();
+        // The start of the game is a prefix of every state, so the walk ends
+        while (!isPrefix(state, guesses))
+            state = state.getPrevious();
+        model.restore(state);
+        for (int i = state.getGuessCount(); i < guesses.size(); i++)
+            model.processInput(guesses.get(i));
+    }
+
+    private static boolean isPrefix(GameSnapshot state, List<String> guesses) {
+        if (state.getGuessCount() > guesses.size())
+            return false;
+        for (int i = 0; i < state.getGuessCount(); i++) {
+            if (!state.getGuess(i).equals(guesses.get(i)))
+                return false;
+        }
+        return true;
+    }
+
+    private static void set(NumberleModel model, String setting) {
+        int space = setting.indexOf(' ');
+        String name = setting.substring(0, space);
+        String value = setting.substring(space + 1);
+        switch (name) {
+            case "verify" -> model.setVerifyEquation(Boolean.parseBoolean(value));
+            case "random" -> model.setRandomEquality(Boolean.parseBoolean(value));
+            case "hard" -> model.setHardMode(Boolean.parseBoolean(value));
+            case "absurdle" -> model.setAbsurdleMode(Boolean.parseBoolean(value));
+            case "practice" -> model.setPracticeMode(Boolean.parseBoolean(value));
+            case "difficulty" -> model.setDifficulty(Difficulty.valueOf(value));
+            default -> throw new IllegalArgumentException("Unknown setting \"" + name + "\".");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package Tool;
+
+import Model.EquationCodec;
+import Model.EquationCorpus;
+import Model.NumberleModel;
+import Server.SessionRegistry;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Contention benchmark of the session registry. Threads play guesses on random sessions, first
+ * through the registry's striped locks and then through one global lock, for 1, 2, 4, ... threads up
+ * to the number of cores. Reports guesses per second and the speed-up over one thread.
+ *
+ * Usage: SessionRegistryBenchmark [sessions] [seconds] [maxThreads]
+ */
+public class SessionRegistryBenchmark {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int sessionCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        EquationCorpus corpus = EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE));
+        String[] guesses = new String[corpus.size()];
+        for (int i = 0; i < guesses.length; i++)
+            guesses[i] = EquationCodec.decode(corpus.get(i));
+
+        SessionRegistry registry = new SessionRegistry();
+        String[] ids = new String[sessionCount];
+        for (int i = 0; i < sessionCount; i++)
+            ids[i] = registry.create(newGame(corpus));
+
+        Object globalLock = new Object();
+        System.out.println(sessionCount + " sessions, " + Runtime.getRuntime().availableProcessors() + " cores");
+        for (String mode : new String[]{"striped", "global"}) {
+            Operation operation = random -> {
+                String id = ids[random.nextInt(ids.length)];
+                String guess = guesses[random.nextInt(guesses.length)];
+                Function<NumberleModel, Integer> action = model -> {
+                    if (model.isGameOver())
+                        model.startNewGame();
+                    return model.processInput(guess);
+                };
+                if (mode.equals("striped")) {
+                    registry.apply(id, action);
+                } else {
+                    synchronized (globalLock) {
+                        action.apply(registry.get(id));
+                    }
+                }
+            };
+            // Untimed warm-up, so the first measurement is not slowed by compilation
+            run(maxThreads, 1, operation);
+            double single = 0;
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                double rate = run(threads, seconds, operation);
+                if (threads == 1)
+                    single = rate;
+                System.out.printf("%-7s %3d threads: %,12.0f guesses/s, speed-up %.2f%n", mode, threads, rate, rate / single);
+                if (threads < maxThreads && threads * 2 > maxThreads)
+                    threads = maxThreads / 2; // Always finish with every core
+            }
+        }
+    }
+
+    private static NumberleModel newGame(EquationCorpus corpus) {
+        NumberleModel model = new NumberleModel(corpus);
+        model.setConsoleOutput(false);
+        model.setRandomEquality(true);
+        model.setVerifyEquation(true);
+        model.startNewGame();
+        return model;
+    }
+
+    private static double run(int threads, int seconds, Operation operation) throws InterruptedException {
+        LongAdder done = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            workers[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                long count = 0;
+                while ((count & 255) != 0 || System.nanoTime() < deadline) {
+                    operation.run(random);
+                    count++;
+                }
+                done.add(count);
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers)
+            worker.join();
+        return done.sum() * 1e9 / (System.nanoTime() - start);
+    }
+
+    private interface Operation {
+        void run(SplittableRandom random);
+    }
+}
@@ -0,0 +1,96 @@
+package Tool;
+
+import Model.EquationCodec;
+import Model.EquationScorer;
+import Model.EquationValidator;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Enumerates the equation universe: every 7-symbol string that EquationValidator accepts. There is
+ * one chunk per pair of leading symbols, 225 in all, and each checks the 15^5 strings after it in
+ * packed form. The output lists the equations one per line, in corpus format.
+ *
+ * Arguments: [output], by default equations.universe.txt.
+ */
+public final class UniverseJob implements PrecomputeJob {
+    public static final String NAME = "universe";
+    private static final int SYMBOLS = EquationCodec.SYMBOL_COUNT;
+    private static final int FREE = EquationScorer.EQUATION_LENGTH - 2;
+
+    private final Path output;
+
+    /**
+     * Creates the job.
+     *
+     * @param args The optional output file.
+     */
+    public UniverseJob(String[] args) {
+        this.output = Paths.get(args.length > 0 ? args[0] : "equations.universe.txt");
+    }
+
+    @Override
+    public String describe() {
+        return NAME + " symbols=" + EquationCodec.SYMBOLS + " length=" + EquationScorer.EQUATION_LENGTH;
+    }
+
+    @Override
+    public int chunkCount() {
+        return SYMBOLS * SYMBOLS;
+    }
+
+    @Override
+    public byte[] runChunk(int chunk) {
+        int prefix = (chunk / SYMBOLS) | (chunk % SYMBOLS) << 4;
+        int[] digits = new int[FREE];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            // An odometer over the five free positions, in base 15
+            int rest = 0;
+            while (true) {
+                int packed = prefix | rest << 8;
+                if (EquationValidator.check(packed) == EquationValidator.VALID)
+                    out.writeInt(packed);
+                int position = 0;
+                while (position < FREE && ++digits[position] == SYMBOLS) {
+                    digits[position] = 0;
+                    rest &= ~(0xF << (4 * position));
+                    position++;
+                }
+                if (position == FREE)
+                    break;
+                rest = (rest & ~(0xF << (4 * position))) | digits[position] << (4 * position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public void merge(byte[][] chunks) throws IOException {
+        int count = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            for (byte[] chunk : chunks) {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(chunk));
+                for (int i = 0; i < chunk.length / 4; i++) {
+                    out.write(EquationCodec.decode(in.readInt()));
+                    out.newLine();
+                    count++;
+                }
+            }
+        }
+        System.out.println("Universe of " + count + " equations written to " + output);
+    }
+}
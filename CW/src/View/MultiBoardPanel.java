@@ -0,0 +1,108 @@
+package View;
+
+import Model.EquationCodec;
+import Model.EquationScorer;
+import Model.MultiBoardGame;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * The MultiBoardPanel class paints every board of a MultiBoardGame as one component. Tiles are drawn
+ * directly from the game's codes instead of being one JLabel each, so the cost of a repaint depends
+ * on the visible area and not on the number of boards, and nothing is created per tile.
+ *
+ * Boards are laid out in a near-square grid; each shows its guesses up to the one that solved it.
+ * Tiles shrink to fit the component, and their text is left out once they are too small to read.
+ */
+public class MultiBoardPanel extends JComponent {
+    private static final long serialVersionUID = 1L;
+    // Tile colours of NumberleView: absent, correct, misplaced, empty
+    private static final Color[] TILE_COLORS = {
+            new Color(164, 174, 196), new Color(47, 193, 165), new Color(247, 154, 111), new Color(251, 252, 255)};
+    private static final Color SOLVED_BORDER = new Color(47, 193, 165);
+    private static final int GAP = 2;
+    private static final int MIN_TEXT_TILE = 12;
+
+    private MultiBoardGame game;
+
+    /**
+     * Creates a panel without a game.
+     */
+    public MultiBoardPanel() {
+        setOpaque(true);
+        setBackground(Color.WHITE);
+        setPreferredSize(new Dimension(760, 560));
+    }
+
+    /**
+     * Shows a game. The panel reads the game when painting, so repaint() after each guess is enough.
+     *
+     * @param game The game to show, or null.
+     */
+    public void setGame(MultiBoardGame game) {
+        this.game = game;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        if (game == null)
+            return;
+
+        int boards = game.getBoardCount();
+        int columns = (int) Math.ceil(Math.sqrt(boards));
+        int gridRows = (boards + columns - 1) / columns;
+        // Every board keeps room for the next guess until it is solved
+        int rows = Math.max(1, Math.min(game.getMaxAttempts(), game.getGuessCount() + 1));
+        int tile = Math.min((getWidth() - GAP) / (columns * (EquationScorer.EQUATION_LENGTH + 1)),
+                (getHeight() - GAP) / (gridRows * (rows + 1)));
+        if (tile < 2)
+            return; // Too small to show anything
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        boolean text = tile >= MIN_TEXT_TILE;
+        if (text)
+            g2.setFont(new Font("Montserrat", Font.BOLD, tile * 3 / 5));
+        FontMetrics metrics = g2.getFontMetrics();
+        int boardWidth = tile * (EquationScorer.EQUATION_LENGTH + 1);
+        int boardHeight = tile * (rows + 1);
+        Rectangle clip = g.getClipBounds();
+
+        for (int b = 0; b < boards; b++) {
+            int x0 = GAP + (b % columns) * boardWidth;
+            int y0 = GAP + (b / columns) * boardHeight;
+            // Only the boards in the damaged area are painted
+            if (clip != null && !clip.intersects(x0, y0, boardWidth, boardHeight))
+                continue;
+            int solvedAt = game.getSolvedAt(b);
+            int shown = solvedAt >= 0 ? solvedAt + 1 : rows;
+            for (int i = 0; i < shown; i++) {
+                boolean played = i < game.getGuessCount();
+                int code = played ? game.getCode(i, b) : 0;
+                int guess = played ? game.getGuess(i) : 0;
+                for (int j = 0; j < EquationScorer.EQUATION_LENGTH; j++, code /= 3) {
+                    int x = x0 + j * tile;
+                    int y = y0 + i * tile;
+                    g2.setColor(TILE_COLORS[played ? code % 3 : 3]);
+                    g2.fillRoundRect(x, y, tile - GAP, tile - GAP, tile / 4, tile / 4);
+                    if (played && text) {
+                        String symbol = String.valueOf(EquationCodec.displayCharOf(EquationCodec.symbolAt(guess, j)));
+                        g2.setColor(Color.WHITE);
+                        g2.drawString(symbol, x + (tile - GAP - metrics.stringWidth(symbol)) / 2,
+                                y + (tile - GAP - metrics.getHeight()) / 2 + metrics.getAscent());
+                    }
+                }
+            }
+            if (solvedAt >= 0) {
+                g2.setColor(SOLVED_BORDER);
+                g2.drawRect(x0 - 1, y0 - 1, EquationScorer.EQUATION_LENGTH * tile, shown * tile);
+            }
+        }
+        g2.dispose();
+    }
+}
@@ -0,0 +1,102 @@
+package View;
+
+import CustomClass.RoundedButton;
+import CustomClass.SpacedJTextField;
+import Model.EquationCodec;
+import Model.EquationCorpus;
+import Model.MultiBoardGame;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Random;
+
+/**
+ * The MultiBoardView class is the window of the multi-board mode: a board count selector, the painted
+ * boards and an input field. Every guess is played on all unsolved boards at once.
+ *
+ * @invariant corpus != null && game != null
+ */
+public class MultiBoardView {
+    public static final Integer[] BOARD_COUNTS = {2, 4, 8, 16, 32, 64};
+
+    private final EquationCorpus corpus;
+    private final Random rand = new Random();
+    private final JFrame frame = new JFrame("Multi-board Numberle");
+    private final MultiBoardPanel boardPanel = new MultiBoardPanel();
+    private final SpacedJTextField inputTextField = new SpacedJTextField(20);
+    private final JLabel attemptsLabel = new JLabel();
+    private final JComboBox<Integer> boardCountBox = new JComboBox<>(BOARD_COUNTS);
+    private MultiBoardGame game;
+
+    /**
+     * Creates and shows the window, starting a game on four boards.
+     *
+     * @param corpus The equations targets are drawn from.
+     * @requires corpus != null && corpus.size() >= 64;
+     */
+    public MultiBoardView(EquationCorpus corpus) {
+        assert corpus != null && corpus.size() >= 64 : "The corpus must hold a target for every board.";
+        this.corpus = corpus;
+
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        frame.setLayout(new BorderLayout());
+
+        JPanel head = new JPanel();
+        head.add(new JLabel("Boards"));
+        boardCountBox.setSelectedItem(4);
+        head.add(boardCountBox);
+        RoundedButton newGameButton = new RoundedButton("New Game");
+        newGameButton.addActionListener(e -> startNewGame());
+        head.add(newGameButton);
+        head.add(attemptsLabel);
+        frame.add(head, BorderLayout.NORTH);
+
+        frame.add(boardPanel, BorderLayout.CENTER);
+
+        inputTextField.setFont(new Font("Montserrat", Font.BOLD, 24));
+        inputTextField.addActionListener(e -> submit());
+        frame.add(inputTextField, BorderLayout.SOUTH);
+
+        startNewGame();
+        frame.pack();
+        frame.setLocationRelativeTo(null);
+        frame.setVisible(true);
+    }
+
+    private void startNewGame() {
+        game = MultiBoardGame.random(corpus, (Integer) boardCountBox.getSelectedItem(), true, rand);
+        boardPanel.setGame(game);
+        inputTextField.setText("");
+        inputTextField.setEnabled(true);
+        updateAttempts();
+    }
+
+    private void submit() {
+        int status = game.guess(EquationCodec.toCanonical(inputTextField.getText().trim()));
+        if (status != 1) {
+            String message = switch (status) {
+                case 2 -> "The length of the equation is not 7.";
+                case 3 -> "The input string does not follow the form of an ordinary equation.";
+                case 4 -> "The two sides of the equation don't agree. The equation doesn't hold.";
+                default -> "The game is over.";
+            };
+            JOptionPane.showMessageDialog(frame, message, "Tips", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        inputTextField.setText("");
+        boardPanel.repaint();
+        updateAttempts();
+        if (game.isGameOver()) {
+            inputTextField.setEnabled(false);
+            String message = game.isGameWon()
+                    ? "Every board solved in " + game.getGuessCount() + " guesses. You win."
+                    : "Solved " + game.getSolvedCount() + " of " + game.getBoardCount() + " boards. You lose.";
+            JOptionPane.showMessageDialog(frame, message, game.isGameWon() ? "WIN" : "LOSE", JOptionPane.PLAIN_MESSAGE);
+        }
+    }
+
+    private void updateAttempts() {
+        attemptsLabel.setText("Solved " + game.getSolvedCount() + "/" + game.getBoardCount()
+                + ", attempts remaining: " + game.getRemainingAttempts());
+    }
+}
@@ -2,8 +2,12 @@ package View;// View.NumberleView.java
 import Controller.NumberleController;
 import CustomClass.RoundedButton;
 import CustomClass.SpacedJTextField;
+import Model.EquationCodec;
+import Model.GameSnapshot;
 import Model.Interface.INumberleModel;
 import Model.NumberleModel;
+import Model.StreakSession;
+import Model.Solver.HintEngine;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
@@ -11,9 +15,10 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.Observer;
+import java.util.function.LongConsumer;
 
 /**
  * The View.NumberleView class represents the view component in the MVC pattern.
@@ -26,7 +31,9 @@ public class NumberleView implements Observer {
     // Reference to the controller component of the MVC pattern.
     private final NumberleController controller;
     // Main window frame of the Numberle game.
-    private final JFrame frame = new JFrame("Numberle");
+    private final JFrame frame;
+    // Scaled header logo, decoded once and reused by every new game.
+    private BufferedImage logo;
     // Text field for user input.
     private  final SpacedJTextField inputTextField = new SpacedJTextField(40);
     //private final JTextField inputTextField = new JTextField(8);
@@ -38,16 +45,30 @@ public class NumberleView implements Observer {
     private JPanel guessPanel;
     // Button to start a new game.
     private RoundedButton newGameButton;
+    // Button to ask for a suggested next guess.
+    private RoundedButton hintButton;
+
+    private RoundedButton undoButton;
+
+    private RoundedButton redoButton;
     // Map to store the association between characters and buttons.
     private HashMap<Character, RoundedButton> buttonMap;
     // Checkboxes to toggle game settings.
     private JCheckBox verifyEquationCheckBox;
     private JCheckBox displayEquationCheckBox;
     private JCheckBox randomEqualityCheckBox;
+    private JCheckBox hardModeCheckBox;
+    private JCheckBox practiceModeCheckBox;
     // Labels for the checkboxes.
     private final JLabel verifySign = new JLabel("Verify");
     private final JLabel displaySign = new JLabel("Display");
     private final JLabel randomSign = new JLabel("Random");
+    private final JLabel hardSign = new JLabel("Hard");
+    // The game started with the view, kept by the first settings dialog: its settings do not change the target
+    private boolean gamePrepared;
+    private LongConsumer onReady;
+    // Set while a redo replays guesses: redoing into a finished game does not announce it again
+    private boolean redoing;
 
     /**
      * Constructor for View.NumberleView. Initializes the view by setting up the model and controller,
@@ -59,7 +80,9 @@ public class NumberleView implements Observer {
     public NumberleView(INumberleModel model, NumberleController controller) {
         this.controller = controller;
         this.model = model;
+        this.frame = new JFrame("Numberle");
         this.controller.startNewGame();
+        this.gamePrepared = true;
         ((NumberleModel)this.model).addObserver(this);
         this.controller.setView(this);
         initializeFrame();
@@ -67,6 +90,80 @@ public class NumberleView implements Observer {
         showGameSettingsDialog();
     }
 
+    /**
+     * Constructor for a view whose slow parts were prepared off the Event Dispatch Thread: the game is
+     * already started (corpus loaded, target drawn) and the logo already decoded. The view fills the
+     * skeleton frame that was shown while they were prepared. The settings dialog keeps the prepared
+     * game, so its target is not drawn again.
+     *
+     * @param model      The model component of the MVC pattern, with a game already started.
+     * @param controller The controller component of the MVC pattern.
+     * @param skeleton   The frame from createSkeletonFrame, already visible.
+     * @param logo       The logo from loadLogo, or null to decode it here.
+     * @param onReady    Run once the first game can be played, after the settings dialog's Start, with
+     *                   the System.nanoTime() Start was pressed at; may be null.
+     */
+    public NumberleView(INumberleModel model, NumberleController controller, JFrame skeleton, BufferedImage logo, LongConsumer onReady) {
+        assert skeleton != null : "Skeleton frame must not be null.";
+        this.controller = controller;
+        this.model = model;
+        this.frame = skeleton;
+        this.logo = logo;
+        this.gamePrepared = true;
+        this.onReady = onReady;
+        ((NumberleModel)this.model).addObserver(this);
+        this.controller.setView(this);
+        clearGameView();
+        initializeFrame();
+        update((NumberleModel)this.model, null);
+        showGameSettingsDialog();
+    }
+
+    /**
+     * Creates and shows the empty game window, so that something is on screen while the game loads.
+     * Precondition: Called on the Event Dispatch Thread.
+     * Postcondition: A visible frame of the game window's size shows a loading message.
+     *
+     * @return The skeleton frame, to be passed to the view.
+     */
+    public static JFrame createSkeletonFrame() {
+        JFrame skeleton = new JFrame("Numberle");
+        skeleton.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        skeleton.setSize(600, 775);
+        skeleton.setResizable(false);
+        JLabel loading = new JLabel("Loading...", SwingConstants.CENTER);
+        loading.setFont(new Font("Montserrat", Font.BOLD, 28));
+        skeleton.add(loading);
+        skeleton.setVisible(true);
+        return skeleton;
+    }
+
+    /**
+     * Decodes and scales the header logo. It does not touch Swing components and may run on any thread.
+     *
+     * @return The scaled logo.
+     * @throws UncheckedIOException If logo.png cannot be read.
+     */
+    public static BufferedImage loadLogo() {
+        BufferedImage originalImage;
+        try {
+            // Load and scale the game logo.
+            originalImage = ImageIO.read(new File("logo.png"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        assert originalImage != null : "Original image must not be null.";
+        double scale = 0.15;
+        int width = (int)(originalImage.getWidth() * scale);
+        int height = (int)(originalImage.getHeight() * scale);
+        Image resizedImage = originalImage.getScaledInstance(width, height, Image.SCALE_SMOOTH);
+        BufferedImage bufferedResizedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = bufferedResizedImage.createGraphics();
+        g2d.drawImage(resizedImage, 0, 0, null);
+        g2d.dispose();
+        return bufferedResizedImage;
+    }
+
     /**
      * Initializes the main frame of the application, setting up the layout, panels, and components.
      * Precondition: None
@@ -95,29 +192,17 @@ public class NumberleView implements Observer {
         JPanel head = new JPanel();
         head.setLayout(new BoxLayout(head, BoxLayout.X_AXIS));
         JLabel  headText = new JLabel ();
-        BufferedImage originalImage;
-        try {
-            // Load and scale the game logo.
-            originalImage = ImageIO.read(new File("logo.png"));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        double scale = 0.15;
-        Image resizedImage = originalImage.getScaledInstance((int)(originalImage.getWidth() * scale), (int)(originalImage.getHeight() * scale), Image.SCALE_SMOOTH);
-        BufferedImage bufferedResizedImage = new BufferedImage((int)(originalImage.getWidth() * scale), (int)(originalImage.getHeight() * scale), BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = bufferedResizedImage.createGraphics();
-        g2d.drawImage(resizedImage, 0, 0, null);
-        g2d.dispose();
+        // The logo is decoded on the first game only
+        if (logo == null)
+            logo = loadLogo();
+        BufferedImage bufferedResizedImage = logo;
 
         // Assert that the frame and its components are properly initialized.
         assert frame != null : "Frame must not be null.";
         assert center != null : "Center panel must not be null.";
         assert head != null : "Head panel must not be null.";
         assert headText != null : "Head text label must not be null.";
-        assert originalImage != null : "Original image must not be null.";
-        assert resizedImage != null : "Resized image must not be null.";
         assert bufferedResizedImage != null : "Buffered resized image must not be null.";
-        assert g2d != null : "Graphics2D object must not be null.";
 
         //Sets the icon for the header text label and defines its border.
         headText.setIcon(new ImageIcon(bufferedResizedImage));
@@ -134,6 +219,9 @@ public class NumberleView implements Observer {
         randomSign.setFont(new Font("Montserrat", Font.BOLD, 18)); // Set the text size to 18 point font
         randomSign.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
 
+        hardSign.setFont(new Font("Montserrat", Font.BOLD, 18)); // Set the text size to 18 point font
+        hardSign.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+
         // Calls a method to update the flags based on the current game settings.
         updateFlags();
 
@@ -141,6 +229,7 @@ public class NumberleView implements Observer {
         head.add(verifySign);
         head.add(displaySign);
         head.add(randomSign);
+        head.add(hardSign);
         frame.add(head, BorderLayout.NORTH);
 
         // Initializes the guess panel which displays the history of user inputs.
@@ -197,12 +286,35 @@ public class NumberleView implements Observer {
         newGameButton.setEnabled(false); // 初始状态为禁用
         newGameButton.setFont(new Font("Montserrat", Font.PLAIN, 20)); // Set the text size to 20 point font
         newGameButton.addActionListener(e -> showGameSettingsDialog());
-        inputPanel.add(newGameButton);
-        // Assert that newGameButton is added to the inputPanel.
-        assert inputPanel.getComponent(inputPanel.getComponentCount() - 1).equals(newGameButton) : "newGameButton must be added to the inputPanel.";
+        // Initialize hintButton, which shares the row with newGameButton.
+        hintButton = new RoundedButton("Hint");
+        hintButton.setFont(new Font("Montserrat", Font.PLAIN, 20));
+        hintButton.addActionListener(e -> showHint());
+        // Undo and redo step through the guesses of the current game.
+        undoButton = new RoundedButton("Undo");
+        undoButton.setFont(new Font("Montserrat", Font.PLAIN, 20));
+        undoButton.addActionListener(e -> controller.undo());
+        redoButton = new RoundedButton("Redo");
+        redoButton.setFont(new Font("Montserrat", Font.PLAIN, 20));
+        redoButton.addActionListener(e -> {
+            redoing = true;
+            try {
+                controller.redo();
+            } finally {
+                redoing = false;
+            }
+        });
+        JPanel buttonRow = new JPanel(new GridLayout(1, 4, 10, 0));
+        buttonRow.add(newGameButton);
+        buttonRow.add(hintButton);
+        buttonRow.add(undoButton);
+        buttonRow.add(redoButton);
+        inputPanel.add(buttonRow);
+        // Assert that the button row is added to the inputPanel.
+        assert inputPanel.getComponent(inputPanel.getComponentCount() - 1).equals(buttonRow) : "The button row must be added to the inputPanel.";
 
         // Set the text for targetLabel and add it to the inputPanel.
-        targetLabel.setText("The target is " + controller.getTargetWord().replaceAll("/","÷").replaceAll("\\*","×"));
+        targetLabel.setText("The target is " + EquationCodec.toDisplay(controller.getTargetWord()));
         targetLabel.setFont(new Font("Montserrat", Font.BOLD, 18)); // Set the text size to 20 point font
 
         inputPanel.add(targetLabel);
@@ -353,31 +465,31 @@ public class NumberleView implements Observer {
         assert attemptsLabel != null : "Attempts label must not be null.";
         assert attemptsLabel.getText().contains(String.valueOf(controller.getRemainingAttempts())) : "Attempts label text must be updated with remaining attempts.";
 
-        // Update the target label with the target word from the controller, formatting division and multiplication symbols for display.
-        targetLabel.setText("The target is " + controller.getTargetWord().replaceAll("/","÷").replaceAll("\\*","×"));
+        // Update the target label with the target word from the controller, using the display glyphs for division and multiplication.
+        targetLabel.setText("The target is " + EquationCodec.toDisplay(controller.getTargetWord()));
         // Assert that the targetLabel is not null and has been updated.
         assert targetLabel != null : "Target label must not be null.";
-        assert targetLabel.getText().contains(controller.getTargetWord().replaceAll("/","÷").replaceAll("\\*","×")) : "Target label text must be updated with the target word.";
+        assert targetLabel.getText().contains(EquationCodec.toDisplay(controller.getTargetWord())) : "Target label text must be updated with the target word.";
 
-        // Retrieve the list of guesses and comparison results from the controller.
-        ArrayList<String> guessList = controller.getGuessList(); // List of guesses made by the user.
-        ArrayList<int[]> compareList = controller.getCompareList(); // List of comparison results for each guess.
-        // Assert that the guessList and compareList are not null and are synchronized in size.
-        assert guessList != null : "Guess list must not be null.";
-        assert compareList != null : "Compare list must not be null.";
-        assert guessList.size() == compareList.size() : "Guess list and compare list must be of the same size.";
+        // Read the guesses and comparison results from one immutable snapshot, so they are consistent.
+        GameSnapshot snapshot = controller.getSnapshot();
+        // Assert that the snapshot is available.
+        assert snapshot != null : "Snapshot must not be null.";
 
         // Update the state of the new game button.
-        newGameButton.setEnabled((!controller.getGuessList().isEmpty()));
+        newGameButton.setEnabled(snapshot.getGuessCount() > 0);
+        hintButton.setEnabled(!snapshot.isGameOver());
+        undoButton.setEnabled(controller.canUndo());
+        redoButton.setEnabled(controller.canRedo());
 
         // Update the flags for verifying, displaying, and randomizing equations.
         updateFlags();
 
         // Update the guess panel with the guesses and comparison results.
-        for (int i = 0; i < guessList.size(); i++) {
-            String guess = guessList.get(i);
-            int[] compare = compareList.get(i);
-            for (int j = 0; j < compare.length; j++) {
+        for (int i = 0; i < snapshot.getGuessCount(); i++) {
+            // The model keeps guesses in canonical form; the display glyphs are applied here
+            String guess = EquationCodec.toDisplay(snapshot.getGuess(i));
+            for (int j = 0; j < snapshot.getCompareLength(i); j++) {
                 JLabel label = (JLabel) guessPanel.getComponent(i * 7 + j);
                 // Assert that each label is not null.
                 assert label != null : "Label at index " + (i * 7 + j) + " must not be null.";
@@ -387,7 +499,7 @@ public class NumberleView implements Observer {
                     // Assert that the label text is set correctly.
                     assert label.getText().equals(String.valueOf(guess.charAt(j))) : "Label text must be set to the character at index " + j + " of the guess.";
                     // Change the background color of the label based on the comparison result.
-                    switch (compare[j]) {
+                    switch (snapshot.getCompare(i, j)) {
                         case 0 -> label.setBackground(new Color(164, 174, 196));
                         case 1 -> label.setBackground(new Color(47, 193, 165));
                         case 2 -> label.setBackground(new Color(247, 154, 111));
@@ -404,10 +516,16 @@ public class NumberleView implements Observer {
                 }
             }
         }
-        updateButtonColors();
+        // Rows after the last guess are blank again once their guesses are undone.
+        for (int i = snapshot.getGuessCount() * 7; i < guessPanel.getComponentCount(); i++) {
+            JLabel label = (JLabel) guessPanel.getComponent(i);
+            label.setText("");
+            label.setBackground(new Color(251,252,255));
+        }
+        updateButtonColors(snapshot);
 
-        // Check if the game is over
-        if (controller.isGameOver()) {
+        // Check if the game is over; a practice game redone to its end was already announced
+        if (snapshot.isGameOver() && !redoing) {
             showGameOverDialog();
         }
     }
@@ -448,23 +566,30 @@ public class NumberleView implements Observer {
             randomSign.setForeground(Color.BLACK);
         // Assert that randomSign is not null.
         assert randomSign != null : "Random sign must not be null.";
+
+        // Update the hardSign color based on the controller's state.
+        if (controller.getHardMode())
+            hardSign.setForeground(new Color(47,193,165));
+        else
+            hardSign.setForeground(Color.BLACK);
     }
 
     /**
      * Updates the colors of the buttons based on the classification of characters in guesses.
      * Precondition: The model must provide valid classification lists.
      * Postcondition: The buttons' colors are updated to reflect the classification of characters.
+     *
+     * @param snapshot The game state to show.
      */
-    private void updateButtonColors() {
+    private void updateButtonColors(GameSnapshot snapshot) {
         // Assert that model and buttonMap are not null.
         assert model != null : "Model must not be null.";
         assert buttonMap != null : "Button map must not be null.";
 
-        // Classification lists used for tracking character matches.
-        ArrayList<Character>[] classList = controller.getClassList();
-        // Assert that classList is not null and has the expected number of lists.
-        assert classList != null : "Class list must not be null.";
-        assert classList.length == 4 : "Class list must contain four lists for character classification.";
+        // Classification groups used for tracking character matches.
+        String[] classList = new String[4];
+        for (int i = 0; i < classList.length; i++)
+            classList[i] = snapshot.getClassGroup(i);
 
         // Reset all button colors.
         buttonMap.values().forEach(button -> {
@@ -473,26 +598,26 @@ public class NumberleView implements Observer {
             button.setPressedBackgroundColor(new Color(150, 150, 150));
         });
         // Set colors for characters not present in the target.
-        for (char c : classList[0]) {
+        for (char c : classList[0].toCharArray()) {
             buttonMap.get(c).setBackground(new Color(164,174,196));
             buttonMap.get(c).setHoverBackgroundColor(new Color(144, 154, 176));
             buttonMap.get(c).setPressedBackgroundColor(new Color(124, 134, 156));
         }
         // Set colors for characters present but in the wrong position.
-        for (char c : classList[2]) {
+        for (char c : classList[2].toCharArray()) {
             buttonMap.get(c).setBackground(new Color(247,154,111));
             buttonMap.get(c).setHoverBackgroundColor(new Color(227, 134, 81));
             buttonMap.get(c).setPressedBackgroundColor(new Color(207, 114, 61));
         }
         // Set colors for correctly positioned characters.
-        for (char c : classList[1]) {
+        for (char c : classList[1].toCharArray()) {
             buttonMap.get(c).setBackground(new Color(47,193,165));
             buttonMap.get(c).setHoverBackgroundColor(new Color(67, 213, 185));
             buttonMap.get(c).setPressedBackgroundColor(new Color(27, 173, 145));
         }
         // Assert that each character in classList has a corresponding button in buttonMap.
-        for (ArrayList<Character> classGroup : classList) {
-            for (char c : classGroup) {
+        for (String classGroup : classList) {
+            for (char c : classGroup.toCharArray()) {
                 assert buttonMap.containsKey(c) : "Button map must contain a button for character: " + c;
             }
         }
@@ -511,23 +636,37 @@ public class NumberleView implements Observer {
         verifyEquationCheckBox = new JCheckBox("Verify Equation", controller.getVerifyEquation());
         displayEquationCheckBox = new JCheckBox("Display Equation", controller.getDisplayEquation());
         randomEqualityCheckBox = new JCheckBox("Random Equality", controller.getRandomEquality());
+        hardModeCheckBox = new JCheckBox("Hard Mode", controller.getHardMode());
+        // Undo and redo are only enabled in practice games
+        practiceModeCheckBox = new JCheckBox("Practice Mode", controller.getPracticeMode());
 
         // Create and configure the start game button.
         RoundedButton startButton = new RoundedButton("Start Game");
         startButton.addActionListener(e -> {
+            long pressed = System.nanoTime();
             // Update model flags based on checkbox selections.
             controller.setVerifyEquation(verifyEquationCheckBox.isSelected());
             controller.setDisplayEquation(displayEquationCheckBox.isSelected());
             controller.setRandomEquality(randomEqualityCheckBox.isSelected());
+            controller.setHardMode(hardModeCheckBox.isSelected());
+            controller.setPracticeMode(practiceModeCheckBox.isSelected());
             // Dispose of the dialog and start a new game.
             Window dialog = SwingUtilities.getWindowAncestor(startButton);
             if (dialog != null) {
                 dialog.dispose();
             }
-            controller.startNewGame();
-            clearGameView();
-            initializeFrame();
+            // The prepared target was drawn from the corpus as a new game under any of these settings
+            // would draw it, so an untouched prepared game is played as it is; the view already shows it
+            if (!gamePrepared || !controller.getGuessList().isEmpty()) {
+                controller.startNewGame();
+                clearGameView();
+                initializeFrame();
+            }
             updateFlags();
+            if (onReady != null) {
+                onReady.accept(pressed);
+                onReady = null;
+            }
         });
 
         // Create and configure the quit button.
@@ -537,27 +676,37 @@ public class NumberleView implements Observer {
         // Display the dialog with the game settings options.
         Object[] options = {startButton, exitButton};
         JOptionPane.showOptionDialog(frame,
-                new Object[]{verifyEquationCheckBox, displayEquationCheckBox, randomEqualityCheckBox},
+                new Object[]{verifyEquationCheckBox, displayEquationCheckBox, randomEqualityCheckBox, hardModeCheckBox, practiceModeCheckBox},
                 "Starting Settings",
                 JOptionPane.YES_NO_OPTION,
                 JOptionPane.PLAIN_MESSAGE,
                 null,
                 options,
                 options[0]);
+        // Only the first dialog finds the game untouched
+        gamePrepared = false;
     }
 
     /**
      * Displays a dialog indicating the end of the game with a message based on the outcome.
      * Precondition: The controller must provide the game outcome and target word if the game is lost.
-     * Postcondition: The dialog is displayed with the game outcome message and options to start a new game or quit.
+     * Postcondition: The dialog is displayed with the game outcome message and options to start a new game or quit,
+     * and in practice mode to undo the last guess.
      */
     private void showGameOverDialog() {
         // Assert that the controller is not null.
         assert controller != null : "Controller must not be null.";
 
         // Determine the message and title based on the game outcome.
-        String message = controller.isGameWon() ? "<html>Congratulations!<br>Equation correct. You win.</html>" : "<html>Run out of opportunity.<br>Target is " + controller.getTargetWord().replaceAll("/","÷").replaceAll("\\*","×") + ". You lose. </html>";
+        String message = controller.isGameWon() ? "<html>Congratulations!<br>Equation correct. You win.</html>" : "<html>Run out of opportunity.<br>Target is " + EquationCodec.toDisplay(controller.getTargetWord()) + ". You lose. </html>";
         String title = controller.isGameWon() ? "WIN" : "LOSE";
+        StreakSession streak = controller.getStreakSession();
+        if (streak != null) {
+            // The session counts the game before observers are notified; this only makes sure of it
+            streak.countFinishedGame();
+            message = message.replace("</html>", "<br>Streak " + streak.getCurrentStreak() + " (best " + streak.getBestStreak()
+                    + "), won " + streak.getGamesWon() + " of " + streak.getGamesPlayed() + ".</html>");
+        }
 
         // Create and configure the message label.
         JLabel messageLabel = new JLabel(message);
@@ -574,6 +723,8 @@ public class NumberleView implements Observer {
             controller.setVerifyEquation(verifyEquationCheckBox.isSelected());
             controller.setDisplayEquation(displayEquationCheckBox.isSelected());
             controller.setRandomEquality(randomEqualityCheckBox.isSelected());
+            controller.setHardMode(hardModeCheckBox.isSelected());
+            controller.setPracticeMode(practiceModeCheckBox.isSelected());
             // Dispose of the dialog and start a new game.
             Window dialog = SwingUtilities.getWindowAncestor(startButton);
             if (dialog != null) {
@@ -590,7 +741,19 @@ public class NumberleView implements Observer {
 
         // Display the dialog with the game outcome message and options.
         Object[] options = {startButton, exitButton};
-        Object[] dialogContent = {messageLabel, verifyEquationCheckBox, displayEquationCheckBox, randomEqualityCheckBox};
+        if (controller.canUndo()) {
+            // A practice game can go back before its last guess and explore another
+            RoundedButton undoChoice = new RoundedButton("Undo");
+            undoChoice.addActionListener(e -> {
+                Window dialog = SwingUtilities.getWindowAncestor(undoChoice);
+                if (dialog != null) {
+                    dialog.dispose();
+                }
+                controller.undo();
+            });
+            options = new Object[]{startButton, undoChoice, exitButton};
+        }
+        Object[] dialogContent = {messageLabel, verifyEquationCheckBox, displayEquationCheckBox, randomEqualityCheckBox, hardModeCheckBox, practiceModeCheckBox};
         JOptionPane optionPane = new JOptionPane(
                 dialogContent,
                 JOptionPane.PLAIN_MESSAGE,
@@ -616,13 +779,14 @@ public class NumberleView implements Observer {
      */
     public void showInvalidInputMessage(int statusCode) {
         // Assert that the statusCode is within the expected range.
-        assert statusCode > 0 && statusCode <= 4 : "Status code must be between 1 and 4.";
+        assert statusCode > 0 && statusCode <= 5 : "Status code must be between 1 and 5.";
 
         // Determine the message based on the status code.
         String message = switch (statusCode) {
             case 2 -> "The length of the equation is not 7.";
             case 3 -> "The input string does not follow the form of an ordinary equation.";
             case 4 -> "The two sides of the equation don't agree. The equation doesn't hold.";
+            case 5 -> "Hard mode: keep every green symbol in place and use every orange symbol.";
             default -> "The input is valid.";
         };
 
@@ -632,6 +796,21 @@ public class NumberleView implements Observer {
         assert message != null && !message.isEmpty() : "Message must not be null or empty.";
     }
 
+    /**
+     * Shows the suggested next guess for the current game.
+     * Precondition: The controller has been set.
+     * Postcondition: A message dialog is displayed with the hint; the game state is unchanged.
+     */
+    private void showHint() {
+        assert controller != null : "Controller must not be null.";
+        HintEngine.Hint hint = controller.getHint();
+        String message = hint == null
+                ? "No equation fits the feedback so far."
+                : "Try " + EquationCodec.toDisplay(hint.guess()) + " (" + hint.remaining()
+                        + (hint.remaining() == 1 ? " equation remains)." : " equations remain).");
+        JOptionPane.showMessageDialog(frame, message, "Hint", JOptionPane.INFORMATION_MESSAGE);
+    }
+
     /**
      * Clears the game view by removing all components from the frame.
      * Precondition: None
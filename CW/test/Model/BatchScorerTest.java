@@ -0,0 +1,60 @@
+package Model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for BatchScorerTest class.
+ * @invariant Batch scoring gives the same feedback codes as EquationScorer.
+ */
+public class BatchScorerTest {
+
+    /**
+     * Tests batch scoring against the scalar scorer on random packed values, including repeated symbols.
+     * @ensures codes[i] == EquationScorer.feedbackCode(targets[i], guess) for every i
+     */
+    @Test
+    public void testMatchesScalarScoring() {
+        Random random = new Random(3);
+        int[] targets = new int[4096];
+        for (int i = 0; i < targets.length; i++)
+            targets[i] = randomPacked(random);
+        int[] sets = BatchScorer.symbolSets(targets, targets.length);
+        int[] codes = new int[targets.length];
+        for (int g = 0; g < 200; g++) {
+            int guess = randomPacked(random);
+            BatchScorer scorer = new BatchScorer(guess);
+            scorer.scoreAll(targets, sets, 0, targets.length, codes);
+            for (int i = 0; i < targets.length; i++)
+                assertEquals("Batch and scalar scoring should agree", EquationScorer.feedbackCode(targets[i], guess), codes[i]);
+        }
+    }
+
+    /**
+     * Tests the partition counts and the code of a correct guess.
+     * @ensures the counts add up to the number of targets
+     */
+    @Test
+    public void testPartition() {
+        int guess = EquationCodec.encode("2*3-6=0");
+        int[] targets = {guess, EquationCodec.encode("5+15=20"), EquationCodec.encode("12+3=15"), guess};
+        int[] counts = new int[EquationScorer.FEEDBACK_CODES];
+        new BatchScorer(guess).partition(targets, BatchScorer.symbolSets(targets, targets.length), 0, targets.length, counts);
+        assertEquals("Both copies of the guess should give the winning code", 2, counts[EquationScorer.WIN_CODE]);
+        int total = 0;
+        for (int count : counts)
+            total += count;
+        assertEquals("Every target should fall in one partition", targets.length, total);
+    }
+
+    private static int randomPacked(Random random) {
+        int packed = 0;
+        // A small alphabet makes repeated symbols and misplaced matches common
+        for (int i = 0; i < EquationScorer.EQUATION_LENGTH; i++)
+            packed |= random.nextInt(random.nextBoolean() ? 4 : EquationCodec.SYMBOL_COUNT) << (4 * i);
+        return packed;
+    }
+}
@@ -0,0 +1,83 @@
+package Model;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for EquationCodecTest class.
+ * @invariant The packed representation agrees with the text representation for every rule.
+ */
+public class EquationCodecTest {
+
+    /**
+     * Tests that equations survive a round trip and that display glyphs pack like their canonical form.
+     * @ensures decode(encode(e)).equals(e) for canonical e
+     */
+    @Test
+    public void testRoundTrip() {
+        int packed = EquationCodec.encode("2*3-6=0");
+        assertTrue("A valid equation should pack to a non-negative int", packed >= 0);
+        assertEquals("Decoding should restore the canonical text", "2*3-6=0", EquationCodec.decode(packed));
+        assertEquals("Display glyphs should pack like canonical operators", packed, EquationCodec.encode("2×3-6=0"));
+        assertEquals("toDisplay should use the display glyphs", "2×3-6=0", EquationCodec.toDisplay(packed));
+        assertEquals("toCanonical should undo toDisplay", "12/4=3", EquationCodec.toCanonical("12÷4=3"));
+    }
+
+    /**
+     * Tests that text which is not a 7-symbol equation cannot be packed.
+     * @ensures encode(e) == INVALID for wrong lengths and unknown symbols
+     */
+    @Test
+    public void testInvalidText() {
+        assertEquals("Short text should not pack", EquationCodec.INVALID, EquationCodec.encode("1+1=2"));
+        assertEquals("Unknown symbols should not pack", EquationCodec.INVALID, EquationCodec.encode("abcdefg"));
+        assertEquals("Missing positions should be EMPTY in a partial encoding",
+                EquationCodec.EMPTY, EquationCodec.symbolAt(EquationCodec.encodePartial("1+1=2"), 6));
+    }
+
+    /**
+     * Tests that packed scoring gives the same feedback as text scoring for random pairs of corpus equations.
+     * @requires equations.txt is readable
+     */
+    @Test
+    public void testPackedScoringMatchesText() throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get("equations.txt"));
+        Random random = new Random(7);
+        for (int k = 0; k < 10000; k++) {
+            String target = lines.get(random.nextInt(lines.size()));
+            String guess = lines.get(random.nextInt(lines.size()));
+            assertEquals("Packed and text scoring should agree for " + guess + " against " + target,
+                    EquationScorer.feedbackCode(target, guess),
+                    EquationScorer.feedbackCode(EquationCodec.encode(target), EquationCodec.encode(guess)));
+        }
+    }
+
+    /**
+     * Tests that the packed validator agrees with the reference pattern on random symbol strings.
+     * @ensures check(encode(e)) == status of the text rules for e
+     */
+    @Test
+    public void testPackedValidationMatchesText() {
+        Random random = new Random(11);
+        for (int k = 0; k < 200000; k++) {
+            char[] chars = new char[7];
+            for (int i = 0; i < chars.length; i++)
+                chars[i] = EquationCodec.charOf(random.nextInt(EquationCodec.SYMBOL_COUNT));
+            chars[random.nextInt(chars.length)] = '=';
+            String equation = new String(chars);
+            int expected = !EquationValidator.isWellFormed(equation) ? EquationValidator.INVALID_FORMAT
+                    : EquationValidator.holds(equation) ? EquationValidator.VALID : EquationValidator.INVALID_EQUATION;
+            assertEquals("Packed validation should agree for " + equation, expected, EquationValidator.check(EquationCodec.encode(equation)));
+        }
+        assertEquals("A repeated plain number is not an equation", EquationValidator.INVALID_FORMAT, EquationValidator.check("123=123"));
+        assertEquals("A signed number in an expression does not hold", EquationValidator.INVALID_EQUATION, EquationValidator.check("1+-2=-1"));
+        assertEquals("Division by zero does not hold", EquationValidator.INVALID_EQUATION, EquationValidator.check("5/0=0+0"));
+    }
+}
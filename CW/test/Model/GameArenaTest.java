@@ -0,0 +1,77 @@
+package Model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for GameArenaTest class.
+ * @invariant A game in the arena follows the same rules as a PackedGame.
+ */
+public class GameArenaTest {
+
+    /**
+     * Plays interleaved random games on an arena and on PackedGames, freeing and reallocating records.
+     * @ensures statuses, feedback, attempts and keyboard groups agree after every guess
+     */
+    @Test
+    public void testMatchesPackedGame() throws Exception {
+        EquationCorpus corpus = EquationCorpus.load(java.nio.file.Paths.get(EquationCorpus.DEFAULT_FILE));
+        Random random = new Random(5);
+        GameArena arena = new GameArena();
+        int[] handles = new int[32];
+        PackedGame[] games = new PackedGame[handles.length];
+        for (int step = 0; step < 4000; step++) {
+            int i = random.nextInt(handles.length);
+            if (games[i] == null || games[i].isGameOver()) {
+                if (games[i] != null)
+                    arena.free(handles[i]);
+                boolean verify = random.nextBoolean();
+                boolean hardMode = random.nextBoolean();
+                int target = corpus.pick(random);
+                games[i] = new PackedGame(target, verify, hardMode);
+                handles[i] = arena.allocate(target, verify, hardMode);
+                continue;
+            }
+            int guess = random.nextInt(5) == 0 ? EquationCodec.encode("1+1=3+0") : corpus.pick(random);
+            assertEquals(games[i].guess(guess), arena.guess(handles[i], guess));
+            assertEquals(games[i].getLastCode(), arena.getLastCode(handles[i]));
+            assertEquals(games[i].getRemainingAttempts(), arena.getRemainingAttempts(handles[i]));
+            assertEquals(games[i].isGameWon(), arena.isGameWon(handles[i]));
+            assertEquals(games[i].isGameOver(), arena.isGameOver(handles[i]));
+            assertEquals(games[i].getCorrectSymbols(), arena.getCorrectSymbols(handles[i]));
+            assertEquals(games[i].getMisplacedSymbols(), arena.getMisplacedSymbols(handles[i]));
+            assertEquals(games[i].getAbsentSymbols(), arena.getAbsentSymbols(handles[i]));
+            assertEquals(games[i].getUnusedSymbols(), arena.getUnusedSymbols(handles[i]));
+        }
+        assertEquals(handles.length, arena.size());
+    }
+
+    /**
+     * Allocates games across several slabs, frees them and allocates again.
+     * @ensures freed records are reused before the arena grows
+     */
+    @Test
+    public void testFreeListReuse() {
+        GameArena arena = new GameArena();
+        int count = 200_000;
+        int[] handles = new int[count];
+        for (int i = 0; i < count; i++)
+            handles[i] = arena.allocate(EquationCodec.encode("1+2=3+0"), false, false);
+        long reserved = arena.getReservedBytes();
+        assertTrue(reserved >= (long) count * GameArena.RECORD_SIZE);
+        for (int i = 0; i < count; i += 2)
+            arena.free(handles[i]);
+        assertEquals(count / 2, arena.size());
+        assertFalse(arena.isLive(handles[0]));
+        assertTrue(arena.isLive(handles[1]));
+        for (int i = 0; i < count / 2; i++)
+            assertTrue(arena.isLive(arena.allocate(EquationCodec.encode("4-1=3+0"), false, false)));
+        assertEquals(count, arena.size());
+        assertEquals("Freed records are reused before new slabs", reserved, arena.getReservedBytes());
+        assertEquals(EquationCodec.encode("4-1=3+0"), arena.getTarget(handles[0]));
+        assertEquals(EquationCodec.encode("1+2=3+0"), arena.getTarget(handles[1]));
+    }
+}
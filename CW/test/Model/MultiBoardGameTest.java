@@ -0,0 +1,69 @@
+package Model;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for MultiBoardGameTest class.
+ * This class tests the multi-board game against single-board scoring.
+ */
+public class MultiBoardGameTest {
+
+    /**
+     * Tests that every board gets the feedback a single game would give, and stops once solved.
+     * @ensures getCode(i, b) == EquationScorer.feedbackCode(getTarget(b), getGuess(i)) until board b is solved
+     */
+    @Test
+    public void testBoardsScoredIndependently() {
+        int[] targets = {EquationCodec.encode("12+3=15"), EquationCodec.encode("2*3-6=0"),
+                EquationCodec.encode("1+2+3=6"), EquationCodec.encode("9-8+1=2")};
+        MultiBoardGame game = new MultiBoardGame(targets, true);
+        assertEquals(9, game.getMaxAttempts());
+
+        assertEquals(2, game.guess("1+2=3"));
+        assertEquals(3, game.guess("abcdefg"));
+        assertEquals(4, game.guess("1+2+3=7"));
+        assertEquals(1, game.guess("1+2+3=6"));
+        assertTrue(game.isSolved(2));
+        assertEquals(0, game.getSolvedAt(2));
+        assertEquals(1, game.guess("12+3=15"));
+        assertEquals(MultiBoardGame.SOLVED, game.getCode(1, 2));
+        assertEquals(2, game.getSolvedCount());
+
+        for (int i = 0; i < game.getGuessCount(); i++)
+            for (int b = 0; b < targets.length; b++)
+                if (game.getSolvedAt(b) < 0 || i <= game.getSolvedAt(b))
+                    assertEquals(EquationScorer.feedbackCode(targets[b], game.getGuess(i)), game.getCode(i, b));
+
+        assertEquals(1, game.guess("2*3-6=0"));
+        assertFalse(game.isGameOver());
+        assertEquals(1, game.guess("9-8+1=2"));
+        assertTrue(game.isGameWon());
+        assertEquals(MultiBoardGame.GAME_OVER, game.guess("12+3=15"));
+    }
+
+    /**
+     * Tests that a game runs out after the number of boards plus five guesses.
+     * @ensures isGameOver() && !isGameWon() after getMaxAttempts() missed guesses
+     */
+    @Test
+    public void testRunsOutOfAttempts() {
+        EquationCorpus corpus = EquationCorpus.fromLines(List.of(
+                "12+3=15", "2*3-6=0", "1+2+3=6", "9-8+1=2", "4+4-1=7", "3+2*1=5", "8-1-2=5", "6/2+1=4"));
+        MultiBoardGame game = MultiBoardGame.random(corpus, 8, false, new Random(1));
+        for (int b = 1; b < 8; b++)
+            assertNotEquals("Targets are distinct", game.getTarget(0), game.getTarget(b));
+        int missed = 0;
+        while (!game.isGameOver()) {
+            assertEquals(1, game.guess("0+0+0=0"));
+            missed++;
+        }
+        assertEquals(13, missed);
+        assertEquals(0, game.getRemainingAttempts());
+        assertFalse(game.isGameWon());
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -185,6 +186,33 @@ public class NumberleModelTest {
         assertEquals("Invalid input format, should return 3", 3, result);
     }
 
+    /**
+     * Tests hard mode: once hints are revealed, a guess must keep every hit in place and
+     * use every symbol known to be in the target, otherwise it is rejected with code 5.
+     * @requires model != null && model.getTarget().equals("12+3=15") && model.getHardMode()
+     * @ensures model.getCompareList().size() == 2
+     *          // Ensures that only the guesses satisfying the hints are accepted
+     */
+    @Test
+    public void testHardModeConstraints() {
+        model.setTarget("12+3=15");
+        model.setHardMode(true);
+
+        // First guess reveals hits '1', '+', '=', '1' and the present symbols '1' and '5'
+        assertEquals("The first guess has no hints to satisfy", 1, model.processInput("11+5=16"));
+
+        // The hit '1' at the first position is dropped
+        assertEquals("Dropping a hit should return 5", 5, model.processInput("21+5=16"));
+        // The present symbol '5' is not used
+        assertEquals("Ignoring a present symbol should return 5", 5, model.processInput("13+2=14"));
+        assertEquals("Rejected guesses do not grow the list", 1, model.getCompareList().size());
+
+        // Keeps the hits and uses '5'
+        assertEquals("A guess reusing every hint should be accepted", 1, model.processInput("10+5=15"));
+        assertEquals("Accepted guesses grow the list", 2, model.getCompareList().size());
+        assertEquals("Rejected guesses do not cost attempts", NumberleModel.MAX_ATTEMPTS - 2, model.getRemainingAttempts());
+    }
+
     /**
      * Tests the setFlags methods to ensure that the boolean flags are set correctly.
      * @requires model != null
@@ -207,5 +235,137 @@ public class NumberleModelTest {
         assertFalse("randomEquality should be false before setRandomEquality is true", model.getRandomEquality());
         model.setRandomEquality(true);
         assertTrue("randomEquality should be true after setRandomEquality is true", model.getRandomEquality());
+
+        assertFalse("hardMode should be false before setHardMode is true", model.getHardMode());
+        model.setHardMode(true);
+        assertTrue("hardMode should be true after setHardMode is true", model.getHardMode());
+    }
+
+    /**
+     * Tests that published snapshots never change and share their earlier rows.
+     * @ensures a snapshot taken before a guess still shows the state before it
+     */
+    @Test
+    public void testSnapshots() {
+        model.setVerifyEquation(true);
+        model.setTarget("12+3=15");
+        GameSnapshot before = model.getSnapshot();
+        assertEquals("12+3=15", before.getTargetNumber());
+        assertEquals(0, before.getGuessCount());
+
+        model.processInput("11+5=16");
+        GameSnapshot first = model.getSnapshot();
+        model.processInput("1+2+3=6");
+        GameSnapshot second = model.getSnapshot();
+
+        assertEquals(0, before.getGuessCount());
+        assertEquals(1, first.getGuessCount());
+        assertEquals(2, second.getGuessCount());
+        assertEquals(model.getGuessList(), second.getGuesses());
+        assertEquals(4, second.getRemainingAttempts());
+        for (int i = 0; i < 2; i++) {
+            assertEquals(EquationScorer.encodeFeedback(model.getCompareList().get(i)), second.getFeedbackCode(i));
+            for (int j = 0; j < second.getCompareLength(i); j++)
+                assertEquals(model.getCompareList().get(i)[j], second.getCompare(i, j));
+        }
+        assertEquals(first.getGuess(0), second.getGuess(0));
+        for (int group = 0; group < 4; group++) {
+            StringBuilder expected = new StringBuilder();
+            for (Object c : model.getClassList()[group])
+                expected.append(c);
+            assertEquals(expected.toString(), second.getClassGroup(group));
+        }
+        assertNotEquals("Older snapshots keep their keyboard state", first.getClassGroup(3), second.getClassGroup(3));
+    }
+
+    /**
+     * Tests that Absurdle mode defers the target while keeping every answer consistent with it.
+     * @ensures the revealed target reproduces the feedback of every guess, and the opener is not a win
+     */
+    @Test
+    public void testAbsurdleMode() {
+        model.setVerifyEquation(true);
+        model.setAbsurdleMode(true);
+        assertTrue(model.getAbsurdleMode());
+        model.startNewGame();
+
+        String[] guesses = {"3+2*1=5", "1+2+3=6", "12+3=15", "9-8+1=2", "2*3-6=0", "4+4-1=7"};
+        assertEquals(1, model.processInput(guesses[0]));
+        assertNotEquals("The opener cannot win while other equations remain",
+                EquationScorer.WIN_CODE, model.getSnapshot().getFeedbackCode(0));
+        for (int i = 1; i < guesses.length && !model.isGameOver(); i++)
+            assertEquals("Absurdle mode keeps the status codes", 1, model.processInput(guesses[i]));
+        assertEquals(3, model.processInput("abcdefg"));
+
+        GameSnapshot end = model.getSnapshot();
+        for (int i = 0; i < end.getGuessCount(); i++)
+            assertEquals("Every answer must fit the final target",
+                    EquationScorer.feedbackCode(end.getTargetNumber(), end.getGuess(i)), end.getFeedbackCode(i));
+    }
+
+    /**
+     * Tests that guesses cannot be taken back outside practice mode, even after a loss.
+     * @ensures undo(), redo() and restore() change nothing unless getPracticeMode()
+     */
+    @Test
+    public void testUndoNeedsPracticeMode() {
+        model.setTarget("12+3=15");
+        model.processInput("11+5=16");
+        GameSnapshot first = model.getSnapshot();
+        while (!model.isGameOver())
+            model.processInput("11+5=16");
+        assertFalse(model.canUndo());
+        assertFalse(model.undo());
+        assertFalse(model.restore(first));
+        assertTrue(model.isGameOver());
+        assertEquals(0, model.getRemainingAttempts());
+
+        model.setPracticeMode(true);
+        assertTrue("A practice game can be taken back after it is over", model.undo());
+        assertEquals(1, model.getRemainingAttempts());
+    }
+
+    /**
+     * Tests that undo and redo walk the persistent states and restore the keyboard exactly.
+     * @ensures undo() returns to the previous snapshot and redo() returns to the undone one
+     */
+    @Test
+    public void testUndoRedo() {
+        model.setTarget("12+3=15");
+        model.setHardMode(true);
+        model.setPracticeMode(true);
+        assertFalse(model.canUndo());
+        model.processInput("11+5=16");
+        GameSnapshot first = model.getSnapshot();
+        String[] keyboard = new String[4];
+        for (int group = 0; group < 4; group++)
+            keyboard[group] = model.getClassList()[group].toString();
+        model.processInput("15+0=15");
+        GameSnapshot second = model.getSnapshot();
+
+        assertTrue(model.undo());
+        assertSame(first, model.getSnapshot());
+        assertEquals(1, model.getGuessList().size());
+        assertEquals(1, model.getCompareList().size());
+        assertEquals(5, model.getRemainingAttempts());
+        for (int group = 0; group < 4; group++)
+            assertEquals(keyboard[group], model.getClassList()[group].toString());
+        assertEquals("Hard mode hints are restored", 5, model.processInput("10+2=12"));
+
+        assertTrue(model.redo());
+        assertSame(second, model.getSnapshot());
+        assertFalse(model.canRedo());
+
+        // A new guess after an undo is a branch; the old line can still be travelled to
+        model.undo();
+        model.processInput("14+1=15");
+        assertFalse(model.canRedo());
+        assertNotSame(second, model.getSnapshot());
+        assertSame(first, model.getSnapshot().getPrevious());
+        assertTrue(model.restore(second));
+        assertEquals(List.of("11+5=16", "15+0=15"), model.getGuessList());
+
+        model.startNewGame();
+        assertFalse("States of another game cannot be restored", model.restore(second));
     }
-}
\ No newline at end of file
+}
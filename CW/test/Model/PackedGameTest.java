@@ -0,0 +1,56 @@
+package Model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for PackedGameTest class.
+ * @invariant A packed game follows the same rules as NumberleModel.
+ */
+public class PackedGameTest {
+
+    /**
+     * Plays the same random games on a NumberleModel and a PackedGame, in both modes.
+     * @ensures statuses, feedback, attempts and keyboard groups agree after every guess
+     */
+    @Test
+    public void testMatchesModel() throws Exception {
+        EquationCorpus corpus = EquationCorpus.load(java.nio.file.Paths.get(EquationCorpus.DEFAULT_FILE));
+        Random random = new Random(11);
+        String[] noise = {"1+1=3+0", "12+3=14", "1*1=1+0", "99-9=90"};
+        for (int g = 0; g < 60; g++) {
+            boolean hardMode = g % 2 == 1;
+            NumberleModel model = new NumberleModel(corpus);
+            model.setConsoleOutput(false);
+            model.setVerifyEquation(true);
+            model.setHardMode(hardMode);
+            model.initialize();
+            PackedGame game = new PackedGame(EquationCodec.encode(model.getTargetNumber()), true, hardMode);
+            while (!game.isGameOver()) {
+                String guess = random.nextInt(4) == 0 ? noise[random.nextInt(noise.length)] : EquationCodec.decode(corpus.pick(random));
+                int status = game.guess(EquationCodec.encode(guess));
+                assertEquals("Statuses should agree for " + guess, model.processInput(guess), status);
+                if (status == 1) {
+                    ArrayList<int[]> compareList = model.getCompareList();
+                    assertEquals(EquationScorer.encodeFeedback(compareList.get(compareList.size() - 1)), game.getLastCode());
+                }
+                assertEquals(model.getRemainingAttempts(), game.getRemainingAttempts());
+                assertEquals(model.isGameOver(), game.isGameOver());
+                assertEquals(model.isGameWon(), game.isGameWon());
+                int[] groups = {game.getAbsentSymbols(), game.getCorrectSymbols(), game.getMisplacedSymbols(), game.getUnusedSymbols()};
+                ArrayList<?>[] classList = model.getClassList();
+                for (int i = 0; i < groups.length; i++) {
+                    int set = 0;
+                    for (Object c : classList[i])
+                        set |= 1 << EquationCodec.symbolOf((Character) c);
+                    assertEquals("Keyboard group " + i + " should agree", set, groups[i]);
+                }
+            }
+            assertEquals(PackedGame.GAME_OVER, game.guess(corpus.get(0)));
+        }
+    }
+}
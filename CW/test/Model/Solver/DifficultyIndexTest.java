@@ -0,0 +1,72 @@
+package Model.Solver;
+
+import Model.Difficulty;
+import Model.EquationCodec;
+import Model.EquationCorpus;
+import Model.NumberleModel;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for DifficultyIndexTest class.
+ * @invariant An index read back from its file matches the one written, and targets are drawn from the selected band only.
+ */
+public class DifficultyIndexTest {
+
+    /**
+     * Tests that an index built over a small corpus survives its file and restricts the targets of a model.
+     * @ensures every entry reads back unchanged, each band holds a third of the corpus, and every drawn target is in the selected band
+     */
+    @Test
+    public void testBandsRoundTripAndDraw() throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(EquationCorpus.DEFAULT_FILE));
+        EquationCorpus corpus = EquationCorpus.fromLines(lines.subList(0, 30));
+        assertEquals(30, corpus.size());
+        ReferenceSolver solver = new ReferenceSolver(corpus);
+        ReferenceSolver.Rating[] ratings = new ReferenceSolver.Rating[corpus.size()];
+        for (int i = 0; i < corpus.size(); i++)
+            ratings[i] = solver.rate(corpus.get(i), 4, i);
+        DifficultyIndex built = DifficultyIndex.build(corpus, ratings);
+
+        Path file = Files.createTempFile("index", ".difficulty");
+        built.write(file);
+        DifficultyIndex index = DifficultyIndex.read(file, corpus);
+        assertNotNull(index);
+        assertEquals(corpus.size(), index.size());
+        int[] perBand = new int[Difficulty.values().length];
+        for (int i = 0; i < index.size(); i++) {
+            assertEquals(built.getExpected(i), index.getExpected(i), 0);
+            assertEquals(built.getWorst(i), index.getWorst(i));
+            assertEquals(built.getDifficulty(i), index.getDifficulty(i));
+            perBand[index.getDifficulty(i).ordinal()]++;
+        }
+        assertArrayEquals(new int[]{0, 10, 10, 10}, perBand);
+        // An index of another corpus is stale
+        assertNull(DifficultyIndex.read(file, EquationCorpus.fromLines(lines.subList(0, 31))));
+
+        NumberleModel model = new NumberleModel(corpus);
+        model.setConsoleOutput(false);
+        model.setRandomEquality(true);
+        model.setDifficultyIndex(index);
+        model.setSeed(7);
+        for (Difficulty difficulty : new Difficulty[]{Difficulty.EASY, Difficulty.MEDIUM, Difficulty.HARD}) {
+            model.setDifficulty(difficulty);
+            for (int game = 0; game < 40; game++) {
+                model.startNewGame();
+                int packed = EquationCodec.encode(model.getTargetNumber());
+                int i = 0;
+                while (corpus.get(i) != packed)
+                    i++;
+                assertEquals(model.getTargetNumber() + " should be a " + difficulty + " target", difficulty, index.getDifficulty(i));
+            }
+        }
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,99 @@
+package Model.Solver;
+
+import Model.EquationCorpus;
+import Model.EquationScorer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for HintEngineTest class.
+ * @invariant Hints are consistent with the history and repeated histories are served from the cache.
+ */
+public class HintEngineTest {
+
+    /**
+     * Tests that following the hints finds every target of the corpus, and that replaying a game hits the cache.
+     * @ensures every game is won within six guesses and the second pass has no misses
+     */
+    @Test
+    public void testHintsSolveCorpus() throws IOException {
+        EquationCorpus corpus = EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE));
+        HintEngine engine = new HintEngine(corpus);
+        for (int pass = 0; pass < 2; pass++) {
+            long misses = engine.getCache().getMissCount();
+            for (int t = 0; t < corpus.size(); t++) {
+                int target = corpus.get(t);
+                int[] guesses = new int[6];
+                int[] codes = new int[6];
+                int count = 0;
+                while (true) {
+                    HintEngine.Hint hint = engine.hint(guesses, codes, count);
+                    assertNotNull("The target should stay consistent with the history", hint);
+                    guesses[count] = hint.guess();
+                    codes[count] = EquationScorer.feedbackCode(target, hint.guess());
+                    count++;
+                    if (hint.guess() == target)
+                        break;
+                    assertTrue("The hints should find the target within six guesses", count < 6);
+                }
+            }
+            if (pass == 1)
+                assertEquals("A replayed history should be answered from the cache", misses, engine.getCache().getMissCount());
+        }
+    }
+
+    /**
+     * Tests that the opening book answers the first two guesses and that the hints still solve the corpus.
+     * @ensures the opener is suggested for an empty history and every game is won within six guesses
+     */
+    @Test
+    public void testOpeningBook() throws IOException {
+        EquationCorpus corpus = EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE));
+        OpeningBook book = OpeningBook.build(corpus);
+        HintEngine engine = new HintEngine(corpus, new HintCache(), book, HintEngine.DEFAULT_GUESS_POOL);
+        assertEquals(book.getOpener(), engine.hint(new int[0], new int[0], 0).guess());
+        assertEquals(corpus.size(), engine.hint(new int[0], new int[0], 0).remaining());
+        int code = EquationScorer.feedbackCode(corpus.get(0), book.getOpener());
+        assertNotNull(engine.hint(new int[]{book.getOpener()}, new int[]{code}, 1));
+        assertEquals("The first two guesses should not reach the cache", 0, engine.getCache().getMissCount());
+        for (int t = 0; t < corpus.size(); t++) {
+            int target = corpus.get(t);
+            int[] guesses = new int[6];
+            int[] codes = new int[6];
+            int count = 0;
+            while (true) {
+                HintEngine.Hint hint = engine.hint(guesses, codes, count);
+                assertNotNull("The target should stay consistent with the history", hint);
+                guesses[count] = hint.guess();
+                codes[count] = EquationScorer.feedbackCode(target, hint.guess());
+                count++;
+                if (hint.guess() == target)
+                    break;
+                assertTrue("The hints should find the target within six guesses", count < 6);
+            }
+        }
+    }
+
+    /**
+     * Tests that a small cache stays within its budget by evicting the least recently used entries.
+     * @ensures evictions happen and the most recent entry is kept
+     */
+    @Test
+    public void testEviction() {
+        HintCache cache = new HintCache(1000, 1);
+        for (int i = 0; i < 100; i++) {
+            HistoryKey key = HistoryKey.of(new int[]{i}, new int[]{0}, 1);
+            final int guess = i;
+            cache.get(key, k -> new HintEngine.Hint(guess, 1));
+        }
+        assertTrue("The cache should have evicted entries", cache.getEvictionCount() > 0);
+        assertTrue("The cache should stay small", cache.size() < 100);
+        HistoryKey last = HistoryKey.of(new int[]{99}, new int[]{0}, 1);
+        assertEquals(99, cache.get(last, k -> null).guess());
+        assertEquals(1, cache.getHitCount());
+    }
+}
@@ -0,0 +1,99 @@
+package Model;
+
+import Model.Interface.INumberleModel;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for StreakSessionTest class.
+ * This class tests prepared targets and the streak counters.
+ */
+public class StreakSessionTest {
+    private NumberleModel model;
+
+    /**
+     * Sets up a quiet model over a small corpus.
+     * @ensures model != null
+     */
+    @Before
+    public void setUp() {
+        model = new NumberleModel(EquationCorpus.fromLines(List.of("12+3=15", "2*3-6=0", "1+2+3=6", "9-8+1=2")));
+        model.setConsoleOutput(false);
+        model.setRandomEquality(true);
+    }
+
+    /**
+     * Tests that a prepared target becomes the target of the next game, unless the settings changed.
+     * @ensures startNewGame(next) plays next.target() when next matches the settings
+     */
+    @Test
+    public void testPreparedTarget() {
+        PreparedTarget next = model.prepareNextTarget();
+        assertTrue(next.matches(Difficulty.ANY, false));
+        model.startNewGame(next);
+        assertEquals(EquationCodec.decode(next.target()), model.getTargetNumber());
+        assertEquals(INumberleModel.MAX_ATTEMPTS, model.getRemainingAttempts());
+
+        model.setAbsurdleMode(true);
+        assertFalse(next.matches(model.getDifficulty(), model.getAbsurdleMode()));
+        model.startNewGame(next);
+        assertEquals("A stale target is replaced by an Absurdle game", 1, model.processInput("12+3=15"));
+    }
+
+    /**
+     * Tests that a seeded streak draws its targets from the seed alone, in the same order as a
+     * seeded model starting its games directly, whenever the background preparation runs.
+     * @ensures the target sequences are equal
+     */
+    @Test
+    public void testSeededPrefetch() {
+        model.setSeed(5);
+        StreakSession session = new StreakSession(model);
+        NumberleModel direct = new NumberleModel(EquationCorpus.fromLines(List.of("12+3=15", "2*3-6=0", "1+2+3=6", "9-8+1=2")));
+        direct.setConsoleOutput(false);
+        direct.setRandomEquality(true);
+        direct.setSeed(5);
+        for (int game = 0; game < 12; game++) {
+            session.nextGame();
+            direct.startNewGame();
+            assertEquals(direct.getTargetNumber(), model.getTargetNumber());
+        }
+    }
+
+    /**
+     * Tests that wins, losses and streaks are counted once per finished game.
+     * @ensures getCurrentStreak() resets on a loss and getBestStreak() keeps the maximum
+     */
+    @Test
+    public void testStreakCounters() {
+        StreakSession session = new StreakSession(model);
+        for (int game = 0; game < 3; game++) {
+            session.nextGame();
+            model.processInput(model.getTargetNumber());
+        }
+        // Notifications after the game ended must not count it again
+        session.countFinishedGame();
+        assertEquals(3, session.getGamesPlayed());
+        assertEquals(3, session.getCurrentStreak());
+        assertEquals(3, session.getWinsByGuesses()[1]);
+
+        session.nextGame();
+        String miss = model.getTargetNumber().equals("0+0+0=0") ? "0+0+1=1" : "0+0+0=0";
+        while (!model.isGameOver())
+            model.processInput(miss);
+        assertEquals(4, session.getGamesPlayed());
+        assertEquals(3, session.getGamesWon());
+        assertEquals(0, session.getCurrentStreak());
+        assertEquals(3, session.getBestStreak());
+
+        session.nextGame();
+        model.processInput("0+0+0=0");
+        model.processInput(model.getTargetNumber());
+        assertEquals(1, session.getCurrentStreak());
+        assertEquals(1, session.getWinsByGuesses()[2]);
+    }
+}
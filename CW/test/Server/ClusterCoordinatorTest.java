@@ -0,0 +1,201 @@
+package Server;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for ClusterCoordinatorTest class.
+ * @invariant Every test runs against a coordinator over two freshly launched worker processes.
+ */
+public class ClusterCoordinatorTest {
+    private ClusterCoordinator coordinator;
+    private HttpClient client;
+    private String base;
+
+    /**
+     * Launches two local workers; each test starts the coordinator.
+     * @ensures coordinator.getLiveWorkerCount() == 2
+     */
+    @Before
+    public void setUp() throws Exception {
+        coordinator = ClusterCoordinator.launchLocal(2);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    /**
+     * Stops the coordinator and its workers.
+     */
+    @After
+    public void tearDown() {
+        coordinator.stop();
+    }
+
+    /**
+     * Tests that the sessions of a killed worker move to the other one with their guesses.
+     * @ensures every session keeps its accepted guesses and accepts more after its worker dies
+     */
+    @Test
+    public void testFailover() throws Exception {
+        start(ClusterCoordinator.DEFAULT_TTL_MILLIS);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            HttpResponse<String> started = send("POST", base, "{\"verifyEquation\": true}");
+            assertEquals(201, started.statusCode());
+            assertFalse("The state is kept by the coordinator", started.headers().firstValue(NumberleHttpServer.STATE_HEADER).isPresent());
+            String id = started.body().substring(7, started.body().indexOf('"', 7));
+            ids.add(id);
+            assertTrue(send("POST", base + "/" + id + "/guesses", "{\"guess\":\"1+2+3=6\"}").body().startsWith("{\"status\":1"));
+        }
+
+        int victim = coordinator.getOwner(ClusterCoordinator.shardOf(ids.get(0)));
+        coordinator.getProcess(victim).destroyForcibly().waitFor();
+
+        for (String id : ids) {
+            HttpResponse<String> status = send("GET", base + "/" + id, null);
+            assertEquals(200, status.statusCode());
+            assertTrue(status.body().contains("\"guesses\":[\"1+2+3=6\"]"));
+            if (!status.body().contains("\"gameOver\":true"))
+                assertTrue(send("POST", base + "/" + id + "/guesses", "{\"guess\":\"12+3=15\"}").body().contains("\"remainingAttempts\":4"));
+            assertNotEquals(victim, coordinator.getOwner(ClusterCoordinator.shardOf(id)));
+        }
+        assertEquals(1, coordinator.getLiveWorkerCount());
+    }
+
+    /**
+     * Tests that the coordinator forgets finished and deleted sessions.
+     * @ensures coordinator.getSessionCount() == 0 once every game is over or deleted
+     */
+    @Test
+    public void testFinishedSessionsForgotten() throws Exception {
+        start(ClusterCoordinator.DEFAULT_TTL_MILLIS);
+        String finished = startGame();
+        String deleted = startGame();
+        assertEquals(2, coordinator.getSessionCount());
+        HttpResponse<String> guessed;
+        do {
+            guessed = send("POST", base + "/" + finished + "/guesses", "{\"guess\":\"1+2+3=6\"}");
+        } while (!guessed.body().contains("\"gameOver\":true"));
+        assertEquals(1, coordinator.getSessionCount());
+        assertEquals(200, send("GET", base + "/" + finished, null).statusCode());
+        assertEquals(200, send("DELETE", base + "/" + deleted, null).statusCode());
+        assertEquals(0, coordinator.getSessionCount());
+    }
+
+    /**
+     * Tests that unused sessions expire on the coordinator and on their worker.
+     * @ensures a session unused for the time-to-live is forgotten, and a used one is not
+     */
+    @Test
+    public void testIdleSessionsExpire() throws Exception {
+        start(1000);
+        String idle = startGame();
+        String used = startGame();
+        for (int i = 0; i < 8; i++) {
+            Thread.sleep(250);
+            assertEquals(200, send("GET", base + "/" + used, null).statusCode());
+        }
+        assertEquals(1, coordinator.getSessionCount());
+        assertEquals(404, send("GET", base + "/" + idle, null).statusCode());
+        assertEquals(200, send("GET", base + "/" + used, null).statusCode());
+    }
+
+    /**
+     * Tests that game and tournament event streams are relayed through the coordinator.
+     * @ensures a spectator of the coordinator receives each accepted guess of the game and its tournament
+     */
+    @Test(timeout = 20000)
+    public void testEventStreamsRelayed() throws Exception {
+        start(ClusterCoordinator.DEFAULT_TTL_MILLIS);
+        HttpResponse<String> started = send("POST", base, "{\"tournament\": \"cup\"}");
+        String id = started.body().substring(7, started.body().indexOf('"', 7));
+        assertEquals("A tournament's games share its shard", ClusterCoordinator.shardOf("cup"), ClusterCoordinator.shardOf(id));
+
+        String root = "http://localhost:" + coordinator.getPort();
+        Iterator<String> tournament = client.send(HttpRequest.newBuilder(URI.create(root + "/tournaments/cup/events")).build(),
+                HttpResponse.BodyHandlers.ofLines()).body().iterator();
+        HttpResponse<Stream<String>> watched = client.send(HttpRequest.newBuilder(URI.create(base + "/" + id + "/events?overflow=latest")).build(),
+                HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, watched.statusCode());
+        assertTrue(watched.headers().firstValue("Content-Type").orElse("").startsWith("text/event-stream"));
+        Iterator<String> game = watched.body().iterator();
+        assertTrue("The current state comes first", game.next().contains("\"guesses\":[]"));
+
+        // Longer than any request timeout: the streams must stay open
+        Thread.sleep(2500);
+        send("POST", base + "/" + id + "/guesses", "{\"guess\":\"1+2+3=6\"}");
+        assertEquals("", game.next());
+        assertTrue(game.next().contains("\"guesses\":[\"1+2+3=6\"]"));
+        assertTrue(tournament.next().contains("\"guesses\":[\"1+2+3=6\"]"));
+    }
+
+    /**
+     * Tests that a worker too slow to answer in time is not taken for dead.
+     * @ensures the slow request gets 504, the worker stays alive and serves the next request
+     */
+    @Test(timeout = 20000)
+    public void testSlowWorkerKept() throws Exception {
+        AtomicBoolean slow = new AtomicBoolean(true);
+        HttpServer worker = HttpServer.create(new InetSocketAddress(0), 0);
+        worker.createContext("/", exchange -> {
+            try {
+                // The health probe is always answered at once, as a live worker would
+                if (slow.get() && !exchange.getRequestURI().getPath().equals("/health"))
+                    Thread.sleep(3000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        ExecutorService executor = Executors.newCachedThreadPool();
+        worker.setExecutor(executor);
+        worker.start();
+        try {
+            coordinator.stop();
+            coordinator = new ClusterCoordinator(List.of(URI.create("http://localhost:" + worker.getAddress().getPort())));
+            start(ClusterCoordinator.DEFAULT_TTL_MILLIS);
+            assertEquals(504, send("GET", base + "/game", null).statusCode());
+            assertEquals("A slow worker is still alive", 1, coordinator.getLiveWorkerCount());
+            slow.set(false);
+            assertEquals(200, send("GET", base + "/game", null).statusCode());
+        } finally {
+            worker.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private void start(long ttlMillis) throws Exception {
+        coordinator.setSessionTtl(ttlMillis);
+        coordinator.start(0);
+        base = "http://localhost:" + coordinator.getPort() + "/games";
+    }
+
+    private String startGame() throws Exception {
+        HttpResponse<String> started = send("POST", base, "{\"verifyEquation\": true}");
+        assertEquals(201, started.statusCode());
+        return started.body().substring(7, started.body().indexOf('"', 7));
+    }
+
+    private HttpResponse<String> send(String method, String url, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url));
+        request.method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
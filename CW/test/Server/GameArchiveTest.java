@@ -0,0 +1,113 @@
+package Server;
+
+import Model.EquationCodec;
+import Model.EquationCorpus;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for GameArchiveTest class.
+ * @invariant Reading an archive gives back exactly the games written to it.
+ */
+public class GameArchiveTest {
+
+    /**
+     * Writes games over several blocks, including text guesses and free-form session ids, and reads them back.
+     * @ensures every record survives the round trip and the archive is much smaller than a text log
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        EquationCorpus corpus = EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE));
+        List<GameRecord> games = randomGames(corpus, 20_000, new Random(3));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        StringBuilder text = new StringBuilder();
+        try (GameArchiveWriter writer = new GameArchiveWriter(bytes)) {
+            for (GameRecord game : games) {
+                writer.write(game);
+                // The equivalent line of a plain text log
+                text.append(game.getSession()).append(',').append(game.getStartTime()).append(',').append(game.getTarget());
+                for (int i = 0; i < game.getGuessCount(); i++)
+                    text.append(',').append(game.getGuessTime(i)).append(',').append(game.getGuess(i))
+                            .append(',').append(game.getFeedbackCode(i));
+                text.append('\n');
+            }
+        }
+        try (GameArchiveReader reader = new GameArchiveReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            for (GameRecord game : games)
+                assertEquals(game, reader.read());
+            assertNull(reader.read());
+        }
+        assertTrue("The archive should be several times smaller than text, was " + bytes.size() + " against " + text.length(),
+                bytes.size() * 4 < text.length());
+    }
+
+    /**
+     * Appends to an archive file in two sessions and damages a copy.
+     * @ensures appended games follow the earlier ones and a damaged block is reported
+     */
+    @Test
+    public void testAppendAndDamage() throws Exception {
+        EquationCorpus corpus = EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE));
+        List<GameRecord> games = randomGames(corpus, 300, new Random(4));
+        Path file = Files.createTempFile("games", ".archive");
+        Files.delete(file);
+        try (GameArchiveWriter writer = GameArchiveWriter.append(file)) {
+            for (GameRecord game : games.subList(0, 100))
+                writer.write(game);
+        }
+        try (GameArchiveWriter writer = GameArchiveWriter.append(file)) {
+            for (GameRecord game : games.subList(100, games.size()))
+                writer.write(game);
+        }
+        try (GameArchiveReader reader = GameArchiveReader.open(file)) {
+            for (GameRecord game : games)
+                assertEquals(game, reader.read());
+            assertNull(reader.read());
+        }
+
+        byte[] damaged = Files.readAllBytes(file);
+        damaged[damaged.length - 3] ^= 0x55;
+        try (GameArchiveReader reader = new GameArchiveReader(new ByteArrayInputStream(damaged))) {
+            while (reader.read() != null) {
+            }
+            fail("A damaged block should be reported");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    private static List<GameRecord> randomGames(EquationCorpus corpus, int count, Random random) {
+        List<GameRecord> games = new ArrayList<>();
+        long time = 1_700_000_000_000L;
+        for (int g = 0; g < count; g++) {
+            String target = EquationCodec.decode(corpus.pick(random));
+            int n = 1 + random.nextInt(6);
+            String[] guesses = new String[n];
+            long[] times = new long[n];
+            long start = time - random.nextInt(600_000);
+            long at = start;
+            for (int i = 0; i < n; i++) {
+                guesses[i] = i == n - 1 && random.nextBoolean() ? target : EquationCodec.decode(corpus.pick(random));
+                at += random.nextInt(90_000);
+                times[i] = at;
+            }
+            if (g % 500 == 7)
+                guesses[0] = "12+3=1"; // Not packable: stored as text
+            String session = g % 100 == 1 ? "player-" + g : Long.toHexString(random.nextLong());
+            games.add(new GameRecord(session, start, target, guesses, times, random.nextBoolean(), random.nextInt(4) == 0));
+            time += random.nextInt(2000);
+        }
+        return games;
+    }
+}
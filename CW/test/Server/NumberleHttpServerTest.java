@@ -0,0 +1,94 @@
+package Server;
+
+import Model.EquationCorpus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Paths;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for NumberleHttpServerTest class.
+ * @invariant Every test runs against a freshly started server on a free port.
+ */
+public class NumberleHttpServerTest {
+    private NumberleHttpServer server;
+    private HttpClient client;
+    private String base;
+
+    /**
+     * Starts the server before each test.
+     * @ensures server != null && server.getSessionCount() == 0
+     */
+    @Before
+    public void setUp() throws Exception {
+        server = new NumberleHttpServer(EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE)));
+        server.start(0);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        base = "http://localhost:" + server.getPort() + "/games";
+    }
+
+    /**
+     * Stops the server after each test.
+     */
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    /**
+     * Tests a game through the API: start, an invalid guess, a valid guess, the status and the end of the session.
+     * @ensures a valid guess returns its feedback row and the keyboard state
+     */
+    @Test
+    public void testGameLifecycle() throws Exception {
+        HttpResponse<String> started = send("POST", base, "{\"hardMode\": false}");
+        assertEquals(201, started.statusCode());
+        String id = started.body().substring(7, started.body().indexOf('"', 7));
+        assertEquals(1, server.getSessionCount());
+
+        HttpResponse<String> invalid = send("POST", base + "/" + id + "/guesses", "{\"guess\":\"1+1=3\"}");
+        assertEquals(200, invalid.statusCode());
+        assertTrue(invalid.body().startsWith("{\"status\":2,\"row\":null,"));
+
+        HttpResponse<String> valid = send("POST", base + "/" + id + "/guesses", "{\"guess\":\"1+2+3=6\"}");
+        assertTrue(valid.body().startsWith("{\"status\":1,\"row\":["));
+        assertTrue(valid.body().contains("\"remainingAttempts\":5"));
+        assertTrue(valid.body().contains("\"classList\":{\"absent\":["));
+
+        HttpResponse<String> status = send("GET", base + "/" + id, null);
+        assertTrue(status.body().contains("\"guesses\":[\"1+2+3=6\"]"));
+        assertEquals(200, send("GET", base + "/" + id + "/hint", null).statusCode());
+
+        assertEquals(200, send("DELETE", base + "/" + id, null).statusCode());
+        assertEquals(404, send("GET", base + "/" + id, null).statusCode());
+        assertEquals(0, server.getSessionCount());
+    }
+
+    /**
+     * Tests the request parser on flat objects and its rejection of malformed bodies.
+     * @ensures strings are unescaped and literals are kept as text
+     */
+    @Test
+    public void testParseObject() {
+        Map<String, String> members = Json.parseObject(" {\"guess\": \"1+2=3\\u0021\", \"hardMode\": true, \"x\": null} ");
+        assertEquals("1+2=3!", members.get("guess"));
+        assertEquals("true", members.get("hardMode"));
+        assertNull(members.get("x"));
+        assertTrue(Json.parseObject("").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"a\": [1]}"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"a\": 1"));
+    }
+
+    private HttpResponse<String> send(String method, String url, String body) throws Exception {
+        HttpRequest.BodyPublisher publisher = body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body);
+        return client.send(HttpRequest.newBuilder(URI.create(url)).method(method, publisher).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,78 @@
+package Server;
+
+import Model.EquationCodec;
+import Model.EquationCorpus;
+import Model.EquationScorer;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for NumberleNioServerTest class.
+ * @invariant Every request frame gets exactly one response frame.
+ */
+public class NumberleNioServerTest {
+
+    /**
+     * Plays until the end of a game over one connection, with a request split across two writes.
+     * @ensures the responses carry the feedback of each guess and the target once the game is over
+     */
+    @Test
+    public void testProtocol() throws Exception {
+        NumberleNioServer server = new NumberleNioServer(EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE)), 2);
+        server.start(0);
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()))) {
+            ByteBuffer response = request(channel, frame('S', ""));
+            assertEquals(NumberleNioServer.NO_GAME, response.get(1) & 0xFF);
+
+            response = request(channel, frame('N', "\u0000"));
+            assertEquals(1, response.get(1));
+            assertEquals(6, response.get(4));
+
+            // The first guess arrives in two parts
+            byte[] guess = frame('G', "1+2+3=6");
+            channel.write(ByteBuffer.wrap(guess, 0, 3));
+            Thread.sleep(50);
+            response = request(channel, java.util.Arrays.copyOfRange(guess, 3, guess.length));
+            assertEquals(1, response.get(1));
+            assertEquals(5, response.get(4));
+
+            int played = 1;
+            int code = response.getShort(2);
+            while (response.get(5) == 0) {
+                response = request(channel, frame('G', "2*3-6=0"));
+                code = response.getShort(2);
+                played++;
+            }
+            int target = response.getInt(16);
+            assertNotEquals(-1, target);
+            assertEquals(EquationScorer.feedbackCode(target, EquationCodec.encode(played == 1 ? "1+2+3=6" : "2*3-6=0")), code);
+            assertEquals(0, request(channel, frame('G', "2*3-6=0")).get(1));
+            assertEquals(1, server.getConnectionCount());
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static byte[] frame(char op, String payload) {
+        byte[] frame = new byte[NumberleNioServer.REQUEST_SIZE];
+        frame[0] = (byte) op;
+        byte[] bytes = payload.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, frame, 1, bytes.length);
+        return frame;
+    }
+
+    private static ByteBuffer request(SocketChannel channel, byte[] bytes) throws Exception {
+        channel.write(ByteBuffer.wrap(bytes));
+        ByteBuffer response = ByteBuffer.allocate(NumberleNioServer.RESPONSE_SIZE);
+        while (response.hasRemaining())
+            assertTrue(channel.read(response) >= 0);
+        return response.flip();
+    }
+}
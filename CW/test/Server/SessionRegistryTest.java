@@ -0,0 +1,128 @@
+package Server;
+
+import Model.EquationCorpus;
+import Model.GameSnapshot;
+import Model.NumberleModel;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for SessionRegistryTest class.
+ * @invariant Actions on one session never overlap.
+ */
+public class SessionRegistryTest {
+
+    /**
+     * Tests that concurrent actions on one session are serialised and that idle sessions expire.
+     * @ensures no two actions on a session run at the same time
+     */
+    @Test
+    public void testSerialisationAndExpiry() throws Exception {
+        SessionRegistry registry = new SessionRegistry(4);
+        NumberleModel model = new NumberleModel();
+        String id = registry.create(model);
+        assertSame(model, registry.get(id));
+
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    registry.apply(id, m -> {
+                        if (inside.incrementAndGet() != 1)
+                            overlaps.incrementAndGet();
+                        Thread.yield();
+                        return inside.decrementAndGet();
+                    });
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals("Actions on one session should not overlap", 0, overlaps.get());
+
+        assertEquals(0, registry.expireIdle(60_000_000_000L));
+        Thread.sleep(5);
+        assertEquals(1, registry.expireIdle(1_000_000L));
+        assertNull(registry.get(id));
+        assertNull(registry.apply(id, m -> 1));
+    }
+
+    /**
+     * Tests that idle sessions are written to the store, leave memory and come back on their next use.
+     * @ensures a session used within the time-to-live stays in memory, and a hibernated one resumes unchanged
+     */
+    @Test
+    public void testHibernation() throws Exception {
+        EquationCorpus corpus = EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE));
+        Path directory = Files.createTempDirectory("sessions");
+        SessionRegistry registry = new SessionRegistry(4);
+        SessionStore store = new SessionStore(directory);
+        registry.setHibernation(store, corpus, null, 300_000_000L);
+        String idle = registry.create(newModel(corpus));
+        String active = registry.create(newModel(corpus));
+        registry.apply(idle, m -> {
+            m.setTarget("4+4-1=7");
+            return m.processInput("1+2+3=6");
+        });
+        GameSnapshot played = registry.get(idle).getSnapshot();
+
+        Thread.sleep(200);
+        registry.get(active);
+        Thread.sleep(200);
+        assertEquals("Only the idle session should be hibernated", 1, registry.hibernateIdle());
+        assertEquals(1, registry.size());
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+
+        assertEquals(Integer.valueOf(1), registry.apply(idle, m -> m.processInput("2*3-6=0")));
+        NumberleModel resumed = registry.get(idle);
+        assertEquals("4+4-1=7", resumed.getTargetNumber());
+        assertEquals(2, resumed.getSnapshot().getGuessCount());
+        // The rebuilt game keeps the times it was played at
+        assertEquals(played.getStartTime(), resumed.getSnapshot().getStartTime());
+        assertEquals(played.getGuessTime(0), resumed.getSnapshot().getGuessTime(0));
+        assertTrue(resumed.getSnapshot().getGuessTime(1) >= played.getGuessTime(0) + 400);
+        assertEquals(2, SessionState.guessCount(SessionState.encode(resumed)));
+        assertEquals(2, registry.size());
+
+        Thread.sleep(400);
+        assertEquals(2, registry.hibernateIdle());
+        assertEquals(0, registry.size());
+        assertTrue(registry.remove(active));
+        assertNull(registry.get(active));
+        assertNotNull(registry.get(idle));
+
+        // Stored sessions outlive the store that wrote them
+        Thread.sleep(400);
+        assertEquals(1, registry.hibernateIdle());
+        store.close();
+        try (SessionStore reopened = new SessionStore(directory)) {
+            assertEquals(1, reopened.size());
+            NumberleModel stored = reopened.read(idle, corpus, null);
+            assertEquals("4+4-1=7", stored.getTargetNumber());
+            assertEquals(2, stored.getSnapshot().getGuessCount());
+            assertTrue(stored.getVerifyEquation());
+            assertNull(reopened.read(active, corpus, null));
+        }
+    }
+
+    private static NumberleModel newModel(EquationCorpus corpus) {
+        NumberleModel model = new NumberleModel(corpus);
+        model.setConsoleOutput(false);
+        model.setRandomEquality(true);
+        model.setVerifyEquation(true);
+        model.startNewGame();
+        return model;
+    }
+}
@@ -0,0 +1,163 @@
+package Server;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for SpectatorChannelTest class.
+ * @invariant Every subscriber receives frames in publication order, losing only what its policy allows.
+ */
+public class SpectatorChannelTest {
+
+    /**
+     * Collects the frames it receives, asking for one at a time once released.
+     */
+    private static final class Collector implements Flow.Subscriber<ByteBuffer> {
+        final List<ByteBuffer> frames = new ArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(ByteBuffer frame) {
+            synchronized (frames) {
+                frames.add(frame);
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable.getMessage());
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        List<String> texts() {
+            List<String> texts = new ArrayList<>();
+            synchronized (frames) {
+                for (ByteBuffer frame : frames)
+                    texts.add(StandardCharsets.UTF_8.decode(frame.duplicate()).toString());
+            }
+            return texts;
+        }
+    }
+
+    private static ByteBuffer frame(int i) {
+        return ByteBuffer.wrap(("frame " + i).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A subscriber that keeps up receives every frame, as views of the published content.
+     * @ensures all frames arrive in order, read-only, followed by onComplete
+     */
+    @Test
+    public void testFastSubscriber() throws Exception {
+        SpectatorHub hub = new SpectatorHub();
+        Collector fast = new Collector();
+        hub.watchGame("a", fast, SpectatorChannel.Overflow.DROP_OLDEST, SpectatorChannel.CAPACITY);
+        fast.subscription.request(Long.MAX_VALUE);
+        assertTrue(hub.isWatched("a"));
+        assertFalse(hub.isWatched("b"));
+
+        ByteBuffer first = frame(0);
+        hub.publish("a", first);
+        for (int i = 1; i < 10; i++)
+            hub.publish("a", frame(i));
+        hub.endGame("a");
+        assertTrue(fast.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(10, fast.texts().size());
+        for (int i = 0; i < 10; i++)
+            assertEquals("frame " + i, fast.texts().get(i));
+        assertTrue(fast.frames.get(0).isReadOnly());
+        // The view shares the published bytes rather than a copy
+        first.put(0, (byte) 'F');
+        assertEquals('F', fast.frames.get(0).get(0));
+        assertFalse(hub.isWatched("a"));
+        hub.shutdown();
+    }
+
+    /**
+     * Subscribers that fall behind lose frames by their overflow policy.
+     * @ensures LATEST receives the newest frame, DROP_OLDEST the newest maxLag frames, and both count the rest as skipped
+     */
+    @Test
+    public void testSlowSubscribers() throws Exception {
+        SpectatorHub hub = new SpectatorHub();
+        hub.join("g", "cup");
+        Collector latest = new Collector();
+        Collector oldest = new Collector();
+        SpectatorChannel.Delivery latestDelivery = hub.watchTournament("cup", latest, SpectatorChannel.Overflow.LATEST, 1);
+        SpectatorChannel.Delivery oldestDelivery = hub.watchTournament("cup", oldest, SpectatorChannel.Overflow.DROP_OLDEST, 3);
+        assertTrue(hub.isWatched("g"));
+
+        // Nobody asks for frames while they are published
+        for (int i = 0; i < 20; i++)
+            hub.publish("g", frame(i));
+        hub.shutdown();
+        latest.subscription.request(1);
+        oldest.subscription.request(1);
+        assertTrue(latest.completed.await(5, TimeUnit.SECONDS));
+        assertTrue(oldest.completed.await(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of("frame 19"), latest.texts());
+        assertEquals(19, latestDelivery.getSkipped());
+        assertEquals(List.of("frame 17", "frame 18", "frame 19"), oldest.texts());
+        assertEquals(17, oldestDelivery.getSkipped());
+        assertEquals(0, hub.getChannelCount());
+    }
+
+    /**
+     * A channel is dropped once its last spectator leaves, by cancelling or by completion.
+     * @ensures no channel outlives its spectators, whether or not games joined it
+     */
+    @Test
+    public void testUnwatchedChannelsDropped() throws Exception {
+        SpectatorHub hub = new SpectatorHub();
+        Collector first = new Collector();
+        Collector second = new Collector();
+        hub.watchTournament("anything", first, SpectatorChannel.Overflow.LATEST, 1);
+        hub.watchTournament("anything", second, SpectatorChannel.Overflow.LATEST, 1);
+        assertEquals(1, hub.getChannelCount());
+        first.subscription.cancel();
+        assertEquals("A spectator is still watching", 1, hub.getChannelCount());
+        second.subscription.cancel();
+        assertEquals(0, hub.getChannelCount());
+
+        hub.join("g", "cup");
+        Collector spectator = new Collector();
+        hub.watchTournament("cup", spectator, SpectatorChannel.Overflow.LATEST, 1);
+        hub.watchGame("g", new Collector(), SpectatorChannel.Overflow.LATEST, 1);
+        assertEquals(2, hub.getChannelCount());
+        spectator.subscription.cancel();
+        assertEquals("A joined game does not keep an unwatched tournament", 1, hub.getChannelCount());
+        hub.endGame("g");
+        assertFalse(hub.isWatched("g"));
+        assertEquals(0, hub.getChannelCount());
+
+        Collector late = new Collector();
+        hub.watchTournament("cup", late, SpectatorChannel.Overflow.LATEST, 1);
+        late.subscription.request(1);
+        hub.join("h", "cup");
+        hub.publish("h", frame(0));
+        hub.shutdown();
+        assertTrue(late.completed.await(5, TimeUnit.SECONDS));
+        assertEquals("A new spectator gets a new channel", List.of("frame 0"), late.texts());
+    }
+}
@@ -0,0 +1,71 @@
+package Tool;
+
+import Model.EquationCodec;
+import Model.EquationCorpus;
+import Model.EquationScorer;
+import Server.GameArchiveWriter;
+import Server.GameRecord;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for ArchiveAnalyticsTest class.
+ * @invariant Parallel analysis gives the same statistics as adding every game on one thread.
+ */
+public class ArchiveAnalyticsTest {
+
+    /**
+     * Analyses an archive of several blocks on three threads and compares with a sequential pass.
+     * @ensures every counter, average and first guess count agrees
+     */
+    @Test
+    public void testParallelMatchesSequential() throws Exception {
+        EquationCorpus corpus = EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE));
+        Path file = Files.createTempFile("games", ".archive");
+        Random random = new Random(8);
+        GameStats expected = new GameStats();
+        try (GameArchiveWriter writer = new GameArchiveWriter(Files.newOutputStream(file))) {
+            for (int g = 0; g < 30_000; g++) {
+                String target = EquationCodec.decode(corpus.pick(random));
+                int n = 1 + random.nextInt(6);
+                String[] guesses = new String[n];
+                long[] times = new long[n];
+                for (int i = 0; i < n; i++) {
+                    guesses[i] = i == n - 1 && random.nextBoolean() ? target : EquationCodec.decode(corpus.pick(random));
+                    times[i] = 1_000L * g + i;
+                }
+                GameRecord game = new GameRecord(Long.toHexString(random.nextLong()), 1_000L * g, target, guesses, times, true, false);
+                writer.write(game);
+                expected.add(game);
+            }
+        }
+
+        GameStats actual = ArchiveAnalytics.analyze(file, 3);
+        assertEquals(30_000, actual.getGames());
+        assertEquals(expected.getWins(), actual.getWins());
+        assertEquals(expected.getGuesses(), actual.getGuesses());
+        long feedback = 0;
+        for (int s = 0; s < EquationCodec.SYMBOL_COUNT; s++) {
+            for (int i = 0; i < EquationScorer.EQUATION_LENGTH; i++)
+                assertEquals(expected.getSymbolCount(i, s), actual.getSymbolCount(i, s));
+            for (int c = 0; c < 3; c++) {
+                assertEquals(expected.getFeedbackCount(s, c), actual.getFeedbackCount(s, c));
+                feedback += actual.getFeedbackCount(s, c);
+            }
+        }
+        assertEquals(actual.getGuesses() * EquationScorer.EQUATION_LENGTH, feedback);
+        for (int i = 0; i < corpus.size(); i++) {
+            String target = EquationCodec.decode(corpus.get(i));
+            assertEquals(expected.getAverageGuesses(target), actual.getAverageGuesses(target), 1e-9);
+        }
+        assertEquals(new HashSet<>(expected.getTopFirstGuesses(200)), new HashSet<>(actual.getTopFirstGuesses(200)));
+        Files.delete(file);
+    }
+}
@@ -0,0 +1,98 @@
+package Tool;
+
+import Model.EquationCodec;
+import Model.EquationCorpus;
+import Model.EquationScorer;
+import Server.GameRecord;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for ColumnarGuessTest class.
+ * @invariant Every exported value reads back unchanged, within its group's min/max.
+ */
+public class ColumnarGuessTest {
+
+    /**
+     * Exports games spanning several row groups and reads every column back.
+     * @ensures values, min/max statistics and range counts agree with the games
+     */
+    @Test
+    public void testExportAndScan() throws Exception {
+        EquationCorpus corpus = EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE));
+        Random random = new Random(12);
+        List<GameRecord> games = new ArrayList<>();
+        long time = 1_700_000_000_000L;
+        for (int g = 0; g < 40_000; g++) {
+            String target = EquationCodec.decode(corpus.pick(random));
+            int n = 1 + random.nextInt(6);
+            String[] guesses = new String[n];
+            long[] times = new long[n];
+            long at = time;
+            for (int i = 0; i < n; i++) {
+                guesses[i] = i == n - 1 ? target : EquationCodec.decode(corpus.pick(random));
+                at += random.nextInt(60_000);
+                times[i] = at;
+            }
+            if (g == 77)
+                guesses[0] = "1+1=2"; // Text: target, guess and feedback columns hold -1 where unpackable
+            String session = g % 1000 == 5 ? "player " + g : Long.toHexString(random.nextLong());
+            games.add(new GameRecord(session, time, target, guesses, times, true, false));
+            time += random.nextInt(1000);
+        }
+
+        Path file = Files.createTempFile("guesses", ".columns");
+        long rows;
+        try (ColumnarGuessWriter writer = new ColumnarGuessWriter(file)) {
+            for (GameRecord game : games)
+                writer.add(game);
+            rows = writer.getRowCount();
+        }
+        assertTrue(rows > 2 * ColumnarGuessWriter.ROW_GROUP_SIZE);
+
+        try (ColumnarGuessFile columns = new ColumnarGuessFile(file)) {
+            assertEquals(rows, columns.getRowCount());
+            int guessColumn = columns.getColumn("guess");
+            int feedbackColumn = columns.getColumn("feedback");
+            int latencyColumn = columns.getColumn("latency");
+            int group = 0;
+            int row = 0;
+            long wins = 0;
+            for (int g = 0; g < games.size(); g++) {
+                GameRecord game = games.get(g);
+                long previous = game.getStartTime();
+                for (int i = 0; i < game.getGuessCount(); i++) {
+                    if (row == columns.getRows(group)) {
+                        group++;
+                        row = 0;
+                    }
+                    assertEquals(ColumnarGuessWriter.sessionKey(game.getSession()), columns.get(group, ColumnarGuessWriter.SESSION, row));
+                    assertEquals(g, columns.get(group, ColumnarGuessWriter.GAME, row));
+                    assertEquals(EquationCodec.encode(game.getTarget()), columns.get(group, ColumnarGuessWriter.TARGET, row));
+                    assertEquals(EquationCodec.encode(game.getGuess(i)), columns.get(group, guessColumn, row));
+                    assertEquals(i, columns.get(group, ColumnarGuessWriter.ATTEMPT, row));
+                    long feedback = columns.get(group, feedbackColumn, row);
+                    assertEquals(g == 77 && i == 0 ? -1 : game.getFeedbackCode(i), feedback);
+                    assertEquals(game.getGuessTime(i) - previous, columns.get(group, latencyColumn, row));
+                    assertEquals(game.getGuessTime(i), columns.get(group, ColumnarGuessWriter.TIME, row));
+                    assertTrue(feedback >= columns.getMin(group, feedbackColumn) && feedback <= columns.getMax(group, feedbackColumn));
+                    if (feedback == EquationScorer.WIN_CODE)
+                        wins++;
+                    previous = game.getGuessTime(i);
+                    row++;
+                }
+            }
+            assertEquals(wins, columns.count(feedbackColumn, EquationScorer.WIN_CODE, EquationScorer.WIN_CODE));
+            assertEquals(rows, columns.count(latencyColumn, 0, 60_000));
+        }
+        Files.delete(file);
+    }
+}
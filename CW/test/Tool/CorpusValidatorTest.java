@@ -0,0 +1,47 @@
+package Tool;
+
+import Model.EquationValidator;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for CorpusValidatorTest class.
+ * @invariant Every line is counted once under its status, and the clean copy keeps the first occurrence of each valid equation in order.
+ */
+public class CorpusValidatorTest {
+
+    /**
+     * Validates a small corpus with invalid and duplicate lines and checks the counts and the clean copy.
+     * @ensures invalid lines are counted by reason, duplicates are counted apart, and only unique valid lines are written
+     */
+    @Test
+    public void testCountsAndCleanOutput() throws Exception {
+        Path corpus = Files.createTempFile("corpus", ".txt");
+        Path clean = Files.createTempFile("clean", ".txt");
+        // The last line has no terminator
+        Files.write(corpus, String.join("\n",
+                "1+2+3=6", "8-3=5*1", "12=12", "1+2+3=6", "1+2=abc", "1+1=3+4", "8-3=5*1", "", "9/3=2+1")
+                .getBytes(StandardCharsets.UTF_8));
+
+        CorpusValidator validator = new CorpusValidator();
+        validator.run(corpus, clean, 2);
+        assertEquals(9, validator.getLineCount());
+        assertEquals(5, validator.getStatusCount(EquationValidator.VALID));
+        assertEquals(2, validator.getStatusCount(EquationValidator.INVALID_LENGTH));
+        assertEquals(1, validator.getStatusCount(EquationValidator.INVALID_FORMAT));
+        assertEquals(1, validator.getStatusCount(EquationValidator.INVALID_EQUATION));
+        assertEquals(2, validator.getDuplicateCount());
+
+        List<String> written = Files.readAllLines(clean);
+        assertEquals(Arrays.asList("1+2+3=6", "8-3=5*1", "9/3=2+1"), written);
+        Files.delete(corpus);
+        Files.delete(clean);
+    }
+}
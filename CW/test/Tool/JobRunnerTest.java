@@ -0,0 +1,76 @@
+package Tool;
+
+import Model.EquationCorpus;
+import Model.EquationScorer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for JobRunnerTest class.
+ * @invariant Every test uses a fresh temporary checkpoint directory.
+ */
+public class JobRunnerTest {
+    private Path dir;
+
+    /**
+     * Creates the temporary directory.
+     * @ensures Files.isDirectory(dir)
+     */
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("jobs");
+    }
+
+    /**
+     * Deletes the temporary directory.
+     */
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    /**
+     * Tests that a feedback matrix computed by worker processes matches direct scoring, and that a
+     * resumed run computes only the missing chunks and gives the same bytes.
+     * @ensures run() returns the number of chunks missing from the checkpoint
+     */
+    @Test
+    public void testFeedbackMatrixResumes() throws Exception {
+        Path output = dir.resolve("equations.feedback");
+        String[] job = {FeedbackMatrixJob.NAME, EquationCorpus.DEFAULT_FILE, output.toString()};
+        JobRunner runner = new JobRunner(job, dir.resolve("checkpoint"), 2);
+        int chunks = runner.run();
+        assertTrue(chunks > 2);
+
+        EquationCorpus corpus = EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE));
+        byte[] first = Files.readAllBytes(output);
+        ByteBuffer matrix = ByteBuffer.wrap(first);
+        assertEquals(FeedbackMatrixJob.MAGIC, matrix.getInt());
+        assertEquals(FeedbackMatrixJob.VERSION, matrix.getInt());
+        assertEquals(corpus.size(), matrix.getInt());
+        assertEquals(corpus.hash(), matrix.getInt());
+        for (int guess = 0; guess < corpus.size(); guess++)
+            for (int target = 0; target < corpus.size(); target++)
+                assertEquals(EquationScorer.feedbackCode(corpus.get(target), corpus.get(guess)), matrix.getShort());
+
+        // An interrupted run: two chunks are missing
+        Files.delete(JobRunner.chunkFile(dir.resolve("checkpoint"), 0));
+        Files.delete(JobRunner.chunkFile(dir.resolve("checkpoint"), chunks - 1));
+        assertEquals(2, new JobRunner(job, dir.resolve("checkpoint"), 2).run());
+        assertArrayEquals(first, Files.readAllBytes(output));
+        assertEquals("Nothing is left to compute", 0, new JobRunner(job, dir.resolve("checkpoint"), 1).run());
+    }
+}
@@ -0,0 +1,121 @@
+package Tool;
+
+import Model.EquationCodec;
+import Model.EquationCorpus;
+import Model.GameSnapshot;
+import Model.NumberleModel;
+import Model.RunJournal;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * JML style comments for RunReplayTest class.
+ * @invariant A replayed run draws the recorded targets and gets the recorded feedback.
+ */
+public class RunReplayTest {
+
+    /**
+     * Records a seeded run, writes and reads its journal, and replays it twice.
+     * @ensures the replays draw every target from the seed and agree with the recording
+     */
+    @Test
+    public void testRecordAndReplay() throws Exception {
+        EquationCorpus corpus = EquationCorpus.load(Paths.get(EquationCorpus.DEFAULT_FILE));
+        NumberleModel model = new NumberleModel(corpus);
+        model.setConsoleOutput(false);
+        model.setJournal(new RunJournal());
+        model.setSeed(42);
+        model.setVerifyEquation(true);
+        Random random = new Random(7);
+        long checksum = 0;
+        int inputs = 0;
+        for (int g = 0; g < 50; g++) {
+            if (g == 25)
+                model.setHardMode(true);
+            model.startNewGame();
+            while (!model.isGameOver()) {
+                String input = random.nextInt(8) == 0 ? "1+1=3\n" : EquationCodec.decode(corpus.pick(random));
+                int status = model.processInput(input);
+                inputs++;
+                checksum = checksum * 31 + status;
+                if (status == 1) {
+                    int[] row = model.getCompareList().get(model.getCompareList().size() - 1);
+                    for (int code : row)
+                        checksum = checksum * 31 + code;
+                    if (random.nextInt(10) == 0 && model.undo())
+                        model.redo();
+                }
+            }
+        }
+
+        Path file = Files.createTempFile("numberle", ".run");
+        model.getJournal().write(file);
+        RunJournal journal = RunJournal.read(file);
+        Files.delete(file);
+        assertEquals(model.getJournal().size(), journal.size());
+        for (int i = 0; i < journal.size(); i++) {
+            assertEquals(model.getJournal().getKind(i), journal.getKind(i));
+            assertEquals(model.getJournal().getArgument(i), journal.getArgument(i));
+        }
+
+        for (int r = 0; r < 2; r++) {
+            RunReplay.Result result = RunReplay.replay(journal, new NumberleModel(corpus));
+            assertEquals(50, result.games());
+            assertEquals(inputs, result.inputs());
+            assertEquals(0, result.divergences());
+            assertEquals(checksum, result.checksum());
+        }
+    }
+
+    /**
+     * Replays a practice game that restores a branch undone and overwritten by a new guess.
+     * @ensures the replayed game ends on the recorded guesses, and refused calls are not recorded
+     */
+    @Test
+    public void testReplayRestoredBranch() {
+        EquationCorpus corpus = EquationCorpus.fromLines(List.of("12+3=15", "2*3-6=0", "1+2+3=6", "9-8+1=2"));
+        NumberleModel model = new NumberleModel(corpus);
+        model.setConsoleOutput(false);
+        model.setRandomEquality(true);
+        model.setJournal(new RunJournal());
+        model.setSeed(9);
+        model.startNewGame();
+        assertFalse("Refused outside practice mode", model.undo());
+        model.setPracticeMode(true);
+        model.processInput("9-8+1=2");
+        model.processInput("2*3-6=0");
+        GameSnapshot branch = model.getSnapshot();
+        assertTrue(model.undo());
+        model.processInput("1+2+3=6");
+        // The branch is no longer reachable by redo, only by restore
+        assertFalse(model.redo());
+        assertTrue(model.restore(branch));
+        model.processInput("12+3=15");
+        List<String> recorded = new ArrayList<>(model.getGuessList());
+        int events = model.getJournal().size();
+        model.startNewGame();
+        assertFalse("States of another game are refused", model.restore(branch));
+        assertEquals(events + 1, model.getJournal().size());
+
+        NumberleModel replayed = new NumberleModel(corpus);
+        RunReplay.Result result = RunReplay.replay(model.getJournal(), replayed);
+        assertEquals(0, result.divergences());
+        assertEquals(2, result.games());
+        // The replayed run also ends on a fresh game; its previous game is checked by replaying up to it
+        RunJournal firstGame = new RunJournal();
+        for (int i = 0; i < events; i++)
+            firstGame.add(model.getJournal().getKind(i), model.getJournal().getArgument(i));
+        replayed = new NumberleModel(corpus);
+        RunReplay.replay(firstGame, replayed);
+        assertEquals(List.of("9-8+1=2", "2*3-6=0", "12+3=15"), recorded);
+        assertEquals(recorded, replayed.getGuessList());
+    }
+}